@@ -0,0 +1,78 @@
+package com.bridgelabz.fundoonotes.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.bridgelabz.fundoonotes.model.Note;
+
+/**
+ * Seeded datasets shared by the benchmarks, so that every run of a release
+ * measures exactly the same notes.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-20
+ * @version 1.0
+ */
+public final class BenchmarkData {
+
+	public static final long SEED = 20200420L;
+	private static final int VOCABULARY_SIZE = 5000;
+	private static final int WORDS_PER_DESCRIPTION = 40;
+
+	private BenchmarkData() {
+
+	}
+
+	/**
+	 * Returns the word of the given rank in a vocabulary where small ranks are
+	 * the frequent words.
+	 * 
+	 * @param rank as Integer input parameter
+	 * @return String
+	 */
+	public static String word(int rank) {
+		return "w" + Integer.toString(rank * 7919 % 100000, 36);
+	}
+
+	/**
+	 * Creates notes of one user with a skewed word distribution, random dates
+	 * within a year and a remainder on every tenth note.
+	 * 
+	 * @param count  as Integer number of notes
+	 * @param userId as Long owner of the notes
+	 * @return List<Note>
+	 */
+	public static List<Note> notes(int count, long userId) {
+		Random random = new Random(SEED);
+		LocalDateTime now = LocalDateTime.of(2020, 4, 20, 12, 0);
+		List<Note> notes = new ArrayList<>(count);
+		for (int index = 0; index < count; index++) {
+			Note note = new Note();
+			note.setNoteId(index + 1);
+			note.setUserId(userId);
+			note.setTitle(word(random.nextInt(VOCABULARY_SIZE)) + " " + word(skewedRank(random)));
+			StringBuilder description = new StringBuilder();
+			for (int word = 0; word < WORDS_PER_DESCRIPTION; word++) {
+				description.append(word(skewedRank(random))).append(' ');
+			}
+			note.setDescription(description.toString());
+			note.setColor("white");
+			note.setPinned(random.nextInt(10) == 0);
+			note.setArchived(random.nextInt(10) == 0);
+			note.setCreatedDate(now.minusMinutes(random.nextInt(525600)));
+			note.setUpdatedDate(note.getCreatedDate().plusMinutes(random.nextInt(1440)));
+			if (index % 10 == 0) {
+				note.setRemainderTime(now.plusMinutes(random.nextInt(525600)));
+			}
+			notes.add(note);
+		}
+		return notes;
+	}
+
+	private static int skewedRank(Random random) {
+		return (int) Math.min(VOCABULARY_SIZE - 1, Math.abs(random.nextGaussian()) * VOCABULARY_SIZE / 6);
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.bridgelabz.fundoonotes.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bridgelabz.fundoonotes.utility.JWTToken;
+
+/**
+ * Cost of signing and of verifying the jwt token of every request.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-20
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenBenchmark {
+
+	private JWTToken jwtToken;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		jwtToken = new JWTToken();
+		token = jwtToken.createJwtToken(42L);
+	}
+
+	@Benchmark
+	public String createJwtToken() {
+		return jwtToken.createJwtToken(42L);
+	}
+
+	@Benchmark
+	public Long decodeToken() {
+		return jwtToken.decodeToken(token);
+	}
+
+}
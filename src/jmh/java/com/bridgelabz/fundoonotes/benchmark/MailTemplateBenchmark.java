@@ -0,0 +1,77 @@
+package com.bridgelabz.fundoonotes.benchmark;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bridgelabz.fundoonotes.response.MailObject;
+import com.bridgelabz.fundoonotes.utility.MailTemplate;
+import com.bridgelabz.fundoonotes.utility.MailTemplateEngine;
+import com.bridgelabz.fundoonotes.utility.Util;
+
+/**
+ * Render cost per message of every {@link MailTemplate}, next to building the
+ * verification mail by string concatenation the way the user service did
+ * before the templates, which does not depend on the template parameter.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-25
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailTemplateBenchmark {
+
+	private static final String TOKEN = "eyJ0eXAiOiJKV1QiLCJhbGciOiJIUzUxMiJ9.eyJpZCI6MTIzNDV9."
+			+ "c2lnbmF0dXJlLW9mLXRoZS10b2tlbi1pbi10aGUtbWFpbA";
+
+	@Param({ "VERIFICATION", "PASSWORD_RESET", "PASSWORD_UPDATED" })
+	private MailTemplate template;
+
+	private MailTemplateEngine engine;
+	private Map<String, Object> values;
+
+	@Setup
+	public void setUp() throws IOException {
+		engine = new MailTemplateEngine();
+		ReflectionTestUtils.setField(engine, "appUrl", "http://localhost:4200");
+		engine.initialize();
+		values = new HashMap<>();
+		values.put("token", TOKEN);
+		values.put("firstName", "Durgasankar");
+		values.put("lastName", "Mishra");
+		values.put("updatedAt", LocalDateTime.of(2020, 4, 25, 10, 30));
+	}
+
+	@Benchmark
+	public MailObject render() {
+		return engine.render(template, "user12345@example.com", values);
+	}
+
+	@Benchmark
+	public MailObject concatenate() {
+		String link = Util.createLink(
+				Util.IP_ADDRESS + Util.ANGULAR_PORT_NUMBER + Util.REGESTATION_VERIFICATION_LINK, TOKEN);
+		return new MailObject("user12345@example.com", Util.REGISTRATION_EMAIL_SUBJECT, link);
+	}
+
+}
@@ -0,0 +1,177 @@
+package com.bridgelabz.fundoonotes.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bridgelabz.fundoonotes.model.IdGenerator;
+import com.bridgelabz.fundoonotes.model.Note;
+
+/**
+ * Notes inserted per second by one transaction the way hibernate writes them
+ * with an identity column, one statement and round trip per note because the
+ * id is only known after the insert, against ids reserved from a pooled
+ * generator and inserts sent in JDBC batches of {@link #BATCH_SIZE}.
+ * <p>
+ * Needs a MySQL server, the url is the url param and the credentials are read
+ * from the FUNDOO_BENCHMARK_USER and FUNDOO_BENCHMARK_PASSWORD environment
+ * variables. The benchmark writes its own tables only.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-29
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(NoteInsertBenchmark.NOTES_PER_TRANSACTION)
+public class NoteInsertBenchmark {
+
+	static final int NOTES_PER_TRANSACTION = 1000;
+	private static final int BATCH_SIZE = Integer.parseInt(IdGenerator.ALLOCATION_SIZE);
+	private static final String COLUMNS = "color, created_date, description, is_archived, is_pinned, is_trashed, "
+			+ "title, user_id";
+
+	@Param({ "jdbc:mysql://localhost:3306/fundoo_benchmark?createDatabaseIfNotExist=true"
+			+ "&rewriteBatchedStatements=true" })
+	private String url;
+
+	private Connection connection;
+	private List<Note> notes;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection(url, environment("FUNDOO_BENCHMARK_USER", "root"),
+				environment("FUNDOO_BENCHMARK_PASSWORD", ""));
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS benchmark_note");
+			statement.execute("CREATE TABLE benchmark_note (note_id BIGINT NOT NULL AUTO_INCREMENT, "
+					+ "color VARCHAR(30), created_date DATETIME(6), description VARCHAR(7000), "
+					+ "is_archived BIT NOT NULL, is_pinned BIT NOT NULL, is_trashed BIT NOT NULL, "
+					+ "title VARCHAR(200), user_id BIGINT, PRIMARY KEY (note_id)) ENGINE = InnoDB");
+			statement.execute("DROP TABLE IF EXISTS benchmark_id_generator");
+			statement.execute("CREATE TABLE benchmark_id_generator (sequence_name VARCHAR(64) NOT NULL, "
+					+ "next_val BIGINT NOT NULL, PRIMARY KEY (sequence_name)) ENGINE = InnoDB");
+			statement.execute("INSERT INTO benchmark_id_generator VALUES ('benchmark_note', 1)");
+		}
+		connection.setAutoCommit(false);
+		notes = BenchmarkData.notes(NOTES_PER_TRANSACTION, 1L);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS benchmark_note");
+			statement.execute("DROP TABLE IF EXISTS benchmark_id_generator");
+		}
+		connection.close();
+	}
+
+	@Benchmark
+	public long identityInserts() throws SQLException {
+		long lastNoteId = 0;
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO benchmark_note (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+				Statement.RETURN_GENERATED_KEYS)) {
+			for (Note note : notes) {
+				bind(insert, 1, note);
+				insert.executeUpdate();
+				try (ResultSet generatedKeys = insert.getGeneratedKeys()) {
+					generatedKeys.next();
+					lastNoteId = generatedKeys.getLong(1);
+				}
+			}
+		}
+		connection.commit();
+		return lastNoteId;
+	}
+
+	@Benchmark
+	public long pooledBatchedInserts() throws SQLException {
+		long noteId = 0;
+		long reservedUntil = 0;
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO benchmark_note (note_id, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+			int batched = 0;
+			for (Note note : notes) {
+				if (noteId == reservedUntil) {
+					noteId = reserveIds(BATCH_SIZE);
+					reservedUntil = noteId + BATCH_SIZE;
+				}
+				insert.setLong(1, noteId++);
+				bind(insert, 2, note);
+				insert.addBatch();
+				if (++batched == BATCH_SIZE) {
+					insert.executeBatch();
+					batched = 0;
+				}
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+		return noteId;
+	}
+
+	/**
+	 * Reserves a block of ids the way the pooled generator does. Hibernate does
+	 * it in a transaction of its own, here it shares the transaction of the
+	 * inserts, which costs the same two round trips.
+	 */
+	private long reserveIds(int count) throws SQLException {
+		long firstId;
+		try (PreparedStatement select = connection.prepareStatement(
+				"SELECT next_val FROM benchmark_id_generator WHERE sequence_name = 'benchmark_note' FOR UPDATE");
+				PreparedStatement update = connection.prepareStatement(
+						"UPDATE benchmark_id_generator SET next_val = next_val + ? "
+								+ "WHERE sequence_name = 'benchmark_note'")) {
+			try (ResultSet nextValue = select.executeQuery()) {
+				nextValue.next();
+				firstId = nextValue.getLong(1);
+			}
+			update.setInt(1, count);
+			update.executeUpdate();
+		}
+		return firstId;
+	}
+
+	private static void bind(PreparedStatement insert, int from, Note note) throws SQLException {
+		insert.setString(from, note.getColor());
+		insert.setTimestamp(from + 1, Timestamp.valueOf(note.getCreatedDate()));
+		insert.setString(from + 2, note.getDescription());
+		insert.setBoolean(from + 3, note.isArchived());
+		insert.setBoolean(from + 4, note.isPinned());
+		insert.setBoolean(from + 5, note.isTrashed());
+		insert.setString(from + 6, note.getTitle());
+		insert.setLong(from + 7, 1L);
+	}
+
+	private static String environment(String name, String defaultValue) {
+		String value = System.getenv(name);
+		return value == null ? defaultValue : value;
+	}
+
+}
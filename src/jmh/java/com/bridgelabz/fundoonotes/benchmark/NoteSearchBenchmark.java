@@ -0,0 +1,91 @@
+package com.bridgelabz.fundoonotes.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.repository.implementation.EmbeddedNoteSearchEngine;
+
+/**
+ * Latency of a search on the {@link EmbeddedNoteSearchEngine} for one user,
+ * from a rare word to a prefix matching a large part of the notes.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-20
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class NoteSearchBenchmark {
+
+	private static final int BATCH_SIZE = 500;
+
+	@Param({ "10000", "100000" })
+	private int notes;
+	@Param({ "rare", "frequent", "twoWords", "prefix" })
+	private String query;
+
+	private Path indexDirectory;
+	private EmbeddedNoteSearchEngine searchEngine;
+	private String queryText;
+
+	@Setup
+	public void setUp() throws IOException {
+		indexDirectory = Files.createTempDirectory("fundoo-search-benchmark");
+		searchEngine = new EmbeddedNoteSearchEngine();
+		ReflectionTestUtils.setField(searchEngine, "directory", indexDirectory.toString());
+		searchEngine.initialize();
+		List<Note> listing = BenchmarkData.notes(notes, 1L);
+		for (int from = 0; from < listing.size(); from += BATCH_SIZE) {
+			searchEngine.bulkIndex(listing.subList(from, Math.min(from + BATCH_SIZE, listing.size())),
+					Collections.emptyList());
+		}
+		switch (query) {
+		case "rare":
+			queryText = BenchmarkData.word(4000);
+			break;
+		case "frequent":
+			queryText = BenchmarkData.word(0);
+			break;
+		case "twoWords":
+			queryText = BenchmarkData.word(1) + " " + BenchmarkData.word(500);
+			break;
+		default:
+			queryText = "w1*";
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		FileSystemUtils.deleteRecursively(indexDirectory);
+	}
+
+	@Benchmark
+	public List<Long> search() throws IOException {
+		return searchEngine.search(1L, queryText, 20);
+	}
+
+}
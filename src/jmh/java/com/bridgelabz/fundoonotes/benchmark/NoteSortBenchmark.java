@@ -0,0 +1,60 @@
+package com.bridgelabz.fundoonotes.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+
+/**
+ * Cost of ordering a listing in memory with {@link NoteBucket#ordering()}, as
+ * the board does for every listing except the notes.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-20
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteSortBenchmark {
+
+	@Param({ "100", "10000", "100000" })
+	private int notes;
+	@Param({ "NOTES", "PINNED", "REMAINDERS" })
+	private NoteBucket bucket;
+
+	private List<Note> listing;
+
+	@Setup
+	public void setUp() {
+		listing = BenchmarkData.notes(notes, 1L);
+		Collections.shuffle(listing, new Random(BenchmarkData.SEED));
+	}
+
+	@Benchmark
+	public List<Note> sortListing() {
+		List<Note> sortedListing = new ArrayList<>(listing);
+		sortedListing.sort(bucket.ordering());
+		return sortedListing;
+	}
+
+}
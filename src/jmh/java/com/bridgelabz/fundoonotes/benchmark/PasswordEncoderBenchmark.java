@@ -0,0 +1,51 @@
+package com.bridgelabz.fundoonotes.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Cost of the password check of a login, the strength 10 is the default of
+ * {@link BCryptPasswordEncoder} used by the application.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-20
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+	@Param({ "8", "10", "12" })
+	private int strength;
+
+	private BCryptPasswordEncoder passwordEncoder;
+	private String encodedPassword;
+
+	@Setup
+	public void setUp() {
+		passwordEncoder = new BCryptPasswordEncoder(strength);
+		encodedPassword = passwordEncoder.encode("fundoo@password");
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return passwordEncoder.matches("fundoo@password", encodedPassword);
+	}
+
+}
@@ -2,18 +2,26 @@ package com.bridgelabz.fundoonotes.configuration;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
- * This class has the additional configuration in the project.
+ * This class has the additional configuration in the project and enables the
+ * scheduled background jobs.
  * 
  * @author Durgasankar Mishra
  * @created 2020-01-21
  * @version 1.0
  * @see {@link BCryptPasswordEncoder}
+ * @modified -> 2020-05-07
+ * @updated -> the EntityManager is not kept open for the note change streams.
  */
 @Configuration
-public class ApplicationConfiguration {
+@EnableScheduling
+public class ApplicationConfiguration implements WebMvcConfigurer {
 	/**
 	 * creates the object of BCryptPasswordEncoder
 	 * 
@@ -23,6 +31,26 @@ public class ApplicationConfiguration {
 	public BCryptPasswordEncoder getPasswordEncription() {
 		return new BCryptPasswordEncoder();
 	}
-	
-	
+
+	/**
+	 * Creates the interceptor keeping the EntityManager open until the view is
+	 * rendered, in place of the one of spring boot.
+	 * 
+	 * @return {@link OpenEntityManagerInViewInterceptor}
+	 */
+	@Bean
+	public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+		return new OpenEntityManagerInViewInterceptor();
+	}
+
+	/**
+	 * Registers the open EntityManager for every request except the note change
+	 * streams. A stream stays open for long, and the EntityManager of the request
+	 * would hold on to its database connection all the while.
+	 */
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor()).excludePathPatterns("/notes/events");
+	}
+
 }
@@ -1,28 +1,65 @@
 package com.bridgelabz.fundoonotes.configuration;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.bridgelabz.fundoonotes.utility.MailMessageConverter;
+import com.bridgelabz.fundoonotes.utility.MailRetryTiers;
+import com.bridgelabz.fundoonotes.utility.Util;
+
 /**
  * Configuration class for rabbit MQ. which contains the Template for rabbitMQ
  * 
  * @author Durgasankar Mishra
  * @created 2020-02-09
  * @version 1.0
- *
+ * @modified -> 2020-04-22
+ * @updated -> retry and dead letter queues of the mail queue and the batch
+ *          listener container consuming it.
+ * @modified -> 2020-04-23
+ * @updated -> compact mail format and publisher confirms of the template.
+ * @modified -> 2020-05-07
+ * @updated -> note event exchange with a queue of every instance.
+ * @modified -> 2020-05-08
+ * @updated -> a retry queue of every delay of the back off.
  */
 @Configuration
 public class RabbitmqConfig {
 
 	@Autowired
 	private ConnectionFactory rabbitConnectionFactory;
+	@Autowired
+	private MailRetryTiers mailRetryTiers;
+
+	@Value("${fundoo.mail.codec:binary}")
+	private String mailCodec;
+	@Value("${fundoo.mail.batch.size:50}")
+	private int mailBatchSize;
+	@Value("${fundoo.mail.batch.prefetch:100}")
+	private int mailPrefetchCount;
+	@Value("${fundoo.mail.batch.receive-timeout-ms:1000}")
+	private long mailBatchReceiveTimeoutMillis;
+	@Value("${fundoo.note.events.queue.max-length:10000}")
+	private int noteEventQueueMaxLength;
 
 	/**
 	 * Creates the object by taking exchange name, durability and auto delete option
@@ -32,7 +69,7 @@ public class RabbitmqConfig {
 	 */
 	@Bean
 	public DirectExchange rubeExchange() {
-		return new DirectExchange("rmq.rube.exchange", true, false);
+		return new DirectExchange(Util.MAIL_EXCHANGE_NAME, true, false);
 	}
 
 	/**
@@ -42,17 +79,127 @@ public class RabbitmqConfig {
 	 */
 	@Bean
 	public Queue rubeQueue() {
-		return new Queue("rmq.rube.queue", true);
+		return new Queue(Util.MAIL_QUEUE_NAME, true);
 	}
 
 	@Bean
 	public Binding rubeExchangeBinding(DirectExchange rubeExchange, Queue rubeQueue) {
-		return BindingBuilder.bind(rubeQueue).to(rubeExchange).with("rube.key");
+		return BindingBuilder.bind(rubeQueue).to(rubeExchange).with(Util.MAIL_ROUTING_KEY);
+	}
+
+	/**
+	 * Creates one queue failed mails wait in for every delay of the back off. The
+	 * queue expires its messages after its own delay, once expired the broker dead
+	 * letters them to the mail exchange with the routing key of the mail queue.
+	 * 
+	 * @return {@link Declarables}
+	 */
+	@Bean
+	public Declarables rubeRetryQueues() {
+		List<Queue> retryQueues = new ArrayList<>();
+		for (long delayMillis : mailRetryTiers.getDelays()) {
+			retryQueues.add(QueueBuilder.durable(MailRetryTiers.queueNameOf(delayMillis)).ttl((int) delayMillis)
+					.withArgument("x-dead-letter-exchange", Util.MAIL_EXCHANGE_NAME)
+					.withArgument("x-dead-letter-routing-key", Util.MAIL_ROUTING_KEY).build());
+		}
+		return new Declarables(retryQueues);
+	}
+
+	/**
+	 * Creates the exchange of the mails which could not be sent.
+	 * 
+	 * @return {@link DirectExchange}
+	 */
+	@Bean
+	public DirectExchange rubeDeadLetterExchange() {
+		return new DirectExchange(Util.MAIL_DEAD_LETTER_EXCHANGE_NAME, true, false);
+	}
+
+	/**
+	 * Creates the queue keeping the mails which could not be sent for inspection.
+	 * 
+	 * @return {@link Queue}
+	 */
+	@Bean
+	public Queue rubeDeadLetterQueue() {
+		return new Queue(Util.MAIL_DEAD_LETTER_QUEUE_NAME, true);
+	}
+
+	@Bean
+	public Binding rubeDeadLetterBinding(DirectExchange rubeDeadLetterExchange, Queue rubeDeadLetterQueue) {
+		return BindingBuilder.bind(rubeDeadLetterQueue).to(rubeDeadLetterExchange).with(Util.MAIL_ROUTING_KEY);
+	}
+
+	/**
+	 * Creates the exchange the change events of the notes are published to, every
+	 * instance receives all of them.
+	 * 
+	 * @return {@link FanoutExchange}
+	 */
+	@Bean
+	public FanoutExchange noteEventExchange() {
+		return new FanoutExchange(Util.NOTE_EVENT_EXCHANGE_NAME, true, false);
+	}
+
+	/**
+	 * Creates the queue of this instance on the note event exchange, deleted with
+	 * the instance. It keeps at most fundoo.note.events.queue.max-length messages,
+	 * an instance falling behind loses the oldest instead of piling them up in the
+	 * broker.
+	 * 
+	 * @return {@link Queue}
+	 */
+	@Bean
+	public Queue noteEventQueue() {
+		Map<String, Object> arguments = new HashMap<>();
+		arguments.put("x-max-length", noteEventQueueMaxLength);
+		arguments.put("x-overflow", "drop-head");
+		return new AnonymousQueue(arguments);
+	}
+
+	@Bean
+	public Binding noteEventBinding(FanoutExchange noteEventExchange, Queue noteEventQueue) {
+		return BindingBuilder.bind(noteEventQueue).to(noteEventExchange);
+	}
+
+	/**
+	 * Listener container of the mail queue handing the messages over in batches
+	 * of fundoo.mail.batch.size, or whatever arrived within
+	 * fundoo.mail.batch.receive-timeout-ms. The listener acknowledges every batch
+	 * itself, at once.
+	 * 
+	 * @return {@link SimpleRabbitListenerContainerFactory}
+	 */
+	@Bean
+	public SimpleRabbitListenerContainerFactory mailListenerContainerFactory() {
+		SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+		factory.setConnectionFactory(rabbitConnectionFactory);
+		factory.setBatchListener(true);
+		factory.setConsumerBatchEnabled(true);
+		factory.setBatchSize(mailBatchSize);
+		factory.setPrefetchCount(Math.max(mailPrefetchCount, mailBatchSize));
+		factory.setReceiveTimeout(mailBatchReceiveTimeoutMillis);
+		factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+		factory.setDefaultRequeueRejected(false);
+		return factory;
+	}
+
+	/**
+	 * Converter writing the mails in the format selected by fundoo.mail.codec
+	 * and reading all the formats.
+	 * 
+	 * @return {@link MailMessageConverter}
+	 */
+	@Bean
+	public MailMessageConverter mailMessageConverter() {
+		return new MailMessageConverter(mailCodec);
 	}
 
 	/**
 	 * RabbitMq Template which contains {@link ConnectionFactory},
-	 * {@link DirectExchange} and routing key.
+	 * {@link DirectExchange} and routing key. Messages are published mandatory, so
+	 * with the publisher confirms and returns of the connection factory a message
+	 * the broker could not route is reported as well.
 	 * 
 	 * @return {@link RabbitTemplate}
 	 */
@@ -60,8 +207,10 @@ public class RabbitmqConfig {
 	public RabbitTemplate rubeExchangeTemplate() {
 		RabbitTemplate rabbitTemplet = new RabbitTemplate(rabbitConnectionFactory);
 		rabbitTemplet.setConnectionFactory(rabbitConnectionFactory);
-		rabbitTemplet.setExchange("rmq.rube.exchange");
-		rabbitTemplet.setRoutingKey("rube.key");
+		rabbitTemplet.setExchange(Util.MAIL_EXCHANGE_NAME);
+		rabbitTemplet.setRoutingKey(Util.MAIL_ROUTING_KEY);
+		rabbitTemplet.setMessageConverter(mailMessageConverter());
+		rabbitTemplet.setMandatory(true);
 		return rabbitTemplet;
 	}
 
@@ -1,9 +1,20 @@
 package com.bridgelabz.fundoonotes.configuration;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import redis.clients.jedis.JedisPoolConfig;
 
 /**
  * Reddish configuration
@@ -12,13 +23,38 @@ import org.springframework.data.redis.core.RedisTemplate;
  * @created 2020-02-26
  * @version 1.0
  * @see {@link JedisConnectionFactory, RedisTemplate}
+ * @updated -> 2020-04-26
+ * @modified -> connections go to the configured server with short timeouts, so
+ *           that an unreachable server only slows down the entity cache
+ *           briefly, and the cacheRedisTemplate writes the encoded values of
+ *           the entity cache as they are.
+ * @updated -> 2020-04-27
+ * @modified -> the cacheListenerContainer receives the invalidation messages
+ *           of the entity cache, it keeps trying to subscribe in the
+ *           background while the server is unreachable.
  */
 @Configuration
 public class RedisConfiguration {
 
+	@Value("${spring.redis.host:localhost}")
+	private String host;
+	@Value("${spring.redis.port:6379}")
+	private int port;
+	@Value("${fundoo.cache.redis.timeout-ms:200}")
+	private long timeoutMillis;
+	@Value("${fundoo.cache.redis.pool-size:16}")
+	private int poolSize;
+
 	@Bean
 	JedisConnectionFactory jedisConnectionFactory() {
-		return new JedisConnectionFactory();
+		JedisPoolConfig poolConfig = new JedisPoolConfig();
+		poolConfig.setMaxTotal(poolSize);
+		poolConfig.setMaxIdle(poolSize);
+		poolConfig.setMaxWaitMillis(timeoutMillis);
+		JedisClientConfiguration clientConfiguration = JedisClientConfiguration.builder()
+				.connectTimeout(Duration.ofMillis(timeoutMillis)).readTimeout(Duration.ofMillis(timeoutMillis))
+				.usePooling().poolConfig(poolConfig).build();
+		return new JedisConnectionFactory(new RedisStandaloneConfiguration(host, port), clientConfiguration);
 	}
 
 	@Bean
@@ -28,4 +64,22 @@ public class RedisConfiguration {
 		return redisTemplate;
 	}
 
+	@Bean
+	RedisTemplate<String, byte[]> cacheRedisTemplate() {
+		RedisTemplate<String, byte[]> cacheRedisTemplate = new RedisTemplate<String, byte[]>();
+		cacheRedisTemplate.setConnectionFactory(jedisConnectionFactory());
+		cacheRedisTemplate.setKeySerializer(StringRedisSerializer.UTF_8);
+		cacheRedisTemplate.setValueSerializer(RedisSerializer.byteArray());
+		cacheRedisTemplate.setEnableDefaultSerializer(false);
+		return cacheRedisTemplate;
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "fundoo.cache.store", havingValue = "redis", matchIfMissing = true)
+	RedisMessageListenerContainer cacheListenerContainer() {
+		RedisMessageListenerContainer cacheListenerContainer = new RedisMessageListenerContainer();
+		cacheListenerContainer.setConnectionFactory(jedisConnectionFactory());
+		return cacheListenerContainer;
+	}
+
 }
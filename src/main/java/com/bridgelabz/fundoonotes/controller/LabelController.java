@@ -16,9 +16,10 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import com.bridgelabz.fundoonotes.model.Note;
 import com.bridgelabz.fundoonotes.model.dto.LabelDTO;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
 import com.bridgelabz.fundoonotes.response.Response;
 import com.bridgelabz.fundoonotes.service.ILabelService;
 import com.bridgelabz.fundoonotes.utility.Util;
@@ -30,7 +31,7 @@ import io.swagger.annotations.ApiOperation;
  * @author Durgasankar Mishra
  * @created 2020-03-01
  * @version 1.0
- *
+ * 
  */
 @RestController
 @RequestMapping("labels")
@@ -94,7 +95,11 @@ public class LabelController {
 
 	@GetMapping("/fetch")
 	@ApiOperation(value = "Api to delete a particular label", response = Response.class)
-	public ResponseEntity<Response> getAllLabels(@RequestHeader("token") String token) {
+	public ResponseEntity<Response> getAllLabels(@RequestHeader("token") String token, WebRequest request) {
+		// validated by the ETag alone, Last-Modified only has whole seconds
+		if (request.checkNotModified(labelService.getLabelsVersion(token).getTag())) {
+			return null;
+		}
 		return ResponseEntity.status(HttpStatus.OK)
 				.body(new Response("found labels", 200, labelService.listOfLabels(token)));
 
@@ -104,7 +109,7 @@ public class LabelController {
 	@ApiOperation(value = "Api to fetch all notes of a particular label", response = Response.class)
 	public ResponseEntity<Response> getAllNotesOfLabel(@RequestHeader("token") String token,
 			@PathVariable("labelId") long labelId) {
-		List<Note> foundNotesOfLabelList = labelService.listOfNotesOfLabel(token, labelId);
+		List<NoteDetailDTO> foundNotesOfLabelList = labelService.listOfNotesOfLabel(token, labelId);
 		if (!foundNotesOfLabelList.isEmpty()) {
 			return ResponseEntity.status(HttpStatus.OK).body(new Response("found notes", 200, foundNotesOfLabelList));
 		}
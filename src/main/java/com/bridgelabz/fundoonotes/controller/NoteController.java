@@ -1,9 +1,15 @@
 package com.bridgelabz.fundoonotes.controller;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,14 +22,31 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.bridgelabz.fundoonotes.model.Label;
 import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+import com.bridgelabz.fundoonotes.model.dto.NoteBulkUpdateDTO;
 import com.bridgelabz.fundoonotes.model.dto.NoteDTO;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
+import com.bridgelabz.fundoonotes.model.dto.NoteExportDTO;
+import com.bridgelabz.fundoonotes.model.dto.NoteImportDTO;
 import com.bridgelabz.fundoonotes.model.dto.UserDTO;
+import com.bridgelabz.fundoonotes.response.NoteBulkUpdateReport;
+import com.bridgelabz.fundoonotes.response.NoteImportReport;
+import com.bridgelabz.fundoonotes.response.NotePage;
 import com.bridgelabz.fundoonotes.response.Response;
+import com.bridgelabz.fundoonotes.response.SyncChanges;
+import com.bridgelabz.fundoonotes.service.INoteExportService;
+import com.bridgelabz.fundoonotes.service.INoteImportService;
 import com.bridgelabz.fundoonotes.service.INoteService;
+import com.bridgelabz.fundoonotes.service.ISyncService;
 import com.bridgelabz.fundoonotes.service.implementation.NoteServiceImpl;
+import com.bridgelabz.fundoonotes.utility.ChangeVersion;
+import com.bridgelabz.fundoonotes.utility.EntityTags;
 import com.bridgelabz.fundoonotes.utility.Util;
 
 import io.swagger.annotations.ApiOperation;
@@ -49,6 +72,12 @@ public class NoteController {
 
 	@Autowired
 	private INoteService noteService;
+	@Autowired
+	private INoteImportService noteImportService;
+	@Autowired
+	private INoteExportService noteExportService;
+	@Autowired
+	private ISyncService syncService;
 
 	/**
 	 * This function takes {@link NoteDTO} as request body and token from
@@ -74,28 +103,80 @@ public class NoteController {
 	}
 
 	/**
-	 * This function takes {@link NoteDTO} as request body and token from
-	 * {@link RequestHeader} and verify originality of client
-	 * {@link NoteServiceImpl} and after update accordingly it returns the response.
+	 * This function takes the {@link NoteImportDTO} notes as request body, either
+	 * a JSON array or one JSON object per line, and token from
+	 * {@link RequestHeader} and imports all the notes for the verified client. The
+	 * body is read as a stream, so there is no limit on the number of notes.
+	 * 
+	 * @param notes as InputStream of the request body
+	 * @param token as String input parameter
+	 * @return ResponseEntity<Response> with the {@link NoteImportReport}
+	 * @URL http://localhost:8080/notes/import
+	 */
+	@ApiOperation(value = "import many notes with their labels for valid user")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "notes imported"),
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!") })
+	@PostMapping(value = "import", consumes = { MediaType.APPLICATION_JSON_VALUE, Util.NDJSON_MEDIA_TYPE })
+	public ResponseEntity<Response> importNotes(InputStream notes, @RequestHeader("token") String token) {
+		NoteImportReport importReport = noteImportService.importNotes(token, notes);
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(new Response("Notes imported", Util.OK_RESPONSE_CODE, importReport));
+	}
+
+	/**
+	 * This function takes token and the accepted encodings from
+	 * {@link RequestHeader} and streams every note of the verified client as one
+	 * {@link NoteExportDTO} per line, gzipped when the client accepts it.
+	 * 
+	 * @param token          as String input parameter
+	 * @param acceptEncoding as {@link RequestHeader} optional
+	 * @return ResponseEntity<StreamingResponseBody> of the notes
+	 * @URL http://localhost:8080/notes/export
+	 */
+	@ApiOperation(value = "export all notes with their labels and colaborators for valid user")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "notes exported"),
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!") })
+	@GetMapping("export")
+	public ResponseEntity<StreamingResponseBody> exportNotes(@RequestHeader("token") String token,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		boolean compressed = acceptEncoding != null && acceptEncoding.contains("gzip");
+		StreamingResponseBody notes = noteExportService.exportNotes(token, compressed);
+		ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK)
+				.contentType(MediaType.parseMediaType(Util.NDJSON_MEDIA_TYPE))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=notes.ndjson")
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (compressed) {
+			response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return response.body(notes);
+	}
+
+	/**
+	 * This function takes {@link NoteDTO} as request body, token and optionally
+	 * If-Match from {@link RequestHeader} and verify originality of client
+	 * {@link NoteServiceImpl} and after update accordingly it returns the updated
+	 * note along with its ETag. A note changed since the version in If-Match, or
+	 * changed meanwhile, is not updated and the current note is returned instead.
 	 * 
 	 * @param noteDto as {@link UserDTO}
 	 * @param token   as String input parameter
+	 * @param ifMatch as String input parameter
 	 * @return ResponseEntity<Response>
 	 * @URL http://localhost:8080/note/update?id=85
 	 */
 	@ApiOperation(value = "update an existing note for valid user")
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "note updated"),
 			@ApiResponse(code = 300, message = "Opps...Note not found!"),
-			@ApiResponse(code = 400, message = "Opps...Error updating note!"),
-			@ApiResponse(code = 401, message = "Opps...Authorization failed!") })
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!"),
+			@ApiResponse(code = 409, message = "Opps...Note was changed meanwhile!"),
+			@ApiResponse(code = 412, message = "Opps...Note was changed meanwhile!") })
 	@PutMapping("update")
 	public ResponseEntity<Response> updateNote(@RequestBody NoteDTO noteDto, @RequestParam("id") long noteId,
-			@RequestHeader("token") String token) {
-		if (noteService.updateNote(noteDto, noteId, token)) {
-			return ResponseEntity.status(HttpStatus.OK).body(new Response("Note updated", Util.OK_RESPONSE_CODE));
-		}
-		return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-				.body(new Response("Opps...Error updating note!", Util.BAD_REQUEST_RESPONSE_CODE));
+			@RequestHeader("token") String token,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Note updatedNote = noteService.updateNote(noteDto, noteId, token, ifMatch);
+		return ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.ETAG, EntityTags.of(updatedNote.getVersion()))
+				.body(new Response("Note updated", Util.OK_RESPONSE_CODE, updatedNote));
 	}
 
 	/**
@@ -234,12 +315,23 @@ public class NoteController {
 	 * originality of client {@link NoteServiceImpl} after verification allows user
 	 * to get all notes which are not trashed.
 	 * 
-	 * @param token as {@link RequestHeader}
+	 * @param token     as {@link RequestHeader}
+	 * @param pageSize  as {@link RequestParam} optional, pages the listing
+	 * @param pageToken as {@link RequestParam} optional, continuation token
+	 * @param request   as {@link WebRequest} answered with 304 when unchanged
 	 * @return ResponseEntity<Response>
-	 * @URL http://localhost:8080/note/fetch/notes
+	 * @URL http://localhost:8080/note/fetch/notes?size=20&pageToken=
 	 */
 	@GetMapping("fetch/notes")
-	public ResponseEntity<Response> getAllNotes(@RequestHeader String token) {
+	public ResponseEntity<Response> getAllNotes(@RequestHeader String token,
+			@RequestParam(value = "size", required = false) Integer pageSize,
+			@RequestParam(value = "pageToken", required = false) String pageToken, WebRequest request) {
+		if (isNotModified(request, token)) {
+			return null;
+		}
+		if (pageSize != null) {
+			return pageOf("found", token, NoteBucket.NOTES, pageToken, pageSize);
+		}
 		return ResponseEntity.status(HttpStatus.OK).body(new Response("found", 200, noteService.getallNotes(token)));
 	}
 
@@ -248,16 +340,27 @@ public class NoteController {
 	 * originality of user {@link NoteServiceImpl} after verification allows user to
 	 * get all trashed notes.
 	 * 
-	 * @param token as {@link RequestHeader}
+	 * @param token     as {@link RequestHeader}
+	 * @param pageSize  as {@link RequestParam} optional, pages the listing
+	 * @param pageToken as {@link RequestParam} optional, continuation token
+	 * @param request   as {@link WebRequest} answered with 304 when unchanged
 	 * @return ResponseEntity<Response>
-	 * @URL http://localhost:8080/note/fetch/notes/trashed
+	 * @URL http://localhost:8080/note/fetch/notes/trashed?size=20&pageToken=
 	 */
 	@ApiOperation(value = "fetch all trashed notes for valid user")
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Trashed notes are"),
 			@ApiResponse(code = 401, message = "Opps...Authorization failed!"),
 			@ApiResponse(code = 404, message = "Opps...No notes Found!") })
 	@GetMapping("fetch/notes/trashed")
-	public ResponseEntity<Response> fetchTrashedNotes(@RequestHeader("token") String token) {
+	public ResponseEntity<Response> fetchTrashedNotes(@RequestHeader("token") String token,
+			@RequestParam(value = "size", required = false) Integer pageSize,
+			@RequestParam(value = "pageToken", required = false) String pageToken, WebRequest request) {
+		if (isNotModified(request, token)) {
+			return null;
+		}
+		if (pageSize != null) {
+			return pageOf("Trashed notes are", token, NoteBucket.TRASHED, pageToken, pageSize);
+		}
 		return ResponseEntity.status(HttpStatus.OK)
 				.body(new Response("Trashed notes are", Util.OK_RESPONSE_CODE, noteService.getAllTrashedNotes(token)));
 	}
@@ -267,20 +370,200 @@ public class NoteController {
 	 * originality of user {@link NoteServiceImpl} after verification allows user to
 	 * get all remainder notes.
 	 * 
-	 * @param token as {@link RequestHeader}
+	 * @param token     as {@link RequestHeader}
+	 * @param pageSize  as {@link RequestParam} optional, pages the listing
+	 * @param pageToken as {@link RequestParam} optional, continuation token
+	 * @param request   as {@link WebRequest} answered with 304 when unchanged
 	 * @return ResponseEntity<Response>
-	 * @URL http://localhost:8080/note/fetch/notes/remainders
+	 * @URL http://localhost:8080/note/fetch/notes/remainders?size=20&pageToken=
 	 */
 	@ApiOperation(value = "fetch all remainder notes for valid user")
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "remainder notes are"),
 			@ApiResponse(code = 401, message = "Opps...Authorization failed!"),
 			@ApiResponse(code = 404, message = "Opps...No notes Found!") })
 	@GetMapping("fetch/notes/remainders")
-	public ResponseEntity<Response> fetchRemainderNotes(@RequestHeader("token") String token) {
+	public ResponseEntity<Response> fetchRemainderNotes(@RequestHeader("token") String token,
+			@RequestParam(value = "size", required = false) Integer pageSize,
+			@RequestParam(value = "pageToken", required = false) String pageToken, WebRequest request) {
+		if (isNotModified(request, token)) {
+			return null;
+		}
+		if (pageSize != null) {
+			return pageOf("Remainder notes are", token, NoteBucket.REMAINDERS, pageToken, pageSize);
+		}
 		return ResponseEntity.status(HttpStatus.OK).body(
 				new Response("Remainder notes are", Util.OK_RESPONSE_CODE, noteService.getAllRemaindersNotes(token)));
 	}
 
+	/**
+	 * This function takes authentication token as {@link RequestHeader} and verify
+	 * originality of user {@link NoteServiceImpl} after verification allows user to
+	 * get one page of the remainder notes due within the given range, earliest
+	 * first, so that a calendar fetches one week at a time.
+	 * 
+	 * @param token     as {@link RequestHeader}
+	 * @param fromTime  as {@link RequestParam} optional, inclusive
+	 * @param toTime    as {@link RequestParam} optional, exclusive
+	 * @param pageSize  as {@link RequestParam}
+	 * @param pageToken as {@link RequestParam} optional, continuation token
+	 * @param request   as {@link WebRequest} answered with 304 when unchanged
+	 * @return ResponseEntity<Response>
+	 * @URL http://localhost:8080/note/fetch/remainders/range?from=2020-05-04T00:00&to=2020-05-11T00:00&size=20
+	 */
+	@ApiOperation(value = "fetch the remainder notes within a range of time for valid user")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Remainder notes are"),
+			@ApiResponse(code = 400, message = "Opps...Range must start before it ends!"),
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!") })
+	@GetMapping("fetch/remainders/range")
+	public ResponseEntity<Response> fetchRemaindersBetween(@RequestHeader("token") String token,
+			@RequestParam(value = "from", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime fromTime,
+			@RequestParam(value = "to", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime toTime,
+			@RequestParam(value = "size", defaultValue = "20") int pageSize,
+			@RequestParam(value = "pageToken", required = false) String pageToken, WebRequest request) {
+		if (isNotModified(request, token)) {
+			return null;
+		}
+		return remaindersPageOf(token, fromTime, toTime, pageToken, pageSize);
+	}
+
+	/**
+	 * This function takes authentication token as {@link RequestHeader} and verify
+	 * originality of user {@link NoteServiceImpl} after verification allows user to
+	 * get one page of the remainder notes which are overdue, earliest first.
+	 * 
+	 * @param token     as {@link RequestHeader}
+	 * @param pageSize  as {@link RequestParam}
+	 * @param pageToken as {@link RequestParam} optional, continuation token
+	 * @return ResponseEntity<Response>
+	 * @URL http://localhost:8080/note/fetch/remainders/overdue?size=20
+	 */
+	@ApiOperation(value = "fetch the overdue remainder notes for valid user")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Remainder notes are"),
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!") })
+	@GetMapping("fetch/remainders/overdue")
+	public ResponseEntity<Response> fetchOverdueRemainders(@RequestHeader("token") String token,
+			@RequestParam(value = "size", defaultValue = "20") int pageSize,
+			@RequestParam(value = "pageToken", required = false) String pageToken) {
+		return remaindersPageOf(token, null, LocalDateTime.now(), pageToken, pageSize);
+	}
+
+	/**
+	 * This function takes authentication token as {@link RequestHeader} and verify
+	 * originality of user {@link NoteServiceImpl} after verification allows user to
+	 * get the next remainder notes which are due, the earliest first.
+	 * 
+	 * @param token     as {@link RequestHeader}
+	 * @param pageSize  as {@link RequestParam} number of remainders
+	 * @param pageToken as {@link RequestParam} optional, continuation token
+	 * @return ResponseEntity<Response>
+	 * @URL http://localhost:8080/note/fetch/remainders/upcoming?size=5
+	 */
+	@ApiOperation(value = "fetch the next remainder notes for valid user")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Remainder notes are"),
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!") })
+	@GetMapping("fetch/remainders/upcoming")
+	public ResponseEntity<Response> fetchUpcomingRemainders(@RequestHeader("token") String token,
+			@RequestParam(value = "size", defaultValue = "20") int pageSize,
+			@RequestParam(value = "pageToken", required = false) String pageToken) {
+		return remaindersPageOf(token, LocalDateTime.now(), null, pageToken, pageSize);
+	}
+
+	/**
+	 * This function takes authentication token as {@link RequestHeader} and verify
+	 * originality of client {@link NoteServiceImpl} after verification allows user
+	 * to get every listing of notes of the board in one response.
+	 * 
+	 * @param token   as {@link RequestHeader}
+	 * @param request as {@link WebRequest} answered with 304 when unchanged
+	 * @return ResponseEntity<Response>
+	 * @URL http://localhost:8080/note/fetch/board
+	 */
+	@ApiOperation(value = "fetch notes, pinned, archived, trashed and remainder notes at once for valid user")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Board notes are"),
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!") })
+	@GetMapping("fetch/board")
+	public ResponseEntity<Response> fetchNoteBoard(@RequestHeader("token") String token, WebRequest request) {
+		if (isNotModified(request, token)) {
+			return null;
+		}
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(new Response("Board notes are", Util.OK_RESPONSE_CODE, noteService.getNoteBoard(token)));
+	}
+
+	/**
+	 * This function takes authentication token as {@link RequestHeader} and verify
+	 * originality of client {@link NoteServiceImpl} after verification allows user
+	 * to get a listing of notes along with the labels and colaborators of every
+	 * note.
+	 * 
+	 * @param token   as {@link RequestHeader}
+	 * @param bucket  as {@link RequestParam} one of NOTES, PINNED, ARCHIVED,
+	 *                TRASHED, REMAINDERS
+	 * @param request as {@link WebRequest} answered with 304 when unchanged
+	 * @return ResponseEntity<Response>
+	 * @URL http://localhost:8080/note/fetch/details?listing=PINNED
+	 */
+	@ApiOperation(value = "fetch a listing of notes with labels and colaborators for valid user")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Note details are"),
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!") })
+	@GetMapping("fetch/details")
+	public ResponseEntity<Response> fetchNoteDetails(@RequestHeader("token") String token,
+			@RequestParam(value = "listing", defaultValue = "NOTES") NoteBucket bucket, WebRequest request) {
+		if (isNotModified(request, token)) {
+			return null;
+		}
+		List<NoteDetailDTO> fetchedDetails = noteService.getNoteDetails(token, bucket);
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(new Response("Note details are", Util.OK_RESPONSE_CODE, fetchedDetails));
+	}
+
+	/**
+	 * This function takes authentication token as {@link RequestHeader} and verify
+	 * originality of client {@link NoteServiceImpl} after verification allows user
+	 * to get the notes and labels created, updated or deleted since the cursor of
+	 * the previous sync.
+	 * 
+	 * @param token  as {@link RequestHeader}
+	 * @param cursor as {@link RequestParam} cursor of the previous response, 0 at
+	 *               first
+	 * @param size   as {@link RequestParam} number of changes at most
+	 * @return ResponseEntity<Response> with the {@link SyncChanges}
+	 * @URL http://localhost:8080/note/sync?cursor=0&size=100
+	 */
+	@ApiOperation(value = "fetch the notes and labels changed since the previous sync for valid user")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Changes are"),
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!") })
+	@GetMapping("sync")
+	public ResponseEntity<Response> syncNotes(@RequestHeader("token") String token,
+			@RequestParam(value = "cursor", defaultValue = "0") long cursor,
+			@RequestParam(value = "size", defaultValue = "100") int size) {
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(new Response("Changes are", Util.OK_RESPONSE_CODE, syncService.getChanges(token, cursor, size)));
+	}
+
+	/**
+	 * This function takes authentication token as {@link RequestHeader}, or as
+	 * {@link RequestParam} for the browsers which can not set headers on an event
+	 * source, and verify originality of client {@link NoteServiceImpl} after
+	 * verification opens a stream of server sent events pushing every change of
+	 * the notes the user owns or colaborates on. The stream starts with a ready
+	 * event, after which the client runs the delta sync once, and a resync event
+	 * tells a client which fell behind to run it again.
+	 * 
+	 * @param token      as {@link RequestHeader} optional
+	 * @param tokenParam as {@link RequestParam} optional
+	 * @return {@link SseEmitter} of the stream
+	 * @URL http://localhost:8080/notes/events
+	 */
+	@ApiOperation(value = "stream the changes of the notes owned or colaborated on by valid user")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Note change events"),
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!") })
+	@GetMapping(value = "events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamNoteChanges(@RequestHeader(value = "token", required = false) String token,
+			@RequestParam(value = "token", required = false) String tokenParam) {
+		return noteService.getNoteChanges(token != null ? token : tokenParam);
+	}
+
 	@GetMapping("fetch/notes/{noteId}/labels")
 	public ResponseEntity<Response> fetchLabelsOfNote(@RequestHeader("token") String token,
 			@PathVariable("noteId") long noteId) {
@@ -298,16 +581,27 @@ public class NoteController {
 	 * originality of client {@link NoteServiceImpl} after verification allows user
 	 * to get all notes which are pinned.
 	 * 
-	 * @param token as {@link RequestHeader}
+	 * @param token     as {@link RequestHeader}
+	 * @param pageSize  as {@link RequestParam} optional, pages the listing
+	 * @param pageToken as {@link RequestParam} optional, continuation token
+	 * @param request   as {@link WebRequest} answered with 304 when unchanged
 	 * @return ResponseEntity<Response>
-	 * @URL http://localhost:8080/note/fetch/notes/pinned
+	 * @URL http://localhost:8080/note/fetch/notes/pinned?size=20&pageToken=
 	 */
 	@ApiOperation(value = "fetch all pinned notes for valid user")
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Pinned notes are"),
 			@ApiResponse(code = 401, message = "Opps...Authorization failed!"),
 			@ApiResponse(code = 404, message = "Opps...No notes Found!") })
 	@GetMapping("fetch/notes/pinned")
-	public ResponseEntity<Response> fetchPinnedNotes(@RequestHeader("token") String token) {
+	public ResponseEntity<Response> fetchPinnedNotes(@RequestHeader("token") String token,
+			@RequestParam(value = "size", required = false) Integer pageSize,
+			@RequestParam(value = "pageToken", required = false) String pageToken, WebRequest request) {
+		if (isNotModified(request, token)) {
+			return null;
+		}
+		if (pageSize != null) {
+			return pageOf("Pinned notes are", token, NoteBucket.PINNED, pageToken, pageSize);
+		}
 		return ResponseEntity.status(HttpStatus.OK)
 				.body(new Response("Pinned notes are", Util.OK_RESPONSE_CODE, noteService.getAllPinnedNotes(token)));
 	}
@@ -317,9 +611,12 @@ public class NoteController {
 	 * originality of client {@link NoteServiceImpl} after verification allows user
 	 * to get all notes which are archived.
 	 * 
-	 * @param token as {@link RequestHeader}
+	 * @param token     as {@link RequestHeader}
+	 * @param pageSize  as {@link RequestParam} optional, pages the listing
+	 * @param pageToken as {@link RequestParam} optional, continuation token
+	 * @param request   as {@link WebRequest} answered with 304 when unchanged
 	 * @return ResponseEntity<Response>
-	 * @URL http://localhost:8080/note/fetch/notes/archived
+	 * @URL http://localhost:8080/note/fetch/notes/archived?size=20&pageToken=
 	 */
 	@ApiOperation(value = "fetch all archived notes for valid user")
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Archived notes are"),
@@ -327,7 +624,15 @@ public class NoteController {
 			@ApiResponse(code = 401, message = "Opps...Authorization failed!"),
 			@ApiResponse(code = 404, message = "Opps...No notes Found!") })
 	@GetMapping("fetch/notes/archived")
-	public ResponseEntity<Response> fetchArchivedNotes(@RequestHeader("token") String token) {
+	public ResponseEntity<Response> fetchArchivedNotes(@RequestHeader("token") String token,
+			@RequestParam(value = "size", required = false) Integer pageSize,
+			@RequestParam(value = "pageToken", required = false) String pageToken, WebRequest request) {
+		if (isNotModified(request, token)) {
+			return null;
+		}
+		if (pageSize != null) {
+			return pageOf("Archived notes are", token, NoteBucket.ARCHIVED, pageToken, pageSize);
+		}
 		return ResponseEntity.status(HttpStatus.OK).body(
 				new Response("Archived notes are", Util.OK_RESPONSE_CODE, noteService.getAllArchivedNotes(token)));
 
@@ -355,22 +660,48 @@ public class NoteController {
 		return ResponseEntity.status(HttpStatus.OK).body(new Response("Color changed", Util.OK_RESPONSE_CODE));
 	}
 
+	/**
+	 * This function takes {@link NoteBulkUpdateDTO} as request body and token from
+	 * {@link RequestHeader} and verify originality of client
+	 * {@link NoteServiceImpl} and after applying the change to all the selected
+	 * notes it returns the result of every note.
+	 * 
+	 * @param bulkUpdate as {@link NoteBulkUpdateDTO}
+	 * @param token      as {@link RequestHeader}
+	 * @return ResponseEntity<Response> with the {@link NoteBulkUpdateReport}
+	 * @URL -> http://localhost:8080/notes/bulk
+	 */
+	@ApiOperation(value = "trash, archive, pin, color or label many notes of valid user at once")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "notes updated"),
+			@ApiResponse(code = 400, message = "Opps...Invalid bulk update!"),
+			@ApiResponse(code = 401, message = "Opps...Authorization failed!"),
+			@ApiResponse(code = 404, message = "Opps...Label not found!") })
+	@PatchMapping("bulk")
+	public ResponseEntity<Response> updateNotes(@RequestBody NoteBulkUpdateDTO bulkUpdate,
+			@RequestHeader("token") String token) {
+		NoteBulkUpdateReport updateReport = noteService.updateNotes(token, bulkUpdate);
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(new Response("Notes updated", Util.OK_RESPONSE_CODE, updateReport));
+	}
+
 	/**
 	 * This function takes authentication token as {@link RequestHeader} and verify
 	 * originality of client {@link NoteServiceImpl} after verification allows user
-	 * to add remainder to the personalized note.
+	 * to add remainder to the personalized note, a mail is sent to the user when
+	 * it is due.
 	 * 
-	 * @param token        as {@link RequestHeader}
-	 * @param noteId       as {@link PathVariable}
-	 * @param remainderDTO as {@link RequestBody RemainderDTO}
+	 * @param token         as {@link RequestHeader}
+	 * @param noteId        as {@link PathVariable}
+	 * @param remainderTime as {@link RequestParam} future date time in ISO form
 	 * @return ResponseEntity<Response>
-	 * @URL -> http://localhost:8080/note/41/remainder/add
+	 * @URL -> http://localhost:8080/note/41/remainder/add?time=2020-05-05T18:30
 	 */
 	@ApiOperation(value = "set remainder for a note of valid user")
 	@ApiResponses(value = { @ApiResponse(code = 201, message = "remainder created"),
 			@ApiResponse(code = 300, message = "Opps...Note not found!"),
 			@ApiResponse(code = 401, message = "Opps...Authorization failed!"),
-			@ApiResponse(code = 502, message = "Opps...Remainder already set!") })
+			@ApiResponse(code = 502, message = "Opps...Remainder already set!"),
+			@ApiResponse(code = 400, message = Util.INVALID_REMAINDER_TIME_EXCEPTION_MESSAGE) })
 	@PutMapping("{id}/remainder/add")
 	public ResponseEntity<Response> setRemainder(@RequestHeader("token") String token, @PathVariable("id") long noteId,
 			@RequestParam("time") String remainderTime) {
@@ -405,12 +736,13 @@ public class NoteController {
 	/**
 	 * This function takes authentication token as {@link RequestHeader} and verify
 	 * originality of client {@link NoteServiceImpl} after verification allows user
-	 * to search for notes based on title.
+	 * to search own notes based on the words of title and description, ranked by
+	 * relevance. A word ending with * matches every word starting with it.
 	 * 
 	 * @param token     as {@link RequestHeader}
 	 * @param noteTitle as as {@link RequestParam}
 	 * @return ResponseEntity<Response>
-	 * @URL -> http://localhost:8080/note/search?title=note1
+	 * @URL -> http://localhost:8080/note/search?title=shopping list*
 	 */
 	@ApiOperation(value = "search operation for note based on title of valid user")
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "found notes"),
@@ -424,4 +756,56 @@ public class NoteController {
 				.body(new Response("found notes", Util.OK_RESPONSE_CODE, fetchedNotes));
 	}
 
-}
\ No newline at end of file
+	/**
+	 * This function takes the request and authentication token as input parameter
+	 * and tells whether the client already has the current notes of the user, the
+	 * ETag header of the response is set either way from the {@link ChangeVersion}
+	 * of the notes. Last-Modified is left out, its whole seconds would answer an
+	 * If-Modified-Since sent after a change in the same second with a stale 304.
+	 * 
+	 * @param request as {@link WebRequest}
+	 * @param token   as String input parameter
+	 * @return true if the response is to be 304 Not Modified
+	 */
+	private boolean isNotModified(WebRequest request, String token) {
+		return request.checkNotModified(noteService.getNotesVersion(token).getTag());
+	}
+
+	/**
+	 * This function takes response message, authentication token, listing,
+	 * continuation token and page size as input parameter and returns one page of
+	 * the listing wrapped in the response.
+	 * 
+	 * @param message   as String input parameter
+	 * @param token     as String input parameter
+	 * @param bucket    as {@link NoteBucket}
+	 * @param pageToken as String input parameter
+	 * @param pageSize  as Integer input parameter
+	 * @return ResponseEntity<Response>
+	 */
+	private ResponseEntity<Response> pageOf(String message, String token, NoteBucket bucket, String pageToken,
+			int pageSize) {
+		NotePage fetchedPage = noteService.getNotesPage(token, bucket, pageToken, pageSize);
+		return ResponseEntity.status(HttpStatus.OK).body(new Response(message, Util.OK_RESPONSE_CODE, fetchedPage));
+	}
+
+	/**
+	 * This function takes authentication token, range of remainder time,
+	 * continuation token and page size as input parameter and returns one page of
+	 * the remainder notes within the range wrapped in the response.
+	 * 
+	 * @param token     as String input parameter
+	 * @param fromTime  as {@link LocalDateTime}, null for no lower bound
+	 * @param toTime    as {@link LocalDateTime}, null for no upper bound
+	 * @param pageToken as String input parameter
+	 * @param pageSize  as Integer input parameter
+	 * @return ResponseEntity<Response>
+	 */
+	private ResponseEntity<Response> remaindersPageOf(String token, LocalDateTime fromTime, LocalDateTime toTime,
+			String pageToken, int pageSize) {
+		NotePage fetchedPage = noteService.getRemaindersPage(token, fromTime, toTime, pageToken, pageSize);
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(new Response("Remainder notes are", Util.OK_RESPONSE_CODE, fetchedPage));
+	}
+
+}
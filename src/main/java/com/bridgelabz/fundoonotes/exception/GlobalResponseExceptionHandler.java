@@ -1,20 +1,25 @@
 package com.bridgelabz.fundoonotes.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import com.bridgelabz.fundoonotes.model.Note;
 import com.bridgelabz.fundoonotes.response.Response;
+import com.bridgelabz.fundoonotes.utility.EntityTags;
+import com.bridgelabz.fundoonotes.utility.Util;
 
 /**
  * Global Exception Handler which handles all runtime exceptions like
  * {@link UserException}, {@link NoteException}, {@link AuthorizationException},
  * {@link InvalidCredentialsException}, {@link RemainderException},
  * {@link LabelException}, {@link MailSendingException},
- * {@link UserVerificationException} {@link ColaboratorException} from service
- * layer itself.
+ * {@link UserVerificationException} {@link ColaboratorException},
+ * {@link NoteConflictException} from service layer itself.
  * 
  * @author Durgasankar Mishra
  * @created 2020-01-29
@@ -58,6 +63,36 @@ public class GlobalResponseExceptionHandler extends ResponseEntityExceptionHandl
 				.body(new Response(exception.getMessage(), exception.getStatus()));
 	}
 
+	/**
+	 * Handles all incoming {@link NoteConflictException} during Runtime. The
+	 * response carries the current note along with its entity tag.
+	 * 
+	 * @param noteConflictException as {@link NoteConflictException}
+	 * @return ResponseEntity<Response>
+	 */
+	@ExceptionHandler(NoteConflictException.class)
+	public ResponseEntity<Response> handleAllNoteConflictException(NoteConflictException exception) {
+		Note currentNote = exception.getCurrentNote();
+		return ResponseEntity.status(exception.getStatus())
+				.header(HttpHeaders.ETAG, EntityTags.of(currentNote.getVersion()))
+				.body(new Response(exception.getMessage(), exception.getStatus(), currentNote));
+	}
+
+	/**
+	 * Handles all incoming {@link OptimisticLockingFailureException} during
+	 * Runtime, left by a change of the labels or colaborators of a note which
+	 * raced with another change of the note.
+	 * 
+	 * @param lockingFailureException as {@link OptimisticLockingFailureException}
+	 * @return ResponseEntity<Response>
+	 */
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<Response> handleAllOptimisticLockingFailureException(
+			OptimisticLockingFailureException lockingFailureException) {
+		return ResponseEntity.status(HttpStatus.CONFLICT)
+				.body(new Response(Util.NOTE_CONFLICT_EXCEPTION_MESSAGE, Util.CONFLICT_RESPONSE_CODE));
+	}
+
 	/**
 	 * Handles all incoming {@link AuthorizationException} during Runtime.
 	 * 
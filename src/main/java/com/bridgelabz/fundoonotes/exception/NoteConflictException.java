@@ -0,0 +1,36 @@
+package com.bridgelabz.fundoonotes.exception;
+
+import com.bridgelabz.fundoonotes.model.Note;
+
+/**
+ * This class extends {@link NoteException} and creates a custom exception which
+ * would be thrown when a note was changed since the client read it. It carries
+ * the current state of the note, so that the client can merge its change
+ * without reading the note again.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-04
+ * @version 1.0
+ */
+public class NoteConflictException extends NoteException {
+	private static final long serialVersionUID = 1L;
+	private final transient Note currentNote;
+
+	/**
+	 * Constructor takes message, Status code and the current note as input
+	 * parameter and fetch message from its superclass.
+	 * 
+	 * @param message     as String input parameter
+	 * @param status      as Integer input parameter
+	 * @param currentNote as {@link Note} as it is in the database
+	 */
+	public NoteConflictException(String message, int status, Note currentNote) {
+		super(message, status);
+		this.currentNote = currentNote;
+	}
+
+	public Note getCurrentNote() {
+		return currentNote;
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.bridgelabz.fundoonotes.model;
+
+/**
+ * Names of the pooled id generators of the notes, labels and users, declared
+ * in the package-info of the model. Every generator keeps the next free id of
+ * its table in one row of the id_generator table and reserves a block of
+ * {@link #ALLOCATION_SIZE} ids per update of that row, so that hibernate knows
+ * the id of a new entity without inserting it and can batch the inserts.
+ * <p>
+ * Whoever writes these tables without hibernate has to reserve its ids from
+ * the same row, by adding the number of ids it needs to next_val.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-29
+ * @version 1.0
+ */
+public final class IdGenerator {
+
+	public static final String TABLE = "id_generator";
+	public static final String SEGMENT_COLUMN = "sequence_name";
+	public static final String VALUE_COLUMN = "next_val";
+	public static final String ALLOCATION_SIZE = "50";
+	public static final String OPTIMIZER = "pooled-lo";
+
+	public static final String NOTE_IDS = "note_details";
+	public static final String LABEL_IDS = "label_details";
+	public static final String USER_IDS = "user_details";
+
+	private IdGenerator() {
+
+	}
+
+}
@@ -19,13 +19,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  * @author Durgasankar Mishra
  * @created 2020-03-01
  * @version 1.0
- *
+ * @updated -> 2020-04-29
+ * @modified -> ids come from a pooled table generator instead of the identity
+ *           column, so that hibernate can batch the inserts.
  */
 @Entity
 @Table(name = "label_details")
 public class Label {
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = IdGenerator.LABEL_IDS)
 	@Column(name = "label_id")
 	private long labelId;
 	private String labelName;
@@ -0,0 +1,122 @@
+package com.bridgelabz.fundoonotes.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import com.bridgelabz.fundoonotes.response.MailObject;
+
+/**
+ * Outbox entry of a mail. The entry is written in the same transaction as the
+ * change of the {@link User} the mail is about and the mail outbox relay
+ * publishes the entries to the mail exchange, so that no request waits on the
+ * broker and no mail is lost or sent for a change which was rolled back.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-24
+ * @version 1.0
+ */
+@Entity
+@Table(name = "mail_outbox")
+public class MailOutboxMessage {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "message_id")
+	private long messageId;
+	@Column(name = "dedup_key", length = 36, nullable = false, unique = true)
+	private String dedupKey;
+	@Column(name = "email_id")
+	private String emailId;
+	private String subject;
+	@Column(length = 7000)
+	private String body;
+	private LocalDateTime createdDate;
+
+	public MailOutboxMessage() {
+
+	}
+
+	/**
+	 * Constructor takes the mail as input parameter and gives it a new dedup key.
+	 * 
+	 * @param mail as {@link MailObject}
+	 */
+	public MailOutboxMessage(MailObject mail) {
+		this.dedupKey = UUID.randomUUID().toString();
+		this.emailId = mail.getEmail();
+		this.subject = mail.getSubject();
+		this.body = mail.getMessage();
+		this.createdDate = LocalDateTime.now();
+	}
+
+	/**
+	 * Returns the mail to publish.
+	 * 
+	 * @return {@link MailObject}
+	 */
+	public MailObject toMailObject() {
+		return new MailObject(emailId, subject, body);
+	}
+
+	public long getMessageId() {
+		return messageId;
+	}
+
+	public void setMessageId(long messageId) {
+		this.messageId = messageId;
+	}
+
+	public String getDedupKey() {
+		return dedupKey;
+	}
+
+	public void setDedupKey(String dedupKey) {
+		this.dedupKey = dedupKey;
+	}
+
+	public String getEmailId() {
+		return emailId;
+	}
+
+	public void setEmailId(String emailId) {
+		this.emailId = emailId;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public void setSubject(String subject) {
+		this.subject = subject;
+	}
+
+	public String getBody() {
+		return body;
+	}
+
+	public void setBody(String body) {
+		this.body = body;
+	}
+
+	public LocalDateTime getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(LocalDateTime createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	@Override
+	public String toString() {
+		return "MailOutboxMessage [messageId=" + messageId + ", dedupKey=" + dedupKey + ", emailId=" + emailId
+				+ ", subject=" + subject + ", createdDate=" + createdDate + "]";
+	}
+
+}
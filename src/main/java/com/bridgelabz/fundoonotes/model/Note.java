@@ -13,6 +13,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -22,12 +23,21 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  * @author Durgasankar Mishra
  * @created 2020-01-27
  * @version 1.0
+ * @updated -> 2020-04-29
+ * @modified -> ids come from a pooled table generator instead of the identity
+ *           column, so that hibernate can batch the inserts.
+ * @updated -> 2020-05-04
+ * @modified -> version column for the optimistic lock, an update of a note read
+ *           before the last change fails instead of overwriting it.
+ * @updated -> 2020-05-05
+ * @modified -> the reminder is a date time instead of free-form text, so that
+ *           it is ordered and indexed as a time.
  */
 @Entity
 @Table(name = "note_details")
 public class Note {
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = IdGenerator.NOTE_IDS)
 	@Column(name = "note_id")
 	private long noteId;
 	@Column(length = 200)
@@ -43,8 +53,13 @@ public class Note {
 	private LocalDateTime createdDate;
 	@Column(length = 30)
 	private LocalDateTime updatedDate;
-	@Column(length = 30)
-	private String remainderTime;
+	private LocalDateTime remainderTime;
+	// owner of the note, the column itself is written through User.notes
+	@Column(name = "user_id", insertable = false, updatable = false)
+	private Long userId;
+	// incremented on every update, also when the labels of the note change
+	@Version
+	private long version;
 	@ManyToMany(cascade = CascadeType.ALL)
 	@JoinTable(name = "note_label", joinColumns = { @JoinColumn(name = "note_id") }, inverseJoinColumns = {
 			@JoinColumn(name = "label_id") })
@@ -233,20 +248,48 @@ public class Note {
 		this.colaboratedUsers = colaboratedUsers;
 	}
 
-	public String getRemainderTime() {
+	public LocalDateTime getRemainderTime() {
 		return remainderTime;
 	}
 
-	public void setRemainderTime(String remainderTime) {
+	public void setRemainderTime(LocalDateTime remainderTime) {
 		this.remainderTime = remainderTime;
 	}
 
+	/**
+	 * Getter method for the id of the owner of the note
+	 * 
+	 * @return Long, null until the note is flushed along with its owner
+	 */
+	public Long getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Long userId) {
+		this.userId = userId;
+	}
+
+	/**
+	 * Getter method for the version of the note, sent to the client as the ETag
+	 * of the note
+	 * 
+	 * @return Long
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	@Override
 	public String toString() {
 		return "Note [noteId=" + noteId + ", title=" + title + ", description=" + description + ", isArchived="
 				+ isArchived + ", isPinned=" + isPinned + ", isTrashed=" + isTrashed + ", color=" + color
 				+ ", createdDate=" + createdDate + ", updatedDate=" + updatedDate + ", remainderTime=" + remainderTime
-				+ ", labelsList=" + labelsList + ", colaboratedUsers=" + colaboratedUsers + "]";
+				+ ", version=" + version + ", labelsList=" + labelsList + ", colaboratedUsers=" + colaboratedUsers
+				+ "]";
 	}
 
 	/**
@@ -0,0 +1,102 @@
+package com.bridgelabz.fundoonotes.model;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Listing categories of the user's {@link Note} along with the property on which
+ * each listing is ordered in the database. Every listing is ordered in
+ * descending order of its sort property and then of the note id, which makes
+ * the pair a unique key to continue a page from.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-12
+ * @version 1.0
+ */
+public enum NoteBucket {
+
+	NOTES("createdDate"), PINNED("updatedDate"), ARCHIVED("updatedDate"), TRASHED("updatedDate"),
+	REMAINDERS("remainderTime");
+
+	private final String sortProperty;
+
+	private NoteBucket(String sortProperty) {
+		this.sortProperty = sortProperty;
+	}
+
+	/**
+	 * Getter method for the name of the {@link Note} property the listing is
+	 * ordered on.
+	 * 
+	 * @return String
+	 */
+	public String getSortProperty() {
+		return sortProperty;
+	}
+
+	/**
+	 * This function takes note as input parameter and returns the value of the
+	 * sort property of the listing from it.
+	 * 
+	 * @param note as {@link Note}
+	 * @return Object
+	 */
+	public Object sortKeyOf(Note note) {
+		switch (this) {
+		case NOTES:
+			return note.getCreatedDate();
+		case REMAINDERS:
+			return note.getRemainderTime();
+		default:
+			return note.getUpdatedDate();
+		}
+	}
+
+	/**
+	 * This function takes the String form of a sort key as input parameter and
+	 * converts it back to the type of the sort property of the listing.
+	 * 
+	 * @param sortKey as String input parameter
+	 * @return Object
+	 */
+	public Object parseSortKey(String sortKey) {
+		return LocalDateTime.parse(sortKey);
+	}
+
+	/**
+	 * This function takes note as input parameter and checks whether the note
+	 * belongs to the listing, which is the same condition the repository uses to
+	 * select the notes of the listing.
+	 * 
+	 * @param note as {@link Note}
+	 * @return Boolean
+	 */
+	public boolean contains(Note note) {
+		switch (this) {
+		case PINNED:
+			return note.isPinned() && !note.isTrashed() && !note.isArchived();
+		case ARCHIVED:
+			return note.isArchived();
+		case TRASHED:
+			return note.isTrashed();
+		case REMAINDERS:
+			return note.getRemainderTime() != null && !note.isTrashed();
+		default:
+			return !note.isTrashed() && !note.isArchived() && !note.isPinned();
+		}
+	}
+
+	/**
+	 * Returns the order of the listing as {@link Comparator}, for notes which are
+	 * not ordered by the database. Notes without sort key come last.
+	 * 
+	 * @return Comparator<Note>
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public Comparator<Note> ordering() {
+		Comparator<Note> bySortKey = Comparator.comparing(note -> (Comparable) sortKeyOf(note),
+				Comparator.nullsLast(Comparator.reverseOrder()));
+		return bySortKey.thenComparing(Comparator.comparingLong(Note::getNoteId).reversed());
+	}
+
+}
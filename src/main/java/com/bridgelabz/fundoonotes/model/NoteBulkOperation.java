@@ -0,0 +1,26 @@
+package com.bridgelabz.fundoonotes.model;
+
+/**
+ * Changes which can be applied to many {@link Note} of a user at once. Unlike
+ * the single note operations they are not toggles, applying one to a note
+ * which already has the state leaves the note as it is.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-30
+ * @version 1.0
+ */
+public enum NoteBulkOperation {
+
+	TRASH, RESTORE, ARCHIVE, UNARCHIVE, PIN, UNPIN, COLOR, LABEL, UNLABEL;
+
+	/**
+	 * This function checks whether the operation maps the notes to a label or
+	 * removes them from it, which needs the label id instead of a color.
+	 * 
+	 * @return Boolean
+	 */
+	public boolean isLabelling() {
+		return this == LABEL || this == UNLABEL;
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.bridgelabz.fundoonotes.model;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Outbox entry of the search index. One entry is written in the same
+ * transaction as every change of a {@link Note} and the search indexer drains
+ * the entries in bulk, so that the search index follows the database without
+ * the note operations ever waiting on it.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-18
+ * @version 1.0
+ */
+@Entity
+@Table(name = "note_index_outbox")
+public class NoteIndexEvent {
+
+	public static final String UPSERT = "UPSERT";
+	public static final String DELETE = "DELETE";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "event_id")
+	private long eventId;
+	@Column(name = "note_id")
+	private long noteId;
+	@Column(length = 10)
+	private String operation;
+	private int attempts;
+	private LocalDateTime createdDate;
+
+	public NoteIndexEvent() {
+
+	}
+
+	/**
+	 * Constructor takes note id and the operation to replay on the search index
+	 * as input parameter.
+	 * 
+	 * @param noteId    as Long input parameter
+	 * @param operation as String either {@link #UPSERT} or {@link #DELETE}
+	 */
+	public NoteIndexEvent(long noteId, String operation) {
+		this.noteId = noteId;
+		this.operation = operation;
+		this.createdDate = LocalDateTime.now();
+	}
+
+	public long getEventId() {
+		return eventId;
+	}
+
+	public void setEventId(long eventId) {
+		this.eventId = eventId;
+	}
+
+	public long getNoteId() {
+		return noteId;
+	}
+
+	public void setNoteId(long noteId) {
+		this.noteId = noteId;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public void setOperation(String operation) {
+		this.operation = operation;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public LocalDateTime getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(LocalDateTime createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	@Override
+	public String toString() {
+		return "NoteIndexEvent [eventId=" + eventId + ", noteId=" + noteId + ", operation=" + operation
+				+ ", attempts=" + attempts + ", createdDate=" + createdDate + "]";
+	}
+
+}
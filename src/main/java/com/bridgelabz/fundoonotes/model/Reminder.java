@@ -0,0 +1,92 @@
+package com.bridgelabz.fundoonotes.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reminder of a {@link Note} as read by the reminder scheduler. While paging
+ * through the upcoming reminders only the note id and the time are read, a due
+ * reminder carries the note and its owner as well to render the mail.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-05
+ * @version 1.0
+ */
+public class Reminder {
+
+	private final long noteId;
+	private final LocalDateTime remainderTime;
+	private String title;
+	private String description;
+	private String emailId;
+	private String firstName;
+	private String lastName;
+
+	/**
+	 * Constructor takes the note id and the time of the reminder as input
+	 * parameter.
+	 * 
+	 * @param noteId        as Long input parameter
+	 * @param remainderTime as {@link LocalDateTime}
+	 */
+	public Reminder(long noteId, LocalDateTime remainderTime) {
+		this.noteId = noteId;
+		this.remainderTime = remainderTime;
+	}
+
+	/**
+	 * Constructor takes the note id, the time of the reminder, the note and its
+	 * owner as input parameter.
+	 * 
+	 * @param noteId        as Long input parameter
+	 * @param remainderTime as {@link LocalDateTime}
+	 * @param title         as String input parameter
+	 * @param description   as String input parameter
+	 * @param emailId       as String mail id of the owner
+	 * @param firstName     as String input parameter
+	 * @param lastName      as String input parameter
+	 */
+	public Reminder(long noteId, LocalDateTime remainderTime, String title, String description, String emailId,
+			String firstName, String lastName) {
+		this(noteId, remainderTime);
+		this.title = title;
+		this.description = description;
+		this.emailId = emailId;
+		this.firstName = firstName;
+		this.lastName = lastName;
+	}
+
+	public long getNoteId() {
+		return noteId;
+	}
+
+	public LocalDateTime getRemainderTime() {
+		return remainderTime;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public String getEmailId() {
+		return emailId;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	@Override
+	public String toString() {
+		return "Reminder [noteId=" + noteId + ", remainderTime=" + remainderTime + ", title=" + title + ", emailId="
+				+ emailId + "]";
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.bridgelabz.fundoonotes.model;
+
+/**
+ * Entities of a user which are synced to the clients by their change sequence,
+ * along with the table and the id column each one is stored in.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-03
+ * @version 1.0
+ */
+public enum SyncEntityType {
+
+	NOTE("note_details", "note_id"), LABEL("label_details", "label_id");
+
+	private final String table;
+	private final String idColumn;
+
+	private SyncEntityType(String table, String idColumn) {
+		this.table = table;
+		this.idColumn = idColumn;
+	}
+
+	/**
+	 * Getter method for the table the entity is stored in.
+	 * 
+	 * @return String
+	 */
+	public String getTable() {
+		return table;
+	}
+
+	/**
+	 * Getter method for the primary key column of the table.
+	 * 
+	 * @return String
+	 */
+	public String getIdColumn() {
+		return idColumn;
+	}
+
+}
@@ -26,12 +26,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  * @version 1.1
  * @updated -> 2020-04-02
  * @modified -> added extra field address on registration form.
+ * @updated -> 2020-04-29
+ * @modified -> ids come from a pooled table generator instead of the identity
+ *           column, so that hibernate can batch the inserts.
  */
 @Entity
 @Table(name = "user_details")
 public class User {
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = IdGenerator.USER_IDS)
 	@Column(name = "user_id")
 	private long userId;
 	private String firstName;
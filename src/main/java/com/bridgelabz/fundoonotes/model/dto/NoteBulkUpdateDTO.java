@@ -0,0 +1,54 @@
+package com.bridgelabz.fundoonotes.model.dto;
+
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.NoteBulkOperation;
+
+/**
+ * Bulk update DTO class, the selected notes and the change to apply to all of
+ * them. The color is needed by {@link NoteBulkOperation#COLOR} only and the
+ * label id by the labelling operations only.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-30
+ * @version 1.0
+ */
+public class NoteBulkUpdateDTO {
+	private List<Long> noteIds;
+	private NoteBulkOperation operation;
+	private String color;
+	private Long labelId;
+
+	public List<Long> getNoteIds() {
+		return noteIds;
+	}
+
+	public void setNoteIds(List<Long> noteIds) {
+		this.noteIds = noteIds;
+	}
+
+	public NoteBulkOperation getOperation() {
+		return operation;
+	}
+
+	public void setOperation(NoteBulkOperation operation) {
+		this.operation = operation;
+	}
+
+	public String getColor() {
+		return color;
+	}
+
+	public void setColor(String color) {
+		this.color = color;
+	}
+
+	public Long getLabelId() {
+		return labelId;
+	}
+
+	public void setLabelId(Long labelId) {
+		this.labelId = labelId;
+	}
+
+}
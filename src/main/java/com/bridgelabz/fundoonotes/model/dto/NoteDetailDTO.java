@@ -0,0 +1,173 @@
+package com.bridgelabz.fundoonotes.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.Label;
+import com.bridgelabz.fundoonotes.model.Note;
+
+/**
+ * Read model of a note which carries the labels and the colaborator ids of the
+ * note along with the note itself. It is filled by the repository with a fixed
+ * number of queries for the whole listing instead of lazily loading the
+ * associations of every note one by one.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-16
+ * @version 1.0
+ */
+public class NoteDetailDTO {
+
+	private long noteId;
+	private String title;
+	private String description;
+	private boolean isArchived;
+	private boolean isPinned;
+	private boolean isTrashed;
+	private String color;
+	private LocalDateTime createdDate;
+	private LocalDateTime updatedDate;
+	private LocalDateTime remainderTime;
+	private long version;
+	private List<Label> labels = new ArrayList<>();
+	private List<Long> colaboratorIds = new ArrayList<>();
+
+	public NoteDetailDTO() {
+
+	}
+
+	/**
+	 * Constructor copies the columns of the given note, the associations are
+	 * added afterwards.
+	 * 
+	 * @param note as {@link Note}
+	 */
+	public NoteDetailDTO(Note note) {
+		this.noteId = note.getNoteId();
+		this.title = note.getTitle();
+		this.description = note.getDescription();
+		this.isArchived = note.isArchived();
+		this.isPinned = note.isPinned();
+		this.isTrashed = note.isTrashed();
+		this.color = note.getColor();
+		this.createdDate = note.getCreatedDate();
+		this.updatedDate = note.getUpdatedDate();
+		this.remainderTime = note.getRemainderTime();
+		this.version = note.getVersion();
+	}
+
+	public long getNoteId() {
+		return noteId;
+	}
+
+	public void setNoteId(long noteId) {
+		this.noteId = noteId;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public boolean isArchived() {
+		return isArchived;
+	}
+
+	public void setArchived(boolean isArchived) {
+		this.isArchived = isArchived;
+	}
+
+	public boolean isPinned() {
+		return isPinned;
+	}
+
+	public void setPinned(boolean isPinned) {
+		this.isPinned = isPinned;
+	}
+
+	public boolean isTrashed() {
+		return isTrashed;
+	}
+
+	public void setTrashed(boolean isTrashed) {
+		this.isTrashed = isTrashed;
+	}
+
+	public String getColor() {
+		return color;
+	}
+
+	public void setColor(String color) {
+		this.color = color;
+	}
+
+	public LocalDateTime getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(LocalDateTime createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public LocalDateTime getUpdatedDate() {
+		return updatedDate;
+	}
+
+	public void setUpdatedDate(LocalDateTime updatedDate) {
+		this.updatedDate = updatedDate;
+	}
+
+	public LocalDateTime getRemainderTime() {
+		return remainderTime;
+	}
+
+	public void setRemainderTime(LocalDateTime remainderTime) {
+		this.remainderTime = remainderTime;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	public List<Label> getLabels() {
+		return labels;
+	}
+
+	public void setLabels(List<Label> labels) {
+		this.labels = labels;
+	}
+
+	public List<Long> getColaboratorIds() {
+		return colaboratorIds;
+	}
+
+	public void setColaboratorIds(List<Long> colaboratorIds) {
+		this.colaboratorIds = colaboratorIds;
+	}
+
+	@Override
+	public String toString() {
+		return "NoteDetailDTO [noteId=" + noteId + ", title=" + title + ", description=" + description
+				+ ", isArchived=" + isArchived + ", isPinned=" + isPinned + ", isTrashed=" + isTrashed + ", color="
+				+ color + ", createdDate=" + createdDate + ", updatedDate=" + updatedDate + ", remainderTime="
+				+ remainderTime + ", version=" + version + ", labels=" + labels + ", colaboratorIds=" + colaboratorIds
+				+ "]";
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.bridgelabz.fundoonotes.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exported note, the note along with the names of its labels and the email ids
+ * of its colaborators. The export writes one of them per line.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-01
+ * @version 1.0
+ */
+public class NoteExportDTO {
+
+	private long noteId;
+	private String title;
+	private String description;
+	private boolean isArchived;
+	private boolean isPinned;
+	private boolean isTrashed;
+	private String color;
+	private LocalDateTime createdDate;
+	private LocalDateTime updatedDate;
+	private LocalDateTime remainderTime;
+	private List<String> labels = new ArrayList<>();
+	private List<String> colaboratorEmailIds = new ArrayList<>();
+
+	public NoteExportDTO() {
+
+	}
+
+	public long getNoteId() {
+		return noteId;
+	}
+
+	public void setNoteId(long noteId) {
+		this.noteId = noteId;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public boolean isArchived() {
+		return isArchived;
+	}
+
+	public void setArchived(boolean isArchived) {
+		this.isArchived = isArchived;
+	}
+
+	public boolean isPinned() {
+		return isPinned;
+	}
+
+	public void setPinned(boolean isPinned) {
+		this.isPinned = isPinned;
+	}
+
+	public boolean isTrashed() {
+		return isTrashed;
+	}
+
+	public void setTrashed(boolean isTrashed) {
+		this.isTrashed = isTrashed;
+	}
+
+	public String getColor() {
+		return color;
+	}
+
+	public void setColor(String color) {
+		this.color = color;
+	}
+
+	public LocalDateTime getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(LocalDateTime createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public LocalDateTime getUpdatedDate() {
+		return updatedDate;
+	}
+
+	public void setUpdatedDate(LocalDateTime updatedDate) {
+		this.updatedDate = updatedDate;
+	}
+
+	public LocalDateTime getRemainderTime() {
+		return remainderTime;
+	}
+
+	public void setRemainderTime(LocalDateTime remainderTime) {
+		this.remainderTime = remainderTime;
+	}
+
+	public List<String> getLabels() {
+		return labels;
+	}
+
+	public void setLabels(List<String> labels) {
+		this.labels = labels;
+	}
+
+	public List<String> getColaboratorEmailIds() {
+		return colaboratorEmailIds;
+	}
+
+	public void setColaboratorEmailIds(List<String> colaboratorEmailIds) {
+		this.colaboratorEmailIds = colaboratorEmailIds;
+	}
+
+	@Override
+	public String toString() {
+		return "NoteExportDTO [noteId=" + noteId + ", title=" + title + ", description=" + description
+				+ ", isArchived=" + isArchived + ", isPinned=" + isPinned + ", isTrashed=" + isTrashed + ", color="
+				+ color + ", createdDate=" + createdDate + ", updatedDate=" + updatedDate + ", remainderTime="
+				+ remainderTime + ", labels=" + labels + ", colaboratorEmailIds=" + colaboratorEmailIds
+				+ "]";
+	}
+
+}
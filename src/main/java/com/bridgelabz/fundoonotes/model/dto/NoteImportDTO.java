@@ -0,0 +1,52 @@
+package com.bridgelabz.fundoonotes.model.dto;
+
+import java.util.List;
+
+/**
+ * One note of a bulk import along with the names of its labels. Labels which
+ * do not exist yet are created during the import.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-28
+ * @version 1.0
+ */
+public class NoteImportDTO extends NoteDTO {
+
+	private String color;
+	private boolean isPinned;
+	private boolean isArchived;
+	private List<String> labels;
+
+	public String getColor() {
+		return color;
+	}
+
+	public void setColor(String color) {
+		this.color = color;
+	}
+
+	public boolean isPinned() {
+		return isPinned;
+	}
+
+	public void setPinned(boolean isPinned) {
+		this.isPinned = isPinned;
+	}
+
+	public boolean isArchived() {
+		return isArchived;
+	}
+
+	public void setArchived(boolean isArchived) {
+		this.isArchived = isArchived;
+	}
+
+	public List<String> getLabels() {
+		return labels;
+	}
+
+	public void setLabels(List<String> labels) {
+		this.labels = labels;
+	}
+
+}
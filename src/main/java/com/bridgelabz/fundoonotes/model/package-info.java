@@ -0,0 +1,38 @@
+/**
+ * Entities of fundoo notes. The ids of the notes, labels and users come from
+ * the pooled table generators of {@link IdGenerator}.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-29
+ * @version 1.0
+ */
+@GenericGenerators({
+		@GenericGenerator(name = IdGenerator.NOTE_IDS, strategy = "org.hibernate.id.enhanced.TableGenerator",
+				parameters = {
+				@Parameter(name = "table_name", value = IdGenerator.TABLE),
+				@Parameter(name = "segment_column_name", value = IdGenerator.SEGMENT_COLUMN),
+				@Parameter(name = "value_column_name", value = IdGenerator.VALUE_COLUMN),
+				@Parameter(name = "segment_value", value = IdGenerator.NOTE_IDS),
+				@Parameter(name = "increment_size", value = IdGenerator.ALLOCATION_SIZE),
+				@Parameter(name = "optimizer", value = IdGenerator.OPTIMIZER) }),
+		@GenericGenerator(name = IdGenerator.LABEL_IDS, strategy = "org.hibernate.id.enhanced.TableGenerator",
+				parameters = {
+				@Parameter(name = "table_name", value = IdGenerator.TABLE),
+				@Parameter(name = "segment_column_name", value = IdGenerator.SEGMENT_COLUMN),
+				@Parameter(name = "value_column_name", value = IdGenerator.VALUE_COLUMN),
+				@Parameter(name = "segment_value", value = IdGenerator.LABEL_IDS),
+				@Parameter(name = "increment_size", value = IdGenerator.ALLOCATION_SIZE),
+				@Parameter(name = "optimizer", value = IdGenerator.OPTIMIZER) }),
+		@GenericGenerator(name = IdGenerator.USER_IDS, strategy = "org.hibernate.id.enhanced.TableGenerator",
+				parameters = {
+				@Parameter(name = "table_name", value = IdGenerator.TABLE),
+				@Parameter(name = "segment_column_name", value = IdGenerator.SEGMENT_COLUMN),
+				@Parameter(name = "value_column_name", value = IdGenerator.VALUE_COLUMN),
+				@Parameter(name = "segment_value", value = IdGenerator.USER_IDS),
+				@Parameter(name = "increment_size", value = IdGenerator.ALLOCATION_SIZE),
+				@Parameter(name = "optimizer", value = IdGenerator.OPTIMIZER) }) })
+package com.bridgelabz.fundoonotes.model;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.GenericGenerators;
+import org.hibernate.annotations.Parameter;
@@ -0,0 +1,66 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Key value store of the entity cache which has the unimplemented
+ * functionality of reading, writing and removing encoded values. Exactly one
+ * implementation is active, chosen by the fundoo.cache.store property.
+ * <p>
+ * Every operation may fail with a runtime exception when the store is not
+ * reachable, the entity cache then falls back to the database.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-26
+ * @version 1.0
+ * @updated -> 2020-04-27
+ * @modified -> the store carries the invalidation messages of the local tiers
+ *           of the entity cache between the instances of the application.
+ */
+public interface ICacheStore {
+
+	/**
+	 * UnImplemented functionality of reading the values of many keys with one
+	 * round trip.
+	 * 
+	 * @param keys as List<String> input parameter
+	 * @return List<byte[]> in the order of the keys, null for a missing key
+	 */
+	public List<byte[]> getAll(List<String> keys);
+
+	/**
+	 * UnImplemented functionality of writing many values with one round trip,
+	 * every value expiring after the given time to live.
+	 * 
+	 * @param entries   as Map of the values by their key
+	 * @param ttlMillis as Long time to live in milliseconds
+	 */
+	public void putAll(Map<String, byte[]> entries, long ttlMillis);
+
+	/**
+	 * UnImplemented functionality of removing the values of the given keys.
+	 * 
+	 * @param keys as Collection<String> input parameter
+	 */
+	public void deleteAll(Collection<String> keys);
+
+	/**
+	 * UnImplemented functionality of sending an invalidation message to every
+	 * instance of the application which subscribed, including this one.
+	 * 
+	 * @param message as byte[] input parameter
+	 */
+	public void publish(byte[] message);
+
+	/**
+	 * UnImplemented functionality of subscribing to the invalidation messages
+	 * published by all the instances of the application.
+	 * 
+	 * @param listener as Consumer of the messages
+	 */
+	public void subscribe(Consumer<byte[]> listener);
+
+}
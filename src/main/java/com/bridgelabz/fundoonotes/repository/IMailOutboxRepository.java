@@ -0,0 +1,60 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.MailOutboxMessage;
+
+/**
+ * Repository Interface of the mail outbox which has the unimplemented
+ * functionality of writing, claiming and acknowledging the
+ * {@link MailOutboxMessage}
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-24
+ * @version 1.0
+ */
+public interface IMailOutboxRepository {
+
+	/**
+	 * UnImplemented functionality of writing the mail within the current
+	 * transaction.
+	 * 
+	 * @param message as {@link MailOutboxMessage}
+	 * @return MailOutboxMessage
+	 */
+	public MailOutboxMessage save(MailOutboxMessage message);
+
+	/**
+	 * UnImplemented functionality of fetching the oldest pending mails and locking
+	 * them until the end of the current transaction, so that only one relay
+	 * publishes them.
+	 * 
+	 * @param limit as Integer input parameter
+	 * @return List<MailOutboxMessage> in the order they were written
+	 */
+	public List<MailOutboxMessage> claimPendingMessages(int limit);
+
+	/**
+	 * UnImplemented functionality of removing the mails which are published.
+	 * 
+	 * @param messageIds as List<Long> input parameter
+	 */
+	public void deleteMessages(List<Long> messageIds);
+
+	/**
+	 * UnImplemented functionality of counting the pending mails.
+	 * 
+	 * @return Long
+	 */
+	public long countPendingMessages();
+
+	/**
+	 * UnImplemented functionality of fetching the creation time of the oldest
+	 * pending mail.
+	 * 
+	 * @return LocalDateTime, null if nothing is pending
+	 */
+	public LocalDateTime getOldestPendingDate();
+
+}
@@ -0,0 +1,29 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import java.util.function.Consumer;
+
+import com.bridgelabz.fundoonotes.model.dto.NoteExportDTO;
+
+/**
+ * Repository Interface of the export which has the unimplemented functionality
+ * of reading all the notes of a user without holding them in memory.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-01
+ * @version 1.0
+ */
+public interface INoteExportRepository {
+
+	/**
+	 * UnImplemented functionality of reading every note of the user along with
+	 * the names of its labels and the email ids of its colaborators through a
+	 * forward only cursor and handing the notes over one at a time, in the order
+	 * of their ids. Only the note being read is held in memory.
+	 * 
+	 * @param userId   as Long input parameter
+	 * @param consumer as Consumer of every {@link NoteExportDTO}
+	 * @return Long number of exported notes
+	 */
+	public long exportNotes(long userId, Consumer<NoteExportDTO> consumer);
+
+}
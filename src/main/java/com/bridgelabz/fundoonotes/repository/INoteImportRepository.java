@@ -0,0 +1,58 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.bridgelabz.fundoonotes.model.Note;
+
+/**
+ * Repository Interface of the bulk import which has the unimplemented
+ * functionality of writing many notes, labels and their mappings with batched
+ * statements within the current transaction.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-28
+ * @version 1.0
+ */
+public interface INoteImportRepository {
+
+	/**
+	 * UnImplemented functionality of fetching the ids of the labels of the given
+	 * names.
+	 * 
+	 * @param labelNames as Collection<String> input parameter
+	 * @return Map of the label ids by the name, missing names are left out
+	 */
+	public Map<String, Long> getLabelIds(Collection<String> labelNames);
+
+	/**
+	 * UnImplemented functionality of creating the labels of the given names for
+	 * the user.
+	 * 
+	 * @param userId      as Long input parameter
+	 * @param labelNames  as List<String> input parameter
+	 * @param createdDate as LocalDateTime input parameter
+	 * @return Map of the ids of the created labels by the name
+	 */
+	public Map<String, Long> insertLabels(long userId, List<String> labelNames, LocalDateTime createdDate);
+
+	/**
+	 * UnImplemented functionality of inserting the notes of the user along with
+	 * an entry of the search index outbox for every note.
+	 * 
+	 * @param userId as Long input parameter
+	 * @param notes  as List<Note> input parameter
+	 * @return long[] ids of the notes in the order of the notes
+	 */
+	public long[] insertNotes(long userId, List<Note> notes);
+
+	/**
+	 * UnImplemented functionality of mapping notes to labels.
+	 * 
+	 * @param noteLabels as List of note id and label id pairs
+	 */
+	public void insertNoteLabels(List<long[]> noteLabels);
+
+}
@@ -0,0 +1,58 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.NoteIndexEvent;
+
+/**
+ * Repository Interface of the search index outbox which has the unimplemented
+ * functionality of claiming and acknowledging the pending {@link NoteIndexEvent}
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-18
+ * @version 1.0
+ */
+public interface INoteIndexOutboxRepository {
+
+	/**
+	 * UnImplemented functionality of claiming the oldest pending events, they
+	 * stay locked until the transaction of the caller ends.
+	 * 
+	 * @param limit as Integer input parameter
+	 * @return List<NoteIndexEvent> in the order they were written
+	 */
+	public List<NoteIndexEvent> claimPendingEvents(int limit);
+
+	/**
+	 * UnImplemented functionality of removing the events which are applied on the
+	 * search index.
+	 * 
+	 * @param eventIds as List<Long> input parameter
+	 */
+	public void deleteEvents(List<Long> eventIds);
+
+	/**
+	 * UnImplemented functionality of recording one more failed attempt of the
+	 * given events.
+	 * 
+	 * @param eventIds as List<Long> input parameter
+	 */
+	public void incrementAttempts(List<Long> eventIds);
+
+	/**
+	 * UnImplemented functionality of counting the pending events.
+	 * 
+	 * @return Long
+	 */
+	public long countPendingEvents();
+
+	/**
+	 * UnImplemented functionality of fetching the creation time of the oldest
+	 * pending event.
+	 * 
+	 * @return LocalDateTime, null if nothing is pending
+	 */
+	public LocalDateTime getOldestPendingDate();
+
+}
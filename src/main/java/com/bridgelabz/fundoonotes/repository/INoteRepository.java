@@ -1,8 +1,15 @@
 package com.bridgelabz.fundoonotes.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+import com.bridgelabz.fundoonotes.model.NoteBulkOperation;
+import com.bridgelabz.fundoonotes.model.User;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent.Broadcast;
 
 /**
  * Note Repository Interface which has the unimplemented functionality of all
@@ -85,12 +92,124 @@ public interface INoteRepository {
 	public List<Note> getAllRemainderNotes(long userId);
 
 	/**
-	 * UnImplemented functionality of fetching all non trashed user's note which are
-	 * not trashed.
+	 * UnImplemented functionality of fetching one page of a listing of the user's
+	 * notes in the order of the listing, starting right after the given sort key
+	 * and note id of the last note of the previous page.
 	 * 
-	 * @param noteTitle as String input parameter
+	 * @param userId       as Long input parameter
+	 * @param bucket       as {@link NoteBucket}
+	 * @param afterSortKey as Object input parameter, null for the first page
+	 * @param afterNoteId  as Long input parameter
+	 * @param limit        as Integer input parameter
 	 * @return List<Note>
 	 */
-	public List<Note> searchBy(String noteTitle);
+	public List<Note> getNotesPage(long userId, NoteBucket bucket, Object afterSortKey, long afterNoteId, int limit);
+
+	/**
+	 * UnImplemented functionality of fetching one page of the user's notes which
+	 * are not trashed and have a remainder within the given range, earliest
+	 * remainder first, starting right after the given remainder time and note id
+	 * of the last note of the previous page.
+	 * 
+	 * @param userId      as Long input parameter
+	 * @param fromTime    as {@link LocalDateTime} inclusive, null for no lower bound
+	 * @param toTime      as {@link LocalDateTime} exclusive, null for no upper bound
+	 * @param afterTime   as {@link LocalDateTime}, null for the first page
+	 * @param afterNoteId as Long input parameter
+	 * @param limit       as Integer input parameter
+	 * @return List<Note>
+	 */
+	public List<Note> getRemainderNotesPage(long userId, LocalDateTime fromTime, LocalDateTime toTime,
+			LocalDateTime afterTime, long afterNoteId, int limit);
+
+	/**
+	 * UnImplemented functionality of fetching every note of the user, whatever be
+	 * the status of the note, with a single query ordered by creation time.
+	 * 
+	 * @param userId as Long input parameter
+	 * @return List<Note>
+	 */
+	public List<Note> getAllNotesOfUser(long userId);
+
+	/**
+	 * UnImplemented functionality of building the read models of the given notes
+	 * along with their labels and colaborator ids, using a fixed number of queries
+	 * for the whole list instead of loading the associations of every note.
+	 * 
+	 * @param notes as List<Note> input parameter
+	 * @return List<NoteDetailDTO> in the order of the given notes
+	 */
+	public List<NoteDetailDTO> getNoteDetails(List<Note> notes);
+
+	/**
+	 * UnImplemented functionality of fetching all the notes mapped to the label
+	 * with a single query, newest first.
+	 * 
+	 * @param labelId as Long input parameter
+	 * @return List<Note>
+	 */
+	public List<Note> getNotesOfLabel(long labelId);
+
+	/**
+	 * UnImplemented functionality of fetching the colaborators of the note with a
+	 * single query.
+	 * 
+	 * @param noteId as Long input parameter
+	 * @return List<User>
+	 */
+	public List<User> getColaborators(long noteId);
+
+	/**
+	 * UnImplemented functionality of fetching all user's note of the given listing
+	 * in the order of the listing.
+	 * 
+	 * @param userId as Long input parameter
+	 * @param bucket as {@link NoteBucket}
+	 * @return List<Note>
+	 */
+	public List<Note> getNotes(long userId, NoteBucket bucket);
+
+	/**
+	 * UnImplemented functionality of fetching the notes of the given ids with a
+	 * bounded number of queries.
+	 * 
+	 * @param noteIds as List<Long> input parameter
+	 * @return List<Note> of the notes which still exist
+	 */
+	public List<Note> getNotesById(List<Long> noteIds);
+
+	/**
+	 * UnImplemented functionality of finding which of the given notes belong to
+	 * the user with a single query.
+	 * 
+	 * @param userId  as Long input parameter
+	 * @param noteIds as Collection<Long> input parameter
+	 * @return List<Long> ids of the notes owned by the user
+	 */
+	public List<Long> getOwnedNoteIds(long userId, Collection<Long> noteIds);
+
+	/**
+	 * UnImplemented functionality of applying the operation to the given notes of
+	 * the user which do not have the state yet with a single set based statement,
+	 * along with an entry of the search index outbox for every changed note in the
+	 * same transaction.
+	 * 
+	 * @param userId    as Long input parameter
+	 * @param noteIds   as List<Long> ids of notes owned by the user
+	 * @param operation as {@link NoteBulkOperation}
+	 * @param value     as Object, the color or the label id the operation needs
+	 * @return List<Long> ids of the changed notes
+	 */
+	public List<Long> updateNotes(long userId, List<Long> noteIds, NoteBulkOperation operation, Object value);
+
+	/**
+	 * UnImplemented functionality of finding the users a change of the given
+	 * notes is pushed to, the owner and the colaborators of every note, along with
+	 * the current version of the note with a bounded number of queries.
+	 * 
+	 * @param noteIds as Collection<Long> input parameter
+	 * @return List<Broadcast> one per note which still exists, without the change
+	 */
+	public List<Broadcast> getChangeBroadcasts(Collection<Long> noteIds);
 
 }
@@ -0,0 +1,45 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.Note;
+
+/**
+ * Full text search engine of the notes which has the unimplemented
+ * functionality of keeping the index of title and description in line with the
+ * database and of ranking the notes of a user against a query. Exactly one
+ * implementation is active, chosen by the fundoo.search.engine property.
+ * <p>
+ * A query is a list of words, every word matches as a whole word of the title
+ * or description and a word ending with * matches every word starting with it.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-19
+ * @version 1.0
+ */
+public interface INoteSearchEngine {
+
+	/**
+	 * UnImplemented functionality of indexing and deleting many notes at once.
+	 * Trashed notes are removed from the index.
+	 * 
+	 * @param notes          as List<Note> to be indexed
+	 * @param deletedNoteIds as List<Long> to be removed from the index
+	 * @return List<Long> ids of the notes the search engine failed to apply
+	 * @throws IOException when the index could not be written at all
+	 */
+	public List<Long> bulkIndex(List<Note> notes, List<Long> deletedNoteIds) throws IOException;
+
+	/**
+	 * UnImplemented functionality of searching the notes of a user.
+	 * 
+	 * @param userId as Long input parameter
+	 * @param query  as String input parameter
+	 * @param limit  as Integer maximum number of notes
+	 * @return List<Long> ids of the matching notes, best match first
+	 * @throws IOException when the index could not be read
+	 */
+	public List<Long> search(long userId, String query, int limit) throws IOException;
+
+}
@@ -0,0 +1,45 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.Reminder;
+
+/**
+ * Repository Interface of the reminders of all the users which has the
+ * unimplemented functionality of paging forward through the upcoming reminders
+ * and of claiming the due ones, so that the mail of a reminder is queued once
+ * however many schedulers hold it.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-05
+ * @version 1.0
+ */
+public interface IReminderRepository {
+
+	/**
+	 * UnImplemented functionality of fetching the reminders whose mail is not
+	 * queued yet, after the given reminder time and note id up to the given time,
+	 * in the order of the time.
+	 * 
+	 * @param afterTime   as {@link LocalDateTime} input parameter
+	 * @param afterNoteId as Long input parameter
+	 * @param untilTime   as {@link LocalDateTime} input parameter
+	 * @param limit       as Integer input parameter
+	 * @return List<Reminder> with the note id and the time only
+	 */
+	public List<Reminder> getReminders(LocalDateTime afterTime, long afterNoteId, LocalDateTime untilTime, int limit);
+
+	/**
+	 * UnImplemented functionality of claiming the reminders of the given notes
+	 * which are due at the given time and whose mail is not queued yet. The mail
+	 * has to be queued in the same transaction.
+	 * 
+	 * @param noteIds as Collection<Long> input parameter
+	 * @param now     as {@link LocalDateTime} input parameter
+	 * @return List<Reminder> along with the note and its owner
+	 */
+	public List<Reminder> claimDueReminders(Collection<Long> noteIds, LocalDateTime now);
+
+}
@@ -0,0 +1,134 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.Label;
+import com.bridgelabz.fundoonotes.model.SyncEntityType;
+import com.bridgelabz.fundoonotes.response.SyncChanges.Tombstone;
+
+/**
+ * Repository Interface of the change sequence of the delta sync which has the
+ * unimplemented functionality of stamping the changed notes and labels with the
+ * next change of their owner, of recording the deletions and of reading the
+ * changes of a user after a cursor. The stamping joins the transaction of the
+ * change and keeps the owner locked until it ends. A change of a shared note
+ * is a change of its colaborators as well.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-03
+ * @version 1.0
+ */
+public interface ISyncRepository {
+
+	/**
+	 * UnImplemented functionality of stamping a note or label with the next
+	 * change of its owner, nothing is stamped while it has no owner.
+	 * 
+	 * @param type     as {@link SyncEntityType}
+	 * @param entityId as Long input parameter
+	 */
+	public void stamp(SyncEntityType type, long entityId);
+
+	/**
+	 * UnImplemented functionality of stamping many notes or labels of the user
+	 * with one change.
+	 * 
+	 * @param type      as {@link SyncEntityType}
+	 * @param userId    as Long input parameter
+	 * @param entityIds as Collection<Long> input parameter
+	 */
+	public void stamp(SyncEntityType type, long userId, Collection<Long> entityIds);
+
+	/**
+	 * UnImplemented functionality of recording the deletion of a note or label
+	 * as the next change of its owner, it has to be called before the deletion.
+	 * 
+	 * @param type     as {@link SyncEntityType}
+	 * @param entityId as Long input parameter
+	 */
+	public void addTombstone(SyncEntityType type, long entityId);
+
+	/**
+	 * UnImplemented functionality of recording that the note is no longer shared
+	 * with the removed colaborator as the next change of the colaborator.
+	 * 
+	 * @param noteId as Long input parameter
+	 * @param userId as Long id of the removed colaborator
+	 */
+	public void addColaboratorTombstone(long noteId, long userId);
+
+	/**
+	 * UnImplemented functionality of fetching the sequence of the last change of
+	 * the user.
+	 * 
+	 * @param userId as Long input parameter
+	 * @return Long
+	 */
+	public long getLastChangeSeq(long userId);
+
+	/**
+	 * UnImplemented functionality of fetching the sequence of the last change
+	 * whose tombstone was pruned.
+	 * 
+	 * @param userId as Long input parameter
+	 * @return Long
+	 */
+	public long getPrunedChangeSeq(long userId);
+
+	/**
+	 * UnImplemented functionality of finding the sequence of the change at the
+	 * given position among the changes of the user after the cursor.
+	 * 
+	 * @param userId   as Long input parameter
+	 * @param afterSeq as Long input parameter
+	 * @param position as Integer input parameter starting from 1
+	 * @return Long, 0 if there are less changes
+	 */
+	public long getChangeSeqAt(long userId, long afterSeq, int position);
+
+	/**
+	 * UnImplemented functionality of fetching the ids of the notes of the user
+	 * and of the notes shared with the user changed after the first sequence up
+	 * to the second one.
+	 * 
+	 * @param userId   as Long input parameter
+	 * @param afterSeq as Long input parameter
+	 * @param upToSeq  as Long input parameter
+	 * @return List<Long> in the order of the changes
+	 */
+	public List<Long> getChangedNoteIds(long userId, long afterSeq, long upToSeq);
+
+	/**
+	 * UnImplemented functionality of fetching the labels of the user changed
+	 * after the first sequence up to the second one.
+	 * 
+	 * @param userId   as Long input parameter
+	 * @param afterSeq as Long input parameter
+	 * @param upToSeq  as Long input parameter
+	 * @return List<Label> in the order of the changes
+	 */
+	public List<Label> getChangedLabels(long userId, long afterSeq, long upToSeq);
+
+	/**
+	 * UnImplemented functionality of fetching the deletions of the user after the
+	 * first sequence up to the second one.
+	 * 
+	 * @param userId   as Long input parameter
+	 * @param afterSeq as Long input parameter
+	 * @param upToSeq  as Long input parameter
+	 * @return List<Tombstone> in the order of the changes
+	 */
+	public List<Tombstone> getTombstones(long userId, long afterSeq, long upToSeq);
+
+	/**
+	 * UnImplemented functionality of removing the tombstones written before the
+	 * given time, remembering the last pruned change of every user.
+	 * 
+	 * @param before as {@link LocalDateTime}
+	 * @return Integer number of removed tombstones
+	 */
+	public int pruneTombstones(LocalDateTime before);
+
+}
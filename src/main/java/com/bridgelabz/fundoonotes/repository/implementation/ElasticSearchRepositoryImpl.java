@@ -6,6 +6,9 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexRequest;
@@ -18,26 +21,32 @@ import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import com.bridgelabz.fundoonotes.configuration.ElasticSearchConfig;
 import com.bridgelabz.fundoonotes.model.Note;
 import com.bridgelabz.fundoonotes.repository.IElasticSearchRepository;
+import com.bridgelabz.fundoonotes.repository.INoteSearchEngine;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Repository of elastic search which implements
  * {@link IElasticSearchRepository} which provide the functionality of create ,
- * update, delete, search operation.
+ * update, delete, search operation. It is also the {@link INoteSearchEngine}
+ * unless fundoo.search.engine chooses the embedded one.
  * 
  * @author Durgasankar Mishra
  * @created 2020-03-04
  * @version 1.0
  * @see {@link ElasticSearchConfig} for configuration
  * @see {@link ObjectMapper} for reading and writing JSON
+ * @updated -> 2020-05-08
+ * @modified -> the search engine when none is configured.
  */
 @Repository
-public class ElasticSearchRepositoryImpl implements IElasticSearchRepository {
+@ConditionalOnProperty(name = "fundoo.search.engine", havingValue = "elasticsearch", matchIfMissing = true)
+public class ElasticSearchRepositoryImpl implements IElasticSearchRepository, INoteSearchEngine {
 
 	@Autowired
 	private ElasticSearchConfig config;
@@ -107,6 +116,60 @@ public class ElasticSearchRepositoryImpl implements IElasticSearchRepository {
 		return getResult(searchResponse);
 	}
 
+	/**
+	 * Sends all the given index and delete operations in one bulk request and
+	 * collects the ids of the items which failed, so the caller can retry only
+	 * those. Trashed notes are deleted from the index.
+	 */
+	@Override
+	public List<Long> bulkIndex(List<Note> notes, List<Long> deletedNoteIds) throws IOException {
+		List<Long> failedNoteIds = new ArrayList<>();
+		if (notes.isEmpty() && deletedNoteIds.isEmpty()) {
+			return failedNoteIds;
+		}
+		BulkRequest bulkRequest = new BulkRequest();
+		for (Note note : notes) {
+			if (note.isTrashed()) {
+				bulkRequest.add(new DeleteRequest(INDEX, TYPE, String.valueOf(note.getNoteId())));
+			} else {
+				bulkRequest.add(new IndexRequest(INDEX, TYPE, String.valueOf(note.getNoteId()))
+						.source(objectmapper.convertValue(note, Map.class)));
+			}
+		}
+		for (Long noteId : deletedNoteIds) {
+			bulkRequest.add(new DeleteRequest(INDEX, TYPE, String.valueOf(noteId)));
+		}
+		BulkResponse bulkResponse = config.client().bulk(bulkRequest, RequestOptions.DEFAULT);
+		if (bulkResponse.hasFailures()) {
+			for (BulkItemResponse item : bulkResponse.getItems()) {
+				if (item.isFailed()) {
+					failedNoteIds.add(Long.valueOf(item.getId()));
+				}
+			}
+		}
+		return failedNoteIds;
+	}
+
+	/**
+	 * Ranks the notes of the user with a simple query string over title and
+	 * description, where a title match counts twice and word* is a prefix query,
+	 * and fetch only the ids of the hits.
+	 */
+	@Override
+	public List<Long> search(long userId, String query, int limit) throws IOException {
+		SearchSourceBuilder searchSource = new SearchSourceBuilder()
+				.query(QueryBuilders.boolQuery().filter(QueryBuilders.termQuery("userId", userId))
+						.must(QueryBuilders.simpleQueryStringQuery(query).field("title", 2f).field("description")))
+				.fetchSource(false).size(limit);
+		SearchResponse searchResponse = config.client().search(new SearchRequest(INDEX).source(searchSource),
+				RequestOptions.DEFAULT);
+		List<Long> noteIds = new ArrayList<>();
+		for (SearchHit hit : searchResponse.getHits().getHits()) {
+			noteIds.add(Long.valueOf(hit.getId()));
+		}
+		return noteIds;
+	}
+
 	private List<Note> getResult(SearchResponse searchResponse) {
 		SearchHit[] searchHits = searchResponse.getHits().getHits();
 		List<Note> notes = new ArrayList<>();
@@ -0,0 +1,500 @@
+package com.bridgelabz.fundoonotes.repository.implementation;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.repository.INoteSearchEngine;
+
+/**
+ * In process implementation of {@link INoteSearchEngine} which needs no search
+ * cluster. Every user has an inverted index of the words of the title and
+ * description of the notes, ranked with BM25 where a word of the title counts
+ * twice. The index is updated incrementally by the search indexer and every
+ * change is appended to a log file of the user in the configured directory
+ * before it is applied, the log is replayed on start up and rewritten once it
+ * has grown well past the live notes.
+ * <p>
+ * The index lives in the memory of one process, so it suits a single instance
+ * of the application and is only chosen explicitly. The search indexer removes
+ * every event of the outbox once indexed, an index on a second instance would
+ * miss the events taken by the first one. Removed notes are only marked dead in the postings and
+ * the postings of a user are rebuilt once the dead notes outnumber the live
+ * ones.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-19
+ * @version 1.0
+ * @updated -> 2020-05-08
+ * @modified -> elasticsearch is the search engine unless this one is chosen.
+ */
+@Repository
+@ConditionalOnProperty(name = "fundoo.search.engine", havingValue = "embedded")
+public class EmbeddedNoteSearchEngine implements INoteSearchEngine {
+
+	private static final float K1 = 1.2f;
+	private static final float B = 0.75f;
+	private static final int TITLE_WEIGHT = 2;
+	private static final int MAX_TERM_LENGTH = 64;
+	private static final int MAX_PREFIX_EXPANSIONS = 64;
+	private static final int MIN_DEAD_SLOTS_TO_COMPACT = 1024;
+	private static final byte UPSERT = 1;
+	private static final byte DELETE = 2;
+	private static final String LOG_PREFIX = "notes-";
+	private static final String LOG_SUFFIX = ".log";
+
+	@Value("${fundoo.search.embedded.directory:search-index}")
+	private String directory;
+
+	private Path indexDirectory;
+	private final ConcurrentMap<Long, UserIndex> userIndexes = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Long, Long> ownerOfNote = new ConcurrentHashMap<>();
+
+	/**
+	 * Replays the log of every user found in the index directory.
+	 * 
+	 * @throws IOException when the directory could not be read
+	 */
+	@PostConstruct
+	public void initialize() throws IOException {
+		indexDirectory = Paths.get(directory);
+		Files.createDirectories(indexDirectory);
+		try (DirectoryStream<Path> logFiles = Files.newDirectoryStream(indexDirectory,
+				LOG_PREFIX + "*" + LOG_SUFFIX)) {
+			for (Path logFile : logFiles) {
+				String fileName = logFile.getFileName().toString();
+				long userId = Long.parseLong(
+						fileName.substring(LOG_PREFIX.length(), fileName.length() - LOG_SUFFIX.length()));
+				userIndexOf(userId).load();
+			}
+		}
+	}
+
+	/**
+	 * Groups the changes by the owner of the note and applies them on the index
+	 * of every user, deleted notes are found through the owner of the note
+	 * recorded when it was indexed.
+	 */
+	@Override
+	public List<Long> bulkIndex(List<Note> notes, List<Long> deletedNoteIds) throws IOException {
+		Map<Long, Map<Long, Map<String, Integer>>> upsertsOfUser = new HashMap<>();
+		Map<Long, List<Long>> deletesOfUser = new HashMap<>();
+		for (Note note : notes) {
+			if (note.getUserId() == null) {
+				continue;
+			}
+			if (note.isTrashed()) {
+				deletesOfUser.computeIfAbsent(note.getUserId(), id -> new ArrayList<>()).add(note.getNoteId());
+			} else {
+				upsertsOfUser.computeIfAbsent(note.getUserId(), id -> new LinkedHashMap<>()).put(note.getNoteId(),
+						termsOf(note));
+			}
+		}
+		for (Long noteId : deletedNoteIds) {
+			Long userId = ownerOfNote.get(noteId);
+			if (userId != null) {
+				deletesOfUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(noteId);
+			}
+		}
+		List<Long> failedNoteIds = new ArrayList<>();
+		for (Long userId : union(upsertsOfUser.keySet(), deletesOfUser.keySet())) {
+			Map<Long, Map<String, Integer>> upserts = upsertsOfUser.getOrDefault(userId, Collections.emptyMap());
+			List<Long> deletes = deletesOfUser.getOrDefault(userId, Collections.emptyList());
+			try {
+				userIndexOf(userId).apply(upserts, deletes);
+			} catch (IOException e) {
+				failedNoteIds.addAll(upserts.keySet());
+				failedNoteIds.addAll(deletes);
+			}
+		}
+		return failedNoteIds;
+	}
+
+	@Override
+	public List<Long> search(long userId, String query, int limit) {
+		UserIndex userIndex = userIndexes.get(userId);
+		if (userIndex == null || query == null) {
+			return Collections.emptyList();
+		}
+		return userIndex.search(query, limit);
+	}
+
+	private UserIndex userIndexOf(long userId) {
+		return userIndexes.computeIfAbsent(userId,
+				id -> new UserIndex(id, indexDirectory.resolve(LOG_PREFIX + id + LOG_SUFFIX)));
+	}
+
+	private static List<Long> union(Set<Long> first, Set<Long> second) {
+		List<Long> union = new ArrayList<>(first);
+		for (Long userId : second) {
+			if (!first.contains(userId)) {
+				union.add(userId);
+			}
+		}
+		return union;
+	}
+
+	/**
+	 * Returns the weighted frequency of every word of the title and description.
+	 * 
+	 * @param note as {@link Note}
+	 * @return Map<String, Integer>
+	 */
+	static Map<String, Integer> termsOf(Note note) {
+		Map<String, Integer> terms = new HashMap<>();
+		for (String term : tokenize(note.getTitle())) {
+			terms.merge(term, TITLE_WEIGHT, Integer::sum);
+		}
+		for (String term : tokenize(note.getDescription())) {
+			terms.merge(term, 1, Integer::sum);
+		}
+		return terms;
+	}
+
+	/**
+	 * Splits the text into lower case words of letters and digits.
+	 * 
+	 * @param text as String, may be null
+	 * @return List<String>
+	 */
+	static List<String> tokenize(String text) {
+		List<String> terms = new ArrayList<>();
+		if (text == null) {
+			return terms;
+		}
+		StringBuilder term = new StringBuilder();
+		for (int index = 0; index <= text.length(); index++) {
+			char character = index < text.length() ? text.charAt(index) : ' ';
+			if (Character.isLetterOrDigit(character)) {
+				if (term.length() < MAX_TERM_LENGTH) {
+					term.append(character);
+				}
+			} else if (term.length() > 0) {
+				terms.add(term.toString().toLowerCase(Locale.ROOT));
+				term.setLength(0);
+			}
+		}
+		return terms;
+	}
+
+	/**
+	 * Postings of one word, the note slots it occurs in and its frequency there.
+	 * Entries of dead slots stay until the index is compacted, the document
+	 * frequency only counts the live ones.
+	 */
+	private static final class Postings {
+
+		private int[] slots = new int[4];
+		private int[] frequencies = new int[4];
+		private int size;
+		private int documentFrequency;
+
+		private void add(int slot, int frequency) {
+			if (size == slots.length) {
+				slots = Arrays.copyOf(slots, size * 2);
+				frequencies = Arrays.copyOf(frequencies, size * 2);
+			}
+			slots[size] = slot;
+			frequencies[size] = frequency;
+			size++;
+			documentFrequency++;
+		}
+
+	}
+
+	/**
+	 * Inverted index and log of the notes of one user. Notes are numbered by slot
+	 * in the order they were indexed, an updated note gets a new slot.
+	 */
+	private final class UserIndex {
+
+		private final long userId;
+		private final Path logFile;
+		private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+		private final TreeMap<String, Postings> postings = new TreeMap<>();
+		private final Map<Long, Integer> slotOfNote = new HashMap<>();
+		private final List<Map<String, Integer>> termsOfSlot = new ArrayList<>();
+		private long[] noteIdOfSlot = new long[16];
+		private int[] lengthOfSlot = new int[16];
+		private long totalLength;
+		private int logRecords;
+
+		private UserIndex(long userId, Path logFile) {
+			this.userId = userId;
+			this.logFile = logFile;
+		}
+
+		/**
+		 * Replays the log, a record cut short by a crash is truncated away.
+		 */
+		private void load() throws IOException {
+			lock.writeLock().lock();
+			try {
+				if (!Files.exists(logFile)) {
+					return;
+				}
+				byte[] content = Files.readAllBytes(logFile);
+				ByteArrayInputStream bytes = new ByteArrayInputStream(content);
+				DataInputStream in = new DataInputStream(bytes);
+				int validLength = 0;
+				try {
+					while (bytes.available() > 0) {
+						byte operation = in.readByte();
+						long noteId = in.readLong();
+						if (operation == UPSERT) {
+							int termCount = in.readInt();
+							Map<String, Integer> terms = new HashMap<>(termCount * 2);
+							for (int term = 0; term < termCount; term++) {
+								terms.put(in.readUTF(), in.readInt());
+							}
+							upsert(noteId, terms);
+						} else {
+							delete(noteId);
+						}
+						logRecords++;
+						validLength = content.length - bytes.available();
+					}
+				} catch (EOFException e) {
+					try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+						channel.truncate(validLength);
+					}
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		private void apply(Map<Long, Map<String, Integer>> upserts, List<Long> deletes) throws IOException {
+			lock.writeLock().lock();
+			try {
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+						logFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+					for (Map.Entry<Long, Map<String, Integer>> upsert : upserts.entrySet()) {
+						writeUpsert(out, upsert.getKey(), upsert.getValue());
+					}
+					for (Long noteId : deletes) {
+						out.writeByte(DELETE);
+						out.writeLong(noteId);
+					}
+				}
+				logRecords += upserts.size() + deletes.size();
+				for (Map.Entry<Long, Map<String, Integer>> upsert : upserts.entrySet()) {
+					upsert(upsert.getKey(), upsert.getValue());
+				}
+				for (Long noteId : deletes) {
+					delete(noteId);
+				}
+				if (logRecords > 2 * slotOfNote.size() + MIN_DEAD_SLOTS_TO_COMPACT) {
+					rewriteLog();
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		private void writeUpsert(DataOutputStream out, long noteId, Map<String, Integer> terms) throws IOException {
+			out.writeByte(UPSERT);
+			out.writeLong(noteId);
+			out.writeInt(terms.size());
+			for (Map.Entry<String, Integer> term : terms.entrySet()) {
+				out.writeUTF(term.getKey());
+				out.writeInt(term.getValue());
+			}
+		}
+
+		/**
+		 * Writes the live notes to a new log which atomically replaces the old one.
+		 */
+		private void rewriteLog() throws IOException {
+			Path newLogFile = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(newLogFile)))) {
+				for (Map.Entry<Long, Integer> note : slotOfNote.entrySet()) {
+					writeUpsert(out, note.getKey(), termsOfSlot.get(note.getValue()));
+				}
+			}
+			Files.move(newLogFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			logRecords = slotOfNote.size();
+		}
+
+		private void upsert(long noteId, Map<String, Integer> terms) {
+			delete(noteId);
+			int slot = termsOfSlot.size();
+			if (slot == noteIdOfSlot.length) {
+				noteIdOfSlot = Arrays.copyOf(noteIdOfSlot, slot * 2);
+				lengthOfSlot = Arrays.copyOf(lengthOfSlot, slot * 2);
+			}
+			int length = 0;
+			for (Map.Entry<String, Integer> term : terms.entrySet()) {
+				postings.computeIfAbsent(term.getKey(), key -> new Postings()).add(slot, term.getValue());
+				length += term.getValue();
+			}
+			termsOfSlot.add(terms);
+			noteIdOfSlot[slot] = noteId;
+			lengthOfSlot[slot] = length;
+			totalLength += length;
+			slotOfNote.put(noteId, slot);
+			ownerOfNote.put(noteId, userId);
+		}
+
+		private void delete(long noteId) {
+			Integer slot = slotOfNote.remove(noteId);
+			if (slot == null) {
+				return;
+			}
+			ownerOfNote.remove(noteId);
+			for (String term : termsOfSlot.set(slot, null).keySet()) {
+				Postings termPostings = postings.get(term);
+				if (--termPostings.documentFrequency == 0) {
+					postings.remove(term);
+				}
+			}
+			totalLength -= lengthOfSlot[slot];
+			int deadSlots = termsOfSlot.size() - slotOfNote.size();
+			if (deadSlots > Math.max(MIN_DEAD_SLOTS_TO_COMPACT, slotOfNote.size())) {
+				compact();
+			}
+		}
+
+		/**
+		 * Renumbers the live notes and rebuilds the postings without dead slots.
+		 */
+		private void compact() {
+			List<Map<String, Integer>> liveTerms = new ArrayList<>();
+			List<Long> liveNoteIds = new ArrayList<>();
+			for (int slot = 0; slot < termsOfSlot.size(); slot++) {
+				if (termsOfSlot.get(slot) != null) {
+					liveTerms.add(termsOfSlot.get(slot));
+					liveNoteIds.add(noteIdOfSlot[slot]);
+				}
+			}
+			postings.clear();
+			slotOfNote.clear();
+			termsOfSlot.clear();
+			totalLength = 0;
+			for (int note = 0; note < liveTerms.size(); note++) {
+				upsert(liveNoteIds.get(note), liveTerms.get(note));
+			}
+		}
+
+		private List<Long> search(String query, int limit) {
+			lock.readLock().lock();
+			try {
+				int liveNotes = slotOfNote.size();
+				if (liveNotes == 0 || limit <= 0) {
+					return Collections.emptyList();
+				}
+				float averageLength = (float) totalLength / liveNotes;
+				float[] scores = new float[termsOfSlot.size()];
+				int[] matchedSlots = new int[16];
+				int matches = 0;
+				for (Postings termPostings : postingsOf(query)) {
+					float idf = (float) Math.log(1 + (liveNotes - termPostings.documentFrequency + 0.5)
+							/ (termPostings.documentFrequency + 0.5));
+					for (int entry = 0; entry < termPostings.size; entry++) {
+						int slot = termPostings.slots[entry];
+						if (termsOfSlot.get(slot) == null) {
+							continue;
+						}
+						int frequency = termPostings.frequencies[entry];
+						float norm = K1 * (1 - B + B * lengthOfSlot[slot] / averageLength);
+						if (scores[slot] == 0) {
+							if (matches == matchedSlots.length) {
+								matchedSlots = Arrays.copyOf(matchedSlots, matches * 2);
+							}
+							matchedSlots[matches++] = slot;
+						}
+						scores[slot] += idf * frequency * (K1 + 1) / (frequency + norm);
+					}
+				}
+				return topNoteIds(scores, matchedSlots, matches, limit);
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		/**
+		 * Returns the postings of every word of the query, a word ending with * is
+		 * expanded to at most {@link #MAX_PREFIX_EXPANSIONS} indexed words.
+		 */
+		private List<Postings> postingsOf(String query) {
+			List<Postings> queryPostings = new ArrayList<>();
+			for (String word : query.trim().split("\\s+")) {
+				List<String> terms = tokenize(word);
+				if (terms.isEmpty()) {
+					continue;
+				}
+				String lastTerm = terms.get(terms.size() - 1);
+				boolean prefix = word.endsWith("*");
+				for (String term : prefix ? terms.subList(0, terms.size() - 1) : terms) {
+					Postings termPostings = postings.get(term);
+					if (termPostings != null) {
+						queryPostings.add(termPostings);
+					}
+				}
+				if (prefix) {
+					int expansions = 0;
+					for (Postings termPostings : postings.subMap(lastTerm, true, lastTerm + Character.MAX_VALUE, false)
+							.values()) {
+						if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+							break;
+						}
+						queryPostings.add(termPostings);
+					}
+				}
+			}
+			return queryPostings;
+		}
+
+		private List<Long> topNoteIds(float[] scores, int[] matchedSlots, int matches, int limit) {
+			// best first, the newer note wins a tie
+			PriorityQueue<Integer> top = new PriorityQueue<>(
+					(first, second) -> scores[first] != scores[second] ? Float.compare(scores[first], scores[second])
+							: Integer.compare(first, second));
+			for (int match = 0; match < matches; match++) {
+				top.add(matchedSlots[match]);
+				if (top.size() > limit) {
+					top.poll();
+				}
+			}
+			Long[] noteIds = new Long[top.size()];
+			for (int rank = noteIds.length - 1; rank >= 0; rank--) {
+				noteIds[rank] = noteIdOfSlot[top.poll()];
+			}
+			return Arrays.asList(noteIds);
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.bridgelabz.fundoonotes.repository.implementation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import com.bridgelabz.fundoonotes.repository.ICacheStore;
+
+/**
+ * In process implementation of {@link ICacheStore} which needs no redis
+ * server. It suits a single instance of the application and stands in for
+ * redis in the tests. Expired values are dropped when they are read, and all
+ * the expired values are swept before the store grows past the configured
+ * number of entries. A value is not stored while the store is still full after
+ * the sweep. As there is no other instance to invalidate, the invalidation
+ * messages are dropped.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-26
+ * @version 1.0
+ */
+@Repository
+@ConditionalOnProperty(name = "fundoo.cache.store", havingValue = "memory")
+public class InMemoryCacheStore implements ICacheStore {
+
+	@Value("${fundoo.cache.memory.max-entries:100000}")
+	private int maxEntries;
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	@Override
+	public List<byte[]> getAll(List<String> keys) {
+		long now = System.nanoTime();
+		List<byte[]> values = new ArrayList<>(keys.size());
+		for (String key : keys) {
+			Entry entry = entries.get(key);
+			if (entry != null && entry.expiresAt - now <= 0) {
+				entries.remove(key, entry);
+				entry = null;
+			}
+			values.add(entry == null ? null : entry.value);
+		}
+		return values;
+	}
+
+	@Override
+	public void putAll(Map<String, byte[]> newEntries, long ttlMillis) {
+		long expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		if (entries.size() + newEntries.size() > maxEntries) {
+			long now = System.nanoTime();
+			entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+		}
+		for (Map.Entry<String, byte[]> newEntry : newEntries.entrySet()) {
+			if (entries.size() >= maxEntries && !entries.containsKey(newEntry.getKey())) {
+				continue;
+			}
+			entries.put(newEntry.getKey(), new Entry(newEntry.getValue(), expiresAt));
+		}
+	}
+
+	@Override
+	public void deleteAll(Collection<String> keys) {
+		for (String key : keys) {
+			entries.remove(key);
+		}
+	}
+
+	@Override
+	public void publish(byte[] message) {
+		// single instance, the publisher already invalidated its local tier
+	}
+
+	@Override
+	public void subscribe(Consumer<byte[]> listener) {
+		// nothing is ever published
+	}
+
+	/**
+	 * Stored value along with the time it expires at.
+	 */
+	private static final class Entry {
+		private final byte[] value;
+		private final long expiresAt;
+
+		private Entry(byte[] value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.bridgelabz.fundoonotes.repository.implementation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.transaction.Transactional;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.bridgelabz.fundoonotes.model.MailOutboxMessage;
+import com.bridgelabz.fundoonotes.repository.IMailOutboxRepository;
+
+/**
+ * This class implements {@link IMailOutboxRepository} and defines the
+ * implementation functionality of writing and draining the mail outbox using
+ * the hibernate session unwrapped from the EntityManager.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-24
+ * @version 1.0
+ */
+@Repository
+@SuppressWarnings("unchecked")
+public class MailOutboxRepositoryImpl implements IMailOutboxRepository {
+
+	@Autowired
+	private EntityManager entityManager;
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation then access the
+	 * save functionality, joining the transaction of the caller.
+	 */
+	@Override
+	@Transactional
+	public MailOutboxMessage save(MailOutboxMessage message) {
+		entityManager.unwrap(Session.class).save(message);
+		return message;
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it fetch the oldest mails by the
+	 * primary key with a write lock held until the transaction of the caller ends.
+	 */
+	@Override
+	@Transactional
+	public List<MailOutboxMessage> claimPendingMessages(int limit) {
+		return entityManager.unwrap(Session.class).createQuery("FROM MailOutboxMessage ORDER BY messageId")
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE).setMaxResults(limit).getResultList();
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it removes all the given mails with
+	 * one statement.
+	 */
+	@Override
+	@Transactional
+	public void deleteMessages(List<Long> messageIds) {
+		if (messageIds.isEmpty()) {
+			return;
+		}
+		entityManager.unwrap(Session.class).createQuery("DELETE FROM MailOutboxMessage WHERE messageId IN (:ids)")
+				.setParameterList("ids", messageIds).executeUpdate();
+	}
+
+	@Override
+	@Transactional
+	public long countPendingMessages() {
+		return (Long) entityManager.unwrap(Session.class).createQuery("SELECT count(*) FROM MailOutboxMessage")
+				.uniqueResult();
+	}
+
+	@Override
+	@Transactional
+	public LocalDateTime getOldestPendingDate() {
+		return (LocalDateTime) entityManager.unwrap(Session.class)
+				.createQuery("SELECT createdDate FROM MailOutboxMessage ORDER BY messageId").setMaxResults(1)
+				.uniqueResult();
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.bridgelabz.fundoonotes.repository.implementation;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.bridgelabz.fundoonotes.model.dto.NoteExportDTO;
+import com.bridgelabz.fundoonotes.repository.INoteExportRepository;
+
+/**
+ * This class implements {@link INoteExportRepository} with a single query of
+ * the JdbcTemplate which returns the rows of the notes, of their labels and of
+ * their colaborators together, ordered by note id so that the rows of a note
+ * come right after the note. With a fetch size of Integer.MIN_VALUE the MySQL
+ * driver streams the rows instead of reading the whole result first, so the
+ * memory used does not depend on the number of notes.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-01
+ * @version 1.0
+ */
+@Repository
+public class NoteExportRepositoryImpl implements INoteExportRepository {
+
+	private static final int NOTE_ROW = 0;
+	private static final int LABEL_ROW = 1;
+	private static final int COLABORATOR_ROW = 2;
+	private static final String EXPORT_QUERY = "SELECT n.note_id, " + NOTE_ROW + " AS kind, n.title, "
+			+ "n.description, n.color, n.is_archived, n.is_pinned, n.is_trashed, n.created_date, n.updated_date, "
+			+ "n.remainder_time FROM note_details n WHERE n.user_id = ? "
+			+ "UNION ALL SELECT nl.note_id, " + LABEL_ROW + ", l.label_name, NULL, NULL, NULL, NULL, NULL, NULL, "
+			+ "NULL, NULL FROM note_label nl JOIN note_details n ON n.note_id = nl.note_id "
+			+ "JOIN label_details l ON l.label_id = nl.label_id WHERE n.user_id = ? "
+			+ "UNION ALL SELECT c.note_id, " + COLABORATOR_ROW + ", u.email_id, NULL, NULL, NULL, NULL, NULL, "
+			+ "NULL, NULL, NULL FROM colaborator_note c JOIN note_details n ON n.note_id = c.note_id "
+			+ "JOIN user_details u ON u.user_id = c.user_id WHERE n.user_id = ? ORDER BY note_id, kind";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	public long exportNotes(long userId, Consumer<NoteExportDTO> consumer) {
+		NoteRowHandler noteRowHandler = new NoteRowHandler(consumer);
+		jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(Integer.MIN_VALUE);
+			for (int parameter = 1; parameter <= 3; parameter++) {
+				statement.setLong(parameter, userId);
+			}
+			return statement;
+		}, noteRowHandler);
+		noteRowHandler.handOver();
+		return noteRowHandler.exportedNotes;
+	}
+
+	private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+		return timestamp == null ? null : timestamp.toLocalDateTime();
+	}
+
+	/**
+	 * Builds the note of the current rows and hands it over once the rows of the
+	 * next note begin.
+	 */
+	private static final class NoteRowHandler implements RowCallbackHandler {
+
+		private final Consumer<NoteExportDTO> consumer;
+		private NoteExportDTO note;
+		private long exportedNotes;
+
+		private NoteRowHandler(Consumer<NoteExportDTO> consumer) {
+			this.consumer = consumer;
+		}
+
+		@Override
+		public void processRow(ResultSet resultSet) throws SQLException {
+			int kind = resultSet.getInt(2);
+			if (kind == NOTE_ROW) {
+				handOver();
+				note = new NoteExportDTO();
+				note.setNoteId(resultSet.getLong(1));
+				note.setTitle(resultSet.getString(3));
+				note.setDescription(resultSet.getString(4));
+				note.setColor(resultSet.getString(5));
+				note.setArchived(resultSet.getBoolean(6));
+				note.setPinned(resultSet.getBoolean(7));
+				note.setTrashed(resultSet.getBoolean(8));
+				note.setCreatedDate(toLocalDateTime(resultSet.getTimestamp(9)));
+				note.setUpdatedDate(toLocalDateTime(resultSet.getTimestamp(10)));
+				note.setRemainderTime(toLocalDateTime(resultSet.getTimestamp(11)));
+			} else if (kind == LABEL_ROW) {
+				note.getLabels().add(resultSet.getString(3));
+			} else {
+				note.getColaboratorEmailIds().add(resultSet.getString(3));
+			}
+		}
+
+		private void handOver() {
+			if (note != null) {
+				consumer.accept(note);
+				exportedNotes++;
+				note = null;
+			}
+		}
+
+	}
+
+}
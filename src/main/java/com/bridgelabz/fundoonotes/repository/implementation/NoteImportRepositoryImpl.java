@@ -0,0 +1,159 @@
+package com.bridgelabz.fundoonotes.repository.implementation;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bridgelabz.fundoonotes.model.IdGenerator;
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteIndexEvent;
+import com.bridgelabz.fundoonotes.repository.INoteImportRepository;
+
+/**
+ * This class implements {@link INoteImportRepository} with plain JDBC batches
+ * of the JdbcTemplate, which joins the transaction of the caller. With
+ * rewriteBatchedStatements the driver sends a batch as a few multi row
+ * inserts. The ids of the notes and labels are reserved as one block per
+ * batch from the pooled generators of {@link IdGenerator}, the same hibernate
+ * uses, so imported and saved entities never collide.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-28
+ * @version 1.0
+ * @updated -> 2020-04-29
+ * @modified -> ids are reserved from the pooled generators instead of being
+ *           generated by the identity columns.
+ */
+@Repository
+public class NoteImportRepositoryImpl implements INoteImportRepository {
+
+	private static final int ID_CHUNK_SIZE = 500;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate reservationTransaction;
+
+	/**
+	 * Creates the template of the transactions which reserve ids.
+	 */
+	@PostConstruct
+	public void initialize() {
+		reservationTransaction = new TransactionTemplate(transactionManager);
+		reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	@Override
+	public Map<String, Long> getLabelIds(Collection<String> labelNames) {
+		Map<String, Long> labelIds = new HashMap<>();
+		List<String> names = new ArrayList<>(labelNames);
+		for (int from = 0; from < names.size(); from += ID_CHUNK_SIZE) {
+			List<String> chunk = names.subList(from, Math.min(from + ID_CHUNK_SIZE, names.size()));
+			String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+			jdbcTemplate.query("SELECT label_id, label_name FROM label_details WHERE label_name IN (" + placeholders
+					+ ") ORDER BY label_id", chunk.toArray(), resultSet -> {
+						// the oldest label wins, as findOneBylabelName would return it
+						labelIds.putIfAbsent(resultSet.getString(2), resultSet.getLong(1));
+					});
+		}
+		return labelIds;
+	}
+
+	@Override
+	public Map<String, Long> insertLabels(long userId, List<String> labelNames, LocalDateTime createdDate) {
+		Map<String, Long> createdLabels = new HashMap<>();
+		if (labelNames.isEmpty()) {
+			return createdLabels;
+		}
+		long labelId = reserveIds(IdGenerator.LABEL_IDS, labelNames.size());
+		List<Object[]> rows = new ArrayList<>(labelNames.size());
+		Timestamp created = Timestamp.valueOf(createdDate);
+		for (String labelName : labelNames) {
+			createdLabels.put(labelName, labelId);
+			rows.add(new Object[] { labelId++, created, labelName, userId });
+		}
+		jdbcTemplate.batchUpdate(
+				"INSERT INTO label_details (label_id, created_date, label_name, user_id) VALUES (?, ?, ?, ?)", rows);
+		return createdLabels;
+	}
+
+	@Override
+	public long[] insertNotes(long userId, List<Note> notes) {
+		long[] noteIds = new long[notes.size()];
+		if (notes.isEmpty()) {
+			return noteIds;
+		}
+		long firstNoteId = reserveIds(IdGenerator.NOTE_IDS, notes.size());
+		List<Object[]> rows = new ArrayList<>(notes.size());
+		List<Object[]> events = new ArrayList<>(notes.size());
+		Timestamp created = new Timestamp(System.currentTimeMillis());
+		for (int index = 0; index < notes.size(); index++) {
+			Note note = notes.get(index);
+			noteIds[index] = firstNoteId + index;
+			rows.add(new Object[] { noteIds[index], note.getColor(), timestampOf(note.getCreatedDate()),
+					note.getDescription(), note.isArchived(), note.isPinned(), note.isTrashed(),
+					timestampOf(note.getRemainderTime()), note.getTitle(), timestampOf(note.getUpdatedDate()),
+					userId });
+			events.add(new Object[] { noteIds[index], NoteIndexEvent.UPSERT, created });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO note_details (note_id, color, created_date, description, "
+				+ "is_archived, is_pinned, is_trashed, remainder_time, title, updated_date, user_id) "
+				+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+		jdbcTemplate.batchUpdate("INSERT INTO note_index_outbox (note_id, operation, attempts, created_date) "
+				+ "VALUES (?, ?, 0, ?)", events);
+		return noteIds;
+	}
+
+	@Override
+	public void insertNoteLabels(List<long[]> noteLabels) {
+		if (noteLabels.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO note_label (note_id, label_id) VALUES (?, ?)", noteLabels,
+				noteLabels.size(), (statement, noteLabel) -> {
+					statement.setLong(1, noteLabel[0]);
+					statement.setLong(2, noteLabel[1]);
+				});
+	}
+
+	/**
+	 * Reserves the given number of consecutive ids from the row of the pooled
+	 * generator hibernate takes its ids from. The row is locked by a transaction
+	 * of its own, so concurrent imports and saves only wait for the reservation
+	 * and not for the import. Ids of a batch which rolls back are left unused.
+	 * 
+	 * @return Long the first reserved id
+	 */
+	private long reserveIds(String segment, int count) {
+		return reservationTransaction.execute(status -> {
+			long firstId = jdbcTemplate.queryForObject(
+					"SELECT " + IdGenerator.VALUE_COLUMN + " FROM " + IdGenerator.TABLE + " WHERE "
+							+ IdGenerator.SEGMENT_COLUMN + " = ? FOR UPDATE",
+					Long.class, segment);
+			jdbcTemplate.update("UPDATE " + IdGenerator.TABLE + " SET " + IdGenerator.VALUE_COLUMN + " = "
+					+ IdGenerator.VALUE_COLUMN + " + ? WHERE " + IdGenerator.SEGMENT_COLUMN + " = ?", count, segment);
+			return firstId;
+		});
+	}
+
+	private static Timestamp timestampOf(LocalDateTime date) {
+		return date == null ? null : Timestamp.valueOf(date);
+	}
+
+}
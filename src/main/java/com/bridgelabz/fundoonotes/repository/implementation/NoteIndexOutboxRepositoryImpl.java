@@ -0,0 +1,97 @@
+package com.bridgelabz.fundoonotes.repository.implementation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.transaction.Transactional;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.bridgelabz.fundoonotes.model.NoteIndexEvent;
+import com.bridgelabz.fundoonotes.repository.INoteIndexOutboxRepository;
+
+/**
+ * This class implements {@link INoteIndexOutboxRepository} and defines the
+ * implementation functionality of claiming and acknowledging the search index
+ * outbox using the hibernate session unwrapped from the EntityManager.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-18
+ * @version 1.0
+ * @updated -> 2020-05-08
+ * @modified -> the pending events are claimed with a write lock.
+ */
+@Repository
+@SuppressWarnings("unchecked")
+public class NoteIndexOutboxRepositoryImpl implements INoteIndexOutboxRepository {
+
+	@Autowired
+	private EntityManager entityManager;
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it fetch the oldest events of the
+	 * outbox by the primary key with a write lock held until the transaction of
+	 * the caller ends.
+	 */
+	@Override
+	@Transactional
+	public List<NoteIndexEvent> claimPendingEvents(int limit) {
+		return entityManager.unwrap(Session.class).createQuery("FROM NoteIndexEvent ORDER BY eventId")
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE).setMaxResults(limit).getResultList();
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it removes all the given events with
+	 * one statement.
+	 */
+	@Override
+	@Transactional
+	public void deleteEvents(List<Long> eventIds) {
+		if (eventIds.isEmpty()) {
+			return;
+		}
+		entityManager.unwrap(Session.class).createQuery("DELETE FROM NoteIndexEvent WHERE eventId IN (:ids)")
+				.setParameterList("ids", eventIds).executeUpdate();
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it increments the attempts of all the
+	 * given events with one statement.
+	 */
+	@Override
+	@Transactional
+	public void incrementAttempts(List<Long> eventIds) {
+		if (eventIds.isEmpty()) {
+			return;
+		}
+		entityManager.unwrap(Session.class)
+				.createQuery("UPDATE NoteIndexEvent SET attempts = attempts + 1 WHERE eventId IN (:ids)")
+				.setParameterList("ids", eventIds).executeUpdate();
+	}
+
+	@Override
+	@Transactional
+	public long countPendingEvents() {
+		return (Long) entityManager.unwrap(Session.class).createQuery("SELECT count(*) FROM NoteIndexEvent")
+				.uniqueResult();
+	}
+
+	@Override
+	@Transactional
+	public LocalDateTime getOldestPendingDate() {
+		return (LocalDateTime) entityManager.unwrap(Session.class)
+				.createQuery("SELECT createdDate FROM NoteIndexEvent ORDER BY eventId").setMaxResults(1)
+				.uniqueResult();
+	}
+
+}
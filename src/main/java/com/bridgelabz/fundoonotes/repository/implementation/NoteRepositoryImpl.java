@@ -1,8 +1,14 @@
 package com.bridgelabz.fundoonotes.repository.implementation;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.transaction.Transactional;
 
 import org.hibernate.Session;
@@ -10,8 +16,18 @@ import org.hibernate.query.Query;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import com.bridgelabz.fundoonotes.model.Label;
 import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+import com.bridgelabz.fundoonotes.model.NoteBulkOperation;
+import com.bridgelabz.fundoonotes.model.NoteIndexEvent;
+import com.bridgelabz.fundoonotes.model.SyncEntityType;
+import com.bridgelabz.fundoonotes.model.User;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
 import com.bridgelabz.fundoonotes.repository.INoteRepository;
+import com.bridgelabz.fundoonotes.repository.ISyncRepository;
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent;
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent.Broadcast;
 
 /**
  * This class implements {@link INoteRepository} and defines the implementation
@@ -22,25 +38,50 @@ import com.bridgelabz.fundoonotes.repository.INoteRepository;
  * @author Duragasankar Mishra
  * @created 2020-01-27
  * @version 1.0
+ * @updated 2020-04-30
+ * @modified -> bulk operations check the owner of all the selected notes with
+ *           one query and change them with one statement.
+ * @updated 2020-05-03
+ * @modified -> every change stamps the notes with the next change of the owner
+ *           and a deletion leaves a tombstone for the delta sync.
+ * @updated 2020-05-04
+ * @modified -> bulk operations increment the version of the changed notes.
+ * @updated 2020-05-06
+ * @modified -> pages of the reminders within a range of time.
+ * @updated 2020-05-07
+ * @modified -> owner, colaborators and version of changed notes for the
+ *           pushed change events.
+ * @updated 2020-05-08
+ * @modified -> bulk operations select the notes lacking the state first and
+ *           version, index, stamp and report only those.
  */
 @Repository
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class NoteRepositoryImpl implements INoteRepository {
 
+	private static final int ID_CHUNK_SIZE = 500;
+	private static final String LABEL_MEMBERSHIP = "SELECT 1 FROM Note labelled JOIN labelled.labelsList label "
+			+ "WHERE labelled.noteId = note.noteId AND label.labelId = :value";
+
 	@Autowired
 	private EntityManager entityManager;
+	@Autowired
+	private ISyncRepository syncRepository;
 
 	/**
 	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
 	 * returns the corresponding classes of the JPA implementation then access the
-	 * save functionality and after successfully saving the data in the database
-	 * returns the data which is saved in the database.
+	 * save functionality along with an entry of the search index outbox and the
+	 * change of the owner in the same transaction and after successfully saving
+	 * the data in the database returns the data which is saved in the database.
 	 */
 	@Override
 	@Transactional
 	public Note saveOrUpdate(Note newNote) {
 		Session session = entityManager.unwrap(Session.class);
 		session.saveOrUpdate(newNote);
+		session.save(new NoteIndexEvent(newNote.getNoteId(), NoteIndexEvent.UPSERT));
+		syncRepository.stamp(SyncEntityType.NOTE, newNote.getNoteId());
 		return newNote;
 	}
 
@@ -63,16 +104,20 @@ public class NoteRepositoryImpl implements INoteRepository {
 	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
 	 * returns the corresponding classes of the JPA implementation and by using HQL
 	 * customized query from current session and fetching operation is carried out
-	 * which returns boolean value after deleting the data from database.
+	 * which returns boolean value after deleting the data from database and
+	 * recording the deletion in the search index outbox and as a tombstone of the
+	 * owner.
 	 */
 
 	@Override
 	@Transactional
 	public boolean isDeletedNote(long noteId) {
 		Session session = entityManager.unwrap(Session.class);
+		syncRepository.addTombstone(SyncEntityType.NOTE, noteId);
 		Query query = session.createQuery("DELETE FROM Note WHERE noteId=:id");
 		query.setParameter("id", noteId);
 		query.executeUpdate();
+		session.save(new NoteIndexEvent(noteId, NoteIndexEvent.DELETE));
 		return true;
 	}
 
@@ -80,67 +125,420 @@ public class NoteRepositoryImpl implements INoteRepository {
 	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
 	 * returns the corresponding classes of the JPA implementation and by using HQL
 	 * customized query from current session and if the notes are not trashed and
-	 * archived then simply fetch them.
+	 * archived then simply fetch them in the order of the listing.
 	 */
 	@Transactional
 	@Override
 	public List<Note> getAllNotes(long userId) {
-		return entityManager.unwrap(Session.class)
-				.createQuery(
-						"FROM Note WHERE user_id=:id and is_trashed=false and is_archived=false and is_pinned=false")
-				.setParameter("id", userId).getResultList();
-
+		return getNotes(userId, NoteBucket.NOTES);
 	}
 
 	/**
 	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
 	 * returns the corresponding classes of the JPA implementation and by using HQL
 	 * customized query from current session and if the notes are not trashed then
-	 * simply fetch them.
+	 * simply fetch them in the order of the listing.
 	 */
 	@Override
 	public List<Note> getAllTrashedNotes(long userId) {
-		return entityManager.unwrap(Session.class).createQuery("FROM Note WHERE user_id=:id and is_trashed=true")
-				.setParameter("id", userId).getResultList();
+		return getNotes(userId, NoteBucket.TRASHED);
 	}
 
 	/**
 	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
 	 * returns the corresponding classes of the JPA implementation and by using HQL
 	 * customized query from current session and if the notes are not pinned then
-	 * simply fetch them.
+	 * simply fetch them in the order of the listing.
 	 */
 	@Override
 	public List<Note> getAllPinnedNotes(long userId) {
-		return entityManager.unwrap(Session.class)
-				.createQuery(
-						"FROM Note WHERE user_id=:id and is_pinned=true and is_trashed=false and is_archived=false")
-				.setParameter("id", userId).getResultList();
+		return getNotes(userId, NoteBucket.PINNED);
 	}
 
 	/**
 	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
 	 * returns the corresponding classes of the JPA implementation and by using HQL
 	 * customized query from current session and if the notes are not archived then
-	 * simply fetch them.
+	 * simply fetch them in the order of the listing.
 	 */
 	@Override
 	public List<Note> getAllArchivedNotes(long userId) {
-		return entityManager.unwrap(Session.class).createQuery("FROM Note WHERE user_id=:id and is_archived=true")
-				.setParameter("id", userId).getResultList();
+		return getNotes(userId, NoteBucket.ARCHIVED);
 	}
 
 	@Override
-	public List<Note> searchBy(String noteTitle) {
-		return entityManager.unwrap(Session.class).createQuery("FROM Note WHERE title=:title and is_trashed=false")
-				.setParameter("title", noteTitle).getResultList();
+	public List<Note> getAllRemainderNotes(long userId) {
+		return getNotes(userId, NoteBucket.REMAINDERS);
 	}
 
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it seeks directly past the given sort
+	 * key and note id of the previous page and fetch at most limit notes of the
+	 * listing, so the cost of a page does not depend on how deep it is.
+	 */
 	@Override
-	public List<Note> getAllRemainderNotes(long userId) {
+	public List<Note> getNotesPage(long userId, NoteBucket bucket, Object afterSortKey, long afterNoteId,
+			int limit) {
+		String sortProperty = bucket.getSortProperty();
+		StringBuilder pageQuery = new StringBuilder("FROM Note WHERE ").append(filterOf(bucket));
+		if (afterSortKey != null) {
+			pageQuery.append(" and (").append(sortProperty).append(" < :sortKey or (").append(sortProperty)
+					.append(" = :sortKey and noteId < :noteId))");
+		}
+		pageQuery.append(orderOf(bucket));
+		Query query = entityManager.unwrap(Session.class).createQuery(pageQuery.toString());
+		query.setParameter("id", userId);
+		if (afterSortKey != null) {
+			query.setParameter("sortKey", afterSortKey);
+			query.setParameter("noteId", afterNoteId);
+		}
+		return query.setMaxResults(limit).getResultList();
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it seeks to the start of the range,
+	 * or past the remainder time and note id of the previous page, in the user
+	 * and remainder time index and fetch at most limit notes in the order of the
+	 * index.
+	 */
+	@Override
+	public List<Note> getRemainderNotesPage(long userId, LocalDateTime fromTime, LocalDateTime toTime,
+			LocalDateTime afterTime, long afterNoteId, int limit) {
+		StringBuilder pageQuery = new StringBuilder(
+				"FROM Note WHERE user_id=:id and is_trashed=false and remainderTime is not null");
+		if (fromTime != null) {
+			pageQuery.append(" and remainderTime >= :fromTime");
+		}
+		if (toTime != null) {
+			pageQuery.append(" and remainderTime < :toTime");
+		}
+		if (afterTime != null) {
+			pageQuery.append(" and (remainderTime > :afterTime or (remainderTime = :afterTime and noteId > :noteId))");
+		}
+		Query query = entityManager.unwrap(Session.class)
+				.createQuery(pageQuery.append(" ORDER BY remainderTime, noteId").toString());
+		query.setParameter("id", userId);
+		if (fromTime != null) {
+			query.setParameter("fromTime", fromTime);
+		}
+		if (toTime != null) {
+			query.setParameter("toTime", toTime);
+		}
+		if (afterTime != null) {
+			query.setParameter("afterTime", afterTime);
+			query.setParameter("noteId", afterNoteId);
+		}
+		return query.setMaxResults(limit).getResultList();
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it fetch every note of the user
+	 * newest first, using the user and creation time index.
+	 */
+	@Override
+	public List<Note> getAllNotesOfUser(long userId) {
+		return entityManager.unwrap(Session.class)
+				.createQuery("FROM Note WHERE user_id=:id" + orderOf(NoteBucket.NOTES)).setParameter("id", userId)
+				.getResultList();
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it fetch the labels and the
+	 * colaborators of all the given notes with one join query each, per chunk of
+	 * note ids, and attach them to the read models of the notes.
+	 */
+	@Override
+	@Transactional
+	public List<NoteDetailDTO> getNoteDetails(List<Note> notes) {
+		Map<Long, NoteDetailDTO> noteDetails = new LinkedHashMap<>();
+		for (Note note : notes) {
+			noteDetails.put(note.getNoteId(), new NoteDetailDTO(note));
+		}
+		Session session = entityManager.unwrap(Session.class);
+		List<Long> noteIds = new ArrayList<>(noteDetails.keySet());
+		for (int from = 0; from < noteIds.size(); from += ID_CHUNK_SIZE) {
+			List<Long> chunk = noteIds.subList(from, Math.min(from + ID_CHUNK_SIZE, noteIds.size()));
+			List<Object[]> noteLabels = session
+					.createQuery("SELECT n.noteId, l FROM Note n JOIN n.labelsList l WHERE n.noteId IN (:ids)")
+					.setParameterList("ids", chunk).getResultList();
+			for (Object[] noteLabel : noteLabels) {
+				noteDetails.get(noteLabel[0]).getLabels().add((Label) noteLabel[1]);
+			}
+			List<Object[]> noteColaborators = session
+					.createQuery(
+							"SELECT n.noteId, u.userId FROM Note n JOIN n.colaboratedUsers u WHERE n.noteId IN (:ids)")
+					.setParameterList("ids", chunk).getResultList();
+			for (Object[] noteColaborator : noteColaborators) {
+				noteDetails.get(noteColaborator[0]).getColaboratorIds().add((Long) noteColaborator[1]);
+			}
+		}
+		return new ArrayList<>(noteDetails.values());
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it fetch the notes of the label
+	 * through the note label join table in the order of the notes listing.
+	 */
+	@Override
+	@Transactional
+	public List<Note> getNotesOfLabel(long labelId) {
+		return entityManager.unwrap(Session.class)
+				.createQuery("SELECT n FROM Note n JOIN n.labelsList l WHERE l.labelId = :id "
+						+ "ORDER BY n.createdDate DESC, n.noteId DESC")
+				.setParameter("id", labelId).getResultList();
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it fetch the colaborators of the
+	 * note through the colaborator note join table.
+	 */
+	@Override
+	@Transactional
+	public List<User> getColaborators(long noteId) {
+		return entityManager.unwrap(Session.class)
+				.createQuery("SELECT u FROM Note n JOIN n.colaboratedUsers u WHERE n.noteId = :id")
+				.setParameter("id", noteId).getResultList();
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it fetch the notes of all the given
+	 * ids, per chunk of note ids. Ids of deleted notes are simply left out.
+	 */
+	@Override
+	@Transactional
+	public List<Note> getNotesById(List<Long> noteIds) {
+		Session session = entityManager.unwrap(Session.class);
+		List<Note> notes = new ArrayList<>();
+		for (int from = 0; from < noteIds.size(); from += ID_CHUNK_SIZE) {
+			List<Long> chunk = noteIds.subList(from, Math.min(from + ID_CHUNK_SIZE, noteIds.size()));
+			notes.addAll(session.createQuery("FROM Note WHERE noteId IN (:ids)").setParameterList("ids", chunk)
+					.getResultList());
+		}
+		return notes;
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it fetch all the notes of the listing
+	 * in the order of the listing.
+	 */
+	@Override
+	public List<Note> getNotes(long userId, NoteBucket bucket) {
 		return entityManager.unwrap(Session.class)
-				.createQuery("FROM Note WHERE user_id=:id and remainder_time != null and is_trashed=false")
-				.setParameter("id", userId).getResultList();
+				.createQuery("FROM Note WHERE " + filterOf(bucket) + orderOf(bucket)).setParameter("id", userId)
+				.getResultList();
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query from current session it fetch only the ids of the given
+	 * notes which belong to the user.
+	 */
+	@Override
+	public List<Long> getOwnedNoteIds(long userId, Collection<Long> noteIds) {
+		return entityManager.unwrap(Session.class)
+				.createQuery("SELECT noteId FROM Note WHERE userId=:id AND noteId IN (:ids)").setParameter("id", userId)
+				.setParameterList("ids", noteIds).getResultList();
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using HQL
+	 * customized query it first selects and locks the given notes which do not
+	 * have the state yet, then changes only those with a bulk HQL update, or a
+	 * native statement on the join table for the labelling operations. The
+	 * version of the changed notes is incremented so that a single note update
+	 * based on an older read fails, while the notes left untouched keep their
+	 * version. The search index outbox entries are written with one INSERT ...
+	 * SELECT and the changed notes are stamped with one change of the user in the
+	 * same transaction.
+	 */
+	@Override
+	@Transactional
+	public List<Long> updateNotes(long userId, List<Long> noteIds, NoteBulkOperation operation, Object value) {
+		Session session = entityManager.unwrap(Session.class);
+		Query pendingQuery = session.createQuery("SELECT note.noteId FROM Note note WHERE note.userId=:id AND "
+				+ "note.noteId IN (:ids) AND " + pendingFilterOf(operation));
+		if (operation.isLabelling() || operation == NoteBulkOperation.COLOR) {
+			pendingQuery.setParameter("value", value);
+		}
+		// locked, so the selected notes still lack the state when they are changed
+		List<Long> changedNoteIds = pendingQuery.setParameter("id", userId).setParameterList("ids", noteIds)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+		if (changedNoteIds.isEmpty()) {
+			return changedNoteIds;
+		}
+		Query query;
+		switch (operation) {
+		case LABEL:
+			query = session.createNativeQuery("INSERT INTO note_label (note_id, label_id) SELECT n.note_id, :value "
+					+ "FROM note_details n WHERE n.note_id IN (:ids)");
+			break;
+		case UNLABEL:
+			query = session.createNativeQuery("DELETE FROM note_label WHERE label_id = :value AND note_id IN (:ids)");
+			break;
+		default:
+			query = session.createQuery("UPDATE VERSIONED Note SET " + assignmentsOf(operation)
+					+ " WHERE noteId IN (:ids)");
+			if (operation != NoteBulkOperation.COLOR) {
+				query.setParameter("now", LocalDateTime.now());
+			}
+		}
+		if (operation.isLabelling() || operation == NoteBulkOperation.COLOR) {
+			query.setParameter("value", value);
+		}
+		query.setParameterList("ids", changedNoteIds).executeUpdate();
+		if (operation.isLabelling()) {
+			// the join table is changed natively, the version of the notes is not
+			session.createNativeQuery("UPDATE note_details SET version = version + 1 WHERE note_id IN (:ids)")
+					.setParameterList("ids", changedNoteIds).executeUpdate();
+		}
+		session.createNativeQuery("INSERT INTO note_index_outbox (note_id, operation, attempts, created_date) "
+				+ "SELECT note_id, :operation, 0, :now FROM note_details WHERE note_id IN (:ids)")
+				.setParameter("operation", NoteIndexEvent.UPSERT).setParameter("now", LocalDateTime.now())
+				.setParameterList("ids", changedNoteIds).executeUpdate();
+		syncRepository.stamp(SyncEntityType.NOTE, userId, changedNoteIds);
+		return changedNoteIds;
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using a
+	 * native query it reads the owner and version of the notes joined to their
+	 * colaborators, per chunk of note ids.
+	 */
+	@Override
+	@Transactional
+	public List<Broadcast> getChangeBroadcasts(Collection<Long> noteIds) {
+		Session session = entityManager.unwrap(Session.class);
+		List<Long> ids = new ArrayList<>(noteIds);
+		Map<Long, Broadcast> broadcasts = new LinkedHashMap<>();
+		for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+			List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+			List<Object[]> rows = session.createNativeQuery("SELECT n.note_id, n.version, n.user_id, c.user_id "
+					+ "FROM note_details n LEFT JOIN colaborator_note c ON c.note_id = n.note_id WHERE n.note_id IN "
+					+ "(:ids)").setParameterList("ids", chunk).getResultList();
+			for (Object[] row : rows) {
+				long noteId = ((Number) row[0]).longValue();
+				Broadcast broadcast = broadcasts.get(noteId);
+				if (broadcast == null) {
+					List<Long> userIds = new ArrayList<>();
+					if (row[2] != null) {
+						userIds.add(((Number) row[2]).longValue());
+					}
+					broadcast = new Broadcast(userIds,
+							new NoteChangeEvent(noteId, null, null, ((Number) row[1]).longValue()));
+					broadcasts.put(noteId, broadcast);
+				}
+				if (row[3] != null) {
+					broadcast.getUserIds().add(((Number) row[3]).longValue());
+				}
+			}
+		}
+		return new ArrayList<>(broadcasts.values());
+	}
+
+	/**
+	 * Returns the HQL assignments of the bulk update, the same changes the single
+	 * note operations make.
+	 * 
+	 * @param operation as {@link NoteBulkOperation} changing the note itself
+	 * @return String
+	 */
+	private static String assignmentsOf(NoteBulkOperation operation) {
+		switch (operation) {
+		case TRASH:
+			return "isTrashed=true, isArchived=false, isPinned=false, remainderTime=null, updatedDate=:now";
+		case RESTORE:
+			return "isTrashed=false, updatedDate=:now";
+		case ARCHIVE:
+			return "isArchived=true, updatedDate=:now";
+		case UNARCHIVE:
+			return "isArchived=false, updatedDate=:now";
+		case PIN:
+			return "isPinned=true, updatedDate=:now";
+		case UNPIN:
+			return "isPinned=false, updatedDate=:now";
+		default:
+			return "color=:value";
+		}
+	}
+
+	/**
+	 * Returns the HQL condition which selects the notes the bulk update still has
+	 * to change, the note being aliased as note.
+	 * 
+	 * @param operation as {@link NoteBulkOperation}
+	 * @return String
+	 */
+	private static String pendingFilterOf(NoteBulkOperation operation) {
+		switch (operation) {
+		case TRASH:
+			return "note.isTrashed=false";
+		case RESTORE:
+			return "note.isTrashed=true";
+		case ARCHIVE:
+			return "note.isArchived=false";
+		case UNARCHIVE:
+			return "note.isArchived=true";
+		case PIN:
+			return "note.isPinned=false";
+		case UNPIN:
+			return "note.isPinned=true";
+		case LABEL:
+			return "NOT EXISTS (" + LABEL_MEMBERSHIP + ")";
+		case UNLABEL:
+			return "EXISTS (" + LABEL_MEMBERSHIP + ")";
+		default:
+			return "(note.color IS NULL OR note.color<>:value)";
+		}
+	}
+
+	/**
+	 * Returns the HQL condition which selects the notes of the given listing.
+	 * 
+	 * @param bucket as {@link NoteBucket}
+	 * @return String
+	 */
+	private static String filterOf(NoteBucket bucket) {
+		switch (bucket) {
+		case PINNED:
+			return "user_id=:id and is_pinned=true and is_trashed=false and is_archived=false";
+		case ARCHIVED:
+			return "user_id=:id and is_archived=true";
+		case TRASHED:
+			return "user_id=:id and is_trashed=true";
+		case REMAINDERS:
+			return "user_id=:id and remainder_time != null and is_trashed=false";
+		default:
+			return "user_id=:id and is_trashed=false and is_archived=false and is_pinned=false";
+		}
+	}
+
+	/**
+	 * Returns the HQL order by clause of the given listing.
+	 * 
+	 * @param bucket as {@link NoteBucket}
+	 * @return String
+	 */
+	private static String orderOf(NoteBucket bucket) {
+		return " ORDER BY " + bucket.getSortProperty() + " DESC, noteId DESC";
 	}
 
 }
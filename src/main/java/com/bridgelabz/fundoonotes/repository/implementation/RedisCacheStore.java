@@ -0,0 +1,88 @@
+package com.bridgelabz.fundoonotes.repository.implementation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Repository;
+
+import com.bridgelabz.fundoonotes.repository.ICacheStore;
+
+/**
+ * Implementation of {@link ICacheStore} on the redis server of the
+ * RedisConfiguration, shared by all the instances of the application. Reads
+ * are one MGET and writes one pipeline of SET commands with their expiry. The
+ * invalidation messages go over a pub/sub channel of the same server.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-26
+ * @version 1.0
+ */
+@Repository
+@ConditionalOnProperty(name = "fundoo.cache.store", havingValue = "redis", matchIfMissing = true)
+public class RedisCacheStore implements ICacheStore {
+
+	@Autowired
+	private RedisTemplate<String, byte[]> cacheRedisTemplate;
+	@Autowired
+	private RedisMessageListenerContainer cacheListenerContainer;
+
+	@Value("${fundoo.cache.redis.invalidation-channel:fundoo.cache.invalidation}")
+	private String invalidationChannel;
+
+	@Override
+	public List<byte[]> getAll(List<String> keys) {
+		if (keys.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<byte[]> values = cacheRedisTemplate.opsForValue().multiGet(keys);
+		return values != null ? values : Collections.nCopies(keys.size(), null);
+	}
+
+	@Override
+	public void putAll(Map<String, byte[]> entries, long ttlMillis) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		Expiration expiration = Expiration.milliseconds(ttlMillis);
+		cacheRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				connection.set(StringRedisSerializer.UTF_8.serialize(entry.getKey()), entry.getValue(), expiration,
+						SetOption.upsert());
+			}
+			return null;
+		});
+	}
+
+	@Override
+	public void deleteAll(Collection<String> keys) {
+		if (!keys.isEmpty()) {
+			cacheRedisTemplate.delete(keys);
+		}
+	}
+
+	@Override
+	public void publish(byte[] message) {
+		byte[] channel = StringRedisSerializer.UTF_8.serialize(invalidationChannel);
+		cacheRedisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+	}
+
+	@Override
+	public void subscribe(Consumer<byte[]> listener) {
+		cacheListenerContainer.addMessageListener((message, pattern) -> listener.accept(message.getBody()),
+				new ChannelTopic(invalidationChannel));
+	}
+
+}
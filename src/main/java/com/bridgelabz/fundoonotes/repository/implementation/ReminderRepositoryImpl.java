@@ -0,0 +1,103 @@
+package com.bridgelabz.fundoonotes.repository.implementation;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.bridgelabz.fundoonotes.model.Reminder;
+import com.bridgelabz.fundoonotes.repository.IReminderRepository;
+
+/**
+ * This class implements {@link IReminderRepository} with native statements of
+ * the hibernate session unwrapped from the EntityManager. The upcoming
+ * reminders are read in pages through the index on the reminder time and the
+ * note id, each page seeking past the last reminder of the previous one. A
+ * reminder is claimed by copying its time to remainder_sent_time while the note
+ * is locked, so the scheduler coming second finds it claimed.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-05
+ * @version 1.0
+ */
+@Repository
+@SuppressWarnings("unchecked")
+public class ReminderRepositoryImpl implements IReminderRepository {
+
+	private static final int ID_CHUNK_SIZE = 500;
+	private static final String NOT_SENT = "(remainder_sent_time IS NULL OR remainder_sent_time <> remainder_time)";
+
+	@Autowired
+	private EntityManager entityManager;
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using a
+	 * native query it seeks past the given reminder time and note id in the index
+	 * of the reminders and fetch at most limit reminders up to the given time.
+	 */
+	@Override
+	@Transactional
+	public List<Reminder> getReminders(LocalDateTime afterTime, long afterNoteId, LocalDateTime untilTime,
+			int limit) {
+		List<Object[]> rows = entityManager.unwrap(Session.class)
+				.createNativeQuery("SELECT note_id, remainder_time FROM note_details WHERE remainder_time <= "
+						+ ":untilTime AND (remainder_time > :afterTime OR (remainder_time = :afterTime AND note_id > "
+						+ ":afterNoteId)) AND " + NOT_SENT + " ORDER BY remainder_time, note_id LIMIT :limit")
+				.setParameter("untilTime", untilTime).setParameter("afterTime", afterTime)
+				.setParameter("afterNoteId", afterNoteId).setParameter("limit", limit).getResultList();
+		List<Reminder> reminders = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			reminders.add(new Reminder(((Number) row[0]).longValue(), dateOf(row[1])));
+		}
+		return reminders;
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using
+	 * native statements it locks the due notes whose reminder is not sent yet,
+	 * marks their reminder as sent and fetch them along with their owner, per
+	 * chunk of ids. The lock is held until the transaction of the caller ends.
+	 */
+	@Override
+	@Transactional
+	public List<Reminder> claimDueReminders(Collection<Long> noteIds, LocalDateTime now) {
+		Session session = entityManager.unwrap(Session.class);
+		List<Long> ids = new ArrayList<>(noteIds);
+		List<Reminder> reminders = new ArrayList<>();
+		for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+			List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+			List<Object> claimedIds = session.createNativeQuery("SELECT note_id FROM note_details WHERE note_id IN "
+					+ "(:noteIds) AND remainder_time <= :now AND is_trashed = false AND " + NOT_SENT + " FOR UPDATE")
+					.setParameterList("noteIds", chunk).setParameter("now", now).getResultList();
+			if (claimedIds.isEmpty()) {
+				continue;
+			}
+			session.createNativeQuery("UPDATE note_details SET remainder_sent_time = remainder_time WHERE note_id IN "
+					+ "(:noteIds)").setParameterList("noteIds", claimedIds).executeUpdate();
+			List<Object[]> rows = session.createNativeQuery("SELECT n.note_id, n.remainder_time, n.title, "
+					+ "n.description, u.email_id, u.first_name, u.last_name FROM note_details n JOIN user_details u "
+					+ "ON u.user_id = n.user_id WHERE n.note_id IN (:noteIds)").setParameterList("noteIds", claimedIds)
+					.getResultList();
+			for (Object[] row : rows) {
+				reminders.add(new Reminder(((Number) row[0]).longValue(), dateOf(row[1]), (String) row[2],
+						(String) row[3], (String) row[4], (String) row[5], (String) row[6]));
+			}
+		}
+		return reminders;
+	}
+
+	private static LocalDateTime dateOf(Object value) {
+		return value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime() : (LocalDateTime) value;
+	}
+
+}
@@ -0,0 +1,302 @@
+package com.bridgelabz.fundoonotes.repository.implementation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.bridgelabz.fundoonotes.model.Label;
+import com.bridgelabz.fundoonotes.model.SyncEntityType;
+import com.bridgelabz.fundoonotes.repository.ISyncRepository;
+import com.bridgelabz.fundoonotes.response.SyncChanges.Tombstone;
+
+/**
+ * This class implements {@link ISyncRepository} with native statements of the
+ * hibernate session unwrapped from the EntityManager. The next change of a user
+ * is taken by incrementing user_details.change_seq through LAST_INSERT_ID(expr),
+ * which hands the new value to the following statement of the connection
+ * without reading it back. The incremented row stays locked until the
+ * transaction of the change ends, so the changes of a user commit in the order
+ * of their sequence.
+ * <p>
+ * A change of a note shared with colaborators takes the next change of every
+ * colaborator as well, recorded per colaborator in sync_shared_note. Their rows
+ * are locked in the order of the user id, so two changes of shared notes lock
+ * the colaborators in the same order.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-03
+ * @version 1.0
+ * @updated 2020-05-08
+ * @modified -> changes and deletions of shared notes are recorded for their
+ *           colaborators too.
+ */
+@Repository
+@SuppressWarnings("unchecked")
+public class SyncRepositoryImpl implements ISyncRepository {
+
+	private static final int ID_CHUNK_SIZE = 500;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation then flushes the
+	 * session, so that a new entity and its owner are written, and increments the
+	 * change of the owner found through the entity before stamping the entity
+	 * with it.
+	 */
+	@Override
+	@Transactional
+	public void stamp(SyncEntityType type, long entityId) {
+		Session session = entityManager.unwrap(Session.class);
+		if (nextChangeOfOwner(session, type, entityId)) {
+			session.createNativeQuery("UPDATE " + type.getTable() + " SET change_seq = LAST_INSERT_ID() WHERE "
+					+ type.getIdColumn() + " = :entityId").setParameter("entityId", entityId).executeUpdate();
+			if (type == SyncEntityType.NOTE) {
+				stampColaborators(session, Collections.singletonList(entityId));
+			}
+		}
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation then increments
+	 * the change of the user once and stamps the entities of the user with it,
+	 * per chunk of ids.
+	 */
+	@Override
+	@Transactional
+	public void stamp(SyncEntityType type, long userId, Collection<Long> entityIds) {
+		if (entityIds.isEmpty()) {
+			return;
+		}
+		Session session = entityManager.unwrap(Session.class);
+		session.createNativeQuery(
+				"UPDATE user_details SET change_seq = LAST_INSERT_ID(change_seq + 1) WHERE user_id = :userId")
+				.setParameter("userId", userId).executeUpdate();
+		List<Long> ids = new ArrayList<>(entityIds);
+		for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+			List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+			session.createNativeQuery("UPDATE " + type.getTable() + " SET change_seq = LAST_INSERT_ID() WHERE "
+					+ "user_id = :userId AND " + type.getIdColumn() + " IN (:entityIds)")
+					.setParameter("userId", userId).setParameterList("entityIds", chunk).executeUpdate();
+			if (type == SyncEntityType.NOTE) {
+				stampColaborators(session, chunk);
+			}
+		}
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation then increments
+	 * the change of the owner of the entity and writes the tombstone with it,
+	 * while the entity still exists. A deleted note is tombstoned for its
+	 * colaborators as well.
+	 */
+	@Override
+	@Transactional
+	public void addTombstone(SyncEntityType type, long entityId) {
+		Session session = entityManager.unwrap(Session.class);
+		if (nextChangeOfOwner(session, type, entityId)) {
+			session.createNativeQuery("INSERT INTO sync_tombstone (user_id, change_seq, entity_type, entity_id, "
+					+ "created_date) SELECT user_id, LAST_INSERT_ID(), :type, " + type.getIdColumn() + ", :now FROM "
+					+ type.getTable() + " WHERE " + type.getIdColumn() + " = :entityId")
+					.setParameter("type", type.name()).setParameter("now", LocalDateTime.now())
+					.setParameter("entityId", entityId).executeUpdate();
+			if (type == SyncEntityType.NOTE && nextChangeOfColaborators(session, Collections.singletonList(entityId))) {
+				session.createNativeQuery("INSERT INTO sync_tombstone (user_id, change_seq, entity_type, entity_id, "
+						+ "created_date) SELECT DISTINCT c.user_id, u.change_seq, :type, c.note_id, :now FROM "
+						+ "colaborator_note c JOIN user_details u ON u.user_id = c.user_id WHERE c.note_id = :noteId")
+						.setParameter("type", type.name()).setParameter("now", LocalDateTime.now())
+						.setParameter("noteId", entityId).executeUpdate();
+				session.createNativeQuery("DELETE FROM sync_shared_note WHERE note_id = :noteId")
+						.setParameter("noteId", entityId).executeUpdate();
+			}
+		}
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation then increments
+	 * the change of the removed colaborator, writes the tombstone of the note with
+	 * it and forgets the note shared with the colaborator.
+	 */
+	@Override
+	@Transactional
+	public void addColaboratorTombstone(long noteId, long userId) {
+		Session session = entityManager.unwrap(Session.class);
+		session.createNativeQuery(
+				"UPDATE user_details SET change_seq = LAST_INSERT_ID(change_seq + 1) WHERE user_id = :userId")
+				.setParameter("userId", userId).executeUpdate();
+		session.createNativeQuery("INSERT INTO sync_tombstone (user_id, change_seq, entity_type, entity_id, "
+				+ "created_date) VALUES (:userId, LAST_INSERT_ID(), :type, :noteId, :now)")
+				.setParameter("userId", userId).setParameter("type", SyncEntityType.NOTE.name())
+				.setParameter("noteId", noteId).setParameter("now", LocalDateTime.now()).executeUpdate();
+		session.createNativeQuery("DELETE FROM sync_shared_note WHERE user_id = :userId AND note_id = :noteId")
+				.setParameter("userId", userId).setParameter("noteId", noteId).executeUpdate();
+	}
+
+	/**
+	 * Flushes the session and increments the change of the owner of the given
+	 * entity, the new value is left in LAST_INSERT_ID() of the connection.
+	 * 
+	 * @return Boolean false if the entity has no owner
+	 */
+	private static boolean nextChangeOfOwner(Session session, SyncEntityType type, long entityId) {
+		// the user_id of a new note or label is written through its owner on flush
+		session.flush();
+		return session.createNativeQuery("UPDATE user_details u JOIN " + type.getTable()
+				+ " e ON e.user_id = u.user_id SET u.change_seq = LAST_INSERT_ID(u.change_seq + 1) WHERE e."
+				+ type.getIdColumn() + " = :entityId").setParameter("entityId", entityId).executeUpdate() > 0;
+	}
+
+	/**
+	 * Increments the change of every colaborator of the given notes and records
+	 * it as the change of the notes shared with them.
+	 */
+	private static void stampColaborators(Session session, List<Long> noteIds) {
+		if (nextChangeOfColaborators(session, noteIds)) {
+			session.createNativeQuery("INSERT INTO sync_shared_note (user_id, note_id, change_seq) SELECT DISTINCT "
+					+ "c.user_id, c.note_id, u.change_seq FROM colaborator_note c JOIN user_details u ON u.user_id = "
+					+ "c.user_id WHERE c.note_id IN (:noteIds) ON DUPLICATE KEY UPDATE change_seq = VALUES(change_seq)")
+					.setParameterList("noteIds", noteIds).executeUpdate();
+		}
+	}
+
+	/**
+	 * Increments the change of every colaborator of the given notes through the
+	 * primary key in the order of the user id, the rows stay locked and hold the
+	 * new value for the following statements of the transaction.
+	 * 
+	 * @return Boolean false if the notes are not shared
+	 */
+	private static boolean nextChangeOfColaborators(Session session, List<Long> noteIds) {
+		List<Object> colaboratorIds = session.createNativeQuery("SELECT DISTINCT user_id FROM colaborator_note "
+				+ "WHERE note_id IN (:noteIds) ORDER BY user_id").setParameterList("noteIds", noteIds)
+				.getResultList();
+		if (colaboratorIds.isEmpty()) {
+			return false;
+		}
+		session.createNativeQuery("UPDATE user_details SET change_seq = change_seq + 1 WHERE user_id IN (:userIds)")
+				.setParameterList("userIds", colaboratorIds).executeUpdate();
+		return true;
+	}
+
+	@Override
+	@Transactional
+	public long getLastChangeSeq(long userId) {
+		return longOf(entityManager.unwrap(Session.class)
+				.createNativeQuery("SELECT change_seq FROM user_details WHERE user_id = :userId")
+				.setParameter("userId", userId).uniqueResult());
+	}
+
+	@Override
+	@Transactional
+	public long getPrunedChangeSeq(long userId) {
+		return longOf(entityManager.unwrap(Session.class)
+				.createNativeQuery("SELECT sync_pruned_seq FROM user_details WHERE user_id = :userId")
+				.setParameter("userId", userId).uniqueResult());
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using a
+	 * native query it takes at most position changes from the change index of
+	 * every table and picks the one at the position among them.
+	 */
+	@Override
+	@Transactional
+	public long getChangeSeqAt(long userId, long afterSeq, int position) {
+		String changes = " WHERE user_id = :userId AND change_seq > :afterSeq ORDER BY change_seq LIMIT :position)";
+		List<Object> changeSeqs = entityManager.unwrap(Session.class)
+				.createNativeQuery("SELECT change_seq FROM ((SELECT change_seq FROM note_details" + changes
+						+ " UNION ALL (SELECT change_seq FROM label_details" + changes
+						+ " UNION ALL (SELECT change_seq FROM sync_shared_note" + changes
+						+ " UNION ALL (SELECT change_seq FROM sync_tombstone" + changes
+						+ ") changes ORDER BY change_seq LIMIT 1 OFFSET :offset")
+				.setParameter("userId", userId).setParameter("afterSeq", afterSeq).setParameter("position", position)
+				.setParameter("offset", position - 1).getResultList();
+		return changeSeqs.isEmpty() ? 0 : longOf(changeSeqs.get(0));
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using a
+	 * native query it reads the changed notes of the user and the changed notes
+	 * shared with the user, each through its change index.
+	 */
+	@Override
+	@Transactional
+	public List<Long> getChangedNoteIds(long userId, long afterSeq, long upToSeq) {
+		String changes = " WHERE user_id = :userId AND change_seq > :afterSeq AND change_seq <= :upToSeq)";
+		List<Object> noteIds = entityManager.unwrap(Session.class)
+				.createNativeQuery("SELECT note_id FROM ((SELECT note_id, change_seq FROM note_details" + changes
+						+ " UNION ALL (SELECT note_id, change_seq FROM sync_shared_note" + changes
+						+ ") changes ORDER BY change_seq")
+				.setParameter("userId", userId).setParameter("afterSeq", afterSeq).setParameter("upToSeq", upToSeq)
+				.getResultList();
+		List<Long> changedNoteIds = new ArrayList<>(noteIds.size());
+		for (Object noteId : noteIds) {
+			changedNoteIds.add(longOf(noteId));
+		}
+		return changedNoteIds;
+	}
+
+	@Override
+	@Transactional
+	public List<Label> getChangedLabels(long userId, long afterSeq, long upToSeq) {
+		return entityManager.unwrap(Session.class)
+				.createNativeQuery("SELECT * FROM label_details WHERE user_id = :userId AND change_seq > :afterSeq "
+						+ "AND change_seq <= :upToSeq ORDER BY change_seq", Label.class)
+				.setParameter("userId", userId).setParameter("afterSeq", afterSeq).setParameter("upToSeq", upToSeq)
+				.getResultList();
+	}
+
+	@Override
+	@Transactional
+	public List<Tombstone> getTombstones(long userId, long afterSeq, long upToSeq) {
+		List<Object[]> rows = entityManager.unwrap(Session.class)
+				.createNativeQuery("SELECT entity_type, entity_id FROM sync_tombstone WHERE user_id = :userId AND "
+						+ "change_seq > :afterSeq AND change_seq <= :upToSeq ORDER BY change_seq")
+				.setParameter("userId", userId).setParameter("afterSeq", afterSeq).setParameter("upToSeq", upToSeq)
+				.getResultList();
+		List<Tombstone> tombstones = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			tombstones.add(new Tombstone(SyncEntityType.valueOf((String) row[0]), longOf(row[1])));
+		}
+		return tombstones;
+	}
+
+	/**
+	 * The EntityManager and the EntityManagerFactory provide an unwrap method which
+	 * returns the corresponding classes of the JPA implementation and by using
+	 * native statements it raises the pruned change of every user to the last of
+	 * the old tombstones, then removes them.
+	 */
+	@Override
+	@Transactional
+	public int pruneTombstones(LocalDateTime before) {
+		Session session = entityManager.unwrap(Session.class);
+		session.createNativeQuery("UPDATE user_details u JOIN (SELECT user_id, MAX(change_seq) AS pruned_seq FROM "
+				+ "sync_tombstone WHERE created_date < :before GROUP BY user_id) t ON t.user_id = u.user_id "
+				+ "SET u.sync_pruned_seq = GREATEST(u.sync_pruned_seq, t.pruned_seq)").setParameter("before", before)
+				.executeUpdate();
+		return session.createNativeQuery("DELETE FROM sync_tombstone WHERE created_date < :before")
+				.setParameter("before", before).executeUpdate();
+	}
+
+	private static long longOf(Object value) {
+		return value == null ? 0 : ((Number) value).longValue();
+	}
+
+}
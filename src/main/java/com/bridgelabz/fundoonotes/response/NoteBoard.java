@@ -0,0 +1,97 @@
+package com.bridgelabz.fundoonotes.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+
+/**
+ * All listings of the user's notes which the board of the front end shows, so
+ * that a page load needs one request instead of one per listing. A note with a
+ * remainder is part of the remainders as well as of its own listing.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-15
+ * @version 1.0
+ */
+public class NoteBoard {
+
+	private List<Note> notes = new ArrayList<>();
+
+	private List<Note> pinned = new ArrayList<>();
+
+	private List<Note> archived = new ArrayList<>();
+
+	private List<Note> trashed = new ArrayList<>();
+
+	private List<Note> remainders = new ArrayList<>();
+
+	/**
+	 * Returns the mutable listing of the board for the given bucket.
+	 * 
+	 * @param bucket as {@link NoteBucket}
+	 * @return List<Note>
+	 */
+	public List<Note> listingOf(NoteBucket bucket) {
+		switch (bucket) {
+		case PINNED:
+			return pinned;
+		case ARCHIVED:
+			return archived;
+		case TRASHED:
+			return trashed;
+		case REMAINDERS:
+			return remainders;
+		default:
+			return notes;
+		}
+	}
+
+	public List<Note> getNotes() {
+		return notes;
+	}
+
+	public void setNotes(List<Note> notes) {
+		this.notes = notes;
+	}
+
+	public List<Note> getPinned() {
+		return pinned;
+	}
+
+	public void setPinned(List<Note> pinned) {
+		this.pinned = pinned;
+	}
+
+	public List<Note> getArchived() {
+		return archived;
+	}
+
+	public void setArchived(List<Note> archived) {
+		this.archived = archived;
+	}
+
+	public List<Note> getTrashed() {
+		return trashed;
+	}
+
+	public void setTrashed(List<Note> trashed) {
+		this.trashed = trashed;
+	}
+
+	public List<Note> getRemainders() {
+		return remainders;
+	}
+
+	public void setRemainders(List<Note> remainders) {
+		this.remainders = remainders;
+	}
+
+	@Override
+	public String toString() {
+		return "NoteBoard [notes=" + notes + ", pinned=" + pinned + ", archived=" + archived + ", trashed=" + trashed
+				+ ", remainders=" + remainders + "]";
+	}
+
+}
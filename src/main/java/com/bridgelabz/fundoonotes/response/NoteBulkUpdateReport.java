@@ -0,0 +1,86 @@
+package com.bridgelabz.fundoonotes.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk update of notes, one result per selected note id in the
+ * order of the request along with the number of updated and failed notes.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-30
+ * @version 1.0
+ */
+public class NoteBulkUpdateReport {
+
+	private long updatedCount;
+	private long failedCount;
+	private List<NoteResult> results = new ArrayList<>();
+
+	public NoteBulkUpdateReport() {
+
+	}
+
+	public void addUpdated(long noteId) {
+		updatedCount++;
+		results.add(new NoteResult(noteId, true, null));
+	}
+
+	public void addFailed(long noteId, String message) {
+		failedCount++;
+		results.add(new NoteResult(noteId, false, message));
+	}
+
+	public long getUpdatedCount() {
+		return updatedCount;
+	}
+
+	public long getFailedCount() {
+		return failedCount;
+	}
+
+	public List<NoteResult> getResults() {
+		return results;
+	}
+
+	@Override
+	public String toString() {
+		return "NoteBulkUpdateReport [updatedCount=" + updatedCount + ", failedCount=" + failedCount + ", results="
+				+ results + "]";
+	}
+
+	/**
+	 * Result of one selected note, the message tells why it failed.
+	 */
+	public static class NoteResult {
+
+		private final long noteId;
+		private final boolean updated;
+		private final String message;
+
+		public NoteResult(long noteId, boolean updated, String message) {
+			this.noteId = noteId;
+			this.updated = updated;
+			this.message = message;
+		}
+
+		public long getNoteId() {
+			return noteId;
+		}
+
+		public boolean isUpdated() {
+			return updated;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			return "NoteResult [noteId=" + noteId + ", updated=" + updated + ", message=" + message + "]";
+		}
+
+	}
+
+}
@@ -0,0 +1,156 @@
+package com.bridgelabz.fundoonotes.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact event pushed to the owner and the colaborators of a note whenever
+ * the note is created, changed or deleted. It only names the changed fields
+ * along with the version of the note after the change, a client holding an
+ * older version fetches the note again or runs the delta sync.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-07
+ * @version 1.0
+ */
+public class NoteChangeEvent {
+
+	public static final String CREATED = "CREATED";
+	public static final String UPDATED = "UPDATED";
+	public static final String DELETED = "DELETED";
+
+	public static final String TITLE = "title";
+	public static final String DESCRIPTION = "description";
+	public static final String ARCHIVED = "archived";
+	public static final String PINNED = "pinned";
+	public static final String TRASHED = "trashed";
+	public static final String COLOR = "color";
+	public static final String REMAINDER_TIME = "remainderTime";
+	public static final String LABELS = "labels";
+	public static final String COLABORATORS = "colaborators";
+
+	private long noteId;
+	private String type;
+	private List<String> fields;
+	private long version;
+
+	public NoteChangeEvent() {
+
+	}
+
+	/**
+	 * Constructor takes note id, the type of the change, the changed fields and
+	 * the version of the note after the change as input parameter.
+	 * 
+	 * @param noteId  as Long input parameter
+	 * @param type    as String one of {@link #CREATED}, {@link #UPDATED} or
+	 *                {@link #DELETED}
+	 * @param fields  as List<String> of the changed fields
+	 * @param version as Long input parameter
+	 */
+	public NoteChangeEvent(long noteId, String type, List<String> fields, long version) {
+		this.noteId = noteId;
+		this.type = type;
+		this.fields = fields;
+		this.version = version;
+	}
+
+	public long getNoteId() {
+		return noteId;
+	}
+
+	public void setNoteId(long noteId) {
+		this.noteId = noteId;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public List<String> getFields() {
+		return fields;
+	}
+
+	public void setFields(List<String> fields) {
+		this.fields = fields;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	@Override
+	public String toString() {
+		return "NoteChangeEvent [noteId=" + noteId + ", type=" + type + ", fields=" + fields + ", version="
+				+ version + "]";
+	}
+
+	/**
+	 * Event along with the users it is pushed to, as published to the other
+	 * instances. The users are the owner of the note and its colaborators.
+	 */
+	public static class Broadcast {
+
+		private List<Long> userIds;
+		private NoteChangeEvent event;
+
+		public Broadcast() {
+
+		}
+
+		public Broadcast(List<Long> userIds, NoteChangeEvent event) {
+			this.userIds = userIds;
+			this.event = event;
+		}
+
+		/**
+		 * This function takes the type of the change, the changed fields and a
+		 * further user as input parameter and returns the broadcast of that change
+		 * to the users of this one.
+		 * 
+		 * @param type      as String type of the change
+		 * @param fields    as List<String> of the changed fields
+		 * @param addUserId as Long user to push to as well, 0 for none
+		 * @return {@link Broadcast}
+		 */
+		public Broadcast withChange(String type, List<String> fields, long addUserId) {
+			List<Long> changeUserIds = new ArrayList<>(userIds);
+			if (addUserId != 0 && !changeUserIds.contains(addUserId)) {
+				changeUserIds.add(addUserId);
+			}
+			return new Broadcast(changeUserIds, new NoteChangeEvent(event.getNoteId(), type, fields,
+					event.getVersion()));
+		}
+
+		public List<Long> getUserIds() {
+			return userIds;
+		}
+
+		public void setUserIds(List<Long> userIds) {
+			this.userIds = userIds;
+		}
+
+		public NoteChangeEvent getEvent() {
+			return event;
+		}
+
+		public void setEvent(NoteChangeEvent event) {
+			this.event = event;
+		}
+
+		@Override
+		public String toString() {
+			return "Broadcast [userIds=" + userIds + ", event=" + event + "]";
+		}
+
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.bridgelabz.fundoonotes.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import of notes, the number of imported and rejected notes
+ * along with the reason of every rejected note. Only the first errors are
+ * listed, the count covers all of them.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-28
+ * @version 1.0
+ */
+public class NoteImportReport {
+
+	private long importedCount;
+	private long failedCount;
+	private List<RecordError> errors = new ArrayList<>();
+
+	public NoteImportReport() {
+
+	}
+
+	/**
+	 * This function takes the position of the rejected note in the input, the
+	 * reason and the number of errors to list as input parameter and records the
+	 * rejected note.
+	 * 
+	 * @param index     as Long position of the note, starting with 0
+	 * @param message   as String input parameter
+	 * @param maxErrors as Integer input parameter
+	 */
+	public void addError(long index, String message, int maxErrors) {
+		failedCount++;
+		if (errors.size() < maxErrors) {
+			errors.add(new RecordError(index, message));
+		}
+	}
+
+	public void addImported(int count) {
+		importedCount += count;
+	}
+
+	public long getImportedCount() {
+		return importedCount;
+	}
+
+	public long getFailedCount() {
+		return failedCount;
+	}
+
+	public List<RecordError> getErrors() {
+		return errors;
+	}
+
+	@Override
+	public String toString() {
+		return "NoteImportReport [importedCount=" + importedCount + ", failedCount=" + failedCount + ", errors="
+				+ errors + "]";
+	}
+
+	/**
+	 * Rejected note, identified by its position in the input.
+	 */
+	public static class RecordError {
+
+		private final long index;
+		private final String message;
+
+		public RecordError(long index, String message) {
+			this.index = index;
+			this.message = message;
+		}
+
+		public long getIndex() {
+			return index;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			return "RecordError [index=" + index + ", message=" + message + "]";
+		}
+
+	}
+
+}
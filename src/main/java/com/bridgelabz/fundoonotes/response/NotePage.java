@@ -0,0 +1,58 @@
+package com.bridgelabz.fundoonotes.response;
+
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.Note;
+
+/**
+ * One page of a note listing along with the opaque token which has to be sent
+ * back to fetch the following page. The token is null on the last page.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-12
+ * @version 1.0
+ */
+public class NotePage {
+
+	private List<Note> notes;
+
+	private String nextPageToken;
+
+	public NotePage() {
+
+	}
+
+	/**
+	 * Constructor takes notes of the page and the continuation token as input
+	 * parameter.
+	 * 
+	 * @param notes         as List<Note>
+	 * @param nextPageToken as String input parameter
+	 */
+	public NotePage(List<Note> notes, String nextPageToken) {
+		this.notes = notes;
+		this.nextPageToken = nextPageToken;
+	}
+
+	public List<Note> getNotes() {
+		return notes;
+	}
+
+	public void setNotes(List<Note> notes) {
+		this.notes = notes;
+	}
+
+	public String getNextPageToken() {
+		return nextPageToken;
+	}
+
+	public void setNextPageToken(String nextPageToken) {
+		this.nextPageToken = nextPageToken;
+	}
+
+	@Override
+	public String toString() {
+		return "NotePage [notes=" + notes + ", nextPageToken=" + nextPageToken + "]";
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.bridgelabz.fundoonotes.response;
+
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.Label;
+import com.bridgelabz.fundoonotes.model.SyncEntityType;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
+
+/**
+ * Notes, labels and deletions of a user changed after the cursor of the client,
+ * along with the cursor to send the next time. The notes carry their labels and
+ * colaborators, so a changed mapping shows up as a changed note. When more
+ * changes are left than fit in one response the client asks again right away
+ * with the new cursor. When reset is set the cursor of the client was too old
+ * or unknown, the client drops what it has and takes the response as the
+ * beginning of a full sync.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-03
+ * @version 1.0
+ */
+public class SyncChanges {
+
+	private long cursor;
+	private boolean hasMore;
+	private boolean reset;
+	private List<NoteDetailDTO> notes;
+	private List<Label> labels;
+	private List<Tombstone> deleted;
+
+	public SyncChanges() {
+
+	}
+
+	/**
+	 * Constructor takes the cursor, whether changes are left, whether the client
+	 * has to start over and the changes as input parameter.
+	 * 
+	 * @param cursor  as Long input parameter
+	 * @param hasMore as Boolean input parameter
+	 * @param reset   as Boolean input parameter
+	 * @param notes   as List<NoteDetailDTO> of the created and updated notes
+	 * @param labels  as List<Label> of the created and updated labels
+	 * @param deleted as List<Tombstone> of the deleted notes and labels
+	 */
+	public SyncChanges(long cursor, boolean hasMore, boolean reset, List<NoteDetailDTO> notes, List<Label> labels,
+			List<Tombstone> deleted) {
+		this.cursor = cursor;
+		this.hasMore = hasMore;
+		this.reset = reset;
+		this.notes = notes;
+		this.labels = labels;
+		this.deleted = deleted;
+	}
+
+	public long getCursor() {
+		return cursor;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public boolean isReset() {
+		return reset;
+	}
+
+	public List<NoteDetailDTO> getNotes() {
+		return notes;
+	}
+
+	public List<Label> getLabels() {
+		return labels;
+	}
+
+	public List<Tombstone> getDeleted() {
+		return deleted;
+	}
+
+	@Override
+	public String toString() {
+		return "SyncChanges [cursor=" + cursor + ", hasMore=" + hasMore + ", reset=" + reset + ", notes=" + notes
+				+ ", labels=" + labels + ", deleted=" + deleted + "]";
+	}
+
+	/**
+	 * Deleted note or label, the client removes it by the id.
+	 */
+	public static class Tombstone {
+
+		private final SyncEntityType type;
+		private final long id;
+
+		public Tombstone(SyncEntityType type, long id) {
+			this.type = type;
+			this.id = id;
+		}
+
+		public SyncEntityType getType() {
+			return type;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		@Override
+		public String toString() {
+			return "Tombstone [type=" + type + ", id=" + id + "]";
+		}
+
+	}
+
+}
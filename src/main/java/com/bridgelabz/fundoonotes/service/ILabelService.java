@@ -3,8 +3,9 @@ package com.bridgelabz.fundoonotes.service;
 import java.util.List;
 
 import com.bridgelabz.fundoonotes.model.Label;
-import com.bridgelabz.fundoonotes.model.Note;
 import com.bridgelabz.fundoonotes.model.dto.LabelDTO;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
+import com.bridgelabz.fundoonotes.utility.ChangeVersion;
 
 public interface ILabelService {
 	
@@ -22,6 +23,15 @@ public interface ILabelService {
 
 	public List<Label> listOfLabels(String token);
 
-	public List<Note> listOfNotesOfLabel(String token, long labelId);
-	
+	public List<NoteDetailDTO> listOfNotesOfLabel(String token, long labelId);
+
+	/**
+	 * UnImplemented functionality of finding the version of the labels after
+	 * validating the authorization token, without reading the labels.
+	 * 
+	 * @param token as String input parameter
+	 * @return {@link ChangeVersion}
+	 */
+	public ChangeVersion getLabelsVersion(String token);
+
 }
@@ -0,0 +1,29 @@
+package com.bridgelabz.fundoonotes.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.bridgelabz.fundoonotes.model.dto.NoteExportDTO;
+
+/**
+ * Service Interface of the export which has the unimplemented functionality of
+ * writing all the notes of a valid user to the response as they are read.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-01
+ * @version 1.0
+ */
+public interface INoteExportService {
+
+	/**
+	 * UnImplemented functionality of exporting every note of a customer as one
+	 * {@link NoteExportDTO} per line after validating the authorization token.
+	 * The token is validated right away, the notes are read and written only when
+	 * the returned body is written to the response.
+	 * 
+	 * @param token      as String input parameter
+	 * @param compressed as Boolean, true to gzip the lines
+	 * @return StreamingResponseBody writing the notes
+	 */
+	public StreamingResponseBody exportNotes(String token, boolean compressed);
+
+}
@@ -0,0 +1,30 @@
+package com.bridgelabz.fundoonotes.service;
+
+import java.io.InputStream;
+
+import com.bridgelabz.fundoonotes.model.dto.NoteImportDTO;
+import com.bridgelabz.fundoonotes.response.NoteImportReport;
+
+/**
+ * Service Interface of the bulk import which has the unimplemented
+ * functionality of importing many notes of a valid user at once.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-28
+ * @version 1.0
+ */
+public interface INoteImportService {
+
+	/**
+	 * UnImplemented functionality of importing the {@link NoteImportDTO} notes
+	 * read from the stream, either a JSON array or one JSON object per line, after
+	 * validating the authorization token. A rejected note does not stop the
+	 * import, it is reported along with its position.
+	 * 
+	 * @param token as String input parameter
+	 * @param notes as InputStream of the notes
+	 * @return {@link NoteImportReport}
+	 */
+	public NoteImportReport importNotes(String token, InputStream notes);
+
+}
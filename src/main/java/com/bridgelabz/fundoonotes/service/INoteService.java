@@ -1,10 +1,20 @@
 package com.bridgelabz.fundoonotes.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import com.bridgelabz.fundoonotes.model.Label;
 import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+import com.bridgelabz.fundoonotes.model.dto.NoteBulkUpdateDTO;
 import com.bridgelabz.fundoonotes.model.dto.NoteDTO;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
+import com.bridgelabz.fundoonotes.response.NoteBoard;
+import com.bridgelabz.fundoonotes.response.NoteBulkUpdateReport;
+import com.bridgelabz.fundoonotes.response.NotePage;
+import com.bridgelabz.fundoonotes.utility.ChangeVersion;
 
 /**
  * This interface has the UnImplemented functionality of registering note,
@@ -28,14 +38,16 @@ public interface INoteService {
 
 	/**
 	 * UnImplemented functionality of updating a personalized note of a customer
-	 * after validating the authorization token and note id.
+	 * after validating the authorization token and note id. With an If-Match
+	 * header the note is only updated while its version matches.
 	 * 
 	 * @param noteDto as {@link NoteDTO} input parameter
 	 * @param noteId  as long input parameter
 	 * @param token   as String input parameter
-	 * @return Boolean
+	 * @param ifMatch as String input parameter, null for an unconditional update
+	 * @return {@link Note} as saved
 	 */
-	public boolean updateNote(NoteDTO noteDto, long noteId, String token);
+	public Note updateNote(NoteDTO noteDto, long noteId, String token, String ifMatch);
 
 	/**
 	 * UnImplemented functionality of deleting a personalized note of a customer
@@ -122,6 +134,54 @@ public interface INoteService {
 	 */
 	public List<Note> getAllRemaindersNotes(String token);
 
+	/**
+	 * UnImplemented functionality of getting one page of a listing of personalized
+	 * notes of the user after validating the authorization token.
+	 * 
+	 * @param token     as String input parameter
+	 * @param bucket    as {@link NoteBucket}
+	 * @param pageToken as String input parameter, null for the first page
+	 * @param pageSize  as Integer input parameter
+	 * @return {@link NotePage}
+	 */
+	public NotePage getNotesPage(String token, NoteBucket bucket, String pageToken, int pageSize);
+
+	/**
+	 * UnImplemented functionality of getting one page of the personalized notes
+	 * of the user with a remainder within the given range, earliest remainder
+	 * first, after validating the authorization token. The overdue remainders are
+	 * the ones up to now and the next remainders the ones from now on.
+	 * 
+	 * @param token     as String input parameter
+	 * @param fromTime  as {@link LocalDateTime} inclusive, null for no lower bound
+	 * @param toTime    as {@link LocalDateTime} exclusive, null for no upper bound
+	 * @param pageToken as String input parameter, null for the first page
+	 * @param pageSize  as Integer input parameter
+	 * @return {@link NotePage}
+	 */
+	public NotePage getRemaindersPage(String token, LocalDateTime fromTime, LocalDateTime toTime, String pageToken,
+			int pageSize);
+
+	/**
+	 * UnImplemented functionality of getting every listing of personalized notes
+	 * of the user at once after validating the authorization token.
+	 * 
+	 * @param token as String input parameter
+	 * @return {@link NoteBoard}
+	 */
+	public NoteBoard getNoteBoard(String token);
+
+	/**
+	 * UnImplemented functionality of getting a listing of personalized notes of
+	 * the user along with the labels and colaborators of every note after
+	 * validating the authorization token.
+	 * 
+	 * @param token  as String input parameter
+	 * @param bucket as {@link NoteBucket}
+	 * @return List<NoteDetailDTO>
+	 */
+	public List<NoteDetailDTO> getNoteDetails(String token, NoteBucket bucket);
+
 	/**
 	 * UnImplemented functionality of changing the color of personalized note after
 	 * after validating the authorization token based on note id.
@@ -136,9 +196,9 @@ public interface INoteService {
 	 * UnImplemented functionality of setting remainder for personalized note after
 	 * after validating the authorization token based on note id.
 	 * 
-	 * @param token        as String input parameter
-	 * @param noteId       as long input parameter
-	 * @param remainderDTO as {@link RemainderDTO}
+	 * @param token         as String input parameter
+	 * @param noteId        as long input parameter
+	 * @param remainderTime as String future date time in ISO form
 	 */
 	public void setRemainderforNote(String token, long noteId, String remainderTime);
 
@@ -153,7 +213,8 @@ public interface INoteService {
 
 	/**
 	 * UnImplemented functionality of searching personalized notes of a valid user
-	 * based on the note title.
+	 * based on the words of the note title and description, a word ending with *
+	 * matches as a prefix. Notes are returned best match first.
 	 * 
 	 * @param token     as String input parameter
 	 * @param noteTitle as String input parameter
@@ -173,4 +234,37 @@ public interface INoteService {
 	 */
 	public boolean restoreNote(long noteId, String token);
 
+	/**
+	 * UnImplemented functionality of applying one change, trash, archive, pin,
+	 * color or label, to many personalized notes of a customer at once after
+	 * validating the authorization token. A note which is not found does not stop
+	 * the others from being changed, it is reported as failed.
+	 * 
+	 * @param token      as String input parameter
+	 * @param bulkUpdate as {@link NoteBulkUpdateDTO} input parameter
+	 * @return {@link NoteBulkUpdateReport} with the result of every note id
+	 */
+	public NoteBulkUpdateReport updateNotes(String token, NoteBulkUpdateDTO bulkUpdate);
+
+	/**
+	 * UnImplemented functionality of finding the version of the notes of a
+	 * customer after validating the authorization token, without reading the
+	 * notes. The version changes whenever a note of the customer or a label
+	 * changes.
+	 * 
+	 * @param token as String input parameter
+	 * @return {@link ChangeVersion}
+	 */
+	public ChangeVersion getNotesVersion(String token);
+
+	/**
+	 * UnImplemented functionality of opening a stream of server sent events
+	 * pushing the changes of every note a customer owns or colaborates on after
+	 * validating the authorization token.
+	 * 
+	 * @param token as String input parameter
+	 * @return {@link SseEmitter} of the stream
+	 */
+	public SseEmitter getNoteChanges(String token);
+
 }
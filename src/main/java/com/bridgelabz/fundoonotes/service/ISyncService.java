@@ -0,0 +1,28 @@
+package com.bridgelabz.fundoonotes.service;
+
+import com.bridgelabz.fundoonotes.response.SyncChanges;
+
+/**
+ * Service Interface of the delta sync which has the unimplemented functionality
+ * of finding what changed in the notes and labels of a valid user since the
+ * client synced last.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-03
+ * @version 1.0
+ */
+public interface ISyncService {
+
+	/**
+	 * UnImplemented functionality of fetching the notes and labels of a customer
+	 * created, updated or deleted after the cursor after validating the
+	 * authorization token.
+	 * 
+	 * @param token  as String input parameter
+	 * @param cursor as Long, the cursor of the previous sync, 0 for the first one
+	 * @param size   as Integer, the number of changes to return at most
+	 * @return {@link SyncChanges}
+	 */
+	public SyncChanges getChanges(String token, long cursor, int size);
+
+}
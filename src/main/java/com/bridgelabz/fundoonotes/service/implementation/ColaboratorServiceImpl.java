@@ -2,18 +2,24 @@ package com.bridgelabz.fundoonotes.service.implementation;
 
 import java.util.List;
 
+import javax.transaction.Transactional;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.bridgelabz.fundoonotes.exception.AuthorizationException;
 import com.bridgelabz.fundoonotes.exception.ColaboratorException;
 import com.bridgelabz.fundoonotes.exception.NoteException;
 import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.SyncEntityType;
 import com.bridgelabz.fundoonotes.model.User;
 import com.bridgelabz.fundoonotes.repository.INoteRepository;
+import com.bridgelabz.fundoonotes.repository.ISyncRepository;
 import com.bridgelabz.fundoonotes.repository.IUserRepository;
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent;
 import com.bridgelabz.fundoonotes.service.IColaboratorService;
-import com.bridgelabz.fundoonotes.utility.JWTToken;
+import com.bridgelabz.fundoonotes.utility.EntityCache;
+import com.bridgelabz.fundoonotes.utility.NoteChangeNotifier;
+import com.bridgelabz.fundoonotes.utility.UserAuthenticator;
 import com.bridgelabz.fundoonotes.utility.Util;
 
 /**
@@ -21,6 +27,17 @@ import com.bridgelabz.fundoonotes.utility.Util;
  * @author Durgasankar Mishra
  * @created 2020-02-09
  * @version 1.0
+ * @updated -> 2020-05-03
+ * @modified -> a changed colaborator stamps the note with the next change of
+ *           its owner for the delta sync.
+ * @updated -> 2020-05-07
+ * @modified -> a changed colaborator is pushed to the users of the note, the
+ *           removed colaborator included.
+ * @updated -> 2020-05-08
+ * @modified -> the removed colaborator receives the note as deleted through
+ *           the delta sync.
+ * @updated -> 2020-05-08
+ * @modified -> the colaborators of a note are read with one join query.
  */
 @Service
 public class ColaboratorServiceImpl implements IColaboratorService {
@@ -29,24 +46,13 @@ public class ColaboratorServiceImpl implements IColaboratorService {
 	@Autowired
 	private INoteRepository noteRepository;
 	@Autowired
-	private JWTToken jwtToken;
-
-	/**
-	 * This function takes authentication token as String input parameter and decode
-	 * token an authenticate user after successful authentication it return the
-	 * verified user else throw {@link AuthorizationException}
-	 * 
-	 * @param token as String input parameter
-	 * @return {@link User}
-	 */
-	private User authenticatedMainUser(String token) {
-		User fetchedUser = userRepository.getUser(jwtToken.decodeToken(token));
-		if (fetchedUser != null) {
-			return fetchedUser;
-		}
-		throw new AuthorizationException(Util.USER_AUTHORIZATION_EXCEPTION_MESSAGE,
-				Util.USER_AUTHENTICATION_EXCEPTION_STATUS);
-	}
+	private ISyncRepository syncRepository;
+	@Autowired
+	private UserAuthenticator userAuthenticator;
+	@Autowired
+	private EntityCache entityCache;
+	@Autowired
+	private NoteChangeNotifier noteChangeNotifier;
 
 	/**
 	 * This function takes note id as input parameter check for it's existence in
@@ -75,8 +81,9 @@ public class ColaboratorServiceImpl implements IColaboratorService {
 	}
 
 	@Override
+	@Transactional
 	public boolean addColaborator(String token, long noteId, String emailId) {
-		if (authenticatedMainUser(token).getEmailId().equals(emailId)) {
+		if (userAuthenticator.authenticatedUser(token).getEmailId().equals(emailId)) {
 			throw new ColaboratorException("Opps...Can't add own account as colaborator", 400);
 		}
 		Note fetchedValidNote = verifiedNote(noteId);
@@ -84,23 +91,32 @@ public class ColaboratorServiceImpl implements IColaboratorService {
 		fetchedValidNote.getColaboratedUsers().add(fetchedValidColaborator);
 		fetchedValidColaborator.getColaboratedNotes().add(fetchedValidNote);
 		userRepository.save(fetchedValidColaborator);
+		syncRepository.stamp(SyncEntityType.NOTE, noteId);
+		entityCache.evictNote(noteId, fetchedValidNote.getUserId());
+		noteChangeNotifier.noteChanged(noteId, NoteChangeEvent.COLABORATORS);
 		return true;
 	}
 
 	@Override
 	public List<User> getColaboratorsOfNote(String token, long noteId) {
-		authenticatedMainUser(token);
-		return verifiedNote(noteId).getColaboratedUsers();
+		userAuthenticator.authenticate(token);
+		verifiedNote(noteId);
+		return noteRepository.getColaborators(noteId);
 	}
 
 	@Override
+	@Transactional
 	public boolean removeColaborator(String token, long noteId, String emailId) {
-		authenticatedMainUser(token);
+		userAuthenticator.authenticate(token);
 		Note fetchedValidNote = verifiedNote(noteId);
 		User fetchedValidColaborator = validColaborator(emailId);
 		fetchedValidNote.getColaboratedUsers().remove(fetchedValidColaborator);
 		fetchedValidColaborator.getColaboratedNotes().remove(fetchedValidNote);
 		userRepository.save(fetchedValidColaborator);
+		syncRepository.stamp(SyncEntityType.NOTE, noteId);
+		syncRepository.addColaboratorTombstone(noteId, fetchedValidColaborator.getUserId());
+		entityCache.evictNote(noteId, fetchedValidNote.getUserId());
+		noteChangeNotifier.colaboratorRemoved(noteId, fetchedValidColaborator.getUserId());
 		return true;
 	}
 
@@ -5,22 +5,29 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import javax.transaction.Transactional;
+
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.bridgelabz.fundoonotes.exception.AuthorizationException;
 import com.bridgelabz.fundoonotes.exception.LabelException;
 import com.bridgelabz.fundoonotes.exception.NoteException;
 import com.bridgelabz.fundoonotes.model.Label;
 import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.SyncEntityType;
 import com.bridgelabz.fundoonotes.model.User;
 import com.bridgelabz.fundoonotes.model.dto.LabelDTO;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
 import com.bridgelabz.fundoonotes.repository.ILabelRepository;
 import com.bridgelabz.fundoonotes.repository.INoteRepository;
-import com.bridgelabz.fundoonotes.repository.IUserRepository;
+import com.bridgelabz.fundoonotes.repository.ISyncRepository;
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent;
 import com.bridgelabz.fundoonotes.service.ILabelService;
-import com.bridgelabz.fundoonotes.utility.JWTToken;
+import com.bridgelabz.fundoonotes.utility.ChangeVersion;
+import com.bridgelabz.fundoonotes.utility.EntityCache;
+import com.bridgelabz.fundoonotes.utility.NoteChangeNotifier;
+import com.bridgelabz.fundoonotes.utility.UserAuthenticator;
 import com.bridgelabz.fundoonotes.utility.Util;
 
 /**
@@ -28,36 +35,35 @@ import com.bridgelabz.fundoonotes.utility.Util;
  * @author Durgasankar Mishra
  * @created 2020-03-01
  * @version 1.0
- *
+ * @updated -> 2020-05-03
+ * @modified -> changes of the labels and of their notes are stamped with the
+ *           next change of the owner in the transaction of the change, and a
+ *           deleted label leaves a tombstone for the delta sync.
+ * @updated -> 2020-05-07
+ * @modified -> a note mapped to a label or removed from it is pushed to the
+ *           users of the note.
+ * @updated -> 2020-05-08
+ * @modified -> removing a note from a label runs in one transaction and evicts
+ *           the note after the commit like mapping it.
+ * @updated -> 2020-05-08
+ * @modified -> the notes of a label are listed along with their labels and
+ *           colaborators like the other listings.
  */
 @Service
 public class LabelServiceImpl implements ILabelService {
 
-	@Autowired
-	private IUserRepository userRepository;
 	@Autowired
 	private ILabelRepository labelRepository;
 	@Autowired
 	private INoteRepository noteRepository;
 	@Autowired
-	private JWTToken jwtToken;
-
-	/**
-	 * This function takes authentication token as String input parameter and decode
-	 * token an authenticate user after successful authentication it return the
-	 * verified user else throw {@link AuthorizationException}
-	 * 
-	 * @param token as String input parameter
-	 * @return {@link User}
-	 */
-	private User authenticatedUser(String token) {
-		User fetchedUser = userRepository.getUser(jwtToken.decodeToken(token));
-		if (fetchedUser != null) {
-			return fetchedUser;
-		}
-		throw new AuthorizationException(Util.USER_AUTHORIZATION_EXCEPTION_MESSAGE,
-				Util.USER_AUTHENTICATION_EXCEPTION_STATUS);
-	}
+	private ISyncRepository syncRepository;
+	@Autowired
+	private UserAuthenticator userAuthenticator;
+	@Autowired
+	private EntityCache entityCache;
+	@Autowired
+	private NoteChangeNotifier noteChangeNotifier;
 
 	/**
 	 * This function takes note id as input parameter check for it's existence in
@@ -75,8 +81,9 @@ public class LabelServiceImpl implements ILabelService {
 	}
 
 	@Override
+	@Transactional
 	public void createLabel(String token, LabelDTO labelDTO) {
-		User fetchedUser = authenticatedUser(token);
+		User fetchedUser = userAuthenticator.authenticatedUser(token);
 		Label fetchedLabel = labelRepository.findOneBylabelName(labelDTO.getLabelName());
 		if (fetchedLabel == null) {
 			Label newLabel = new Label();
@@ -84,6 +91,8 @@ public class LabelServiceImpl implements ILabelService {
 			newLabel.setCreatedDate(LocalDateTime.now());
 			fetchedUser.getLabels().add(newLabel);
 			labelRepository.save(newLabel);
+			syncRepository.stamp(SyncEntityType.LABEL, newLabel.getLabelId());
+			entityCache.evictLabels();
 			return;
 		}
 		throw new LabelException(Util.LABEL_ALREADY_EXIST_EXCEPTION_MESSAGE, Util.ALREADY_EXIST_EXCEPTION_STATUS);
@@ -91,8 +100,9 @@ public class LabelServiceImpl implements ILabelService {
 	}
 
 	@Override
+	@Transactional
 	public boolean createLabelAndMap(String token, long noteId, LabelDTO labelDTO) {
-		User fetchedUser = authenticatedUser(token);
+		User fetchedUser = userAuthenticator.authenticatedUser(token);
 		Note fetchedNote = verifiedNote(noteId);
 		Label fetchedLabel = labelRepository.findOneBylabelName(labelDTO.getLabelName());
 		if (fetchedLabel == null) {
@@ -102,44 +112,59 @@ public class LabelServiceImpl implements ILabelService {
 			fetchedUser.getLabels().add(newLabel);
 			fetchedNote.getLabelsList().add(newLabel);
 			labelRepository.save(newLabel);
+			syncRepository.stamp(SyncEntityType.LABEL, newLabel.getLabelId());
+			syncRepository.stamp(SyncEntityType.NOTE, noteId);
+			entityCache.evictLabels();
+			entityCache.evictNote(noteId, fetchedNote.getUserId());
+			noteChangeNotifier.noteChanged(noteId, NoteChangeEvent.LABELS);
 			return true;
 		}
 		throw new LabelException(Util.LABEL_ALREADY_EXIST_EXCEPTION_MESSAGE, Util.ALREADY_EXIST_EXCEPTION_STATUS);
 	}
 
 	@Override
+	@Transactional
 	public boolean addNoteToLabel(String token, long noteId, long labelId) {
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		Note fetchedNote = verifiedNote(noteId);
 		Optional<Label> fetchedLabel = labelRepository.findById(labelId);
 		if (fetchedLabel.isPresent()) {
 			fetchedNote.getLabelsList().add(fetchedLabel.get());
 			labelRepository.save(fetchedLabel.get());
+			syncRepository.stamp(SyncEntityType.NOTE, noteId);
+			entityCache.evictNote(noteId, fetchedNote.getUserId());
+			noteChangeNotifier.noteChanged(noteId, NoteChangeEvent.LABELS);
 			return true;
 		}
 		throw new LabelException(Util.LABEL_ALREADY_EXIST_EXCEPTION_MESSAGE, Util.ALREADY_EXIST_EXCEPTION_STATUS);
 	}
 
 	@Override
+	@Transactional
 	public boolean removeNoteFromLabel(String token, long noteId, long labelId) {
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		Note fetchedNote = verifiedNote(noteId);
 		Optional<Label> fetchedLabel = labelRepository.findById(labelId);
 		if (fetchedLabel.isPresent()) {
 			fetchedNote.getLabelsList().remove(fetchedLabel.get());
 			noteRepository.saveOrUpdate(fetchedNote);
+			entityCache.evictNote(noteId, fetchedNote.getUserId());
+			noteChangeNotifier.noteChanged(noteId, NoteChangeEvent.LABELS);
 			return true;
 		}
 		throw new LabelException(Util.LABEL_NOT_FOUND_EXCEPTION_MESSAGE, Util.NOT_FOUND_RESPONSE_CODE);
 	}
 
 	@Override
+	@Transactional
 	public boolean isLabelEdited(String token, String labelName, long labelId) {
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		Optional<Label> fetchedLabel = labelRepository.findById(labelId);
 		if (fetchedLabel.isPresent()) {
 			if (isValidNameForEdit(fetchedLabel, labelName)) {
 				labelRepository.updateLabelName(labelName, fetchedLabel.get().getLabelId());
+				syncRepository.stamp(SyncEntityType.LABEL, labelId);
+				entityCache.evictLabels();
 				return true;
 			}
 			return false;
@@ -156,11 +181,14 @@ public class LabelServiceImpl implements ILabelService {
 	}
 
 	@Override
+	@Transactional
 	public boolean idDeletedLabel(String token, long labelId) {
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		Optional<Label> fetchedLabel = labelRepository.findById(labelId);
 		if (fetchedLabel.isPresent()) {
+			syncRepository.addTombstone(SyncEntityType.LABEL, labelId);
 			labelRepository.delete(fetchedLabel.get());
+			entityCache.evictLabels();
 			return true;
 		}
 		throw new LabelException(Util.LABEL_NOT_FOUND_EXCEPTION_MESSAGE, Util.NOT_FOUND_RESPONSE_CODE);
@@ -168,21 +196,28 @@ public class LabelServiceImpl implements ILabelService {
 
 	@Override
 	public List<Label> listOfLabels(String token) {
-		authenticatedUser(token);
-		List<Label> fetchedAllLabels = labelRepository.getAllLabels();
+		userAuthenticator.authenticate(token);
+		List<Label> fetchedAllLabels = entityCache.getLabels(labelRepository::getAllLabels);
 		Collections.sort(fetchedAllLabels,
 				(lable1, lable2) -> lable2.getCreatedDate().compareTo(lable1.getCreatedDate()));
 		return fetchedAllLabels;
 	}
 
 	@Override
-	public List<Note> listOfNotesOfLabel(String token, long labelId) {
-		authenticatedUser(token);
+	public List<NoteDetailDTO> listOfNotesOfLabel(String token, long labelId) {
+		userAuthenticator.authenticate(token);
 		Optional<Label> fetchedLabel = labelRepository.findById(labelId);
 		if (fetchedLabel.isPresent()) {
-			return fetchedLabel.get().getNoteList();
+			// labels and colaborators of the notes with a fixed number of queries
+			return noteRepository.getNoteDetails(noteRepository.getNotesOfLabel(labelId));
 		}
 		throw new LabelException(Util.LABEL_NOT_FOUND_EXCEPTION_MESSAGE, Util.NOT_FOUND_RESPONSE_CODE);
 	}
 
+	@Override
+	public ChangeVersion getLabelsVersion(String token) {
+		userAuthenticator.authenticate(token);
+		return entityCache.getLabelsVersion();
+	}
+
 }
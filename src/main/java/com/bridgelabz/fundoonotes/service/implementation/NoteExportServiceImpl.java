@@ -0,0 +1,90 @@
+package com.bridgelabz.fundoonotes.service.implementation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.bridgelabz.fundoonotes.model.dto.NoteExportDTO;
+import com.bridgelabz.fundoonotes.repository.INoteExportRepository;
+import com.bridgelabz.fundoonotes.service.INoteExportService;
+import com.bridgelabz.fundoonotes.utility.UserAuthenticator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * This class implements {@link INoteExportService} interface. Every note is
+ * serialized straight to the output stream as soon as the repository read it,
+ * so the export holds one note in memory whatever be the number of notes of
+ * the user. The generator and the gzip stream buffer the lines, the response
+ * is flushed by the servlet container as its buffer fills.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-01
+ * @version 1.0
+ * @see {@link INoteExportRepository} for the streamed query
+ * @updated -> 2020-05-08
+ * @modified -> the lines are written by a mapper of the export itself, so the
+ *           dates stay ISO-8601 text.
+ */
+@Service
+public class NoteExportServiceImpl implements INoteExportService {
+
+	private static final int GZIP_BUFFER_SIZE = 8192;
+	/**
+	 * Mapper of the export format, the dates are ISO-8601 text whatever be the
+	 * configuration of the mapper of the application.
+	 */
+	static final ObjectMapper EXPORT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	@Autowired
+	private INoteExportRepository noteExportRepository;
+	@Autowired
+	private UserAuthenticator userAuthenticator;
+
+	@Override
+	public StreamingResponseBody exportNotes(String token, boolean compressed) {
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		return outputStream -> writeNotes(userId,
+				compressed ? new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE) : outputStream);
+	}
+
+	/**
+	 * This function takes the user id and the output stream as input parameter
+	 * and writes every note of the user as one line of JSON. The output stream is
+	 * finished but not closed, it belongs to the servlet container.
+	 */
+	private void writeNotes(long userId, OutputStream outputStream) throws IOException {
+		// the response is flushed once at the end, not after every note
+		ObjectWriter noteWriter = EXPORT_MAPPER.writerFor(NoteExportDTO.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		JsonGenerator generator = EXPORT_MAPPER.getFactory().createGenerator(outputStream)
+				.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET).setRootValueSeparator(null);
+		try {
+			noteExportRepository.exportNotes(userId, note -> {
+				try {
+					noteWriter.writeValue(generator, note);
+					generator.writeRaw('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			// client went away, the cursor is closed by the repository
+			throw e.getCause();
+		}
+		generator.close();
+		if (outputStream instanceof GZIPOutputStream) {
+			((GZIPOutputStream) outputStream).finish();
+		}
+	}
+
+}
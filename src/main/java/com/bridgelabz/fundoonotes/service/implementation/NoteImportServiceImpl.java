@@ -0,0 +1,277 @@
+package com.bridgelabz.fundoonotes.service.implementation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bridgelabz.fundoonotes.exception.NoteException;
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.SyncEntityType;
+import com.bridgelabz.fundoonotes.model.dto.NoteImportDTO;
+import com.bridgelabz.fundoonotes.repository.INoteImportRepository;
+import com.bridgelabz.fundoonotes.repository.ISyncRepository;
+import com.bridgelabz.fundoonotes.response.NoteImportReport;
+import com.bridgelabz.fundoonotes.service.INoteImportService;
+import com.bridgelabz.fundoonotes.utility.EntityCache;
+import com.bridgelabz.fundoonotes.utility.UserAuthenticator;
+import com.bridgelabz.fundoonotes.utility.Util;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * This class implements {@link INoteImportService} interface. The notes are
+ * read one at a time from the request body, so the size of an import is not
+ * bounded by the memory, and every configured number of valid notes is written
+ * with batched statements in a transaction of its own. The labels of the notes
+ * are resolved once per import and created when missing.
+ * <p>
+ * A note which can not be read or is not valid is reported and skipped. When a
+ * batch fails, its notes are saved one by one so that only the faulty ones are
+ * reported. Malformed JSON stops the import, the notes read before it are
+ * kept.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-28
+ * @version 1.0
+ * @see {@link INoteImportRepository} for the batched statements
+ */
+@Service
+public class NoteImportServiceImpl implements INoteImportService {
+
+	private static final ObjectReader NOTE_READER = new ObjectMapper().readerFor(NoteImportDTO.class)
+			.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+	private static final int MAX_TITLE_LENGTH = 200;
+	private static final int MAX_DESCRIPTION_LENGTH = 7000;
+	private static final int MAX_COLOR_LENGTH = 30;
+	private static final int MAX_LABEL_NAME_LENGTH = 255;
+	private static final String DEFAULT_COLOR = "white";
+
+	@Autowired
+	private INoteImportRepository noteImportRepository;
+	@Autowired
+	private ISyncRepository syncRepository;
+	@Autowired
+	private UserAuthenticator userAuthenticator;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private EntityCache entityCache;
+
+	@Value("${fundoo.import.batch-size:500}")
+	private int batchSize;
+	@Value("${fundoo.import.max-reported-errors:100}")
+	private int maxReportedErrors;
+
+	@Override
+	public NoteImportReport importNotes(String token, InputStream notes) {
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		NoteImportReport report = new NoteImportReport();
+		Map<String, Long> labelIds = new HashMap<>();
+		List<ImportedNote> batch = new ArrayList<>(batchSize);
+		boolean readFailed = false;
+		long index = 0;
+		try (MappingIterator<NoteImportDTO> records = NOTE_READER.readValues(notes)) {
+			while (records.hasNextValue()) {
+				try {
+					NoteImportDTO record = records.nextValue();
+					String error = validationErrorOf(record);
+					if (error != null) {
+						report.addError(index, error, maxReportedErrors);
+					} else {
+						batch.add(new ImportedNote(index, record));
+					}
+				} catch (JsonMappingException e) {
+					// the reader skips the rest of the faulty note
+					report.addError(index, "Opps...Invalid note! " + e.getOriginalMessage(), maxReportedErrors);
+				}
+				index++;
+				if (batch.size() >= batchSize) {
+					importBatch(userId, batch, labelIds, report);
+					batch.clear();
+				}
+			}
+		} catch (JsonParseException e) {
+			report.addError(index, "Opps...Malformed JSON, import stopped! " + e.getOriginalMessage(),
+					maxReportedErrors);
+		} catch (IOException e) {
+			readFailed = true;
+		}
+		importBatch(userId, batch, labelIds, report);
+		if (report.getImportedCount() > 0) {
+			entityCache.evictNotesOfUser(userId);
+		}
+		if (!labelIds.isEmpty()) {
+			entityCache.evictLabels();
+		}
+		if (readFailed) {
+			throw new NoteException("Opps...Error reading the notes! Imported " + report.getImportedCount(),
+					Util.BAD_REQUEST_RESPONSE_CODE);
+		}
+		return report;
+	}
+
+	/**
+	 * This function takes the user id, the batch of valid notes, the label ids
+	 * resolved so far and the report as input parameter and saves the batch in a
+	 * transaction of its own. When the batch fails its notes are saved one by
+	 * one.
+	 */
+	private void importBatch(long userId, List<ImportedNote> batch, Map<String, Long> labelIds,
+			NoteImportReport report) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			Map<String, Long> batchLabelIds = transactionTemplate
+					.execute(status -> insertBatch(userId, batch, labelIds));
+			// only known once the labels are committed
+			labelIds.putAll(batchLabelIds);
+			report.addImported(batch.size());
+		} catch (RuntimeException e) {
+			if (batch.size() == 1) {
+				report.addError(batch.get(0).index, "Opps...Error saving note!", maxReportedErrors);
+				return;
+			}
+			for (ImportedNote importedNote : batch) {
+				importBatch(userId, Collections.singletonList(importedNote), labelIds, report);
+			}
+		}
+	}
+
+	/**
+	 * Writes the labels missing so far, the notes and their mappings to the
+	 * labels, and stamps the labels and the notes with a change of the user.
+	 * 
+	 * @return Map of the ids of the labels resolved for this batch by the name
+	 */
+	private Map<String, Long> insertBatch(long userId, List<ImportedNote> batch, Map<String, Long> labelIds) {
+		Set<String> missingLabelNames = new LinkedHashSet<>();
+		List<Note> notes = new ArrayList<>(batch.size());
+		for (ImportedNote importedNote : batch) {
+			notes.add(importedNote.note);
+			for (String labelName : importedNote.labelNames) {
+				if (!labelIds.containsKey(labelName)) {
+					missingLabelNames.add(labelName);
+				}
+			}
+		}
+		Map<String, Long> batchLabelIds = new HashMap<>();
+		if (!missingLabelNames.isEmpty()) {
+			batchLabelIds.putAll(noteImportRepository.getLabelIds(missingLabelNames));
+			missingLabelNames.removeAll(batchLabelIds.keySet());
+		}
+		if (!missingLabelNames.isEmpty()) {
+			Map<String, Long> createdLabelIds = noteImportRepository.insertLabels(userId,
+					new ArrayList<>(missingLabelNames), LocalDateTime.now());
+			syncRepository.stamp(SyncEntityType.LABEL, userId, createdLabelIds.values());
+			batchLabelIds.putAll(createdLabelIds);
+		}
+		long[] noteIds = noteImportRepository.insertNotes(userId, notes);
+		List<long[]> noteLabels = new ArrayList<>();
+		for (int position = 0; position < batch.size(); position++) {
+			for (String labelName : batch.get(position).labelNames) {
+				Long labelId = batchLabelIds.containsKey(labelName) ? batchLabelIds.get(labelName)
+						: labelIds.get(labelName);
+				noteLabels.add(new long[] { noteIds[position], labelId });
+			}
+		}
+		noteImportRepository.insertNoteLabels(noteLabels);
+		List<Long> importedNoteIds = new ArrayList<>(noteIds.length);
+		for (long noteId : noteIds) {
+			importedNoteIds.add(noteId);
+		}
+		syncRepository.stamp(SyncEntityType.NOTE, userId, importedNoteIds);
+		return batchLabelIds;
+	}
+
+	/**
+	 * This function takes the read note as input parameter and returns the
+	 * reason it can not be imported.
+	 * 
+	 * @param record as {@link NoteImportDTO}
+	 * @return String, null for a valid note
+	 */
+	private static String validationErrorOf(NoteImportDTO record) {
+		if (record == null) {
+			return "Opps...Empty note!";
+		}
+		if (isBlank(record.getTitle()) && isBlank(record.getDescription())) {
+			return "Opps...Note has neither title nor description!";
+		}
+		if (isLongerThan(record.getTitle(), MAX_TITLE_LENGTH)) {
+			return "Opps...Title is longer than " + MAX_TITLE_LENGTH + " characters!";
+		}
+		if (isLongerThan(record.getDescription(), MAX_DESCRIPTION_LENGTH)) {
+			return "Opps...Description is longer than " + MAX_DESCRIPTION_LENGTH + " characters!";
+		}
+		if (isLongerThan(record.getColor(), MAX_COLOR_LENGTH)) {
+			return "Opps...Color is longer than " + MAX_COLOR_LENGTH + " characters!";
+		}
+		if (record.getLabels() != null) {
+			for (String labelName : record.getLabels()) {
+				if (isBlank(labelName)) {
+					return "Opps...Label name is empty!";
+				}
+				if (isLongerThan(labelName.trim(), MAX_LABEL_NAME_LENGTH)) {
+					return "Opps...Label name is longer than " + MAX_LABEL_NAME_LENGTH + " characters!";
+				}
+			}
+		}
+		return null;
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.trim().isEmpty();
+	}
+
+	private static boolean isLongerThan(String value, int maxLength) {
+		return value != null && value.length() > maxLength;
+	}
+
+	/**
+	 * Valid note of the import along with its position in the input and the
+	 * distinct names of its labels.
+	 */
+	private static final class ImportedNote {
+
+		private final long index;
+		private final Note note;
+		private final Set<String> labelNames = new LinkedHashSet<>();
+
+		private ImportedNote(long index, NoteImportDTO record) {
+			this.index = index;
+			note = new Note();
+			note.setTitle(record.getTitle());
+			note.setDescription(record.getDescription());
+			note.setColor(isBlank(record.getColor()) ? DEFAULT_COLOR : record.getColor());
+			note.setPinned(record.isPinned());
+			note.setArchived(record.isArchived());
+			note.setCreatedDate(LocalDateTime.now());
+			// pinned and archived notes are paged on the update time
+			note.setUpdatedDate(note.getCreatedDate());
+			if (record.getLabels() != null) {
+				for (String labelName : record.getLabels()) {
+					labelNames.add(labelName.trim());
+				}
+			}
+		}
+
+	}
+
+}
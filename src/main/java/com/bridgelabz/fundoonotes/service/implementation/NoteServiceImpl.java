@@ -1,24 +1,53 @@
 package com.bridgelabz.fundoonotes.service.implementation;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.bridgelabz.fundoonotes.exception.AuthorizationException;
+import com.bridgelabz.fundoonotes.exception.LabelException;
+import com.bridgelabz.fundoonotes.exception.NoteConflictException;
 import com.bridgelabz.fundoonotes.exception.NoteException;
 import com.bridgelabz.fundoonotes.exception.RemainderException;
 import com.bridgelabz.fundoonotes.model.Label;
 import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+import com.bridgelabz.fundoonotes.model.NoteBulkOperation;
 import com.bridgelabz.fundoonotes.model.User;
+import com.bridgelabz.fundoonotes.model.dto.NoteBulkUpdateDTO;
 import com.bridgelabz.fundoonotes.model.dto.NoteDTO;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
+import com.bridgelabz.fundoonotes.repository.ILabelRepository;
 import com.bridgelabz.fundoonotes.repository.INoteRepository;
-import com.bridgelabz.fundoonotes.repository.IUserRepository;
+import com.bridgelabz.fundoonotes.repository.INoteSearchEngine;
+import com.bridgelabz.fundoonotes.response.NoteBoard;
+import com.bridgelabz.fundoonotes.response.NoteBulkUpdateReport;
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent;
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent.Broadcast;
+import com.bridgelabz.fundoonotes.response.NotePage;
 import com.bridgelabz.fundoonotes.service.INoteService;
-import com.bridgelabz.fundoonotes.utility.JWTToken;
+import com.bridgelabz.fundoonotes.utility.ChangeVersion;
+import com.bridgelabz.fundoonotes.utility.EntityCache;
+import com.bridgelabz.fundoonotes.utility.EntityTags;
+import com.bridgelabz.fundoonotes.utility.NoteChangeNotifier;
+import com.bridgelabz.fundoonotes.utility.NoteChangeStreams;
+import com.bridgelabz.fundoonotes.utility.PageToken;
+import com.bridgelabz.fundoonotes.utility.ReminderScheduler;
+import com.bridgelabz.fundoonotes.utility.UserAuthenticator;
+import com.bridgelabz.fundoonotes.utility.UserPrincipal;
 import com.bridgelabz.fundoonotes.utility.Util;
 
 /**
@@ -31,38 +60,48 @@ import com.bridgelabz.fundoonotes.utility.Util;
  * @version 1.0
  * @updated 2020-01-30
  * @modified -> optimized code for authentication of user and validation of note
+ * @updated 2020-04-26
+ * @modified -> listings and searched notes are read through the
+ *           {@link EntityCache}, saved notes are written through and removed
+ *           notes evicted.
+ * @updated 2020-04-30
+ * @modified -> bulk update of many notes with one ownership check and one
+ *           statement.
+ * @updated 2020-05-04
+ * @modified -> a note changed since it was read is not overwritten, the
+ *           conflict is answered with the current note.
+ * @updated 2020-05-05
+ * @modified -> reminders are parsed into a date time and handed to the
+ *           {@link ReminderScheduler}.
+ * @updated 2020-05-06
+ * @modified -> pages of the reminders within a range of time.
+ * @updated 2020-05-07
+ * @modified -> every change of a note is pushed to its owner and colaborators
+ *           through the {@link NoteChangeNotifier}.
  */
 @Service
 public class NoteServiceImpl implements INoteService {
 
-	@Autowired
-	private IUserRepository userRepository;
+	private static final int MAX_COLOR_LENGTH = 30;
+	private static final String[] TRASHED_FIELDS = { NoteChangeEvent.TRASHED, NoteChangeEvent.ARCHIVED,
+			NoteChangeEvent.PINNED, NoteChangeEvent.REMAINDER_TIME };
+
 	@Autowired
 	private INoteRepository noteRepository;
 	@Autowired
-	private JWTToken jwtToken;
-//	@Autowired
-//	private RedisTemplate<String, Object> redisTemplate;
-
-//	@Autowired
-//	private IElasticSearchRepository elasticSearchRepository;
-
-	/**
-	 * This function takes authentication token as String input parameter and decode
-	 * token an authenticate user after successful authentication it return the
-	 * verified user else throw {@link AuthorizationException}
-	 * 
-	 * @param token as String input parameter
-	 * @return {@link User}
-	 */
-	private User authenticatedUser(String token) {
-		User fetchedUser = userRepository.getUser(jwtToken.decodeToken(token));
-		if (fetchedUser != null) {
-			return fetchedUser;
-		}
-		throw new AuthorizationException(Util.USER_AUTHORIZATION_EXCEPTION_MESSAGE,
-				Util.USER_AUTHENTICATION_EXCEPTION_STATUS);
-	}
+	private UserAuthenticator userAuthenticator;
+	@Autowired
+	private INoteSearchEngine noteSearchEngine;
+	@Autowired
+	private EntityCache entityCache;
+	@Autowired
+	private ILabelRepository labelRepository;
+	@Autowired
+	private ReminderScheduler reminderScheduler;
+	@Autowired
+	private NoteChangeNotifier noteChangeNotifier;
+	@Autowired
+	private NoteChangeStreams noteChangeStreams;
 
 	/**
 	 * This function takes note id as input parameter check for it's existence in
@@ -79,17 +118,43 @@ public class NoteServiceImpl implements INoteService {
 		throw new NoteException(Util.NOTE_NOT_FOUND_EXCEPTION_MESSAGE, Util.NOTE_NOT_FOUND_EXCEPTION_STATUS);
 	}
 
-//	private long getRedisCacheId(String token) {
-//		// split token on basis of . and stored in an array
-//		String[] splitedToken = token.split("\\.");
-//		// concatenation of the separated token by removing .
-//		String redisTokenKey = splitedToken[1] + splitedToken[2];
-//		if (redisTemplate.opsForValue().get(redisTokenKey) == null) {
-//			long idForRedis = jwtToken.decodeToken(token);
-//			redisTemplate.opsForValue().set(redisTokenKey, idForRedis, 3 * 60, TimeUnit.SECONDS);
-//		}
-//		return (Long) redisTemplate.opsForValue().get(redisTokenKey);
-//	}
+	/**
+	 * This function takes the changed note and the changed fields as input
+	 * parameter and saves it to the database then writes it through to the
+	 * {@link EntityCache}. A note changed by someone else since it was loaded is
+	 * not overwritten.
+	 * 
+	 * @param note          as {@link Note} loaded from the repository
+	 * @param changedFields as String names of the fields pushed to the users of
+	 *                      the note
+	 */
+	private void saveNote(Note note, String... changedFields) {
+		saveNote(note, Util.CONFLICT_RESPONSE_CODE, changedFields);
+	}
+
+	/**
+	 * This function takes the changed note, the status of a conflict and the
+	 * changed fields as input parameter and saves it to the database then writes
+	 * it through to the {@link EntityCache} and pushes the change to the owner and
+	 * the colaborators of the note. If the version of the note changed since it
+	 * was loaded the save is rolled back and {@link NoteConflictException} is
+	 * thrown with the note read again.
+	 * 
+	 * @param note           as {@link Note} loaded from the repository
+	 * @param conflictStatus as Integer input parameter
+	 * @param changedFields  as String names of the changed fields
+	 */
+	private void saveNote(Note note, int conflictStatus, String... changedFields) {
+		try {
+			noteRepository.saveOrUpdate(note);
+		} catch (OptimisticLockingFailureException exception) {
+			// the rollback cleared the session, so the note is read from the database
+			Note currentNote = verifiedNote(note.getNoteId());
+			throw new NoteConflictException(Util.NOTE_CONFLICT_EXCEPTION_MESSAGE, conflictStatus, currentNote);
+		}
+		entityCache.putNote(note, note.getUserId());
+		noteChangeNotifier.noteChanged(note.getNoteId(), changedFields);
+	}
 
 	/**
 	 * This function takes {@link NoteDTO} as input parameter and token as path
@@ -101,17 +166,18 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public boolean createNote(NoteDTO noteDto, String token) {
 		// found authorized user
-		User fetchedUser = authenticatedUser(token);
-		// implemented redisCache functionality
-//		User fetchedUser = userRepository.getUser(getRedisCacheId(token));
+		User fetchedUser = userAuthenticator.authenticatedUser(token);
 		if (fetchedUser != null) {
 			Note newNote = new Note();
 			BeanUtils.copyProperties(noteDto, newNote);
 			newNote.setCreatedDate(LocalDateTime.now());
+			// the creation is the first update, the listings are paged on it
+			newNote.setUpdatedDate(newNote.getCreatedDate());
 			newNote.setColor("white");
 			fetchedUser.getNotes().add(newNote);
 			noteRepository.saveOrUpdate(newNote);
-//			elasticSearchRepository.createNote(newNote);
+			entityCache.putNote(newNote, fetchedUser.getUserId());
+			noteChangeNotifier.noteCreated(newNote.getNoteId());
 			return true;
 		}
 		throw new AuthorizationException(Util.USER_AUTHORIZATION_EXCEPTION_MESSAGE,
@@ -119,22 +185,38 @@ public class NoteServiceImpl implements INoteService {
 	}
 
 	/**
-	 * This function takes {@link NoteDTO} as input parameter and token as path
-	 * variable. Using token it authorize the user if the user is verified then all
-	 * data of noteDto is copied to the note class and update time and date is saved
-	 * in the database. On Successful update it display proper message to the user.
+	 * This function takes {@link NoteDTO} as input parameter, token as path
+	 * variable and the If-Match header. Using token it authorize the user if the
+	 * user is verified then the version of the note is checked against the
+	 * If-Match header, the fields given in noteDto are copied to the note class and
+	 * update time and date is saved in the database. A note whose version does not
+	 * match, or which is changed meanwhile, is answered with a conflict carrying
+	 * the current note. On Successful update it returns the saved note.
 	 */
 	@Override
-	public boolean updateNote(NoteDTO noteDto, long noteId, String token) {
+	public Note updateNote(NoteDTO noteDto, long noteId, String token, String ifMatch) {
 		// found authorized user
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		// verified valid note
 		Note fetchedNote = verifiedNote(noteId);
-		BeanUtils.copyProperties(noteDto, fetchedNote);
+		if (ifMatch != null && !EntityTags.matches(ifMatch, fetchedNote.getVersion())) {
+			throw new NoteConflictException(Util.NOTE_CONFLICT_EXCEPTION_MESSAGE,
+					Util.PRECONDITION_FAILED_RESPONSE_CODE, fetchedNote);
+		}
+		// a field left out of the request keeps its value
+		List<String> changedFields = new ArrayList<>();
+		if (noteDto.getTitle() != null) {
+			fetchedNote.setTitle(noteDto.getTitle());
+			changedFields.add(NoteChangeEvent.TITLE);
+		}
+		if (noteDto.getDescription() != null) {
+			fetchedNote.setDescription(noteDto.getDescription());
+			changedFields.add(NoteChangeEvent.DESCRIPTION);
+		}
 		fetchedNote.setUpdatedDate(LocalDateTime.now());
-		noteRepository.saveOrUpdate(fetchedNote);
-//		elasticSearchRepository.updateNote(fetchedNote);
-		return true;
+		saveNote(fetchedNote, ifMatch == null ? Util.CONFLICT_RESPONSE_CODE : Util.PRECONDITION_FAILED_RESPONSE_CODE,
+				changedFields.toArray(new String[0]));
+		return fetchedNote;
 	}
 
 	/**
@@ -146,11 +228,15 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public boolean deleteNote(long noteId, String token) {
 		// found authorized user
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		// verified valid note
-		verifiedNote(noteId);
+		Note fetchedNote = verifiedNote(noteId);
+		// the colaborators are gone with the note
+		List<Broadcast> deletion = noteChangeNotifier.deletionOf(noteId);
 		noteRepository.isDeletedNote(noteId);
-//		elasticSearchRepository.deleteNote(fetchedVerifiedNote);
+		entityCache.evictNote(noteId, fetchedNote.getUserId());
+		reminderScheduler.cancel(noteId);
+		noteChangeNotifier.publish(deletion);
 		return true;
 	}
 
@@ -164,22 +250,20 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public boolean isArchivedNote(long noteId, String token) {
 		// found authorized user
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		// verified valid note
 		Note fetchedNote = verifiedNote(noteId);
 		// fetched note is not archived
 		if (!fetchedNote.isArchived()) {
 			fetchedNote.setArchived(true);
 			fetchedNote.setUpdatedDate(LocalDateTime.now());
-			noteRepository.saveOrUpdate(fetchedNote);
-//			elasticSearchRepository.updateNote(fetchedNote);
+			saveNote(fetchedNote, NoteChangeEvent.ARCHIVED);
 			return true;
 		}
 		// if archived already unArchive functionality
 		fetchedNote.setArchived(false);
 		fetchedNote.setUpdatedDate(LocalDateTime.now());
-		noteRepository.saveOrUpdate(fetchedNote);
-//		elasticSearchRepository.updateNote(fetchedNote);
+		saveNote(fetchedNote, NoteChangeEvent.ARCHIVED);
 		return false;
 	}
 
@@ -193,20 +277,19 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public boolean isPinnedNote(long noteId, String token) {
 		// found authorized user
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		// verified valid note
 		Note fetchedNote = verifiedNote(noteId);
 		if (!fetchedNote.isPinned()) {
 			fetchedNote.setPinned(true);
 			fetchedNote.setUpdatedDate(LocalDateTime.now());
-			noteRepository.saveOrUpdate(fetchedNote);
+			saveNote(fetchedNote, NoteChangeEvent.PINNED);
 			return true;
 		}
 		// if pinned already
 		fetchedNote.setPinned(false);
 		fetchedNote.setUpdatedDate(LocalDateTime.now());
-		noteRepository.saveOrUpdate(fetchedNote);
-//		elasticSearchRepository.updateNote(fetchedNote);
+		saveNote(fetchedNote, NoteChangeEvent.PINNED);
 		return false;
 	}
 
@@ -220,7 +303,7 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public boolean trashNote(long noteId, String token) {
 		// found authorized user
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		// verified valid note
 		Note fetchedNote = verifiedNote(noteId);
 		if (!fetchedNote.isTrashed()) {
@@ -229,8 +312,8 @@ public class NoteServiceImpl implements INoteService {
 			fetchedNote.setPinned(false);
 			fetchedNote.setRemainderTime(null);
 			fetchedNote.setUpdatedDate(LocalDateTime.now());
-			noteRepository.saveOrUpdate(fetchedNote);
-//			elasticSearchRepository.updateNote(fetchedNote);
+			saveNote(fetchedNote, TRASHED_FIELDS);
+			reminderScheduler.cancel(noteId);
 			return true;
 		}
 		// if trashed already
@@ -248,14 +331,13 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public boolean restoreNote(long noteId, String token) {
 		// found authorized user
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		// verified valid note
 		Note fetchedNote = verifiedNote(noteId);
 		if (fetchedNote.isTrashed()) {
 			fetchedNote.setTrashed(false);
 			fetchedNote.setUpdatedDate(LocalDateTime.now());
-			noteRepository.saveOrUpdate(fetchedNote);
-//			elasticSearchRepository.updateNote(fetchedNote);
+			saveNote(fetchedNote, NoteChangeEvent.TRASHED);
 			return true;
 		}
 		return false;
@@ -268,9 +350,8 @@ public class NoteServiceImpl implements INoteService {
 	 */
 	@Override
 	public List<Note> getallNotes(String token) {
-		List<Note> fetchedNotes = noteRepository.getAllNotes(authenticatedUser(token).getUserId());
-		Collections.sort(fetchedNotes, (note1, note2) -> note2.getCreatedDate().compareTo(note1.getCreatedDate()));
-		return fetchedNotes;
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		return entityCache.getNotes(userId, NoteBucket.NOTES, () -> noteRepository.getAllNotes(userId));
 	}
 
 	/**
@@ -281,9 +362,9 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public List<Note> getAllTrashedNotes(String token) {
 		// note found of authenticated user
-		List<Note> fetchedTrashedNotes = noteRepository.getAllTrashedNotes(authenticatedUser(token).getUserId());
-		Collections.sort(fetchedTrashedNotes,
-				(note1, note2) -> note2.getUpdatedDate().compareTo(note1.getUpdatedDate()));
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		List<Note> fetchedTrashedNotes = entityCache.getNotes(userId, NoteBucket.TRASHED,
+				() -> noteRepository.getAllTrashedNotes(userId));
 		if (!fetchedTrashedNotes.isEmpty()) {
 			return fetchedTrashedNotes;
 		}
@@ -299,9 +380,9 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public List<Note> getAllPinnedNotes(String token) {
 		// note found of authenticated user
-		List<Note> fetchedPinnedNotes = noteRepository.getAllPinnedNotes(authenticatedUser(token).getUserId());
-		Collections.sort(fetchedPinnedNotes,
-				(note1, note2) -> note2.getUpdatedDate().compareTo(note1.getUpdatedDate()));
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		List<Note> fetchedPinnedNotes = entityCache.getNotes(userId, NoteBucket.PINNED,
+				() -> noteRepository.getAllPinnedNotes(userId));
 		if (!fetchedPinnedNotes.isEmpty()) {
 			return fetchedPinnedNotes;
 		}
@@ -316,9 +397,9 @@ public class NoteServiceImpl implements INoteService {
 	 */
 	@Override
 	public List<Note> getAllArchivedNotes(String token) {
-		List<Note> fetchedArchivedNotes = noteRepository.getAllArchivedNotes(authenticatedUser(token).getUserId());
-		Collections.sort(fetchedArchivedNotes,
-				(note1, note2) -> note2.getUpdatedDate().compareTo(note1.getUpdatedDate()));
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		List<Note> fetchedArchivedNotes = entityCache.getNotes(userId, NoteBucket.ARCHIVED,
+				() -> noteRepository.getAllArchivedNotes(userId));
 		// note found of authenticated user
 		if (!fetchedArchivedNotes.isEmpty()) {
 			return fetchedArchivedNotes;
@@ -329,9 +410,9 @@ public class NoteServiceImpl implements INoteService {
 
 	@Override
 	public List<Note> getAllRemaindersNotes(String token) {
-		List<Note> fetchedremainderNotes = noteRepository.getAllRemainderNotes(authenticatedUser(token).getUserId());
-		Collections.sort(fetchedremainderNotes,
-				(note1, note2) -> note2.getRemainderTime().compareTo(note1.getRemainderTime()));
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		List<Note> fetchedremainderNotes = entityCache.getNotes(userId, NoteBucket.REMAINDERS,
+				() -> noteRepository.getAllRemainderNotes(userId));
 		// note found of authenticated user
 		if (!fetchedremainderNotes.isEmpty()) {
 			return fetchedremainderNotes;
@@ -340,6 +421,131 @@ public class NoteServiceImpl implements INoteService {
 		return fetchedremainderNotes;
 	}
 
+	/**
+	 * This function takes authorized token, listing, continuation token and page
+	 * size from the user checks for user authorization if valid customer then
+	 * fetch one page of the listing ordered by the database, starting right after
+	 * the note the continuation token points to, and returns it along with the
+	 * continuation token of the next page.
+	 */
+	@Override
+	public NotePage getNotesPage(String token, NoteBucket bucket, String pageToken, int pageSize) {
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		int limit = Math.max(1, Math.min(pageSize, Util.MAX_PAGE_SIZE));
+		Object afterSortKey = null;
+		long afterNoteId = 0;
+		if (pageToken != null && !pageToken.isEmpty()) {
+			PageToken decodedToken = PageToken.decode(pageToken);
+			afterSortKey = sortKeyOf(bucket, decodedToken);
+			afterNoteId = decodedToken.getId();
+		}
+		// one extra note tells whether a next page exist
+		List<Note> fetchedNotes = noteRepository.getNotesPage(userId, bucket, afterSortKey, afterNoteId, limit + 1);
+		return pageOf(fetchedNotes, limit, bucket);
+	}
+
+	/**
+	 * This function takes authorized token, the range of remainder time,
+	 * continuation token and page size from the user checks for user
+	 * authorization if valid customer then fetch one page of the notes which are
+	 * not trashed and have a remainder within the range, earliest remainder
+	 * first, and returns it along with the continuation token of the next page.
+	 */
+	@Override
+	public NotePage getRemaindersPage(String token, LocalDateTime fromTime, LocalDateTime toTime, String pageToken,
+			int pageSize) {
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		if (fromTime != null && toTime != null && !fromTime.isBefore(toTime)) {
+			throw new NoteException(Util.INVALID_REMAINDER_RANGE_EXCEPTION_MESSAGE, Util.BAD_REQUEST_RESPONSE_CODE);
+		}
+		int limit = Math.max(1, Math.min(pageSize, Util.MAX_PAGE_SIZE));
+		LocalDateTime afterTime = null;
+		long afterNoteId = 0;
+		if (pageToken != null && !pageToken.isEmpty()) {
+			PageToken decodedToken = PageToken.decode(pageToken);
+			afterTime = (LocalDateTime) sortKeyOf(NoteBucket.REMAINDERS, decodedToken);
+			afterNoteId = decodedToken.getId();
+		}
+		// one extra note tells whether a next page exist
+		List<Note> fetchedNotes = noteRepository.getRemainderNotesPage(userId, fromTime, toTime, afterTime,
+				afterNoteId, limit + 1);
+		return pageOf(fetchedNotes, limit, NoteBucket.REMAINDERS);
+	}
+
+	/**
+	 * This function takes the listing and a decoded continuation token as input
+	 * parameter and returns the sort key the token points to else throw
+	 * {@link NoteException} if it is not one of the listing.
+	 * 
+	 * @param bucket       as {@link NoteBucket}
+	 * @param decodedToken as {@link PageToken}
+	 * @return Object
+	 */
+	private static Object sortKeyOf(NoteBucket bucket, PageToken decodedToken) {
+		try {
+			return bucket.parseSortKey(decodedToken.getSortKey());
+		} catch (DateTimeParseException e) {
+			throw new NoteException(Util.INVALID_PAGE_TOKEN_EXCEPTION_MESSAGE, Util.BAD_REQUEST_RESPONSE_CODE);
+		}
+	}
+
+	/**
+	 * This function takes the notes fetched with one extra note, the page size
+	 * and the listing as input parameter and returns the page along with the
+	 * continuation token pointing to its last note if a next page exist.
+	 * 
+	 * @param fetchedNotes as List<Note> at most limit + 1 notes
+	 * @param limit        as Integer input parameter
+	 * @param bucket       as {@link NoteBucket} giving the sort key
+	 * @return {@link NotePage}
+	 */
+	private static NotePage pageOf(List<Note> fetchedNotes, int limit, NoteBucket bucket) {
+		if (fetchedNotes.size() <= limit) {
+			return new NotePage(fetchedNotes, null);
+		}
+		List<Note> pageNotes = fetchedNotes.subList(0, limit);
+		Note lastNote = pageNotes.get(limit - 1);
+		return new NotePage(pageNotes, PageToken.encode(bucket.sortKeyOf(lastNote), lastNote.getNoteId()));
+	}
+
+	/**
+	 * This function takes authorized token from the user checks for user
+	 * authorization if valid customer then fetch all notes of the user with one
+	 * query and partition them into every listing of the board in one pass.
+	 */
+	@Override
+	public NoteBoard getNoteBoard(String token) {
+		// fetched newest first which is already the order of the notes listing
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		List<Note> fetchedNotes = entityCache.getAllNotesOfUser(userId, () -> noteRepository.getAllNotesOfUser(userId));
+		NoteBoard noteBoard = new NoteBoard();
+		for (Note note : fetchedNotes) {
+			for (NoteBucket bucket : NoteBucket.values()) {
+				if (bucket.contains(note)) {
+					noteBoard.listingOf(bucket).add(note);
+				}
+			}
+		}
+		for (NoteBucket bucket : NoteBucket.values()) {
+			if (bucket != NoteBucket.NOTES) {
+				noteBoard.listingOf(bucket).sort(bucket.ordering());
+			}
+		}
+		return noteBoard;
+	}
+
+	/**
+	 * This function takes authorized token and listing from the user checks for
+	 * user authorization if valid customer then fetch the notes of the listing and
+	 * their labels and colaborators with a bounded number of queries.
+	 */
+	@Override
+	public List<NoteDetailDTO> getNoteDetails(String token, NoteBucket bucket) {
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		return noteRepository
+				.getNoteDetails(entityCache.getNotes(userId, bucket, () -> noteRepository.getNotes(userId, bucket)));
+	}
+
 	/**
 	 * This function takes note id and authorized token and note color from the user
 	 * checks for user authentication if valid customer found then it set the color
@@ -349,31 +555,40 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public void changeColour(String token, long noteId, String noteColour) {
 		// authenticate user
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		// validate note
 		Note fetchedNote = verifiedNote(noteId);
 		fetchedNote.setColor(noteColour);
-		noteRepository.saveOrUpdate(fetchedNote);
-//		elasticSearchRepository.updateNote(fetchedNote);
+		saveNote(fetchedNote, NoteChangeEvent.COLOR);
 	}
 
 	/**
-	 * This function takes note id, {@link RemainderDTO} and authorized token from
-	 * the user checks for user authentication if valid customer found then it
-	 * checks whether remainder is set before or not if not set it set the remainder
-	 * for note and add the update time then add to database.
+	 * This function takes note id, the remainder time in ISO form and authorized
+	 * token from the user checks for user authentication if valid customer found
+	 * then it checks whether the time is in the future and whether remainder is
+	 * set before or not if not set it set the remainder for note and add the
+	 * update time then add to database and schedule the remainder mail.
 	 */
 	@Override
 	public void setRemainderforNote(String token, long noteId, String remainderTime) {
 		// authenticate user
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
+		LocalDateTime parsedRemainderTime;
+		try {
+			parsedRemainderTime = LocalDateTime.parse(remainderTime);
+		} catch (DateTimeParseException e) {
+			throw new NoteException(Util.INVALID_REMAINDER_TIME_EXCEPTION_MESSAGE, Util.BAD_REQUEST_RESPONSE_CODE);
+		}
+		if (!parsedRemainderTime.isAfter(LocalDateTime.now())) {
+			throw new NoteException(Util.INVALID_REMAINDER_TIME_EXCEPTION_MESSAGE, Util.BAD_REQUEST_RESPONSE_CODE);
+		}
 		// validate note
 		Note fetchedNote = verifiedNote(noteId);
-		if (fetchedNote.getRemainderTime() == null ||!fetchedNote.getRemainderTime().equals(remainderTime)) {
+		if (!parsedRemainderTime.equals(fetchedNote.getRemainderTime())) {
 			fetchedNote.setUpdatedDate(LocalDateTime.now());
-			fetchedNote.setRemainderTime(remainderTime);
-			noteRepository.saveOrUpdate(fetchedNote);
-//			elasticSearchRepository.updateNote(fetchedNote);
+			fetchedNote.setRemainderTime(parsedRemainderTime);
+			saveNote(fetchedNote, NoteChangeEvent.REMAINDER_TIME);
+			reminderScheduler.schedule(noteId, parsedRemainderTime);
 			return;
 		}
 		throw new RemainderException("Opps...Remainder already set for above time", 502);
@@ -388,30 +603,48 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public void removeRemainderforNote(String token, long noteId) {
 		// authenticate user
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		// validate note
 		Note fetchedNote = verifiedNote(noteId);
 		if (fetchedNote.getRemainderTime() != null) {
 			fetchedNote.setRemainderTime(null);
 			fetchedNote.setUpdatedDate(LocalDateTime.now());
-			noteRepository.saveOrUpdate(fetchedNote);
-//			elasticSearchRepository.updateNote(fetchedNote);
+			saveNote(fetchedNote, NoteChangeEvent.REMAINDER_TIME);
+			reminderScheduler.cancel(noteId);
 			return;
 		}
 		throw new RemainderException("Opps...Remainder already removed!", 502);
 	}
 
 	/**
-	 * This function takes note title and authorized token from the user checks for
-	 * user authorization if valid customer then find all the available notes which
-	 * are not trashed of the authenticated user based on title String.
+	 * This function takes search query and authorized token from the user checks
+	 * for user authorization if valid customer then ranks the notes of the
+	 * authenticated user on their title and description through the configured
+	 * {@link INoteSearchEngine} and returns the matching notes which are not
+	 * trashed, best match first.
 	 */
 	@Override
 	public List<Note> searchByTitle(String token, String noteTitle) {
 		// authenticate user
-		authenticatedUser(token);
-		List<Note> fetchedNotes = noteRepository.searchBy(noteTitle);
-//		List<Note> fetchedElasticNotes = elasticSearchRepository.searchByTitle(noteTitle);
+		UserPrincipal principal = userAuthenticator.authenticate(token);
+		List<Long> matchedNoteIds;
+		try {
+			matchedNoteIds = noteSearchEngine.search(principal.getUserId(), noteTitle, Util.MAX_PAGE_SIZE);
+		} catch (IOException e) {
+			throw new NoteException(Util.SEARCH_UNAVAILABLE_EXCEPTION_MESSAGE, Util.BAD_GATEWAY_RESPONSE_CODE);
+		}
+		Map<Long, Note> matchedNotes = new HashMap<>();
+		for (Note note : entityCache.getNotesById(matchedNoteIds, noteRepository::getNotesById)) {
+			matchedNotes.put(note.getNoteId(), note);
+		}
+		// the index follows the database lazily, so recheck owner and trash
+		List<Note> fetchedNotes = new ArrayList<>();
+		for (Long noteId : matchedNoteIds) {
+			Note note = matchedNotes.get(noteId);
+			if (note != null && !note.isTrashed() && Long.valueOf(principal.getUserId()).equals(note.getUserId())) {
+				fetchedNotes.add(note);
+			}
+		}
 		// notes are not empty
 		if (!fetchedNotes.isEmpty()) {
 			return fetchedNotes;
@@ -423,8 +656,124 @@ public class NoteServiceImpl implements INoteService {
 	@Override
 	public List<Label> getLabelsOfNote(String token, long noteId) {
 		// authenticate user
-		authenticatedUser(token);
+		userAuthenticator.authenticate(token);
 		return verifiedNote(noteId).getLabelsList();
 	}
 
+	/**
+	 * This function takes authorized token from the user checks for user
+	 * authorization if valid customer then returns the version of the notes of
+	 * the user from the {@link EntityCache}, the database is not read.
+	 */
+	@Override
+	public ChangeVersion getNotesVersion(String token) {
+		return entityCache.getNotesVersion(userAuthenticator.authenticate(token).getUserId());
+	}
+
+	/**
+	 * This function takes authorized token from the user checks for user
+	 * authorization if valid customer then opens a stream pushing the changes of
+	 * every note the user owns or colaborates on, made on any instance.
+	 */
+	@Override
+	public SseEmitter getNoteChanges(String token) {
+		if (token == null) {
+			throw new AuthorizationException(Util.USER_AUTHORIZATION_EXCEPTION_MESSAGE,
+					Util.USER_AUTHENTICATION_EXCEPTION_STATUS);
+		}
+		return noteChangeStreams.open(userAuthenticator.authenticate(token).getUserId());
+	}
+
+	/**
+	 * This function takes authorized token and {@link NoteBulkUpdateDTO} from the
+	 * user checks for user authorization if valid customer then finds which of
+	 * the selected notes belong to the user with one query and applies the change
+	 * to all of them with one statement. Notes which are not found or belong to
+	 * someone else are reported as failed.
+	 */
+	@Override
+	public NoteBulkUpdateReport updateNotes(String token, NoteBulkUpdateDTO bulkUpdate) {
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		Object value = verifiedValueOf(bulkUpdate);
+		Set<Long> selectedNoteIds = new LinkedHashSet<>(bulkUpdate.getNoteIds());
+		selectedNoteIds.remove(null);
+		List<Long> ownedNoteIds = selectedNoteIds.isEmpty() ? new ArrayList<>()
+				: noteRepository.getOwnedNoteIds(userId, selectedNoteIds);
+		if (!ownedNoteIds.isEmpty()) {
+			List<Long> changedNoteIds = noteRepository.updateNotes(userId, ownedNoteIds, bulkUpdate.getOperation(),
+					value);
+			if (!changedNoteIds.isEmpty()) {
+				noteChangeNotifier.notesChanged(changedNoteIds, changedFieldsOf(bulkUpdate.getOperation()));
+				entityCache.evictNotes(changedNoteIds, userId);
+			}
+		}
+		Set<Long> updatedNoteIds = new HashSet<>(ownedNoteIds);
+		NoteBulkUpdateReport report = new NoteBulkUpdateReport();
+		for (Long noteId : selectedNoteIds) {
+			if (updatedNoteIds.contains(noteId)) {
+				report.addUpdated(noteId);
+			} else {
+				report.addFailed(noteId, Util.NOTE_NOT_FOUND_EXCEPTION_MESSAGE);
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * This function takes the bulk operation as input parameter and returns the
+	 * fields of the notes it changes, the same the single note operations report.
+	 * 
+	 * @param operation as {@link NoteBulkOperation}
+	 * @return String[] names of the changed fields
+	 */
+	private static String[] changedFieldsOf(NoteBulkOperation operation) {
+		switch (operation) {
+		case TRASH:
+			return TRASHED_FIELDS;
+		case RESTORE:
+			return new String[] { NoteChangeEvent.TRASHED };
+		case ARCHIVE:
+		case UNARCHIVE:
+			return new String[] { NoteChangeEvent.ARCHIVED };
+		case PIN:
+		case UNPIN:
+			return new String[] { NoteChangeEvent.PINNED };
+		case COLOR:
+			return new String[] { NoteChangeEvent.COLOR };
+		default:
+			return new String[] { NoteChangeEvent.LABELS };
+		}
+	}
+
+	/**
+	 * This function takes the bulk update as input parameter, checks the number
+	 * of selected notes and returns the value the operation needs, the color or
+	 * the id of an existing label.
+	 * 
+	 * @param bulkUpdate as {@link NoteBulkUpdateDTO}
+	 * @return Object, null when the operation needs no value
+	 */
+	private Object verifiedValueOf(NoteBulkUpdateDTO bulkUpdate) {
+		NoteBulkOperation operation = bulkUpdate.getOperation();
+		List<Long> noteIds = bulkUpdate.getNoteIds();
+		if (operation == null || noteIds == null || noteIds.isEmpty() || noteIds.size() > Util.MAX_BULK_UPDATE_SIZE) {
+			throw new NoteException(Util.INVALID_BULK_UPDATE_EXCEPTION_MESSAGE, Util.BAD_REQUEST_RESPONSE_CODE);
+		}
+		if (operation == NoteBulkOperation.COLOR) {
+			String color = bulkUpdate.getColor();
+			if (color == null || color.trim().isEmpty() || color.length() > MAX_COLOR_LENGTH) {
+				throw new NoteException(Util.INVALID_BULK_UPDATE_EXCEPTION_MESSAGE, Util.BAD_REQUEST_RESPONSE_CODE);
+			}
+			return color;
+		}
+		if (operation.isLabelling()) {
+			Long labelId = bulkUpdate.getLabelId();
+			if (labelId == null || !labelRepository.existsById(labelId)) {
+				throw new LabelException(Util.LABEL_NOT_FOUND_EXCEPTION_MESSAGE, Util.NOT_FOUND_RESPONSE_CODE);
+			}
+			return labelId;
+		}
+		return null;
+	}
+
 }
@@ -0,0 +1,78 @@
+package com.bridgelabz.fundoonotes.service.implementation;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.bridgelabz.fundoonotes.model.Label;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
+import com.bridgelabz.fundoonotes.repository.INoteRepository;
+import com.bridgelabz.fundoonotes.repository.ISyncRepository;
+import com.bridgelabz.fundoonotes.response.SyncChanges;
+import com.bridgelabz.fundoonotes.response.SyncChanges.Tombstone;
+import com.bridgelabz.fundoonotes.service.ISyncService;
+import com.bridgelabz.fundoonotes.utility.UserAuthenticator;
+import com.bridgelabz.fundoonotes.utility.Util;
+
+/**
+ * This class implements {@link ISyncService} interface. The cursor is the
+ * sequence of the last change the client received. Every note and label keeps
+ * the sequence of its last change, so only the rows changed after the cursor
+ * are read through the change index, and a client without changes costs one
+ * primary key lookup.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-03
+ * @version 1.0
+ * @see {@link ISyncRepository} for the change sequence
+ */
+@Service
+public class SyncServiceImpl implements ISyncService {
+
+	@Autowired
+	private ISyncRepository syncRepository;
+	@Autowired
+	private INoteRepository noteRepository;
+	@Autowired
+	private UserAuthenticator userAuthenticator;
+
+	/**
+	 * This function takes authorized token, the cursor of the client and the
+	 * number of changes from the user checks for user authorization if valid
+	 * customer then fetch the changes after the cursor up to the change at the
+	 * given position, all the entities of that change included. Everything is
+	 * read in one transaction, so the changes and the cursor come from the same
+	 * snapshot. A cursor older than the pruned tombstones, or ahead of the last
+	 * change, makes the client start over.
+	 */
+	@Override
+	@Transactional
+	public SyncChanges getChanges(String token, long cursor, int size) {
+		long userId = userAuthenticator.authenticate(token).getUserId();
+		int limit = Math.max(1, Math.min(size, Util.MAX_SYNC_SIZE));
+		long lastChangeSeq = syncRepository.getLastChangeSeq(userId);
+		boolean reset = cursor < 0 || cursor > lastChangeSeq || cursor < syncRepository.getPrunedChangeSeq(userId);
+		long afterSeq = reset ? 0 : cursor;
+		if (afterSeq == lastChangeSeq) {
+			return new SyncChanges(lastChangeSeq, false, reset, Collections.emptyList(), Collections.emptyList(),
+					Collections.emptyList());
+		}
+		long upToSeq = syncRepository.getChangeSeqAt(userId, afterSeq, limit);
+		boolean hasMore = upToSeq != 0 && upToSeq < lastChangeSeq;
+		if (!hasMore) {
+			upToSeq = lastChangeSeq;
+		}
+		List<Long> changedNoteIds = syncRepository.getChangedNoteIds(userId, afterSeq, upToSeq);
+		List<NoteDetailDTO> notes = noteRepository.getNoteDetails(noteRepository.getNotesById(changedNoteIds));
+		List<Label> labels = syncRepository.getChangedLabels(userId, afterSeq, upToSeq);
+		// a client which starts over has nothing to delete
+		List<Tombstone> deleted = reset ? Collections.emptyList()
+				: syncRepository.getTombstones(userId, afterSeq, upToSeq);
+		return new SyncChanges(upToSeq, hasMore, reset, notes, labels, deleted);
+	}
+
+}
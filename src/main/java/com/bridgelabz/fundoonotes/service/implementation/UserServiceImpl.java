@@ -1,6 +1,11 @@
 package com.bridgelabz.fundoonotes.service.implementation;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.transaction.Transactional;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,16 +16,21 @@ import com.bridgelabz.fundoonotes.exception.AuthorizationException;
 import com.bridgelabz.fundoonotes.exception.InvalidCredentialsException;
 import com.bridgelabz.fundoonotes.exception.UserException;
 import com.bridgelabz.fundoonotes.exception.UserVerificationException;
+import com.bridgelabz.fundoonotes.model.MailOutboxMessage;
 import com.bridgelabz.fundoonotes.model.User;
 import com.bridgelabz.fundoonotes.model.dto.LoginDTO;
 import com.bridgelabz.fundoonotes.model.dto.UpdatePassword;
 import com.bridgelabz.fundoonotes.model.dto.UserDTO;
+import com.bridgelabz.fundoonotes.repository.IMailOutboxRepository;
 import com.bridgelabz.fundoonotes.repository.IUserRepository;
 import com.bridgelabz.fundoonotes.response.MailObject;
 import com.bridgelabz.fundoonotes.service.IUserService;
 import com.bridgelabz.fundoonotes.utility.EMailServiceProvider;
 import com.bridgelabz.fundoonotes.utility.JWTToken;
-import com.bridgelabz.fundoonotes.utility.RabbitMQSender;
+import com.bridgelabz.fundoonotes.utility.MailOutboxRelay;
+import com.bridgelabz.fundoonotes.utility.MailTemplate;
+import com.bridgelabz.fundoonotes.utility.MailTemplateEngine;
+import com.bridgelabz.fundoonotes.utility.UserAuthenticator;
 import com.bridgelabz.fundoonotes.utility.Util;
 
 /**
@@ -36,10 +46,16 @@ import com.bridgelabz.fundoonotes.utility.Util;
  * @see {@link BCryptPasswordEncoder} for creating encrypted password
  * @see {@link IUserRepository} for storing data with the database
  * @see {@link JWTToken} fore creation of token
- * @see {@link RabbitMQSender}, {@link EMailServiceProvider} for mail facilities
+ * @see {@link MailOutboxRelay}, {@link EMailServiceProvider} for mail facilities
+ * @see {@link UserAuthenticator} for invalidating cached principals
  * 
  * @updated -> 2020-04-02
  * @modified -> added extra field address on registration form.
+ * @updated -> 2020-04-24
+ * @modified -> mails are written to the mail outbox within the transaction of
+ *           the user change instead of being published during the request.
+ * @updated -> 2020-04-25
+ * @modified -> mails are rendered from the precompiled {@link MailTemplate}.
  */
 @Service
 public class UserServiceImpl implements IUserService {
@@ -51,7 +67,11 @@ public class UserServiceImpl implements IUserService {
 	@Autowired
 	private JWTToken jwtToken;
 	@Autowired
-	private RabbitMQSender rabbitMQSender;
+	private IMailOutboxRepository mailOutboxRepository;
+	@Autowired
+	private MailTemplateEngine mailTemplateEngine;
+	@Autowired
+	private UserAuthenticator userAuthenticator;
 
 	/**
 	 * This class takes the user inputed data and checks whether the user present in
@@ -59,9 +79,11 @@ public class UserServiceImpl implements IUserService {
 	 * copies all the data from DTO to normal user class and encodes the user
 	 * password and save the user with the database and then by using
 	 * {@link JWTToken} and {@link EMailServiceProvider} it create a token and send
-	 * the user's mail id for verification.
+	 * the user's mail id for verification. The mail is written to the outbox in
+	 * the transaction saving the user, so registering never waits on the broker.
 	 */
 	@Override
+	@Transactional
 	public boolean register(UserDTO userDto) {
 		User fetchedUser = userRepository.getUser(userDto.getEmailId());
 
@@ -80,14 +102,8 @@ public class UserServiceImpl implements IUserService {
 		userRepository.save(newUser);
 		// user again fetched from database and mail sent for verification
 		User fetchedUserForVerification = userRepository.getUser(newUser.getEmailId());
-		String emailBodyContaintLink = Util.createLink(
-				Util.IP_ADDRESS + Util.ANGULAR_PORT_NUMBER + Util.REGESTATION_VERIFICATION_LINK,
-				jwtToken.createJwtToken(fetchedUserForVerification.getUserId()));
-		if (rabbitMQSender.send(new MailObject(fetchedUserForVerification.getEmailId(), Util.REGISTRATION_EMAIL_SUBJECT,
-				emailBodyContaintLink))) {
-			return true;
-		}
-		throw new UserException("Opps...Error sending verification mail!", 500);
+		queueMail(MailTemplate.VERIFICATION, fetchedUserForVerification, tokenOf(fetchedUserForVerification));
+		return true;
 	}
 
 	/**
@@ -104,6 +120,7 @@ public class UserServiceImpl implements IUserService {
 		if (fetchedId > 0 && fetchedUser != null) {
 			if (!fetchedUser.isVerified()) {
 				userRepository.isVerifiedUser(fetchedId);
+				userAuthenticator.invalidate(fetchedId);
 				return fetchedUser;
 			}
 			throw new UserVerificationException("Opps...User already verified!", 422);
@@ -118,6 +135,7 @@ public class UserServiceImpl implements IUserService {
 	 * information of user else it proceed with the verification.
 	 */
 	@Override
+	@Transactional
 	public User login(LoginDTO loginInformation) {
 		User fetchedUser = userRepository.getUser(loginInformation.getEmailId());
 		// valid user
@@ -129,12 +147,7 @@ public class UserServiceImpl implements IUserService {
 					// valid user with all valid properties
 					return fetchedUser;
 				}
-				String emailBodyLink = Util.createLink(
-						Util.IP_ADDRESS + Util.ANGULAR_PORT_NUMBER + Util.REGESTATION_VERIFICATION_LINK,
-						jwtToken.createJwtToken(fetchedUser.getUserId()));
-//				emailServiceProvider.sendMail(fetchedUser.getEmailId(), Util.REGISTRATION_EMAIL_SUBJECT, emailBodyLink);
-				rabbitMQSender
-						.send(new MailObject(fetchedUser.getEmailId(), Util.REGISTRATION_EMAIL_SUBJECT, emailBodyLink));
+				queueMail(MailTemplate.VERIFICATION, fetchedUser, tokenOf(fetchedUser));
 				return null;
 			}
 			// password don't match
@@ -152,26 +165,18 @@ public class UserServiceImpl implements IUserService {
 	 * his identity before reseting his password.
 	 */
 	@Override
+	@Transactional
 	public boolean isUserPresent(String emailId) {
 		User fetchedUser = userRepository.getUser(emailId);
 		// user found
 		if (fetchedUser != null) {
 			// user verified
 			if (fetchedUser.isVerified()) {
-				String emailBodyLink = Util.createLink(Util.IP_ADDRESS + Util.ANGULAR_PORT_NUMBER + "/update-password",
-						jwtToken.createJwtToken(fetchedUser.getUserId()));
-//				emailServiceProvider.sendMail(fetchedUser.getEmailId(), "Update Password Link", emailBodyLink);
-				rabbitMQSender.send(new MailObject(fetchedUser.getEmailId(), "Update Password Link", emailBodyLink));
+				queueMail(MailTemplate.PASSWORD_RESET, fetchedUser, tokenOf(fetchedUser));
 				return true;
 			}
 			// not verified
-			String emailRegistrationVerificationBodyLink = Util.createLink(
-					Util.IP_ADDRESS + Util.ANGULAR_PORT_NUMBER + Util.REGESTATION_VERIFICATION_LINK,
-					jwtToken.createJwtToken(fetchedUser.getUserId()));
-//			emailServiceProvider.sendMail(fetchedUser.getEmailId(), Util.REGISTRATION_EMAIL_SUBJECT,
-//					emailRegistrationVerificationBodyLink);
-			rabbitMQSender.send(new MailObject(fetchedUser.getEmailId(), Util.REGISTRATION_EMAIL_SUBJECT,
-					emailRegistrationVerificationBodyLink));
+			queueMail(MailTemplate.VERIFICATION, fetchedUser, tokenOf(fetchedUser));
 			return false;
 		}
 		// user not found
@@ -185,37 +190,49 @@ public class UserServiceImpl implements IUserService {
 	 * user's mail id.
 	 */
 	@Override
+	@Transactional
 	public boolean updatePassword(UpdatePassword updatePasswordInformation, String token) {
 		User fetchedUser = userRepository.getUser(jwtToken.decodeToken(token));
 		if (updatePasswordInformation.getPassword().equals(updatePasswordInformation.getConfirmPassword())) {
 			updatePasswordInformation
 					.setConfirmPassword(passwordEncoder.encode(updatePasswordInformation.getConfirmPassword()));
 			userRepository.updatePassword(updatePasswordInformation, jwtToken.decodeToken(token));
+			userAuthenticator.invalidate(fetchedUser.getUserId());
 			// sends mail after updating password
-//			emailServiceProvider.sendMail(updatePasswordInformation.getEmailId(), "Password updated sucessfully...",
-//					mailContaintAfterUpdatingPassword(updatePasswordInformation));
-			rabbitMQSender.send(new MailObject(fetchedUser.getEmailId(), "Password updated sucessfully...",
-					mailContaintAfterUpdatingPassword(fetchedUser)));
+			Map<String, Object> values = new HashMap<>();
+			values.put("firstName", fetchedUser.getFirstName());
+			values.put("lastName", fetchedUser.getLastName());
+			values.put("updatedAt", LocalDateTime.now());
+			queueMail(MailTemplate.PASSWORD_UPDATED, fetchedUser, values);
 			return true;
 		}
 		throw new AuthorizationException("Opps...password did not match!", 401);
 	}
 
 	/**
-	 * This function takes Update password details as string input parameter and
-	 * prepare a body contains for sending mail to the concern user. along with user
-	 * valid details it sends login link to the user.
+	 * This function takes the mail template, the receiver and the values of the
+	 * template as input parameter, renders the mail and writes it to the outbox
+	 * within the current transaction, the mail outbox relay publishes it once the
+	 * transaction committed.
 	 * 
-	 * @param fetchedUser as {@link User}
-	 * @return String
+	 * @param template as {@link MailTemplate}
+	 * @param user     as {@link User} receiving the mail
+	 * @param values   as Map of the values of the template
 	 */
-	private String mailContaintAfterUpdatingPassword(User fetchedUser) {
+	private void queueMail(MailTemplate template, User user, Map<String, ?> values) {
+		MailObject mail = mailTemplateEngine.render(template, user.getEmailId(), values);
+		mailOutboxRepository.save(new MailOutboxMessage(mail));
+	}
 
-		String passwordUpdateBodyContent = "Hallo Mr/s. " + fetchedUser.getFirstName() + " " + fetchedUser.getLastName()
-				+ ",\n\n";
-		String message = "password updated sucessfully at : " + LocalDateTime.now() + "\n😱. Click ☟\n\n";
-		String loginLink = Util.IP_ADDRESS + Util.ANGULAR_PORT_NUMBER + "/login";
-		return passwordUpdateBodyContent + message + loginLink;
+	/**
+	 * Returns the values of the mail templates linking to the front end with a
+	 * token of the user.
+	 * 
+	 * @param user as {@link User}
+	 * @return Map
+	 */
+	private Map<String, ?> tokenOf(User user) {
+		return Collections.singletonMap("token", jwtToken.createJwtToken(user.getUserId()));
 	}
 
 }
\ No newline at end of file
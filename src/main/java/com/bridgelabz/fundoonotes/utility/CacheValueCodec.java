@@ -0,0 +1,261 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bridgelabz.fundoonotes.model.Label;
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.User;
+
+/**
+ * Compact binary format of the values of the entity cache. A value starts with
+ * the version of the format followed by the fields of the entity, numbers are
+ * written as variable length integers and strings as their UTF-8 bytes
+ * prefixed with the length plus one, so that 0 stands for null.
+ * <p>
+ * Only the columns of an entity are written, never its associations, and the
+ * password of a user is left out. A decoded entity is therefore a detached
+ * snapshot which is only fit for reading, it must never be saved.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-26
+ * @version 1.0
+ * @updated -> 2020-05-04
+ * @modified -> format 2 carries the version of a note, values of format 1 are
+ *           no longer read and get loaded again.
+ * @updated -> 2020-05-05
+ * @modified -> format 3 writes the reminder of a note as a date.
+ */
+public final class CacheValueCodec {
+
+	public static final int VERSION = 3;
+
+	private static final int ARCHIVED = 1;
+	private static final int PINNED = 2;
+	private static final int TRASHED = 4;
+	private static final int VERIFIED = 1;
+
+	private CacheValueCodec() {
+
+	}
+
+	public static byte[] encodeNote(Note note) {
+		ByteArrayOutputStream out = newValue();
+		writeNote(out, note);
+		return out.toByteArray();
+	}
+
+	public static Note decodeNote(byte[] value) {
+		ByteBuffer in = openValue(value);
+		try {
+			return readNote(in);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Truncated cache value", e);
+		}
+	}
+
+	public static byte[] encodeNotes(List<Note> notes) {
+		ByteArrayOutputStream out = newValue();
+		writeLong(out, notes.size());
+		for (Note note : notes) {
+			writeNote(out, note);
+		}
+		return out.toByteArray();
+	}
+
+	public static List<Note> decodeNotes(byte[] value) {
+		ByteBuffer in = openValue(value);
+		try {
+			int size = (int) readLong(in);
+			List<Note> notes = new ArrayList<>(Math.min(size, in.remaining()));
+			for (int index = 0; index < size; index++) {
+				notes.add(readNote(in));
+			}
+			return notes;
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Truncated cache value", e);
+		}
+	}
+
+	public static byte[] encodeUser(User user) {
+		ByteArrayOutputStream out = newValue();
+		writeLong(out, user.getUserId());
+		out.write(user.isVerified() ? VERIFIED : 0);
+		writeString(out, user.getFirstName());
+		writeString(out, user.getLastName());
+		writeString(out, user.getEmailId());
+		writeString(out, user.getMobileNumber());
+		writeString(out, user.getAddress());
+		writeDate(out, user.getCreatedDate());
+		return out.toByteArray();
+	}
+
+	public static User decodeUser(byte[] value) {
+		ByteBuffer in = openValue(value);
+		try {
+			User user = new User();
+			user.setUserId(readLong(in));
+			user.setVerified((in.get() & VERIFIED) != 0);
+			user.setFirstName(readString(in));
+			user.setLastName(readString(in));
+			user.setEmailId(readString(in));
+			user.setMobileNumber(readString(in));
+			user.setAddress(readString(in));
+			user.setCreatedDate(readDate(in));
+			return user;
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Truncated cache value", e);
+		}
+	}
+
+	public static byte[] encodeLabels(List<Label> labels) {
+		ByteArrayOutputStream out = newValue();
+		writeLong(out, labels.size());
+		for (Label label : labels) {
+			writeLong(out, label.getLabelId());
+			writeString(out, label.getLabelName());
+			writeDate(out, label.getCreatedDate());
+		}
+		return out.toByteArray();
+	}
+
+	public static List<Label> decodeLabels(byte[] value) {
+		ByteBuffer in = openValue(value);
+		try {
+			int size = (int) readLong(in);
+			List<Label> labels = new ArrayList<>(Math.min(size, in.remaining()));
+			for (int index = 0; index < size; index++) {
+				Label label = new Label();
+				label.setLabelId(readLong(in));
+				label.setLabelName(readString(in));
+				label.setCreatedDate(readDate(in));
+				labels.add(label);
+			}
+			return labels;
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Truncated cache value", e);
+		}
+	}
+
+	private static ByteArrayOutputStream newValue() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+		out.write(VERSION);
+		return out;
+	}
+
+	private static ByteBuffer openValue(byte[] value) {
+		if (value == null || value.length == 0 || value[0] != VERSION) {
+			throw new IllegalArgumentException("Unsupported cache value");
+		}
+		ByteBuffer in = ByteBuffer.wrap(value);
+		in.position(1);
+		return in;
+	}
+
+	private static void writeNote(ByteArrayOutputStream out, Note note) {
+		writeLong(out, note.getNoteId());
+		// owner plus one, 0 stands for a note without owner
+		writeLong(out, note.getUserId() == null ? 0 : note.getUserId() + 1);
+		out.write((note.isArchived() ? ARCHIVED : 0) | (note.isPinned() ? PINNED : 0)
+				| (note.isTrashed() ? TRASHED : 0));
+		writeString(out, note.getTitle());
+		writeString(out, note.getDescription());
+		writeString(out, note.getColor());
+		writeDate(out, note.getRemainderTime());
+		writeDate(out, note.getCreatedDate());
+		writeDate(out, note.getUpdatedDate());
+		writeLong(out, note.getVersion());
+	}
+
+	private static Note readNote(ByteBuffer in) {
+		Note note = new Note();
+		note.setNoteId(readLong(in));
+		long owner = readLong(in);
+		note.setUserId(owner == 0 ? null : owner - 1);
+		int flags = in.get();
+		note.setArchived((flags & ARCHIVED) != 0);
+		note.setPinned((flags & PINNED) != 0);
+		note.setTrashed((flags & TRASHED) != 0);
+		note.setTitle(readString(in));
+		note.setDescription(readString(in));
+		note.setColor(readString(in));
+		note.setRemainderTime(readDate(in));
+		note.setCreatedDate(readDate(in));
+		note.setUpdatedDate(readDate(in));
+		note.setVersion(readLong(in));
+		return note;
+	}
+
+	private static void writeDate(ByteArrayOutputStream out, LocalDateTime date) {
+		if (date == null) {
+			out.write(0);
+			return;
+		}
+		out.write(1);
+		long seconds = date.toEpochSecond(ZoneOffset.UTC);
+		// zig zag, so dates before 1970 stay short as well
+		writeLong(out, (seconds << 1) ^ (seconds >> 63));
+		writeLong(out, date.getNano());
+	}
+
+	private static LocalDateTime readDate(ByteBuffer in) {
+		if (in.get() == 0) {
+			return null;
+		}
+		long zigZag = readLong(in);
+		long seconds = (zigZag >>> 1) ^ -(zigZag & 1);
+		return LocalDateTime.ofEpochSecond(seconds, (int) readLong(in), ZoneOffset.UTC);
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String value) {
+		if (value == null) {
+			out.write(0);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeLong(out, bytes.length + 1L);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static String readString(ByteBuffer in) {
+		long length = readLong(in);
+		if (length == 0) {
+			return null;
+		}
+		if (length - 1 > in.remaining()) {
+			throw new IllegalArgumentException("Truncated cache value");
+		}
+		String value = new String(in.array(), in.position(), (int) length - 1, StandardCharsets.UTF_8);
+		in.position(in.position() + (int) length - 1);
+		return value;
+	}
+
+	private static void writeLong(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static long readLong(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0;; shift += 7) {
+			if (shift > 63) {
+				throw new IllegalArgumentException("Malformed number in cache value");
+			}
+			byte next = in.get();
+			value |= (long) (next & 0x7F) << shift;
+			if ((next & 0x80) == 0) {
+				return value;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version of data which changes as a whole, such as the notes of a user. A new
+ * version is made up the first time the version is asked for after a change,
+ * so the tag is unique and the time it was made is never before the change.
+ * The tag is used as the ETag of the responses built from the data. The time
+ * is not sent as their Last-Modified, which only has whole seconds and would
+ * validate a response read before a change in the same second.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-02
+ * @version 1.0
+ */
+public final class ChangeVersion {
+
+	private static final char SEPARATOR = '|';
+	private static final char TAG_SEPARATOR = '.';
+
+	private final String tag;
+	private final long lastModified;
+
+	private ChangeVersion(String tag, long lastModified) {
+		this.tag = tag;
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * Makes up a new version, the tag is the current time followed by a random
+	 * number so that versions made at once by two instances differ.
+	 * 
+	 * @return {@link ChangeVersion}
+	 */
+	public static ChangeVersion next() {
+		long now = System.currentTimeMillis();
+		long random = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+		return new ChangeVersion(
+				Long.toString(now, Character.MAX_RADIX) + '-' + Long.toString(random, Character.MAX_RADIX), now);
+	}
+
+	/**
+	 * This function takes the version of other data the response is built from
+	 * as input parameter and returns the version of both, which changes whenever
+	 * one of them changes.
+	 * 
+	 * @param other as {@link ChangeVersion}
+	 * @return {@link ChangeVersion}
+	 */
+	public ChangeVersion and(ChangeVersion other) {
+		return new ChangeVersion(tag + TAG_SEPARATOR + other.tag, Math.max(lastModified, other.lastModified));
+	}
+
+	public String getTag() {
+		return tag;
+	}
+
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Encodes the version as the tag followed by the time it was made.
+	 * 
+	 * @param version as {@link ChangeVersion}
+	 * @return byte[]
+	 */
+	public static byte[] encode(ChangeVersion version) {
+		return (version.tag + SEPARATOR + version.lastModified).getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * This function takes an encoded version as input parameter and returns the
+	 * decoded {@link ChangeVersion}.
+	 * 
+	 * @param value as byte[] input parameter
+	 * @return {@link ChangeVersion}
+	 * @throws IllegalArgumentException if the value is not an encoded version
+	 */
+	public static ChangeVersion decode(byte[] value) {
+		String rawVersion = new String(value, StandardCharsets.UTF_8);
+		int separatorIndex = rawVersion.lastIndexOf(SEPARATOR);
+		if (separatorIndex <= 0) {
+			throw new IllegalArgumentException("Not a version: " + rawVersion);
+		}
+		// NumberFormatException is an IllegalArgumentException
+		return new ChangeVersion(rawVersion.substring(0, separatorIndex),
+				Long.parseLong(rawVersion.substring(separatorIndex + 1)));
+	}
+
+	@Override
+	public String toString() {
+		return "ChangeVersion [tag=" + tag + ", lastModified=" + lastModified + "]";
+	}
+
+}
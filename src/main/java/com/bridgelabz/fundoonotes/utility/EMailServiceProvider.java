@@ -1,24 +1,45 @@
 package com.bridgelabz.fundoonotes.utility;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
-import javax.mail.Authenticator;
-import javax.mail.Message;
+import javax.annotation.PostConstruct;
 import javax.mail.MessagingException;
-import javax.mail.PasswordAuthentication;
 import javax.mail.Session;
-import javax.mail.Transport;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import com.bridgelabz.fundoonotes.exception.MailSendingException;
 import com.bridgelabz.fundoonotes.response.MailObject;
+import com.rabbitmq.client.Channel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * This is the configuration mail class which uses SMTP authentication and runs
@@ -30,39 +51,105 @@ import com.bridgelabz.fundoonotes.response.MailObject;
  * @version 1.0
  * @modified -> 2020-02-09
  * @updated -> RabbitMQ functionality added to the existing JMS mail service.
+ * @modified -> 2020-04-21
+ * @updated -> mails are sent over the pooled connections of
+ *          {@link SmtpTransportPool} and the send latency and the depth of the
+ *          mail queue are published as metrics.
+ * @modified -> 2020-04-22
+ * @updated -> the mail queue is consumed in batches sharing one connection,
+ *          failed mails are retried with back off and then dead lettered.
+ * @modified -> 2020-04-24
+ * @updated -> mails published again by the mail outbox relay are recognised by
+ *          their message id and sent once.
+ * @modified -> 2020-05-08
+ * @updated -> a retried mail waits in the retry queue of the delay of its
+ *          attempt, see {@link MailRetryTiers}.
  */
 @Component
 public class EMailServiceProvider {
 
+	@Autowired
+	private SmtpTransportPool smtpTransportPool;
+	@Autowired
+	private AmqpAdmin amqpAdmin;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private RabbitTemplate rabbitTemplate;
+	@Autowired
+	private MailRetryTiers mailRetryTiers;
+
+	@Value("${fundoo.mail.dedup.capacity:10000}")
+	private int dedupCapacity;
+
+	private Timer sentTimer;
+	private Timer failedTimer;
+	private Counter retriedCounter;
+	private Counter deadLetteredCounter;
+	private Counter duplicateCounter;
+	private volatile long queueDepth;
+	private Map<String, Boolean> recentlySentMessageIds;
+
 	/**
-	 * This function takes following input parameter and configure the
-	 * authentication of SMTP and port 587 and authorization and send the mail to
-	 * the assigned user details.
-	 * 
-	 * @param toEmailId
-	 * @param subject
-	 * @param bodyContaint
+	 * Registers the send latency of every message, by outcome, and the depth of
+	 * the mail queue, and creates the bounded record of the message ids recently
+	 * sent.
 	 */
-	
-	private boolean sendMail(String toEmailId, String subject, String bodyContaint) {
-		Authenticator authentication = new Authenticator() {
+	@PostConstruct
+	public void initialize() {
+		int capacity = dedupCapacity;
+		recentlySentMessageIds = Collections.synchronizedMap(new LinkedHashMap<String, Boolean>() {
+
+			private static final long serialVersionUID = 1L;
 
 			@Override
-			protected PasswordAuthentication getPasswordAuthentication() {
-				return new PasswordAuthentication(Util.SENDER_EMAIL_ID, Util.SENDER_PASSWORD);
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > capacity;
 			}
-		};
-		Session session = Session.getInstance(mailPropertiesSettings(), authentication);
+		});
+		sentTimer = Timer.builder("fundoo.mail.send").tag("outcome", "sent")
+				.description("Time taken to hand a mail over to the SMTP server").publishPercentiles(0.5, 0.95, 0.99)
+				.register(meterRegistry);
+		failedTimer = Timer.builder("fundoo.mail.send").tag("outcome", "failed")
+				.description("Time taken to hand a mail over to the SMTP server").publishPercentiles(0.5, 0.95, 0.99)
+				.register(meterRegistry);
+		retriedCounter = Counter.builder("fundoo.mail.retried").description("Mails sent to the retry queue")
+				.register(meterRegistry);
+		deadLetteredCounter = Counter.builder("fundoo.mail.dead.lettered")
+				.description("Mails sent to the dead letter queue").register(meterRegistry);
+		duplicateCounter = Counter.builder("fundoo.mail.duplicates")
+				.description("Mails published again and dropped as already sent").register(meterRegistry);
+		Gauge.builder("fundoo.mail.queue.depth", this, EMailServiceProvider::getQueueDepth)
+				.description("Mails waiting in " + Util.MAIL_QUEUE_NAME).register(meterRegistry);
+		Gauge.builder("fundoo.mail.connections", smtpTransportPool, SmtpTransportPool::getOpenConnections)
+				.description("Open SMTP connections").register(meterRegistry);
+	}
+
+	/**
+	 * This function takes the mails as input parameter and sends all of them
+	 * over one pooled SMTP connection.
+	 * 
+	 * @param mails as List of {@link MimeMessage}
+	 * @return the failure of every mail, null for the mails sent
+	 */
+	private List<MessagingException> sendMails(List<MimeMessage> mails) {
+		if (mails.isEmpty()) {
+			return Collections.emptyList();
+		}
+		long startedAt = System.nanoTime();
+		List<MessagingException> failures;
 		try {
-			Transport.send(mimeMessageConfiguration(session, toEmailId, subject, bodyContaint));
-			return true;
-		} catch ( MessagingException e) {
-			return false;
+			failures = smtpTransportPool.sendAll(mails);
+		} catch (MessagingException e) {
+			failures = Collections.nCopies(mails.size(), e);
+		}
+		long perMail = (System.nanoTime() - startedAt) / mails.size();
+		for (MessagingException failure : failures) {
+			(failure == null ? sentTimer : failedTimer).record(perMail, TimeUnit.NANOSECONDS);
 		}
-		
-		
+		return failures;
 	}
-	 
 
 	/**
 	 * This function takes following information and sets all the header information
@@ -73,54 +160,126 @@ public class EMailServiceProvider {
 	 * @param subject as String input parameter
 	 * @param body    as String input parameter
 	 * @return MimeMessage class
+	 * @throws MessagingException           when the mail is malformed
+	 * @throws UnsupportedEncodingException when the sender name can not be
+	 *                                      encoded
 	 */
-	private MimeMessage mimeMessageConfiguration(Session session, String toEmail, String subject, String body) {
+	private MimeMessage mimeMessageConfiguration(Session session, String toEmail, String subject, String body)
+			throws MessagingException, UnsupportedEncodingException {
 
 		MimeMessage mimeMessage = new MimeMessage(session);
 		// set message headers
-		try {
-			mimeMessage.addHeader("Content-type", "text/HTML; charset=UTF-8");
-			mimeMessage.addHeader("format", "flowed");
-			mimeMessage.addHeader("Content-Transfer-Encoding", "8bit");
-			mimeMessage.setFrom(new InternetAddress(Util.SENDER_EMAIL_ID, "Fundoo Note Application"));
-			mimeMessage.setReplyTo(InternetAddress.parse(Util.SENDER_EMAIL_ID, false));
-			mimeMessage.setSubject(subject, "UTF-8");
-			mimeMessage.setText(body, "UTF-8");
-			mimeMessage.setSentDate(new Date());
-			mimeMessage.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail, false));
-		} catch (MessagingException | UnsupportedEncodingException e) {
-			e.printStackTrace();
-		}
+		mimeMessage.addHeader("Content-type", "text/HTML; charset=UTF-8");
+		mimeMessage.addHeader("format", "flowed");
+		mimeMessage.addHeader("Content-Transfer-Encoding", "8bit");
+		mimeMessage.setFrom(new InternetAddress(Util.SENDER_EMAIL_ID, "Fundoo Note Application"));
+		mimeMessage.setReplyTo(InternetAddress.parse(Util.SENDER_EMAIL_ID, false));
+		mimeMessage.setSubject(subject, "UTF-8");
+		mimeMessage.setText(body, "UTF-8");
+		mimeMessage.setSentDate(new Date());
+		mimeMessage.setRecipients(javax.mail.Message.RecipientType.TO, InternetAddress.parse(toEmail, false));
 		return mimeMessage;
 	}
 
 	/**
-	 * This class sets the properties configuration of the mail and return it.
-	 * 
-	 * @return Properties class
+	 * Polls the number of messages ready in the mail queue for the queue depth
+	 * gauge, so reading the gauge never calls the broker.
 	 */
-	private Properties mailPropertiesSettings() {
-		Properties properties = new Properties();
-		properties.put("mail.smtp.host", "smtp.gmail.com"); // SMTP Host
-		properties.put("mail.smtp.port", "587"); // TLS Port
-		properties.put("mail.smtp.auth", "true"); // enable authentication
-		properties.put("mail.smtp.starttls.enable", "true"); // enable STARTTLS
-		return properties;
+	@Scheduled(fixedDelayString = "${fundoo.mail.queue-depth.poll-ms:5000}")
+	public void refreshQueueDepth() {
+		try {
+			Properties queueProperties = amqpAdmin.getQueueProperties(Util.MAIL_QUEUE_NAME);
+			if (queueProperties != null) {
+				queueDepth = ((Number) queueProperties.get(RabbitAdmin.QUEUE_MESSAGE_COUNT)).longValue();
+			}
+		} catch (RuntimeException e) {
+			// keep the last known depth while the broker is unavailable
+		}
+	}
+
+	public long getQueueDepth() {
+		return queueDepth;
 	}
 
 	/**
-	 * This function fetch the mail server based on key of the {@link Queue} it send
-	 * to the RabbitMQ Server.
+	 * This function takes a batch of messages of the mail {@link Queue}, sends
+	 * their mails over one pooled SMTP connection and acknowledges the whole batch
+	 * at once. A mail which could not be sent goes to the retry queue with an
+	 * exponentially growing delay, and to the dead letter queue once it failed
+	 * fundoo.mail.retry.max-attempts times or when it can not be read at all. A
+	 * message id recently sent already is skipped, the last
+	 * fundoo.mail.dedup.capacity ids of this instance are remembered. The number of
+	 * concurrent consumers is configured by fundoo.mail.listener.concurrency.
 	 * 
-	 * @param mailObject as {@link MailObject}
-	 * @throws {@link MailSendingException}
+	 * @param messages as List of {@link Message}
+	 * @param channel  as {@link Channel} the batch was received on
+	 * @throws IOException when the batch could not be acknowledged
 	 */
-	@RabbitListener(queues = "rmq.rube.queue")
-	public void recievedMessage(MailObject mailObject) {
+	@RabbitListener(queues = Util.MAIL_QUEUE_NAME, containerFactory = "mailListenerContainerFactory",
+			concurrency = "${fundoo.mail.listener.concurrency:2-8}")
+	public void recievedMessages(List<Message> messages, Channel channel) throws IOException {
+
+		long lastDeliveryTag = messages.get(messages.size() - 1).getMessageProperties().getDeliveryTag();
+		try {
+			List<Message> sendableMessages = new ArrayList<>(messages.size());
+			List<MimeMessage> mails = new ArrayList<>(messages.size());
+			Set<String> batchMessageIds = new HashSet<>();
+			for (Message message : messages) {
+				String messageId = message.getMessageProperties().getMessageId();
+				if (messageId != null
+						&& (recentlySentMessageIds.containsKey(messageId) || !batchMessageIds.add(messageId))) {
+					// published again by the mail outbox relay
+					duplicateCounter.increment();
+					continue;
+				}
+				try {
+					MailObject mailObject = (MailObject) rabbitTemplate.getMessageConverter().fromMessage(message);
+					mails.add(mimeMessageConfiguration(smtpTransportPool.getSession(), mailObject.getEmail(),
+							mailObject.getSubject(), mailObject.getMessage()));
+					sendableMessages.add(message);
+				} catch (MessageConversionException | ClassCastException | MessagingException
+						| UnsupportedEncodingException e) {
+					// sending it again can not help
+					deadLetter(message, e);
+				}
+			}
+			List<MessagingException> failures = sendMails(mails);
+			for (int index = 0; index < failures.size(); index++) {
+				Message message = sendableMessages.get(index);
+				if (failures.get(index) != null) {
+					retry(message, failures.get(index));
+				} else if (message.getMessageProperties().getMessageId() != null) {
+					recentlySentMessageIds.put(message.getMessageProperties().getMessageId(), Boolean.TRUE);
+				}
+			}
+		} catch (AmqpException e) {
+			// failed mails could not be parked, have the whole batch delivered again
+			channel.basicNack(lastDeliveryTag, true, true);
+			throw e;
+		}
+		channel.basicAck(lastDeliveryTag, true);
+	}
 
-		if (sendMail(mailObject.getEmail(), mailObject.getSubject(), mailObject.getMessage())) {
+	/**
+	 * Sends the message to the retry queue of the back off of its attempt, or to
+	 * the dead letter queue once it has used up its attempts.
+	 */
+	private void retry(Message message, Exception failure) {
+		Object previousAttempts = message.getMessageProperties().getHeaders().get(Util.MAIL_ATTEMPTS_HEADER);
+		int attempts = previousAttempts instanceof Number ? ((Number) previousAttempts).intValue() + 1 : 1;
+		if (attempts >= mailRetryTiers.getMaxAttempts()) {
+			deadLetter(message, failure);
 			return;
 		}
-		throw new MailSendingException("Opps...Error Sending mail!", 502);
+		rabbitTemplate.send("", mailRetryTiers.queueOf(attempts),
+				MessageBuilder.fromMessage(message).setHeader(Util.MAIL_ATTEMPTS_HEADER, attempts).build());
+		retriedCounter.increment();
+	}
+
+	private void deadLetter(Message message, Exception failure) {
+		Message deadLetter = MessageBuilder.fromMessage(message)
+				.setHeader(Util.MAIL_FAILURE_HEADER, String.valueOf(failure.getMessage())).build();
+		rabbitTemplate.send(Util.MAIL_DEAD_LETTER_EXCHANGE_NAME, Util.MAIL_ROUTING_KEY, deadLetter);
+		deadLetteredCounter.increment();
 	}
 }
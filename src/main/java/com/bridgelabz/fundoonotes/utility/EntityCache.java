@@ -0,0 +1,799 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bridgelabz.fundoonotes.model.Label;
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+import com.bridgelabz.fundoonotes.model.User;
+import com.bridgelabz.fundoonotes.repository.ICacheStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read through cache of the notes, the note listings of every user, the users
+ * and the labels in front of the repositories, kept in the configured
+ * {@link ICacheStore} in the compact format of {@link CacheValueCodec}. Every
+ * region has its own time to live, the services write a saved note through and
+ * evict everything else they change. Evictions are repeated once the current
+ * transaction committed, so a reader can not put back what it read before the
+ * commit.
+ * <p>
+ * Cached entities are detached snapshots without associations, so they are
+ * only handed out by the reading operations. Operations which change an entity
+ * keep loading it from its repository.
+ * <p>
+ * When the store fails the cache is bypassed for a while and every read goes to
+ * the database. Evictions which failed are remembered and applied before the
+ * store is read again, if too many of them pile up the cache is not read until
+ * every value written before has expired.
+ * <p>
+ * A bounded local tier of the encoded values sits in front of the store, so a
+ * hot value costs no round trip. Every eviction and every written through note
+ * is published to the other instances, which drop the key from their local
+ * tier. The short time to live of the local tier bounds how long an instance
+ * may serve a value whose invalidation got lost, and the tier is cleared and
+ * bypassed along with the store when the store fails. Concurrent misses of the
+ * same key within an instance wait for a single load from the database, and the
+ * times to live in the store are spread a little so that values cached together
+ * do not expire together.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-26
+ * @version 1.0
+ * @see {@link ICacheStore} for the store of the values
+ * @updated -> 2020-04-27
+ * @modified -> local tier invalidated across the instances, a single load per
+ *           key and the hit ratio of every tier.
+ * @updated -> 2020-05-02
+ * @modified -> {@link ChangeVersion} of the notes of every user and of the
+ *           labels, evicted along with the listings and the labels.
+ */
+@Component
+public class EntityCache {
+
+	private static final String ALL_NOTES = "ALL";
+	private static final String SEPARATOR = "\n";
+	private static final int INVALIDATION_STRIPES = 1024;
+	private static final int HIT = 0;
+	private static final int MISS = 1;
+
+	@Autowired
+	private ICacheStore cacheStore;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${fundoo.cache.note.ttl-seconds:600}")
+	private long noteTtlSeconds;
+	@Value("${fundoo.cache.notes.ttl-seconds:300}")
+	private long notesTtlSeconds;
+	@Value("${fundoo.cache.user.ttl-seconds:900}")
+	private long userTtlSeconds;
+	@Value("${fundoo.cache.labels.ttl-seconds:600}")
+	private long labelsTtlSeconds;
+	@Value("${fundoo.cache.version.ttl-seconds:3600}")
+	private long versionTtlSeconds;
+	@Value("${fundoo.cache.retry-after-ms:30000}")
+	private long retryAfterMillis;
+	@Value("${fundoo.cache.max-pending-evictions:10000}")
+	private int maxPendingEvictions;
+	@Value("${fundoo.cache.local.max-entries:10000}")
+	private int localMaxEntries;
+	@Value("${fundoo.cache.local.ttl-seconds:30}")
+	private long localTtlSeconds;
+
+	private final String nodeId = UUID.randomUUID().toString();
+	private final Counter[][][] requestCounters = new Counter[Region.values().length][Tier.values().length][2];
+	private Counter errorCounter;
+	private Counter coalescedCounter;
+	private Map<String, LocalEntry> localEntries;
+	// bumped by every local invalidation of a key, a load only caches what it
+	// read when the stripe of its key did not move meanwhile
+	private final AtomicLongArray invalidationStripes = new AtomicLongArray(INVALIDATION_STRIPES);
+	private final ConcurrentMap<String, CompletableFuture<byte[]>> loadsInFlight = new ConcurrentHashMap<>();
+	private final Set<String> pendingEvictions = new LinkedHashSet<>();
+	private boolean evictionsLost;
+	private volatile long unavailableUntil;
+	private volatile long bypassUntil;
+
+	/**
+	 * Regions of the cache with the prefix of their keys.
+	 */
+	private enum Region {
+		NOTE("note"), NOTES("notes"), USER("user"), LABELS("labels"), VERSION("version");
+
+		private final String prefix;
+
+		Region(String prefix) {
+			this.prefix = prefix;
+		}
+	}
+
+	/**
+	 * Tiers of the cache, the local tier of this instance in front of the shared
+	 * store.
+	 */
+	private enum Tier {
+		LOCAL("local"), REMOTE("remote");
+
+		private final String tag;
+
+		Tier(String tag) {
+			this.tag = tag;
+		}
+	}
+
+	/**
+	 * Creates the local tier, subscribes to the invalidations of the other
+	 * instances and publishes the hits and misses of every region and tier, the
+	 * hit ratio of every tier, the size of the local tier, the coalesced loads
+	 * and the failures of the store.
+	 */
+	@PostConstruct
+	public void initialize() {
+		localEntries = new LinkedHashMap<String, LocalEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+				return size() > localMaxEntries;
+			}
+		};
+		for (Region region : Region.values()) {
+			for (Tier tier : Tier.values()) {
+				requestCounters[region.ordinal()][tier.ordinal()][HIT] = requestCounter(region, tier, "hit");
+				requestCounters[region.ordinal()][tier.ordinal()][MISS] = requestCounter(region, tier, "miss");
+			}
+		}
+		for (Tier tier : Tier.values()) {
+			Gauge.builder("fundoo.cache.hit.ratio", this, cache -> cache.getHitRatio(tier)).tag("tier", tier.tag)
+					.description("Share of the reads of the tier which were hits").register(meterRegistry);
+		}
+		Gauge.builder("fundoo.cache.local.size", this, EntityCache::getLocalSize)
+				.description("Values in the local tier").register(meterRegistry);
+		coalescedCounter = Counter.builder("fundoo.cache.coalesced")
+				.description("Misses which waited for the load of another request").register(meterRegistry);
+		errorCounter = Counter.builder("fundoo.cache.errors").description("Failed operations of the cache store")
+				.register(meterRegistry);
+		cacheStore.subscribe(this::onInvalidation);
+	}
+
+	/**
+	 * This function takes the note ids and the loader of the notes from the
+	 * database as input parameter and returns the cached notes, the missing ones
+	 * are loaded with one call of the loader and cached.
+	 * 
+	 * @param noteIds as List<Long> input parameter
+	 * @param loader  as Function loading the notes of the given ids
+	 * @return List<Note> of the notes which exist in the order of the ids
+	 */
+	public List<Note> getNotesById(List<Long> noteIds, Function<List<Long>, List<Note>> loader) {
+		Map<Long, Note> foundNotes = new HashMap<>();
+		List<Long> remoteNoteIds = new ArrayList<>();
+		if (!isBypassed()) {
+			for (Long noteId : noteIds) {
+				Note localNote = decode(localGet(noteKey(noteId)), CacheValueCodec::decodeNote);
+				if (localNote != null) {
+					foundNotes.put(noteId, localNote);
+				} else {
+					remoteNoteIds.add(noteId);
+				}
+			}
+			count(Region.NOTE, Tier.LOCAL, foundNotes.size(), remoteNoteIds.size());
+		} else {
+			remoteNoteIds.addAll(noteIds);
+		}
+		List<Long> missingNoteIds = new ArrayList<>();
+		List<byte[]> values = remoteNoteIds.isEmpty() ? null : read(keysOf(remoteNoteIds));
+		if (values != null) {
+			for (int index = 0; index < remoteNoteIds.size(); index++) {
+				Long noteId = remoteNoteIds.get(index);
+				Note remoteNote = decode(values.get(index), CacheValueCodec::decodeNote);
+				if (remoteNote != null) {
+					foundNotes.put(noteId, remoteNote);
+					localPut(noteKey(noteId), values.get(index));
+				} else {
+					missingNoteIds.add(noteId);
+				}
+			}
+			count(Region.NOTE, Tier.REMOTE, remoteNoteIds.size() - missingNoteIds.size(), missingNoteIds.size());
+		} else {
+			missingNoteIds.addAll(remoteNoteIds);
+		}
+		if (!missingNoteIds.isEmpty()) {
+			Map<String, Long> stripeVersions = stripeVersionsOf(keysOf(missingNoteIds));
+			Map<String, byte[]> loadedValues = new HashMap<>();
+			for (Note note : loader.apply(missingNoteIds)) {
+				foundNotes.put(note.getNoteId(), note);
+				loadedValues.put(noteKey(note.getNoteId()), CacheValueCodec.encodeNote(note));
+			}
+			cacheLoaded(loadedValues, stripeVersions, noteTtlSeconds);
+		}
+		List<Note> notes = new ArrayList<>(foundNotes.size());
+		for (Long noteId : noteIds) {
+			Note note = foundNotes.get(noteId);
+			if (note != null) {
+				notes.add(note);
+			}
+		}
+		return notes;
+	}
+
+	/**
+	 * This function takes the user id, the listing and the loader of the listing
+	 * from the database as input parameter and returns the cached listing of the
+	 * user, loading and caching it on a miss.
+	 * 
+	 * @param userId as Long input parameter
+	 * @param bucket as {@link NoteBucket}
+	 * @param loader as Supplier of the listing
+	 * @return List<Note>
+	 */
+	public List<Note> getNotes(long userId, NoteBucket bucket, Supplier<List<Note>> loader) {
+		return readThrough(Region.NOTES, notesKey(userId, bucket.name()), loader, CacheValueCodec::encodeNotes,
+				CacheValueCodec::decodeNotes, notesTtlSeconds);
+	}
+
+	/**
+	 * This function takes the user id and the loader of every note of the user
+	 * from the database as input parameter and returns the cached notes of the
+	 * user, loading and caching them on a miss.
+	 * 
+	 * @param userId as Long input parameter
+	 * @param loader as Supplier of the notes
+	 * @return List<Note>
+	 */
+	public List<Note> getAllNotesOfUser(long userId, Supplier<List<Note>> loader) {
+		return readThrough(Region.NOTES, notesKey(userId, ALL_NOTES), loader, CacheValueCodec::encodeNotes,
+				CacheValueCodec::decodeNotes, notesTtlSeconds);
+	}
+
+	/**
+	 * This function takes the user id and the loader of the user from the
+	 * database as input parameter and returns the cached user, loading and caching
+	 * it on a miss. The cached user has no password.
+	 * 
+	 * @param userId as Long input parameter
+	 * @param loader as Supplier of the user, may supply null
+	 * @return {@link User} or null if there is no such user
+	 */
+	public User getUser(long userId, Supplier<User> loader) {
+		return readThrough(Region.USER, Region.USER.prefix + ":" + userId, loader, CacheValueCodec::encodeUser,
+				CacheValueCodec::decodeUser, userTtlSeconds);
+	}
+
+	/**
+	 * This function takes the loader of all the labels from the database as input
+	 * parameter and returns the cached labels, loading and caching them on a
+	 * miss.
+	 * 
+	 * @param loader as Supplier of the labels
+	 * @return List<Label>
+	 */
+	public List<Label> getLabels(Supplier<List<Label>> loader) {
+		return readThrough(Region.LABELS, Region.LABELS.prefix, loader, CacheValueCodec::encodeLabels,
+				CacheValueCodec::decodeLabels, labelsTtlSeconds);
+	}
+
+	/**
+	 * This function takes the user id as input parameter and returns the version
+	 * of the notes of the user along with the version of the labels, the notes
+	 * are shown with their labels. Every eviction of the listings of the user or
+	 * of the labels makes a new version, so the version changes with any change
+	 * of the services.
+	 * 
+	 * @param userId as Long input parameter
+	 * @return {@link ChangeVersion}
+	 */
+	public ChangeVersion getNotesVersion(long userId) {
+		return getVersion(versionKey(Region.NOTES.prefix + ":" + userId)).and(getLabelsVersion());
+	}
+
+	/**
+	 * Returns the version of the labels, which changes with every eviction of the
+	 * labels.
+	 * 
+	 * @return {@link ChangeVersion}
+	 */
+	public ChangeVersion getLabelsVersion() {
+		return getVersion(versionKey(Region.LABELS.prefix));
+	}
+
+	private ChangeVersion getVersion(String key) {
+		// a missing version is made up, it is not read from the database
+		return readThrough(Region.VERSION, key, ChangeVersion::next, ChangeVersion::encode, ChangeVersion::decode,
+				versionTtlSeconds);
+	}
+
+	/**
+	 * Writes the saved note through once the current transaction committed and
+	 * evicts the listings of its owner. The other instances drop the note from
+	 * their local tier.
+	 * 
+	 * @param note   as {@link Note} which has been saved
+	 * @param userId as Long id of the owner, null when unknown
+	 */
+	public void putNote(Note note, Long userId) {
+		if (note.getUserId() == null) {
+			// a new note gets its owner on flush, it is cached on its first read
+			evictNote(note.getNoteId(), userId);
+			return;
+		}
+		byte[] value = CacheValueCodec.encodeNote(note);
+		List<String> keys = Collections.singletonList(noteKey(note.getNoteId()));
+		evict(notesKeys(userId));
+		afterCommit(() -> {
+			invalidateLocally(keys);
+			write(Collections.singletonMap(keys.get(0), value), noteTtlSeconds);
+			publish(keys);
+		});
+	}
+
+	/**
+	 * Evicts the note and the listings of its owner.
+	 * 
+	 * @param noteId as Long input parameter
+	 * @param userId as Long id of the owner, null when unknown
+	 */
+	public void evictNote(long noteId, Long userId) {
+		List<String> keys = notesKeys(userId);
+		keys.add(noteKey(noteId));
+		evict(keys);
+	}
+
+	/**
+	 * Evicts the notes and the listings of their owner.
+	 * 
+	 * @param noteIds as List<Long> input parameter
+	 * @param userId  as Long id of the owner of all the notes
+	 */
+	public void evictNotes(List<Long> noteIds, long userId) {
+		List<String> keys = notesKeys(userId);
+		keys.addAll(keysOf(noteIds));
+		evict(keys);
+	}
+
+	/**
+	 * Evicts every listing of the user.
+	 * 
+	 * @param userId as Long input parameter
+	 */
+	public void evictNotesOfUser(long userId) {
+		evict(notesKeys(userId));
+	}
+
+	/**
+	 * Evicts the user.
+	 * 
+	 * @param userId as Long input parameter
+	 */
+	public void evictUser(long userId) {
+		evict(Collections.singletonList(Region.USER.prefix + ":" + userId));
+	}
+
+	/**
+	 * Evicts the labels.
+	 */
+	public void evictLabels() {
+		evict(Arrays.asList(Region.LABELS.prefix, versionKey(Region.LABELS.prefix)));
+	}
+
+	private <T> T readThrough(Region region, String key, Supplier<T> loader, Function<T, byte[]> encoder,
+			Function<byte[], T> decoder, long ttlSeconds) {
+		if (!isBypassed()) {
+			T localValue = decode(localGet(key), decoder);
+			count(region, Tier.LOCAL, localValue != null ? 1 : 0, localValue != null ? 0 : 1);
+			if (localValue != null) {
+				return localValue;
+			}
+			List<byte[]> values = read(Collections.singletonList(key));
+			if (values != null) {
+				T remoteValue = decode(values.get(0), decoder);
+				count(region, Tier.REMOTE, remoteValue != null ? 1 : 0, remoteValue != null ? 0 : 1);
+				if (remoteValue != null) {
+					localPut(key, values.get(0));
+					return remoteValue;
+				}
+			}
+		}
+		return load(key, loader, encoder, decoder, ttlSeconds);
+	}
+
+	/**
+	 * Loads the value of the key from the database, unless another request of
+	 * this instance is loading it already, then the value of that load is used.
+	 */
+	private <T> T load(String key, Supplier<T> loader, Function<T, byte[]> encoder, Function<byte[], T> decoder,
+			long ttlSeconds) {
+		CompletableFuture<byte[]> load = new CompletableFuture<>();
+		CompletableFuture<byte[]> runningLoad = loadsInFlight.putIfAbsent(key, load);
+		if (runningLoad != null) {
+			coalescedCounter.increment();
+			byte[] value = join(runningLoad);
+			return value == null ? null : decoder.apply(value);
+		}
+		Map<String, Long> stripeVersions = stripeVersionsOf(Collections.singletonList(key));
+		try {
+			T loadedValue = loader.get();
+			byte[] value = loadedValue == null ? null : encoder.apply(loadedValue);
+			load.complete(value);
+			if (value != null) {
+				cacheLoaded(Collections.singletonMap(key, value), stripeVersions, ttlSeconds);
+			}
+			return loadedValue;
+		} catch (RuntimeException | Error e) {
+			load.completeExceptionally(e);
+			throw e;
+		} finally {
+			loadsInFlight.remove(key, load);
+		}
+	}
+
+	private static byte[] join(CompletableFuture<byte[]> runningLoad) {
+		try {
+			return runningLoad.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Caches the values loaded from the database in both tiers, leaving out the
+	 * keys which were invalidated while their values were loaded.
+	 */
+	private void cacheLoaded(Map<String, byte[]> values, Map<String, Long> stripeVersions, long ttlSeconds) {
+		Map<String, byte[]> unchangedValues = new HashMap<>();
+		for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+			if (isUnchanged(entry.getKey(), stripeVersions)) {
+				unchangedValues.put(entry.getKey(), entry.getValue());
+			}
+		}
+		if (unchangedValues.isEmpty() || isBypassed()) {
+			return;
+		}
+		write(unchangedValues, ttlSeconds);
+		long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(localTtlSeconds);
+		synchronized (localEntries) {
+			for (Map.Entry<String, byte[]> entry : unchangedValues.entrySet()) {
+				// checked again under the lock the invalidations take
+				if (isUnchanged(entry.getKey(), stripeVersions)) {
+					localEntries.put(entry.getKey(), new LocalEntry(entry.getValue(), expiresAt));
+				}
+			}
+		}
+	}
+
+	private static <T> T decode(byte[] value, Function<byte[], T> decoder) {
+		if (value == null) {
+			return null;
+		}
+		try {
+			return decoder.apply(value);
+		} catch (IllegalArgumentException e) {
+			// written in another format, it is loaded and written again
+			return null;
+		}
+	}
+
+	private byte[] localGet(String key) {
+		synchronized (localEntries) {
+			LocalEntry entry = localEntries.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.expiresAt - System.nanoTime() > 0) {
+				return entry.value;
+			}
+			localEntries.remove(key);
+			return null;
+		}
+	}
+
+	private void localPut(String key, byte[] value) {
+		long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(localTtlSeconds);
+		synchronized (localEntries) {
+			localEntries.put(key, new LocalEntry(value, expiresAt));
+		}
+	}
+
+	private void invalidateLocally(Collection<String> keys) {
+		synchronized (localEntries) {
+			for (String key : keys) {
+				localEntries.remove(key);
+				invalidationStripes.incrementAndGet(stripeOf(key));
+			}
+		}
+	}
+
+	/**
+	 * Drops the keys of an invalidation message of another instance from the
+	 * local tier, a message is the id of the publishing instance followed by the
+	 * keys, one per line.
+	 */
+	private void onInvalidation(byte[] message) {
+		List<String> lines = Arrays.asList(new String(message, StandardCharsets.UTF_8).split(SEPARATOR));
+		if (lines.size() > 1 && !nodeId.equals(lines.get(0))) {
+			invalidateLocally(lines.subList(1, lines.size()));
+		}
+	}
+
+	/**
+	 * Reads the keys from the store.
+	 * 
+	 * @return List<byte[]> of the values, null when the store was not read
+	 */
+	private List<byte[]> read(List<String> keys) {
+		if (isBypassed()) {
+			return null;
+		}
+		try {
+			applyPendingEvictions();
+			if (isBypassed()) {
+				return null;
+			}
+			return cacheStore.getAll(keys);
+		} catch (RuntimeException e) {
+			markUnavailable();
+			return null;
+		}
+	}
+
+	private void write(Map<String, byte[]> entries, long ttlSeconds) {
+		if (entries.isEmpty() || System.currentTimeMillis() < unavailableUntil) {
+			return;
+		}
+		long ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+		// up to a tenth shorter, so that values cached together expire apart
+		ttlMillis -= ThreadLocalRandom.current().nextLong(ttlMillis / 10 + 1);
+		try {
+			cacheStore.putAll(entries, ttlMillis);
+		} catch (RuntimeException e) {
+			markUnavailable();
+		}
+	}
+
+	private void evict(List<String> keys) {
+		delete(keys);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			afterCommit(() -> delete(keys));
+		}
+	}
+
+	private void delete(Collection<String> keys) {
+		invalidateLocally(keys);
+		if (System.currentTimeMillis() >= unavailableUntil) {
+			try {
+				applyPendingEvictions();
+				cacheStore.deleteAll(keys);
+				cacheStore.publish(invalidationMessage(keys));
+				return;
+			} catch (RuntimeException e) {
+				markUnavailable();
+			}
+		}
+		remember(keys);
+	}
+
+	private void publish(Collection<String> keys) {
+		if (System.currentTimeMillis() >= unavailableUntil) {
+			try {
+				cacheStore.publish(invalidationMessage(keys));
+				return;
+			} catch (RuntimeException e) {
+				markUnavailable();
+			}
+		}
+		// evicted later, which makes the other instances drop it as well
+		remember(keys);
+	}
+
+	private void remember(Collection<String> keys) {
+		synchronized (pendingEvictions) {
+			pendingEvictions.addAll(keys);
+			if (pendingEvictions.size() > maxPendingEvictions) {
+				pendingEvictions.clear();
+				evictionsLost = true;
+			}
+		}
+	}
+
+	/**
+	 * Applies the evictions which failed. When evictions had to be dropped, the
+	 * cache is bypassed until every value written before them has expired.
+	 */
+	private void applyPendingEvictions() {
+		List<String> keys;
+		boolean lost;
+		synchronized (pendingEvictions) {
+			if (pendingEvictions.isEmpty() && !evictionsLost) {
+				return;
+			}
+			keys = new ArrayList<>(pendingEvictions);
+			lost = evictionsLost;
+		}
+		if (!keys.isEmpty()) {
+			cacheStore.deleteAll(keys);
+			cacheStore.publish(invalidationMessage(keys));
+		}
+		synchronized (pendingEvictions) {
+			pendingEvictions.removeAll(keys);
+			if (lost) {
+				evictionsLost = false;
+				long longestTtlSeconds = Math.max(Math.max(noteTtlSeconds, notesTtlSeconds),
+						Math.max(userTtlSeconds, labelsTtlSeconds));
+				bypassUntil = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(longestTtlSeconds);
+			}
+		}
+	}
+
+	private byte[] invalidationMessage(Collection<String> keys) {
+		StringBuilder message = new StringBuilder(nodeId);
+		for (String key : keys) {
+			message.append(SEPARATOR).append(key);
+		}
+		return message.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private boolean isBypassed() {
+		long now = System.currentTimeMillis();
+		return now < unavailableUntil || now < bypassUntil;
+	}
+
+	/**
+	 * Bypasses the store for a while. The local tier is cleared as well, since
+	 * the invalidations of the other instances may not reach it meanwhile.
+	 */
+	private void markUnavailable() {
+		errorCounter.increment();
+		unavailableUntil = System.currentTimeMillis() + retryAfterMillis;
+		synchronized (localEntries) {
+			localEntries.clear();
+			for (int stripe = 0; stripe < INVALIDATION_STRIPES; stripe++) {
+				invalidationStripes.incrementAndGet(stripe);
+			}
+		}
+	}
+
+	private double getHitRatio(Tier tier) {
+		double hits = 0;
+		double reads = 0;
+		for (Region region : Region.values()) {
+			Counter[] counters = requestCounters[region.ordinal()][tier.ordinal()];
+			hits += counters[HIT].count();
+			reads += counters[HIT].count() + counters[MISS].count();
+		}
+		return reads == 0 ? 0 : hits / reads;
+	}
+
+	private int getLocalSize() {
+		synchronized (localEntries) {
+			return localEntries.size();
+		}
+	}
+
+	private void count(Region region, Tier tier, int hits, int misses) {
+		Counter[] counters = requestCounters[region.ordinal()][tier.ordinal()];
+		if (hits > 0) {
+			counters[HIT].increment(hits);
+		}
+		if (misses > 0) {
+			counters[MISS].increment(misses);
+		}
+	}
+
+	private Counter requestCounter(Region region, Tier tier, String result) {
+		return Counter.builder("fundoo.cache.requests").tag("region", region.prefix).tag("tier", tier.tag)
+				.tag("result", result).description("Reads of the entity cache").register(meterRegistry);
+	}
+
+	private Map<String, Long> stripeVersionsOf(List<String> keys) {
+		Map<String, Long> stripeVersions = new HashMap<>();
+		for (String key : keys) {
+			stripeVersions.put(key, invalidationStripes.get(stripeOf(key)));
+		}
+		return stripeVersions;
+	}
+
+	private boolean isUnchanged(String key, Map<String, Long> stripeVersions) {
+		Long stripeVersion = stripeVersions.get(key);
+		return stripeVersion != null && stripeVersion == invalidationStripes.get(stripeOf(key));
+	}
+
+	private static int stripeOf(String key) {
+		return key.hashCode() & (INVALIDATION_STRIPES - 1);
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private static List<String> keysOf(List<Long> noteIds) {
+		List<String> keys = new ArrayList<>(noteIds.size());
+		for (Long noteId : noteIds) {
+			keys.add(noteKey(noteId));
+		}
+		return keys;
+	}
+
+	private static String noteKey(long noteId) {
+		return Region.NOTE.prefix + ":" + noteId;
+	}
+
+	private static String notesKey(long userId, String listing) {
+		return Region.NOTES.prefix + ":" + userId + ":" + listing;
+	}
+
+	private static String versionKey(String versionedKey) {
+		return Region.VERSION.prefix + ":" + versionedKey;
+	}
+
+	private static List<String> notesKeys(Long userId) {
+		List<String> keys = new ArrayList<>();
+		if (userId != null) {
+			for (NoteBucket bucket : NoteBucket.values()) {
+				keys.add(notesKey(userId, bucket.name()));
+			}
+			keys.add(notesKey(userId, ALL_NOTES));
+			keys.add(versionKey(Region.NOTES.prefix + ":" + userId));
+		}
+		return keys;
+	}
+
+	/**
+	 * Encoded value of the local tier with the time it expires at.
+	 */
+	private static final class LocalEntry {
+
+		private final byte[] value;
+		private final long expiresAt;
+
+		private LocalEntry(byte[] value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+}
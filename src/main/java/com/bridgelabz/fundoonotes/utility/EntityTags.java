@@ -0,0 +1,49 @@
+package com.bridgelabz.fundoonotes.utility;
+
+/**
+ * Strong entity tags of the versioned entities. The tag of an entity is its
+ * version in quotes, an If-Match header matches when it is * or lists the tag
+ * of the current version. Weak tags never match, a conditional write needs the
+ * exact version.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-04
+ * @version 1.0
+ */
+public final class EntityTags {
+
+	private EntityTags() {
+
+	}
+
+	/**
+	 * This function takes the version of an entity as input parameter and returns
+	 * its entity tag.
+	 * 
+	 * @param version as Long input parameter
+	 * @return String
+	 */
+	public static String of(long version) {
+		return "\"" + version + "\"";
+	}
+
+	/**
+	 * This function takes the value of an If-Match header and the current version
+	 * of an entity as input parameter and checks whether the header matches it.
+	 * 
+	 * @param ifMatch as String input parameter
+	 * @param version as Long input parameter
+	 * @return Boolean
+	 */
+	public static boolean matches(String ifMatch, long version) {
+		String tag = of(version);
+		for (String candidate : ifMatch.split(",")) {
+			String trimmed = candidate.trim();
+			if (trimmed.equals("*") || trimmed.equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -8,7 +8,6 @@ import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
-import com.auth0.jwt.interfaces.Verification;
 
 /**
  * This class has the functionality of creating a jwt token and decode the token
@@ -23,6 +22,12 @@ import com.auth0.jwt.interfaces.Verification;
 public class JWTToken {
 
 	private static final String TOKEN_SECRET_CODE = "r20jc134";
+	/**
+	 * Both {@link Algorithm} and {@link JWTVerifier} are thread safe, so they are
+	 * built once and shared instead of being created on every call.
+	 */
+	private static final Algorithm ALGORITHM = Algorithm.HMAC256(TOKEN_SECRET_CODE);
+	private static final JWTVerifier VERIFIER = JWT.require(ALGORITHM).build();
 
 	/**
 	 * This function takes user id as input parameter with that id it sign with
@@ -35,7 +40,7 @@ public class JWTToken {
 	public String createJwtToken(long id) {
 		String generatedToken = null;
 		try {
-			generatedToken = JWT.create().withClaim("id", id).sign(Algorithm.HMAC256(TOKEN_SECRET_CODE));
+			generatedToken = JWT.create().withClaim("id", id).sign(ALGORITHM);
 		} catch (IllegalArgumentException | JWTCreationException e) {
 
 			e.printStackTrace();
@@ -56,9 +61,7 @@ public class JWTToken {
 		Long userId = (long) 0;
 		try {
 			if (jwtToken != null) {
-				Verification verification = JWT.require(Algorithm.HMAC256(TOKEN_SECRET_CODE));
-				JWTVerifier jwtverifier = verification.build();
-				DecodedJWT decodedjwt = jwtverifier.verify(jwtToken);
+				DecodedJWT decodedjwt = VERIFIER.verify(jwtToken);
 				Claim claim = decodedjwt.getClaim("id");
 				userId = claim.asLong();
 			}
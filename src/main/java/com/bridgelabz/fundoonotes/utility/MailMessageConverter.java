@@ -0,0 +1,171 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import com.bridgelabz.fundoonotes.response.MailObject;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Converts {@link MailObject} to and from the messages of the mail queue in a
+ * compact format instead of java serialization. The format is chosen by
+ * fundoo.mail.codec, json or binary, and written with its schema version, so
+ * consumers read every format and version they know whatever the producers
+ * write. Messages still java serialized by older producers are read as well.
+ * <p>
+ * The binary format is the schema version followed by email, subject and
+ * message, each as a variable length byte count, zero for null and one more
+ * than the length otherwise, and its UTF-8 bytes.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-23
+ * @version 1.0
+ * @see {@link RabbitMQSender} for publishing the mails
+ */
+public class MailMessageConverter implements MessageConverter {
+
+	public static final String JSON_CONTENT_TYPE = "application/vnd.fundoo.mail+json";
+	public static final String BINARY_CONTENT_TYPE = "application/vnd.fundoo.mail+binary";
+	public static final String SCHEMA_VERSION_HEADER = "x-schema-version";
+	public static final int SCHEMA_VERSION = 1;
+
+	/**
+	 * Formats of the mails written to the queue.
+	 */
+	public enum Codec {
+		JSON, BINARY
+	}
+
+	private final Codec codec;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final SimpleMessageConverter legacyConverter = new SimpleMessageConverter();
+
+	public MailMessageConverter(String codec) {
+		this.codec = Codec.valueOf(codec.trim().toUpperCase(Locale.ROOT));
+	}
+
+	public Codec getCodec() {
+		return codec;
+	}
+
+	@Override
+	public Message toMessage(Object object, MessageProperties messageProperties) {
+		if (!(object instanceof MailObject)) {
+			throw new MessageConversionException("Only mails can be sent to the mail queue, not " + object);
+		}
+		MailObject mail = (MailObject) object;
+		byte[] body;
+		if (codec == Codec.JSON) {
+			try {
+				body = objectMapper.writeValueAsBytes(mail);
+			} catch (IOException e) {
+				throw new MessageConversionException("Could not write the mail", e);
+			}
+			messageProperties.setContentType(JSON_CONTENT_TYPE);
+			messageProperties.setContentEncoding(StandardCharsets.UTF_8.name());
+		} else {
+			body = writeBinary(mail);
+			messageProperties.setContentType(BINARY_CONTENT_TYPE);
+		}
+		messageProperties.setHeader(SCHEMA_VERSION_HEADER, SCHEMA_VERSION);
+		messageProperties.setContentLength(body.length);
+		return new Message(body, messageProperties);
+	}
+
+	@Override
+	public Object fromMessage(Message message) {
+		MessageProperties messageProperties = message.getMessageProperties();
+		String contentType = messageProperties.getContentType();
+		if (JSON_CONTENT_TYPE.equals(contentType) || BINARY_CONTENT_TYPE.equals(contentType)) {
+			Object version = messageProperties.getHeaders().get(SCHEMA_VERSION_HEADER);
+			if (!(version instanceof Number) || ((Number) version).intValue() != SCHEMA_VERSION) {
+				throw new MessageConversionException("Unknown schema version " + version + " of " + contentType);
+			}
+			if (JSON_CONTENT_TYPE.equals(contentType)) {
+				try {
+					return objectMapper.readValue(message.getBody(), MailObject.class);
+				} catch (IOException e) {
+					throw new MessageConversionException("Malformed mail", e);
+				}
+			}
+			return readBinary(message.getBody());
+		}
+		if (MessageProperties.CONTENT_TYPE_SERIALIZED_OBJECT.equals(contentType)) {
+			return legacyConverter.fromMessage(message);
+		}
+		throw new MessageConversionException("Unknown content type " + contentType);
+	}
+
+	private static byte[] writeBinary(MailObject mail) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+		out.write(SCHEMA_VERSION);
+		writeString(out, mail.getEmail());
+		writeString(out, mail.getSubject());
+		writeString(out, mail.getMessage());
+		return out.toByteArray();
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String value) {
+		if (value == null) {
+			out.write(0);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		int length = bytes.length + 1;
+		while ((length & ~0x7F) != 0) {
+			out.write((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		out.write(length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static MailObject readBinary(byte[] body) {
+		ByteBuffer in = ByteBuffer.wrap(body);
+		try {
+			if (in.get() != SCHEMA_VERSION) {
+				throw new MessageConversionException("Schema version of the body does not match its header");
+			}
+			MailObject mail = new MailObject(readString(in), readString(in), readString(in));
+			if (in.hasRemaining()) {
+				throw new MessageConversionException("Trailing bytes after the mail");
+			}
+			return mail;
+		} catch (RuntimeException e) {
+			if (e instanceof MessageConversionException) {
+				throw e;
+			}
+			throw new MessageConversionException("Malformed mail", e);
+		}
+	}
+
+	private static String readString(ByteBuffer in) {
+		int length = 0;
+		for (int shift = 0;; shift += 7) {
+			if (shift > 28) {
+				throw new MessageConversionException("Malformed length");
+			}
+			byte next = in.get();
+			length |= (next & 0x7F) << shift;
+			if ((next & 0x80) == 0) {
+				break;
+			}
+		}
+		if (length == 0) {
+			return null;
+		}
+		String value = new String(in.array(), in.position(), length - 1, StandardCharsets.UTF_8);
+		in.position(in.position() + length - 1);
+		return value;
+	}
+
+}
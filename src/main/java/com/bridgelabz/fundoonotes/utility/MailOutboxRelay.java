@@ -0,0 +1,193 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bridgelabz.fundoonotes.model.MailOutboxMessage;
+import com.bridgelabz.fundoonotes.repository.IMailOutboxRepository;
+import com.bridgelabz.fundoonotes.response.MailObject;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Background relay publishing the mails of the mail outbox to the mail
+ * exchange. The user service writes every mail to the outbox within the
+ * transaction of the user change, and this relay claims the oldest mails in
+ * batches, publishes a batch on one channel in the order the mails were
+ * written, waits for the confirms of the broker and removes the confirmed mails
+ * from the outbox.
+ * <p>
+ * A batch stays locked while it is published, so with several instances only
+ * one of them publishes at a time and the order is kept. A mail is published
+ * with its dedup key as message id, so when it is published again after a crash
+ * before its removal, the mail listener drops the copy. When the broker does
+ * not confirm a batch the relay backs off exponentially.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-24
+ * @version 1.0
+ * @see {@link IMailOutboxRepository} for the outbox
+ * @see {@link RabbitMQSender} for publishing with confirms
+ */
+@Component
+public class MailOutboxRelay {
+
+	@Autowired
+	private IMailOutboxRepository mailOutboxRepository;
+	@Autowired
+	private RabbitMQSender rabbitMQSender;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${fundoo.mail.relay.batch-size:100}")
+	private int batchSize;
+	@Value("${fundoo.mail.relay.max-batches-per-run:10}")
+	private int maxBatchesPerRun;
+	@Value("${fundoo.mail.relay.confirm-timeout-ms:10000}")
+	private long confirmTimeoutMillis;
+	@Value("${fundoo.mail.relay.delay-ms:500}")
+	private long delayMillis;
+	@Value("${fundoo.mail.relay.max-backoff-ms:60000}")
+	private long maxBackoffMillis;
+
+	private final AtomicLong publishedCount = new AtomicLong();
+	private volatile long pendingCount;
+	private volatile long lagMillis;
+	private boolean unconfirmedMails;
+	private int consecutiveFailures;
+	private long nextRunAt;
+
+	/**
+	 * Publishes the lag and the size of the outbox as gauges, they are refreshed
+	 * at the end of every run so reading them never queries the database.
+	 */
+	@PostConstruct
+	public void registerMetrics() {
+		Gauge.builder("fundoo.mail.relay.lag", this, MailOutboxRelay::getLagMillis).baseUnit("milliseconds")
+				.description("Age of the oldest mail not yet published").register(meterRegistry);
+		Gauge.builder("fundoo.mail.relay.pending", this, MailOutboxRelay::getPendingCount)
+				.description("Mails waiting in the mail outbox").register(meterRegistry);
+		FunctionCounter.builder("fundoo.mail.relay.published", this, MailOutboxRelay::getPublishedCount)
+				.description("Mails published and confirmed by the broker").register(meterRegistry);
+	}
+
+	/**
+	 * Publishes at most the configured number of batches from the outbox unless
+	 * the relay is backing off after the broker failed.
+	 */
+	@Scheduled(fixedDelayString = "${fundoo.mail.relay.delay-ms:500}")
+	public void relayOutbox() {
+		if (System.currentTimeMillis() < nextRunAt) {
+			return;
+		}
+		try {
+			for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+				int claimedMails = transactionTemplate.execute(status -> publishBatch());
+				if (unconfirmedMails) {
+					backOff();
+					return;
+				}
+				if (claimedMails < batchSize) {
+					break;
+				}
+			}
+			consecutiveFailures = 0;
+		} catch (RuntimeException e) {
+			backOff();
+		} finally {
+			refreshLag();
+		}
+	}
+
+	/**
+	 * Publishes one batch of the outbox and removes the mails confirmed by the
+	 * broker, within the transaction holding the lock on the batch.
+	 * 
+	 * @return Integer number of mails claimed
+	 */
+	private int publishBatch() {
+		List<MailOutboxMessage> messages = mailOutboxRepository.claimPendingMessages(batchSize);
+		unconfirmedMails = false;
+		if (messages.isEmpty()) {
+			return 0;
+		}
+		Map<String, MailObject> mails = new LinkedHashMap<>();
+		for (MailOutboxMessage message : messages) {
+			mails.put(message.getDedupKey(), message.toMailObject());
+		}
+		List<CompletableFuture<Boolean>> confirms = rabbitMQSender.sendAll(mails);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+		List<Long> publishedMessageIds = new ArrayList<>(messages.size());
+		for (int index = 0; index < messages.size(); index++) {
+			if (isConfirmed(confirms.get(index), deadline)) {
+				publishedMessageIds.add(messages.get(index).getMessageId());
+			}
+		}
+		mailOutboxRepository.deleteMessages(publishedMessageIds);
+		publishedCount.addAndGet(publishedMessageIds.size());
+		unconfirmedMails = publishedMessageIds.size() < messages.size();
+		return messages.size();
+	}
+
+	private static boolean isConfirmed(CompletableFuture<Boolean> confirm, long deadline) {
+		try {
+			return confirm.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (ExecutionException | TimeoutException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void backOff() {
+		consecutiveFailures++;
+		long backoff = Math.min(delayMillis << Math.min(consecutiveFailures, 16), maxBackoffMillis);
+		nextRunAt = System.currentTimeMillis() + backoff;
+	}
+
+	private void refreshLag() {
+		try {
+			pendingCount = mailOutboxRepository.countPendingMessages();
+			LocalDateTime oldestPendingDate = mailOutboxRepository.getOldestPendingDate();
+			lagMillis = oldestPendingDate == null ? 0
+					: Math.max(0, Duration.between(oldestPendingDate, LocalDateTime.now()).toMillis());
+		} catch (RuntimeException e) {
+			// keep the last known values while the database is unavailable
+		}
+	}
+
+	public long getLagMillis() {
+		return lagMillis;
+	}
+
+	public long getPendingCount() {
+		return pendingCount;
+	}
+
+	public long getPublishedCount() {
+		return publishedCount.get();
+	}
+
+}
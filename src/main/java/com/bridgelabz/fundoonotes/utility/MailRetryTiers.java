@@ -0,0 +1,81 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Back off of the mails which could not be sent. Every distinct delay is a
+ * retry queue of its own with the delay as the time to live of the queue, so
+ * the messages of a queue expire in the order they were queued and a long delay
+ * never holds a short one back. The n-th attempt of a mail waits
+ * fundoo.mail.retry.initial-interval-ms doubled n - 1 times, at most
+ * fundoo.mail.retry.max-interval-ms.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-08
+ * @version 1.0
+ */
+@Component
+public class MailRetryTiers {
+
+	@Value("${fundoo.mail.retry.max-attempts:5}")
+	private int maxAttempts;
+	@Value("${fundoo.mail.retry.initial-interval-ms:1000}")
+	private long initialIntervalMillis;
+	@Value("${fundoo.mail.retry.max-interval-ms:60000}")
+	private long maxIntervalMillis;
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * This function takes the number of failed attempts of a mail as input
+	 * parameter and returns the delay before its next attempt.
+	 * 
+	 * @param attempts as Integer input parameter
+	 * @return Long
+	 */
+	public long delayOf(int attempts) {
+		return Math.min(maxIntervalMillis, initialIntervalMillis << Math.min(attempts - 1, 30));
+	}
+
+	/**
+	 * This function takes the number of failed attempts of a mail as input
+	 * parameter and returns the name of the retry queue it waits in.
+	 * 
+	 * @param attempts as Integer input parameter
+	 * @return String
+	 */
+	public String queueOf(int attempts) {
+		return queueNameOf(delayOf(attempts));
+	}
+
+	/**
+	 * Returns the delays of all the attempts before the last one, shortest first.
+	 * 
+	 * @return Set<Long>
+	 */
+	public Set<Long> getDelays() {
+		Set<Long> delays = new TreeSet<>();
+		for (int attempts = 1; attempts < maxAttempts; attempts++) {
+			delays.add(delayOf(attempts));
+		}
+		return delays;
+	}
+
+	/**
+	 * The delay is a part of the name, so a queue is never declared again with
+	 * another time to live when the back off is configured differently.
+	 * 
+	 * @param delayMillis as Long input parameter
+	 * @return String
+	 */
+	public static String queueNameOf(long delayMillis) {
+		return Util.MAIL_RETRY_QUEUE_NAME + "." + delayMillis;
+	}
+
+}
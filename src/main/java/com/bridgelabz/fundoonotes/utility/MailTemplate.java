@@ -0,0 +1,43 @@
+package com.bridgelabz.fundoonotes.utility;
+
+/**
+ * Notification mails of the application, each one rendered from the template
+ * of the same name in the mail-templates resource folder by the
+ * {@link MailTemplateEngine}.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-25
+ * @version 1.0
+ */
+public enum MailTemplate {
+
+	/**
+	 * Link verifying a new account, takes the token.
+	 */
+	VERIFICATION("verification"),
+	/**
+	 * Link to the page updating a forgotten password, takes the token.
+	 */
+	PASSWORD_RESET("password-reset"),
+	/**
+	 * Confirmation of an updated password, takes firstName, lastName and
+	 * updatedAt.
+	 */
+	PASSWORD_UPDATED("password-updated"),
+	/**
+	 * Due reminder of a note, takes firstName, lastName, title, description and
+	 * remainderTime.
+	 */
+	REMINDER("reminder");
+
+	private final String templateName;
+
+	private MailTemplate(String templateName) {
+		this.templateName = templateName;
+	}
+
+	public String getResourcePath() {
+		return "mail-templates/" + templateName + ".txt";
+	}
+
+}
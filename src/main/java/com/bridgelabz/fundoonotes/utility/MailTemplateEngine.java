@@ -0,0 +1,158 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.bridgelabz.fundoonotes.response.MailObject;
+
+/**
+ * Renders the {@link MailTemplate} mails. Every template is read and compiled
+ * once at start up into its literal parts and the names of the values in
+ * between, so rendering a mail only appends the parts to a buffer reused by the
+ * thread.
+ * <p>
+ * The first line of a template file is the subject and the body follows after
+ * an empty line. A value is written {{name}} in both, {{appUrl}} is the url of
+ * the front end configured by fundoo.mail.app-url and filled in at compile
+ * time.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-25
+ * @version 1.0
+ */
+@Component
+public class MailTemplateEngine {
+
+	private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+	private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+	@Value("${fundoo.mail.app-url:http://localhost:4200}")
+	private String appUrl;
+
+	private final Map<MailTemplate, CompiledTemplate> subjects = new EnumMap<>(MailTemplate.class);
+	private final Map<MailTemplate, CompiledTemplate> bodies = new EnumMap<>(MailTemplate.class);
+
+	/**
+	 * Reads and compiles all the templates, a missing or malformed template fails
+	 * the start up.
+	 * 
+	 * @throws IOException when a template can not be read
+	 */
+	@PostConstruct
+	public void initialize() throws IOException {
+		Map<String, String> constants = Collections.singletonMap("appUrl", appUrl);
+		for (MailTemplate template : MailTemplate.values()) {
+			String text;
+			try (InputStream in = new ClassPathResource(template.getResourcePath()).getInputStream()) {
+				text = StreamUtils.copyToString(in, StandardCharsets.UTF_8).replace("\r\n", "\n");
+			}
+			int separator = text.indexOf("\n\n");
+			if (separator < 0) {
+				throw new IllegalStateException(template.getResourcePath() + " has no empty line after the subject");
+			}
+			String body = text.substring(separator + 2);
+			if (body.endsWith("\n")) {
+				body = body.substring(0, body.length() - 1);
+			}
+			subjects.put(template, CompiledTemplate.compile(template, text.substring(0, separator), constants));
+			bodies.put(template, CompiledTemplate.compile(template, body, constants));
+		}
+	}
+
+	/**
+	 * This function takes the template, the receiver and the values of the
+	 * template as input parameter and renders the mail.
+	 * 
+	 * @param template as {@link MailTemplate}
+	 * @param emailId  as String receiver's mail id
+	 * @param values   as Map of the values by their name in the template
+	 * @return {@link MailObject}
+	 */
+	public MailObject render(MailTemplate template, String emailId, Map<String, ?> values) {
+		return new MailObject(emailId, subjects.get(template).render(values), bodies.get(template).render(values));
+	}
+
+	/**
+	 * Template split into literal parts, with the value of {@link #names}[i]
+	 * going between part i and part i + 1.
+	 */
+	private static final class CompiledTemplate {
+
+		private final MailTemplate template;
+		private final String[] parts;
+		private final String[] names;
+		private final int literalLength;
+
+		private CompiledTemplate(MailTemplate template, List<String> parts, List<String> names) {
+			this.template = template;
+			this.parts = parts.toArray(new String[0]);
+			this.names = names.toArray(new String[0]);
+			int length = 0;
+			for (String part : parts) {
+				length += part.length();
+			}
+			this.literalLength = length;
+		}
+
+		private static CompiledTemplate compile(MailTemplate template, String text, Map<String, String> constants) {
+			List<String> parts = new ArrayList<>();
+			List<String> names = new ArrayList<>();
+			StringBuilder literal = new StringBuilder();
+			int from = 0;
+			int start;
+			while ((start = text.indexOf("{{", from)) >= 0) {
+				int end = text.indexOf("}}", start + 2);
+				if (end < 0) {
+					throw new IllegalStateException(template.getResourcePath() + " has an unclosed {{ at " + start);
+				}
+				String name = text.substring(start + 2, end).trim();
+				literal.append(text, from, start);
+				if (constants.containsKey(name)) {
+					literal.append(constants.get(name));
+				} else {
+					parts.add(literal.toString());
+					literal.setLength(0);
+					names.add(name);
+				}
+				from = end + 2;
+			}
+			parts.add(literal.append(text, from, text.length()).toString());
+			return new CompiledTemplate(template, parts, names);
+		}
+
+		private String render(Map<String, ?> values) {
+			StringBuilder buffer = BUFFER.get();
+			buffer.setLength(0);
+			buffer.ensureCapacity(literalLength + 64 * names.length);
+			buffer.append(parts[0]);
+			for (int index = 0; index < names.length; index++) {
+				Object value = values.get(names[index]);
+				if (value == null) {
+					throw new IllegalArgumentException(
+							"No value for {{" + names[index] + "}} of " + template.getResourcePath());
+				}
+				buffer.append(value).append(parts[index + 1]);
+			}
+			String rendered = buffer.toString();
+			if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+				BUFFER.remove();
+			}
+			return rendered;
+		}
+
+	}
+
+}
@@ -0,0 +1,312 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bridgelabz.fundoonotes.repository.INoteRepository;
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent;
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent.Broadcast;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publisher of the {@link NoteChangeEvent} of every changed note to the note
+ * event exchange, a fanout exchange every instance binds its own queue to, so
+ * the instance holding the stream of a user pushes the event to it.
+ * <p>
+ * The services only hand the ids of the changed notes over once their
+ * transaction committed, the owner, the colaborators and the version of the
+ * notes are read by the publisher thread. It takes all the changes waiting at
+ * once, reads them with one query and publishes them as one message, so a
+ * burst of changes costs few queries and messages. The changes wait in a
+ * bounded queue, when it is full further changes are dropped and counted
+ * instead of slowing the note operations down, the clients catch up through
+ * the delta sync.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-07
+ * @version 1.0
+ * @see {@link NoteChangeStreams} for the instances receiving the events
+ */
+@Component
+public class NoteChangeNotifier {
+
+	@Autowired
+	private INoteRepository noteRepository;
+	@Autowired
+	private RabbitTemplate rabbitTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${fundoo.note.events.publisher.queue-capacity:10000}")
+	private int queueCapacity;
+	@Value("${fundoo.note.events.publisher.batch-size:500}")
+	private int batchSize;
+
+	private final AtomicLong publishedCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private BlockingQueue<PendingChange> pendingChanges;
+	private ExecutorService publisher;
+
+	/**
+	 * Starts the publisher thread and publishes the number of waiting changes as
+	 * a gauge.
+	 */
+	@PostConstruct
+	public void initialize() {
+		pendingChanges = new ArrayBlockingQueue<>(queueCapacity);
+		publisher = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "note-change-publisher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		publisher.execute(this::publishChanges);
+		Gauge.builder("fundoo.note.events.pending", this, notifier -> notifier.pendingChanges.size())
+				.description("Note changes waiting to be published").register(meterRegistry);
+		FunctionCounter.builder("fundoo.note.events.published", this, notifier -> notifier.publishedCount.get())
+				.description("Note change events published to the note event exchange").register(meterRegistry);
+		FunctionCounter.builder("fundoo.note.events.dropped", this, notifier -> notifier.droppedCount.get())
+				.description("Note change events which could not be published").register(meterRegistry);
+	}
+
+	/**
+	 * Stops the publisher thread, the waiting changes are dropped.
+	 */
+	@PreDestroy
+	public void close() {
+		publisher.shutdownNow();
+	}
+
+	/**
+	 * This function takes the id of a new note as input parameter and publishes
+	 * its creation once the transaction commits.
+	 * 
+	 * @param noteId as Long input parameter
+	 */
+	public void noteCreated(long noteId) {
+		afterCommit(new PendingChange(Collections.singletonList(noteId), NoteChangeEvent.CREATED,
+				Collections.emptyList(), 0));
+	}
+
+	/**
+	 * This function takes note id and the changed fields as input parameter and
+	 * publishes the change once the transaction commits.
+	 * 
+	 * @param noteId as Long input parameter
+	 * @param fields as String names of the changed fields
+	 */
+	public void noteChanged(long noteId, String... fields) {
+		notesChanged(Collections.singletonList(noteId), fields);
+	}
+
+	/**
+	 * This function takes the ids of the notes and the fields changed in all of
+	 * them as input parameter and publishes the change of every note once the
+	 * transaction commits.
+	 * 
+	 * @param noteIds as List<Long> input parameter
+	 * @param fields  as String names of the changed fields
+	 */
+	public void notesChanged(List<Long> noteIds, String... fields) {
+		afterCommit(new PendingChange(noteIds, NoteChangeEvent.UPDATED, Arrays.asList(fields), 0));
+	}
+
+	/**
+	 * This function takes note id and the colaborator removed from the note as
+	 * input parameter and publishes the change to the removed colaborator as well,
+	 * once the transaction commits.
+	 * 
+	 * @param noteId as Long input parameter
+	 * @param userId as Long id of the removed colaborator
+	 */
+	public void colaboratorRemoved(long noteId, long userId) {
+		afterCommit(new PendingChange(Collections.singletonList(noteId), NoteChangeEvent.UPDATED,
+				Collections.singletonList(NoteChangeEvent.COLABORATORS), userId));
+	}
+
+	/**
+	 * This function takes the id of the note about to be deleted as input
+	 * parameter and returns the deletion of the note to its current owner and
+	 * colaborators, which are gone after the deletion.
+	 * 
+	 * @param noteId as Long input parameter
+	 * @return List<Broadcast> to publish with {@link #publish(List)}
+	 */
+	public List<Broadcast> deletionOf(long noteId) {
+		List<Broadcast> deletion = new ArrayList<>();
+		for (Broadcast broadcast : noteRepository.getChangeBroadcasts(Collections.singletonList(noteId))) {
+			deletion.add(broadcast.withChange(NoteChangeEvent.DELETED, Collections.emptyList(), 0));
+		}
+		return deletion;
+	}
+
+	/**
+	 * This function takes the broadcasts read beforehand as input parameter and
+	 * publishes them once the transaction commits.
+	 * 
+	 * @param broadcasts as List<Broadcast> input parameter
+	 */
+	public void publish(List<Broadcast> broadcasts) {
+		if (!broadcasts.isEmpty()) {
+			afterCommit(new PendingChange(broadcasts));
+		}
+	}
+
+	/**
+	 * Hands the change over to the publisher thread after the commit of the
+	 * transaction, or right away when there is none.
+	 */
+	private void afterCommit(PendingChange change) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			enqueue(change);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				enqueue(change);
+			}
+		});
+	}
+
+	private void enqueue(PendingChange change) {
+		if (!pendingChanges.offer(change)) {
+			droppedCount.addAndGet(change.size());
+		}
+	}
+
+	/**
+	 * Loop of the publisher thread, takes all the waiting changes up to the batch
+	 * size at once and publishes them as one message.
+	 */
+	private void publishChanges() {
+		List<PendingChange> changes = new ArrayList<>();
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				changes.add(pendingChanges.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			pendingChanges.drainTo(changes, batchSize - 1);
+			try {
+				List<Broadcast> broadcasts = broadcastsOf(changes);
+				if (!broadcasts.isEmpty()) {
+					send(broadcasts);
+					publishedCount.addAndGet(broadcasts.size());
+				}
+			} catch (RuntimeException | JsonProcessingException e) {
+				// a failed read or publish must not stop the thread
+				for (PendingChange change : changes) {
+					droppedCount.addAndGet(change.size());
+				}
+			}
+			changes.clear();
+		}
+	}
+
+	/**
+	 * Reads owner, colaborators and version of all the changed notes with one
+	 * query and returns the broadcast of every change, in the order of the
+	 * changes. Notes deleted meanwhile are left out.
+	 */
+	private List<Broadcast> broadcastsOf(List<PendingChange> changes) {
+		Set<Long> noteIds = new LinkedHashSet<>();
+		for (PendingChange change : changes) {
+			if (change.broadcasts == null) {
+				noteIds.addAll(change.noteIds);
+			}
+		}
+		Map<Long, Broadcast> currentBroadcasts = new HashMap<>();
+		if (!noteIds.isEmpty()) {
+			for (Broadcast broadcast : noteRepository.getChangeBroadcasts(noteIds)) {
+				currentBroadcasts.put(broadcast.getEvent().getNoteId(), broadcast);
+			}
+		}
+		List<Broadcast> broadcasts = new ArrayList<>();
+		for (PendingChange change : changes) {
+			if (change.broadcasts != null) {
+				broadcasts.addAll(change.broadcasts);
+				continue;
+			}
+			for (Long noteId : change.noteIds) {
+				Broadcast current = currentBroadcasts.get(noteId);
+				if (current != null) {
+					broadcasts.add(current.withChange(change.type, change.fields, change.addUserId));
+				}
+			}
+		}
+		return broadcasts;
+	}
+
+	private void send(List<Broadcast> broadcasts) throws JsonProcessingException {
+		MessageProperties properties = new MessageProperties();
+		properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+		Message message = new Message(objectMapper.writeValueAsBytes(broadcasts), properties);
+		// every instance binds its own queue, so the routing key is not used
+		rabbitTemplate.send(Util.NOTE_EVENT_EXCHANGE_NAME, "", message);
+	}
+
+	/**
+	 * Change handed over by a committed transaction, either the ids of the
+	 * changed notes or the broadcasts read beforehand.
+	 */
+	private static class PendingChange {
+
+		private final List<Long> noteIds;
+		private final String type;
+		private final List<String> fields;
+		private final long addUserId;
+		private final List<Broadcast> broadcasts;
+
+		private PendingChange(List<Long> noteIds, String type, List<String> fields, long addUserId) {
+			this.noteIds = noteIds;
+			this.type = type;
+			this.fields = fields;
+			this.addUserId = addUserId;
+			this.broadcasts = null;
+		}
+
+		private PendingChange(List<Broadcast> broadcasts) {
+			this.noteIds = Collections.emptyList();
+			this.type = null;
+			this.fields = null;
+			this.addUserId = 0;
+			this.broadcasts = broadcasts;
+		}
+
+		private int size() {
+			return broadcasts == null ? noteIds.size() : broadcasts.size();
+		}
+
+	}
+
+}
@@ -0,0 +1,218 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Server sent event stream of one connection of a user. Events are never
+ * written by the thread delivering them, they wait in a bounded queue which a
+ * sender thread drains, so a client reading slowly only holds up its own
+ * events. When the queue of a client is full the waiting events are dropped
+ * for a single resync event, which tells the client to catch up through the
+ * delta sync instead.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-07
+ * @version 1.0
+ * @see {@link NoteChangeStreams} for the streams of all the users
+ */
+public class NoteChangeStream {
+
+	public static final String RESYNC_EVENT = "resync";
+
+	private final long userId;
+	private final SseEmitter emitter;
+	private final int capacity;
+	private final Executor sender;
+	private final Queue<Frame> pendingFrames = new ArrayDeque<>();
+	private boolean draining;
+	private boolean closed;
+	private long resyncCount;
+	// time the running write started, 0 while none is running
+	private volatile long sendingSince;
+	private volatile long lastSentAt;
+
+	/**
+	 * Constructor takes the user, the emitter of the connection, the number of
+	 * events which may wait and the executor running the writes as input
+	 * parameter.
+	 * 
+	 * @param userId   as Long input parameter
+	 * @param emitter  as {@link SseEmitter} of the connection
+	 * @param capacity as Integer input parameter
+	 * @param sender   as {@link Executor} running the writes
+	 */
+	public NoteChangeStream(long userId, SseEmitter emitter, int capacity, Executor sender) {
+		this.userId = userId;
+		this.emitter = emitter;
+		this.capacity = capacity;
+		this.sender = sender;
+		this.lastSentAt = System.currentTimeMillis();
+	}
+
+	public long getUserId() {
+		return userId;
+	}
+
+	public SseEmitter getEmitter() {
+		return emitter;
+	}
+
+	public synchronized long getResyncCount() {
+		return resyncCount;
+	}
+
+	/**
+	 * This function takes the name and the JSON data of an event as input
+	 * parameter and queues it to be written to the client.
+	 * 
+	 * @param name as String name of the event
+	 * @param data as String JSON data shared by all the streams
+	 * @return Boolean false if the stream is closed
+	 */
+	public boolean offer(String name, String data) {
+		return offer(new Frame(name, data));
+	}
+
+	/**
+	 * This function takes the current time and the time a write may take as input
+	 * parameter and checks whether the running write is blocked for longer,
+	 * because the client does not read.
+	 * 
+	 * @param now         as Long milliseconds
+	 * @param stallMillis as Long input parameter
+	 * @return Boolean
+	 */
+	public boolean isStalled(long now, long stallMillis) {
+		long startedAt = sendingSince;
+		return startedAt != 0 && now - startedAt > stallMillis;
+	}
+
+	/**
+	 * This function takes the current time and the idle time after which a
+	 * comment keeps the connection alive as input parameter and queues the
+	 * comment if nothing was written for that long.
+	 * 
+	 * @param now             as Long milliseconds
+	 * @param heartbeatMillis as Long input parameter
+	 * @return Boolean false if the stream is closed
+	 */
+	public boolean heartbeat(long now, long heartbeatMillis) {
+		synchronized (this) {
+			if (closed) {
+				return false;
+			}
+			// a stream which is written anyway needs no comment
+			if (draining || now - lastSentAt < heartbeatMillis) {
+				return true;
+			}
+		}
+		return offer(new Frame(null, null));
+	}
+
+	/**
+	 * Closes the connection, the waiting events are dropped.
+	 */
+	public void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			pendingFrames.clear();
+		}
+		try {
+			emitter.complete();
+		} catch (RuntimeException e) {
+			// the connection is gone already
+		}
+	}
+
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+
+	private boolean offer(Frame frame) {
+		synchronized (this) {
+			if (closed) {
+				return false;
+			}
+			if (pendingFrames.size() >= capacity) {
+				// the client falls behind, whatever waits is replaced by one resync
+				pendingFrames.clear();
+				pendingFrames.add(new Frame(RESYNC_EVENT, "{}"));
+				resyncCount++;
+			} else {
+				pendingFrames.add(frame);
+			}
+			if (draining) {
+				return true;
+			}
+			draining = true;
+		}
+		try {
+			sender.execute(this::drain);
+		} catch (RejectedExecutionException e) {
+			close();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the waiting events one by one until none is left.
+	 */
+	private void drain() {
+		while (true) {
+			Frame frame;
+			synchronized (this) {
+				frame = pendingFrames.poll();
+				if (frame == null) {
+					draining = false;
+					return;
+				}
+			}
+			sendingSince = System.currentTimeMillis();
+			try {
+				emitter.send(frame.toEvent());
+			} catch (IOException | IllegalStateException e) {
+				close();
+				return;
+			} finally {
+				sendingSince = 0;
+				lastSentAt = System.currentTimeMillis();
+			}
+		}
+	}
+
+	/**
+	 * Queued event, a frame without a name is a comment keeping the connection
+	 * alive.
+	 */
+	private static class Frame {
+
+		private final String name;
+		private final String data;
+
+		private Frame(String name, String data) {
+			this.name = name;
+			this.data = data;
+		}
+
+		private SseEventBuilder toEvent() {
+			if (name == null) {
+				return SseEmitter.event().comment("");
+			}
+			return SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+		}
+
+	}
+
+}
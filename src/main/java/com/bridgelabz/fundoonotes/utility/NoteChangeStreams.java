@@ -0,0 +1,258 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent;
+import com.bridgelabz.fundoonotes.response.NoteChangeEvent.Broadcast;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Holds the {@link NoteChangeStream} of every user connected to this instance
+ * and pushes the {@link NoteChangeEvent} published by any instance to them.
+ * Every instance consumes the note event exchange through its own queue, which
+ * is deleted with the instance and keeps at most the configured number of
+ * messages, the oldest are dropped when the instance falls behind.
+ * <p>
+ * An event is serialized once and only when a user of it is connected here,
+ * then queued to each of the streams of the user, the writes run on a small
+ * pool of sender threads. A comment is written to every stream which was idle
+ * for the heartbeat interval, so proxies keep the connection open and a client
+ * which went away is noticed, and a stream whose write is blocked for longer
+ * than the stall timeout is closed. A user keeps a bounded number of streams,
+ * opening one more closes the oldest.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-07
+ * @version 1.0
+ * @see {@link NoteChangeNotifier} for publishing the events
+ */
+@Component
+public class NoteChangeStreams {
+
+	public static final String READY_EVENT = "ready";
+	public static final String NOTE_EVENT = "note";
+
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${fundoo.note.events.stream.timeout-ms:1800000}")
+	private long streamTimeoutMillis;
+	@Value("${fundoo.note.events.stream.reconnect-ms:3000}")
+	private long reconnectMillis;
+	@Value("${fundoo.note.events.stream.queue-capacity:64}")
+	private int queueCapacity;
+	@Value("${fundoo.note.events.stream.max-per-user:5}")
+	private int maxStreamsPerUser;
+	@Value("${fundoo.note.events.stream.heartbeat-ms:15000}")
+	private long heartbeatMillis;
+	@Value("${fundoo.note.events.stream.stall-timeout-ms:30000}")
+	private long stallTimeoutMillis;
+	@Value("${fundoo.note.events.stream.sender-threads:4}")
+	private int senderThreads;
+
+	private final Map<Long, List<NoteChangeStream>> streamsOfUser = new ConcurrentHashMap<>();
+	private final AtomicInteger streamCount = new AtomicInteger();
+	private final AtomicLong stalledCount = new AtomicLong();
+	private final AtomicLong closedResyncCount = new AtomicLong();
+	private ExecutorService sender;
+
+	/**
+	 * Starts the sender threads and publishes the number of open streams as a
+	 * gauge.
+	 */
+	@PostConstruct
+	public void initialize() {
+		AtomicInteger threadCount = new AtomicInteger();
+		sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+			Thread thread = new Thread(runnable, "note-change-sender-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		Gauge.builder("fundoo.note.events.streams", streamCount, AtomicInteger::get)
+				.description("Note change streams open on this instance").register(meterRegistry);
+		FunctionCounter.builder("fundoo.note.events.resyncs", this, NoteChangeStreams::getResyncCount)
+				.description("Note change streams which fell behind and were told to resync")
+				.register(meterRegistry);
+		FunctionCounter.builder("fundoo.note.events.stalled", stalledCount, AtomicLong::get)
+				.description("Note change streams closed because the client stopped reading")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Closes every stream, the clients reconnect to another instance.
+	 */
+	@PreDestroy
+	public void close() {
+		for (List<NoteChangeStream> streams : streamsOfUser.values()) {
+			for (NoteChangeStream stream : streams) {
+				stream.close();
+			}
+		}
+		sender.shutdownNow();
+	}
+
+	/**
+	 * This function takes the id of an authenticated user as input parameter and
+	 * opens a stream of the changes of the notes the user owns or colaborates on.
+	 * The first event tells the client to fetch what changed before the stream
+	 * was opened through the delta sync.
+	 * 
+	 * @param userId as Long input parameter
+	 * @return {@link SseEmitter} of the stream
+	 */
+	public SseEmitter open(long userId) {
+		SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+		NoteChangeStream stream = new NoteChangeStream(userId, emitter, queueCapacity, sender);
+		emitter.onCompletion(() -> remove(stream));
+		emitter.onTimeout(() -> remove(stream));
+		emitter.onError(error -> remove(stream));
+		try {
+			// not written yet, the emitter sends it once the response starts
+			emitter.send(SseEmitter.event().name(READY_EVENT).reconnectTime(reconnectMillis).data("{}"));
+		} catch (IOException e) {
+			emitter.completeWithError(e);
+			return emitter;
+		}
+		List<NoteChangeStream> evictedStreams = new ArrayList<>();
+		streamsOfUser.compute(userId, (id, streams) -> {
+			List<NoteChangeStream> userStreams = streams == null ? new ArrayList<>() : new ArrayList<>(streams);
+			userStreams.add(stream);
+			while (userStreams.size() > maxStreamsPerUser) {
+				evictedStreams.add(userStreams.remove(0));
+			}
+			return Collections.unmodifiableList(userStreams);
+		});
+		streamCount.incrementAndGet();
+		for (NoteChangeStream evictedStream : evictedStreams) {
+			remove(evictedStream);
+		}
+		return emitter;
+	}
+
+	/**
+	 * Listener of the queue of this instance on the note event exchange, pushes
+	 * every event to the connected users it is meant for.
+	 * 
+	 * @param message as {@link Message} with the JSON array of {@link Broadcast}
+	 */
+	@RabbitListener(queues = "#{noteEventQueue.name}")
+	public void receivedChanges(Message message) {
+		Broadcast[] broadcasts;
+		try {
+			broadcasts = objectMapper.readValue(message.getBody(), Broadcast[].class);
+		} catch (IOException e) {
+			throw new AmqpRejectAndDontRequeueException("Unreadable note change events", e);
+		}
+		for (Broadcast broadcast : broadcasts) {
+			push(broadcast);
+		}
+	}
+
+	/**
+	 * This function takes the broadcast of a change as input parameter and queues
+	 * the event to every stream of its users connected to this instance.
+	 * 
+	 * @param broadcast as {@link Broadcast}
+	 */
+	public void push(Broadcast broadcast) {
+		String data = null;
+		for (Long userId : broadcast.getUserIds()) {
+			List<NoteChangeStream> streams = streamsOfUser.get(userId);
+			if (streams == null) {
+				continue;
+			}
+			if (data == null) {
+				try {
+					data = objectMapper.writeValueAsString(broadcast.getEvent());
+				} catch (JsonProcessingException e) {
+					return;
+				}
+			}
+			for (NoteChangeStream stream : streams) {
+				stream.offer(NOTE_EVENT, data);
+			}
+		}
+	}
+
+	/**
+	 * Writes a comment to the idle streams and closes the stalled ones.
+	 */
+	@Scheduled(fixedDelayString = "${fundoo.note.events.stream.heartbeat-ms:15000}")
+	public void heartbeat() {
+		long now = System.currentTimeMillis();
+		for (List<NoteChangeStream> streams : streamsOfUser.values()) {
+			for (NoteChangeStream stream : streams) {
+				if (stream.isStalled(now, stallTimeoutMillis)) {
+					stalledCount.incrementAndGet();
+					remove(stream);
+				} else if (!stream.heartbeat(now, heartbeatMillis)) {
+					remove(stream);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of streams of the user open on this instance.
+	 * 
+	 * @param userId as Long input parameter
+	 * @return Integer
+	 */
+	public int getStreamCount(long userId) {
+		List<NoteChangeStream> streams = streamsOfUser.get(userId);
+		return streams == null ? 0 : streams.size();
+	}
+
+	private void remove(NoteChangeStream stream) {
+		boolean[] removed = new boolean[1];
+		streamsOfUser.computeIfPresent(stream.getUserId(), (id, streams) -> {
+			List<NoteChangeStream> userStreams = new ArrayList<>(streams);
+			removed[0] = userStreams.remove(stream);
+			return userStreams.isEmpty() ? null : Collections.unmodifiableList(userStreams);
+		});
+		if (removed[0]) {
+			streamCount.decrementAndGet();
+			closedResyncCount.addAndGet(stream.getResyncCount());
+		}
+		stream.close();
+	}
+
+	private long getResyncCount() {
+		long resyncCount = closedResyncCount.get();
+		for (List<NoteChangeStream> streams : streamsOfUser.values()) {
+			for (NoteChangeStream stream : streams) {
+				resyncCount += stream.getResyncCount();
+			}
+		}
+		return resyncCount;
+	}
+
+}
@@ -0,0 +1,240 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteIndexEvent;
+import com.bridgelabz.fundoonotes.repository.INoteIndexOutboxRepository;
+import com.bridgelabz.fundoonotes.repository.INoteRepository;
+import com.bridgelabz.fundoonotes.repository.INoteSearchEngine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Background indexer which keeps the index of the search engine in line with
+ * the database. The note repository records every change in the search index
+ * outbox within the transaction of the change, and this indexer drains the
+ * outbox in batches, coalesces the events of a note into one operation, loads
+ * the current state of the notes with a bounded number of queries and applies
+ * them with one bulk request per batch.
+ * <p>
+ * A run never drains more than the configured number of batches, so a burst of
+ * writes is absorbed by the outbox instead of the search engine. When the bulk
+ * request fails the indexer backs off exponentially without spending the
+ * attempts of the events, while the items rejected by the search engine are
+ * retried until they run out of attempts.
+ * <p>
+ * A batch stays locked in the outbox while it is applied and acknowledged, the
+ * way the mail outbox relay holds its batch. With several instances only one of
+ * them indexes at a time, so an event is applied once and the events of a note
+ * are applied in the order they were written.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-18
+ * @version 1.0
+ * @see {@link INoteIndexOutboxRepository} for the outbox
+ * @see {@link INoteSearchEngine} for the bulk request
+ * @updated -> 2020-05-08
+ * @modified -> every batch is claimed and applied within one transaction.
+ */
+@Component
+public class NoteSearchIndexer {
+
+	@Autowired
+	private INoteIndexOutboxRepository outboxRepository;
+	@Autowired
+	private INoteRepository noteRepository;
+	@Autowired
+	private INoteSearchEngine noteSearchEngine;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${fundoo.search.indexer.batch-size:500}")
+	private int batchSize;
+	@Value("${fundoo.search.indexer.max-batches-per-run:20}")
+	private int maxBatchesPerRun;
+	@Value("${fundoo.search.indexer.max-attempts:5}")
+	private int maxAttempts;
+	@Value("${fundoo.search.indexer.delay-ms:1000}")
+	private long delayMillis;
+	@Value("${fundoo.search.indexer.max-backoff-ms:60000}")
+	private long maxBackoffMillis;
+
+	private final AtomicLong indexedCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private volatile long pendingCount;
+	private volatile long lagMillis;
+	private int consecutiveFailures;
+	private long nextRunAt;
+
+	/**
+	 * Publishes the lag and the size of the outbox as gauges, they are refreshed
+	 * at the end of every run so reading them never queries the database.
+	 */
+	@PostConstruct
+	public void registerMetrics() {
+		Gauge.builder("fundoo.search.indexer.lag", this, NoteSearchIndexer::getLagMillis).baseUnit("milliseconds")
+				.description("Age of the oldest change not yet applied on the search index")
+				.register(meterRegistry);
+		Gauge.builder("fundoo.search.indexer.pending", this, NoteSearchIndexer::getPendingCount)
+				.description("Changes waiting in the search index outbox").register(meterRegistry);
+		FunctionCounter.builder("fundoo.search.indexer.indexed", this, NoteSearchIndexer::getIndexedCount)
+				.description("Changes applied on the search index").register(meterRegistry);
+		FunctionCounter.builder("fundoo.search.indexer.dropped", this, NoteSearchIndexer::getDroppedCount)
+				.description("Changes given up after the maximum attempts").register(meterRegistry);
+	}
+
+	/**
+	 * Drains at most the configured number of batches from the outbox unless the
+	 * indexer is backing off after a failed bulk request.
+	 */
+	@Scheduled(fixedDelayString = "${fundoo.search.indexer.delay-ms:1000}")
+	public void drainOutbox() {
+		if (System.currentTimeMillis() < nextRunAt) {
+			return;
+		}
+		try {
+			for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+				if (transactionTemplate.execute(status -> indexBatch()) < batchSize) {
+					break;
+				}
+			}
+			consecutiveFailures = 0;
+		} catch (RuntimeException e) {
+			consecutiveFailures++;
+			nextRunAt = System.currentTimeMillis() + backoffMillis();
+		} finally {
+			refreshLag();
+		}
+	}
+
+	/**
+	 * Applies one batch of the outbox on the search index and acknowledges it,
+	 * within the transaction holding the lock on the batch.
+	 * 
+	 * @return Integer number of events removed from the outbox, a batch with
+	 *         retried events ends the run so they wait for the next one
+	 * @throws UncheckedIOException when the bulk request could not be sent, the
+	 *                              batch is released untouched
+	 */
+	private int indexBatch() {
+		List<NoteIndexEvent> events = outboxRepository.claimPendingEvents(batchSize);
+		if (events.isEmpty()) {
+			return 0;
+		}
+		// the latest event of a note decides, the state is read afresh anyway
+		Map<Long, NoteIndexEvent> latestEvents = new LinkedHashMap<>();
+		for (NoteIndexEvent event : events) {
+			latestEvents.put(event.getNoteId(), event);
+		}
+		List<Long> upsertedNoteIds = new ArrayList<>();
+		List<Long> deletedNoteIds = new ArrayList<>();
+		for (NoteIndexEvent event : latestEvents.values()) {
+			if (NoteIndexEvent.DELETE.equals(event.getOperation())) {
+				deletedNoteIds.add(event.getNoteId());
+			} else {
+				upsertedNoteIds.add(event.getNoteId());
+			}
+		}
+		List<Note> notes = noteRepository.getNotesById(upsertedNoteIds);
+		Set<Long> foundNoteIds = new HashSet<>();
+		for (Note note : notes) {
+			foundNoteIds.add(note.getNoteId());
+		}
+		// notes deleted after the event was written are removed from the index
+		for (Long noteId : upsertedNoteIds) {
+			if (!foundNoteIds.contains(noteId)) {
+				deletedNoteIds.add(noteId);
+			}
+		}
+		Set<Long> failedNoteIds;
+		try {
+			failedNoteIds = new HashSet<>(noteSearchEngine.bulkIndex(notes, deletedNoteIds));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return acknowledge(events, failedNoteIds);
+	}
+
+	/**
+	 * Removes the applied events from the outbox and records one more attempt of
+	 * the failed ones, failed events out of attempts are given up.
+	 * 
+	 * @param events        as List<NoteIndexEvent> of the batch
+	 * @param failedNoteIds as Set<Long> rejected by the search index
+	 * @return Integer number of events removed from the outbox
+	 */
+	private int acknowledge(List<NoteIndexEvent> events, Set<Long> failedNoteIds) {
+		List<Long> doneEventIds = new ArrayList<>();
+		List<Long> retriedEventIds = new ArrayList<>();
+		for (NoteIndexEvent event : events) {
+			if (!failedNoteIds.contains(event.getNoteId())) {
+				doneEventIds.add(event.getEventId());
+				indexedCount.incrementAndGet();
+			} else if (event.getAttempts() + 1 >= maxAttempts) {
+				doneEventIds.add(event.getEventId());
+				droppedCount.incrementAndGet();
+			} else {
+				retriedEventIds.add(event.getEventId());
+			}
+		}
+		outboxRepository.deleteEvents(doneEventIds);
+		outboxRepository.incrementAttempts(retriedEventIds);
+		return doneEventIds.size();
+	}
+
+	private long backoffMillis() {
+		long backoff = delayMillis << Math.min(consecutiveFailures, 16);
+		return Math.min(backoff, maxBackoffMillis);
+	}
+
+	private void refreshLag() {
+		try {
+			pendingCount = outboxRepository.countPendingEvents();
+			LocalDateTime oldestPendingDate = outboxRepository.getOldestPendingDate();
+			lagMillis = oldestPendingDate == null ? 0
+					: Math.max(0, Duration.between(oldestPendingDate, LocalDateTime.now()).toMillis());
+		} catch (RuntimeException e) {
+			// keep the last known values while the database is unavailable
+		}
+	}
+
+	public long getLagMillis() {
+		return lagMillis;
+	}
+
+	public long getPendingCount() {
+		return pendingCount;
+	}
+
+	public long getIndexedCount() {
+		return indexedCount.get();
+	}
+
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.bridgelabz.fundoonotes.exception.NoteException;
+
+/**
+ * Opaque continuation token of a keyset paginated listing. It holds the sort
+ * key and the id of the last row of a page, encoded in url safe Base64 so that
+ * the client never has to know how the listing is ordered.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-12
+ * @version 1.0
+ */
+public final class PageToken {
+
+	private static final char SEPARATOR = '|';
+
+	private final String sortKey;
+	private final long id;
+
+	private PageToken(String sortKey, long id) {
+		this.sortKey = sortKey;
+		this.id = id;
+	}
+
+	public String getSortKey() {
+		return sortKey;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * This function takes sort key and id of the last row of a page as input
+	 * parameter and returns the encoded continuation token.
+	 * 
+	 * @param sortKey as Object input parameter
+	 * @param id      as Long input parameter
+	 * @return String
+	 */
+	public static String encode(Object sortKey, long id) {
+		String rawToken = String.valueOf(sortKey) + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(rawToken.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * This function takes encoded continuation token as input parameter and
+	 * returns the decoded {@link PageToken} else throw {@link NoteException} if
+	 * the token is not a valid one.
+	 * 
+	 * @param token as String input parameter
+	 * @return {@link PageToken}
+	 */
+	public static PageToken decode(String token) {
+		try {
+			String rawToken = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separatorIndex = rawToken.lastIndexOf(SEPARATOR);
+			return new PageToken(rawToken.substring(0, separatorIndex),
+					Long.parseLong(rawToken.substring(separatorIndex + 1)));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new NoteException(Util.INVALID_PAGE_TOKEN_EXCEPTION_MESSAGE, Util.BAD_REQUEST_RESPONSE_CODE);
+		}
+	}
+
+}
@@ -1,8 +1,16 @@
 package com.bridgelabz.fundoonotes.utility;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.bridgelabz.fundoonotes.response.MailObject;
@@ -14,22 +22,63 @@ import com.bridgelabz.fundoonotes.response.MailObject;
  * @author Durgasankar Mishra
  * @created 2020-02-09
  * @version 1.0
- *
+ * @modified -> 2020-04-23
+ * @updated -> the result of a send is the confirm of the broker, delivered
+ *          asynchronously.
+ * @see {@link MailOutboxRelay} for the only publisher of the mails
  */
 @Component
 public class RabbitMQSender {
 	@Autowired
 	private RabbitTemplate rabbitTemplate;
 
-	@Value("rmq.rube.exchange")
-	private String exchange;
-
-	@Value("rube.key")
-	private String routingkey;
+	/**
+	 * This function takes the mail as input parameter and publishes it to the mail
+	 * exchange without waiting for the broker. The returned future completes once
+	 * the broker confirmed the message, with true when the broker accepted and
+	 * routed it to the mail queue and false when it refused or could not route it.
+	 * The message id lets the consumer recognise a mail published more than once.
+	 * 
+	 * @param message   as {@link MailObject}
+	 * @param messageId as String unique key of the mail
+	 * @return CompletableFuture<Boolean>
+	 */
+	public CompletableFuture<Boolean> send(MailObject message, String messageId) {
+		CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+		try {
+			rabbitTemplate.convertAndSend(Util.MAIL_EXCHANGE_NAME, Util.MAIL_ROUTING_KEY, message, amqpMessage -> {
+				amqpMessage.getMessageProperties().setMessageId(messageId);
+				return amqpMessage;
+			}, correlationData);
+		} catch (AmqpException e) {
+			return CompletableFuture.completedFuture(false);
+		}
+		// a returned message arrives before its confirm
+		return correlationData.getFuture().completable()
+				.thenApply(confirm -> confirm.isAck() && correlationData.getReturnedMessage() == null);
+	}
 
-	public boolean send(MailObject message) {
-		rabbitTemplate.convertAndSend(exchange, routingkey, message);
-		return true;
+	/**
+	 * This function takes the mails by their message id as input parameter and
+	 * publishes all of them on the same channel in the iteration order of the map,
+	 * so the broker queues them in that order.
+	 * 
+	 * @param mails as Map of message id to {@link MailObject}
+	 * @return List<CompletableFuture<Boolean>> the confirms in the order of the
+	 *         mails
+	 */
+	public List<CompletableFuture<Boolean>> sendAll(Map<String, MailObject> mails) {
+		try {
+			return rabbitTemplate.invoke(operations -> {
+				List<CompletableFuture<Boolean>> confirms = new ArrayList<>(mails.size());
+				for (Map.Entry<String, MailObject> mail : mails.entrySet()) {
+					confirms.add(send(mail.getValue(), mail.getKey()));
+				}
+				return confirms;
+			});
+		} catch (AmqpException e) {
+			return Collections.nCopies(mails.size(), CompletableFuture.completedFuture(false));
+		}
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,225 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bridgelabz.fundoonotes.model.MailOutboxMessage;
+import com.bridgelabz.fundoonotes.model.Reminder;
+import com.bridgelabz.fundoonotes.repository.IMailOutboxRepository;
+import com.bridgelabz.fundoonotes.repository.IReminderRepository;
+import com.bridgelabz.fundoonotes.response.MailObject;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Background scheduler sending the mail of every due reminder. Only the
+ * reminders due within the look ahead are held, in a {@link TimingWheel}, so
+ * the number of pending reminders in the database does not matter. The wheel
+ * is filled by paging forward through the index of the reminder time whenever
+ * less than half of the look ahead is left, and the note service schedules and
+ * cancels the reminders changed within the loaded range in constant time.
+ * <p>
+ * On every tick the due notes are claimed and their mails written to the mail
+ * outbox in one transaction, the mail outbox relay publishes them to the mail
+ * exchange. A claim checks the reminder in the database, so a reminder changed
+ * on another instance is not sent from a stale entry, and with several
+ * instances holding the same reminder only one queues its mail. At start up the
+ * reminders of the catch up period which were not sent yet are sent right
+ * away.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-05
+ * @version 1.0
+ * @see {@link IReminderRepository} for the claim
+ * @see {@link MailOutboxRelay} for publishing the mails
+ */
+@Component
+public class ReminderScheduler {
+
+	@Autowired
+	private IReminderRepository reminderRepository;
+	@Autowired
+	private IMailOutboxRepository mailOutboxRepository;
+	@Autowired
+	private MailTemplateEngine mailTemplateEngine;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${fundoo.reminder.tick-ms:1000}")
+	private long tickMillis;
+	@Value("${fundoo.reminder.look-ahead-seconds:300}")
+	private long lookAheadSeconds;
+	@Value("${fundoo.reminder.page-size:1000}")
+	private int pageSize;
+	@Value("${fundoo.reminder.catch-up-seconds:600}")
+	private long catchUpSeconds;
+
+	private final AtomicLong queuedCount = new AtomicLong();
+	private TimingWheel timingWheel;
+	// last reminder read from the index and the time the wheel is loaded up to
+	private LocalDateTime loadedTime;
+	private long loadedNoteId;
+	private LocalDateTime loadedUntil;
+
+	/**
+	 * Creates the wheel, one turn covers twice the look ahead so that every
+	 * loaded reminder fits, and publishes the number of held reminders as a
+	 * gauge.
+	 */
+	@PostConstruct
+	public void initialize() {
+		int slotCount = (int) Math.max(2, 2 * lookAheadSeconds * 1000 / tickMillis);
+		timingWheel = new TimingWheel(tickMillis, slotCount, System.currentTimeMillis());
+		loadedTime = LocalDateTime.now().minusSeconds(catchUpSeconds);
+		loadedUntil = loadedTime;
+		Gauge.builder("fundoo.reminder.scheduled", this, ReminderScheduler::getScheduledCount)
+				.description("Reminders held in the timing wheel").register(meterRegistry);
+		FunctionCounter.builder("fundoo.reminder.queued", this, ReminderScheduler::getQueuedCount)
+				.description("Reminder mails written to the mail outbox").register(meterRegistry);
+	}
+
+	/**
+	 * This function takes the note id and the time of its reminder as input
+	 * parameter and holds the reminder if it falls within the loaded range, a
+	 * later reminder is read from the index when its turn comes.
+	 * 
+	 * @param noteId        as Long input parameter
+	 * @param remainderTime as {@link LocalDateTime}
+	 */
+	public synchronized void schedule(long noteId, LocalDateTime remainderTime) {
+		timingWheel.cancel(noteId);
+		if (!remainderTime.isAfter(loadedUntil)) {
+			timingWheel.schedule(noteId, millisOf(remainderTime));
+		}
+	}
+
+	/**
+	 * This function takes the note id as input parameter and drops its reminder
+	 * from the wheel.
+	 * 
+	 * @param noteId as Long input parameter
+	 */
+	public synchronized void cancel(long noteId) {
+		timingWheel.cancel(noteId);
+	}
+
+	/**
+	 * Loads the upcoming reminders when needed, then turns the wheel and sends
+	 * the reminders which became due.
+	 */
+	@Scheduled(fixedDelayString = "${fundoo.reminder.tick-ms:1000}")
+	public void tick() {
+		loadAhead();
+		List<Long> dueNoteIds;
+		synchronized (this) {
+			dueNoteIds = timingWheel.advance(System.currentTimeMillis());
+		}
+		if (!dueNoteIds.isEmpty()) {
+			sendReminders(dueNoteIds);
+		}
+	}
+
+	/**
+	 * Reads the reminders after the last loaded one up to the end of the look
+	 * ahead, page by page, once less than half of the look ahead is loaded. The
+	 * loaded range is extended before reading, so a reminder set meanwhile is
+	 * scheduled by the note service if the page misses it.
+	 */
+	private void loadAhead() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime untilTime = now.plusSeconds(lookAheadSeconds);
+		synchronized (this) {
+			if (loadedUntil.isAfter(now.plusSeconds(lookAheadSeconds / 2))) {
+				return;
+			}
+			loadedUntil = untilTime;
+		}
+		try {
+			List<Reminder> page;
+			do {
+				page = reminderRepository.getReminders(loadedTime, loadedNoteId, untilTime, pageSize);
+				synchronized (this) {
+					for (Reminder reminder : page) {
+						timingWheel.schedule(reminder.getNoteId(), millisOf(reminder.getRemainderTime()));
+						loadedTime = reminder.getRemainderTime();
+						loadedNoteId = reminder.getNoteId();
+					}
+				}
+			} while (page.size() == pageSize);
+		} catch (RuntimeException e) {
+			// read the rest again on the next tick
+			synchronized (this) {
+				loadedUntil = loadedTime;
+			}
+		}
+	}
+
+	/**
+	 * Claims the given due notes and writes the mails of their reminders to the
+	 * mail outbox in one transaction. When that fails the notes are due again on
+	 * the next tick.
+	 * 
+	 * @param noteIds as List<Long> input parameter
+	 */
+	private void sendReminders(List<Long> noteIds) {
+		LocalDateTime now = LocalDateTime.now();
+		try {
+			int queuedMails = transactionTemplate.execute(status -> queueMails(noteIds, now));
+			queuedCount.addAndGet(queuedMails);
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				for (Long noteId : noteIds) {
+					timingWheel.schedule(noteId, System.currentTimeMillis());
+				}
+			}
+		}
+	}
+
+	private int queueMails(List<Long> noteIds, LocalDateTime now) {
+		List<Reminder> reminders = reminderRepository.claimDueReminders(noteIds, now);
+		for (Reminder reminder : reminders) {
+			Map<String, Object> values = new HashMap<>();
+			values.put("firstName", textOf(reminder.getFirstName()));
+			values.put("lastName", textOf(reminder.getLastName()));
+			values.put("title", textOf(reminder.getTitle()));
+			values.put("description", textOf(reminder.getDescription()));
+			values.put("remainderTime", reminder.getRemainderTime());
+			MailObject mail = mailTemplateEngine.render(MailTemplate.REMINDER, reminder.getEmailId(), values);
+			mailOutboxRepository.save(new MailOutboxMessage(mail));
+		}
+		return reminders.size();
+	}
+
+	private static String textOf(String value) {
+		return value == null ? "" : value;
+	}
+
+	private static long millisOf(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	public synchronized int getScheduledCount() {
+		return timingWheel.size();
+	}
+
+	public long getQueuedCount() {
+		return queuedCount.get();
+	}
+
+}
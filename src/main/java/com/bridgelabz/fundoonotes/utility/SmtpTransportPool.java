@@ -0,0 +1,258 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool of long lived, authenticated SMTP connections configured by the
+ * spring.mail properties. A connection is reused for many messages, so the TLS
+ * handshake and the authentication are paid once per connection instead of
+ * once per message. A connection is replaced once it has sent the configured
+ * number of messages or stayed idle too long, and a message failing on a
+ * reused connection, which the server may have dropped meanwhile, is retried
+ * once on a fresh connection.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-21
+ * @version 1.0
+ * @see {@link EMailServiceProvider} for sending the mails of the queue
+ */
+@Component
+public class SmtpTransportPool {
+
+	@Autowired
+	private MailProperties mailProperties;
+
+	@Value("${fundoo.mail.pool.size:8}")
+	private int poolSize;
+	@Value("${fundoo.mail.pool.max-messages-per-connection:100}")
+	private int maxMessagesPerConnection;
+	@Value("${fundoo.mail.pool.max-idle-ms:30000}")
+	private long maxIdleMillis;
+	@Value("${fundoo.mail.pool.borrow-timeout-ms:30000}")
+	private long borrowTimeoutMillis;
+
+	private Session session;
+	private Semaphore permits;
+	private final BlockingDeque<PooledTransport> idleTransports = new LinkedBlockingDeque<>();
+	private final AtomicInteger openConnections = new AtomicInteger();
+
+	/**
+	 * Creates the one mail session shared by all the connections.
+	 */
+	@PostConstruct
+	public void initialize() {
+		Properties properties = new Properties();
+		properties.putAll(mailProperties.getProperties());
+		// checking a connection after a rejected message also resets the transaction
+		properties.putIfAbsent("mail." + mailProperties.getProtocol() + ".userset", "true");
+		session = Session.getInstance(properties);
+		permits = new Semaphore(poolSize, true);
+	}
+
+	/**
+	 * Closes every idle connection.
+	 */
+	@PreDestroy
+	public void close() {
+		PooledTransport transport;
+		while ((transport = idleTransports.pollFirst()) != null) {
+			transport.close();
+		}
+	}
+
+	/**
+	 * Returns the session new messages have to be created with.
+	 * 
+	 * @return {@link Session}
+	 */
+	public Session getSession() {
+		return session;
+	}
+
+	/**
+	 * This function takes the message as input parameter and sends it over a
+	 * pooled connection, waiting for a free connection when all of them are busy.
+	 * 
+	 * @param message as {@link MimeMessage}
+	 * @throws MessagingException when the message could not be sent
+	 */
+	public void send(MimeMessage message) throws MessagingException {
+		MessagingException failure = sendAll(Collections.singletonList(message)).get(0);
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * This function takes the messages as input parameter and sends all of them
+	 * one after the other over the same pooled connection, so a batch holds one
+	 * connection only. A failing message does not stop the batch.
+	 * 
+	 * @param messages as List of {@link MimeMessage}
+	 * @return the failure of every message in the order of the messages, null for
+	 *         the messages sent
+	 * @throws MessagingException when no connection became available
+	 */
+	public List<MessagingException> sendAll(List<MimeMessage> messages) throws MessagingException {
+		acquire();
+		PooledTransport transport = null;
+		MessagingException connectFailure = null;
+		try {
+			List<MessagingException> failures = new ArrayList<>(messages.size());
+			for (MimeMessage message : messages) {
+				if (connectFailure != null) {
+					// the server is unreachable, do not wait for every message again
+					failures.add(connectFailure);
+					continue;
+				}
+				MessagingException failure = null;
+				try {
+					message.saveChanges();
+				} catch (MessagingException e) {
+					failures.add(e);
+					continue;
+				}
+				// a message failing on a reused connection gets a second attempt on a fresh one
+				for (int attempt = 0; attempt < 2; attempt++) {
+					try {
+						if (transport == null) {
+							transport = attempt == 0 ? borrow() : open();
+						}
+					} catch (MessagingException e) {
+						connectFailure = e;
+						failure = e;
+						break;
+					}
+					try {
+						transport.send(message);
+						failure = null;
+						break;
+					} catch (MessagingException e) {
+						failure = e;
+						// a dropped connection shows up as a failed send as well
+						if (e instanceof SendFailedException && transport.isConnected()) {
+							// rejected by the server, the connection itself is fine
+							break;
+						}
+						transport.close();
+						boolean reused = transport.sentMessages > 0;
+						transport = null;
+						if (!reused) {
+							break;
+						}
+					}
+				}
+				failures.add(failure);
+			}
+			return failures;
+		} finally {
+			if (transport != null) {
+				idleTransports.offerFirst(transport);
+			}
+			permits.release();
+		}
+	}
+
+	private void acquire() throws MessagingException {
+		try {
+			if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw new MessagingException("No SMTP connection became available");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessagingException("Interrupted while waiting for an SMTP connection", e);
+		}
+	}
+
+	/**
+	 * Returns the most recently used live connection, so that surplus
+	 * connections age out, or opens a new one.
+	 */
+	private PooledTransport borrow() throws MessagingException {
+		PooledTransport transport;
+		while ((transport = idleTransports.pollFirst()) != null) {
+			if (transport.isReusable()) {
+				return transport;
+			}
+			transport.close();
+		}
+		return open();
+	}
+
+	private PooledTransport open() throws MessagingException {
+		Transport transport = session.getTransport(mailProperties.getProtocol());
+		transport.connect(mailProperties.getHost(), mailProperties.getPort() == null ? -1 : mailProperties.getPort(),
+				mailProperties.getUsername(), mailProperties.getPassword());
+		openConnections.incrementAndGet();
+		return new PooledTransport(transport);
+	}
+
+	public int getOpenConnections() {
+		return openConnections.get();
+	}
+
+	public int getIdleConnections() {
+		return idleTransports.size();
+	}
+
+	/**
+	 * Connection of the pool along with its usage.
+	 */
+	private final class PooledTransport {
+
+		private final Transport transport;
+		private int sentMessages;
+		private long lastUsedAt = System.nanoTime();
+
+		private PooledTransport(Transport transport) {
+			this.transport = transport;
+		}
+
+		private void send(MimeMessage message) throws MessagingException {
+			transport.sendMessage(message, message.getAllRecipients());
+			sentMessages++;
+			lastUsedAt = System.nanoTime();
+		}
+
+		private boolean isReusable() {
+			return sentMessages < maxMessagesPerConnection
+					&& System.nanoTime() - lastUsedAt < TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+		}
+
+		private boolean isConnected() {
+			return transport.isConnected();
+		}
+
+		private void close() {
+			openConnections.decrementAndGet();
+			try {
+				transport.close();
+			} catch (MessagingException e) {
+				// the connection is dropped anyway
+			}
+		}
+
+	}
+
+}
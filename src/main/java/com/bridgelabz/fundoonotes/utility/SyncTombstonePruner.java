@@ -0,0 +1,40 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bridgelabz.fundoonotes.repository.ISyncRepository;
+
+/**
+ * Background job removing the tombstones of the delta sync once they are older
+ * than the retention, so the deletions do not pile up. A client which did not
+ * sync within the retention is told to start over instead. Running it on
+ * several instances at once is harmless.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-03
+ * @version 1.0
+ * @see {@link ISyncRepository} for the tombstones
+ */
+@Component
+public class SyncTombstonePruner {
+
+	@Autowired
+	private ISyncRepository syncRepository;
+
+	@Value("${fundoo.sync.tombstone-retention-days:30}")
+	private long retentionDays;
+
+	/**
+	 * Removes the tombstones written before the retention.
+	 */
+	@Scheduled(cron = "${fundoo.sync.tombstone-prune-cron:0 30 3 * * *}")
+	public void pruneTombstones() {
+		syncRepository.pruneTombstones(LocalDateTime.now().minusDays(retentionDays));
+	}
+
+}
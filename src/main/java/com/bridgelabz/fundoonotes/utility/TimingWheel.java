@@ -0,0 +1,123 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel of the note ids with a due reminder. The wheel has one
+ * slot per tick and a note is put into the slot of the first tick at or after
+ * its due time, so scheduling and cancelling a note take constant time and
+ * advancing the wheel only looks at the slots of the elapsed ticks.
+ * <p>
+ * The wheel only holds the notes due within one turn, so every note in a slot
+ * is due once the wheel reaches it. A note due later than that is rejected and
+ * has to be scheduled again when it comes closer. A note due in the past is
+ * due on the next tick. The wheel is not thread safe.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-05
+ * @version 1.0
+ */
+public class TimingWheel {
+
+	private final long tickMillis;
+	private final Set<Long>[] slots;
+	private final Map<Long, Integer> slotOfNote = new HashMap<>();
+	private long currentTick;
+
+	/**
+	 * Constructor takes the length of a tick, the number of slots and the current
+	 * time as input parameter.
+	 * 
+	 * @param tickMillis as Long input parameter
+	 * @param slotCount  as Integer input parameter
+	 * @param nowMillis  as Long input parameter
+	 */
+	@SuppressWarnings("unchecked")
+	public TimingWheel(long tickMillis, int slotCount, long nowMillis) {
+		this.tickMillis = tickMillis;
+		this.slots = new Set[slotCount];
+		for (int slot = 0; slot < slotCount; slot++) {
+			slots[slot] = new HashSet<>();
+		}
+		this.currentTick = nowMillis / tickMillis;
+	}
+
+	/**
+	 * This function takes the note id and its due time as input parameter and
+	 * puts the note into the slot of the tick of the due time, replacing an
+	 * earlier due time of the same note.
+	 * 
+	 * @param noteId    as Long input parameter
+	 * @param dueMillis as Long input parameter
+	 * @return Boolean false if the note is due after one turn of the wheel
+	 */
+	public boolean schedule(long noteId, long dueMillis) {
+		// rounded up, a note never fires before it is due
+		long dueTick = Math.max(Math.floorDiv(dueMillis + tickMillis - 1, tickMillis), currentTick + 1);
+		if (dueTick - currentTick > slots.length) {
+			return false;
+		}
+		cancel(noteId);
+		int slot = (int) (dueTick % slots.length);
+		slots[slot].add(noteId);
+		slotOfNote.put(noteId, slot);
+		return true;
+	}
+
+	/**
+	 * This function takes the note id as input parameter and removes the note from
+	 * the wheel.
+	 * 
+	 * @param noteId as Long input parameter
+	 * @return Boolean false if the note was not scheduled
+	 */
+	public boolean cancel(long noteId) {
+		Integer slot = slotOfNote.remove(noteId);
+		return slot != null && slots[slot].remove(noteId);
+	}
+
+	/**
+	 * This function takes the current time as input parameter, turns the wheel up
+	 * to it and removes the notes which became due.
+	 * 
+	 * @param nowMillis as Long input parameter
+	 * @return List<Long> ids of the due notes
+	 */
+	public List<Long> advance(long nowMillis) {
+		long nowTick = nowMillis / tickMillis;
+		List<Long> dueNoteIds = new ArrayList<>();
+		// after a pause longer than a turn every slot is due once
+		long elapsedTicks = Math.min(nowTick - currentTick, slots.length);
+		for (long tick = nowTick - elapsedTicks + 1; tick <= nowTick; tick++) {
+			Set<Long> slot = slots[(int) (tick % slots.length)];
+			if (!slot.isEmpty()) {
+				for (Long noteId : slot) {
+					slotOfNote.remove(noteId);
+				}
+				dueNoteIds.addAll(slot);
+				slot.clear();
+			}
+		}
+		currentTick = Math.max(currentTick, nowTick);
+		return dueNoteIds;
+	}
+
+	/**
+	 * Returns the time of the last tick a note can be scheduled for.
+	 * 
+	 * @return Long
+	 */
+	public long getHorizonMillis() {
+		return (currentTick + slots.length) * tickMillis;
+	}
+
+	public int size() {
+		return slotOfNote.size();
+	}
+
+}
@@ -0,0 +1,201 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bridgelabz.fundoonotes.exception.AuthorizationException;
+import com.bridgelabz.fundoonotes.model.User;
+import com.bridgelabz.fundoonotes.repository.IUserRepository;
+
+/**
+ * Shared authentication layer of all the services. It verifies the jwt token
+ * through {@link JWTToken} and keeps the resolved {@link UserPrincipal} in a
+ * bounded in process cache whose entries are evicted after a fixed time to live
+ * or when the least recently used entry has to make room for a new one. So a
+ * repeated token is authorized without verifying the signature and querying the
+ * user again.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-10
+ * @version 1.0
+ * @see {@link JWTToken} for decoding the token
+ * @see {@link IUserRepository} for fetching the user on cache miss
+ * @updated -> 2020-04-26
+ * @modified -> a principal which is not cached is resolved from the user in
+ *           the shared {@link EntityCache}, which is evicted along with the
+ *           principals.
+ */
+@Component
+public class UserAuthenticator {
+
+	@Autowired
+	private IUserRepository userRepository;
+	@Autowired
+	private JWTToken jwtToken;
+	@Autowired
+	private EntityCache entityCache;
+
+	@Value("${fundoo.auth.cache.max-entries:10000}")
+	private int maxEntries;
+	@Value("${fundoo.auth.cache.ttl-seconds:300}")
+	private long ttlSeconds;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private Map<String, CachedPrincipal> principalCache;
+
+	/**
+	 * Creates the access ordered cache once the configured bound is injected.
+	 */
+	@PostConstruct
+	public void initialize() {
+		principalCache = new LinkedHashMap<String, CachedPrincipal>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * This function takes authentication token as String input parameter and
+	 * returns the cached principal of the token if it is still alive else it
+	 * decode the token, fetch the user from database and cache the principal.
+	 * if no user is found it throw {@link AuthorizationException}
+	 * 
+	 * @param token as String input parameter
+	 * @return {@link UserPrincipal}
+	 */
+	public UserPrincipal authenticate(String token) {
+		UserPrincipal cachedPrincipal = cachedPrincipal(token);
+		if (cachedPrincipal != null) {
+			return cachedPrincipal;
+		}
+		long userId = jwtToken.decodeToken(token);
+		User cachedUser = entityCache.getUser(userId, () -> userRepository.getUser(userId));
+		if (cachedUser != null) {
+			return principalOf(cachedUser, token);
+		}
+		throw new AuthorizationException(Util.USER_AUTHORIZATION_EXCEPTION_MESSAGE,
+				Util.USER_AUTHENTICATION_EXCEPTION_STATUS);
+	}
+
+	/**
+	 * This function takes authentication token as String input parameter and
+	 * returns the managed {@link User} of the token. It is meant for the
+	 * operations which modify the associations of the user, a cached principal
+	 * only saves the token verification here.
+	 * 
+	 * @param token as String input parameter
+	 * @return {@link User}
+	 */
+	public User authenticatedUser(String token) {
+		UserPrincipal cachedPrincipal = cachedPrincipal(token);
+		if (cachedPrincipal == null) {
+			User fetchedUser = loadUser(token);
+			principalOf(fetchedUser, token);
+			return fetchedUser;
+		}
+		User fetchedUser = userRepository.getUser(cachedPrincipal.getUserId());
+		if (fetchedUser != null) {
+			return fetchedUser;
+		}
+		invalidate(cachedPrincipal.getUserId());
+		throw new AuthorizationException(Util.USER_AUTHORIZATION_EXCEPTION_MESSAGE,
+				Util.USER_AUTHENTICATION_EXCEPTION_STATUS);
+	}
+
+	/**
+	 * Removes every cached principal and the cached user of the given user so
+	 * that the next request of the user is authorized against the database
+	 * again.
+	 * 
+	 * @param userId as Long input parameter
+	 */
+	public void invalidate(long userId) {
+		entityCache.evictUser(userId);
+		synchronized (principalCache) {
+			Iterator<CachedPrincipal> iterator = principalCache.values().iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().principal.getUserId() == userId) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public int getSize() {
+		synchronized (principalCache) {
+			return principalCache.size();
+		}
+	}
+
+	private UserPrincipal cachedPrincipal(String token) {
+		if (token == null) {
+			return null;
+		}
+		synchronized (principalCache) {
+			CachedPrincipal cachedEntry = principalCache.get(token);
+			if (cachedEntry != null) {
+				if (cachedEntry.expiresAt > System.nanoTime()) {
+					hitCount.incrementAndGet();
+					return cachedEntry.principal;
+				}
+				principalCache.remove(token);
+			}
+		}
+		missCount.incrementAndGet();
+		return null;
+	}
+
+	private User loadUser(String token) {
+		User fetchedUser = userRepository.getUser(jwtToken.decodeToken(token));
+		if (fetchedUser != null) {
+			return fetchedUser;
+		}
+		throw new AuthorizationException(Util.USER_AUTHORIZATION_EXCEPTION_MESSAGE,
+				Util.USER_AUTHENTICATION_EXCEPTION_STATUS);
+	}
+
+	private UserPrincipal principalOf(User fetchedUser, String token) {
+		UserPrincipal principal = new UserPrincipal(fetchedUser.getUserId(), fetchedUser.isVerified());
+		long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+		synchronized (principalCache) {
+			principalCache.put(token, new CachedPrincipal(principal, expiresAt));
+		}
+		return principal;
+	}
+
+	/**
+	 * Cache entry which remembers when the principal has to be verified again.
+	 */
+	private static final class CachedPrincipal {
+		private final UserPrincipal principal;
+		private final long expiresAt;
+
+		private CachedPrincipal(UserPrincipal principal, long expiresAt) {
+			this.principal = principal;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+}
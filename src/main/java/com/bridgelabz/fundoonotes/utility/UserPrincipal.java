@@ -0,0 +1,43 @@
+package com.bridgelabz.fundoonotes.utility;
+
+/**
+ * Immutable identity of an authenticated user which is resolved from a verified
+ * jwt token. It only carries what the services need to authorize a request so
+ * that it can be cached without holding a managed User entity.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-10
+ * @version 1.0
+ * @see {@link UserAuthenticator} for resolving and caching the principal
+ */
+public final class UserPrincipal {
+
+	private final long userId;
+	private final boolean isVerified;
+
+	/**
+	 * Constructor takes user id and verification status of the user as input
+	 * parameter.
+	 * 
+	 * @param userId     as Long input parameter
+	 * @param isVerified as Boolean input parameter
+	 */
+	public UserPrincipal(long userId, boolean isVerified) {
+		this.userId = userId;
+		this.isVerified = isVerified;
+	}
+
+	public long getUserId() {
+		return userId;
+	}
+
+	public boolean isVerified() {
+		return isVerified;
+	}
+
+	@Override
+	public String toString() {
+		return "UserPrincipal [userId=" + userId + ", isVerified=" + isVerified + "]";
+	}
+
+}
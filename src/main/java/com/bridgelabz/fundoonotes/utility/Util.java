@@ -17,6 +17,8 @@ public class Util {
 	public static final int BAD_REQUEST_RESPONSE_CODE = 400;
 	public static final int USER_AUTHENTICATION_EXCEPTION_STATUS = 401;
 	public static final int NOT_FOUND_RESPONSE_CODE = 404;
+	public static final int CONFLICT_RESPONSE_CODE = 409;
+	public static final int PRECONDITION_FAILED_RESPONSE_CODE = 412;
 	public static final int BAD_GATEWAY_RESPONSE_CODE = 502;
 
 	public static final String NO_NOTES_FOUND_MESSAGE = "Opps...No notes Found!";
@@ -28,11 +30,33 @@ public class Util {
 	public static final String LABEL_NOT_FOUND_EXCEPTION_MESSAGE = "Opps...Label not found!";
 	public static final String USER_AUTHORIZATION_EXCEPTION_MESSAGE = "Opps...Authorization failed!";
 	public static final String LABEL_ALREADY_EXIST_EXCEPTION_MESSAGE = "Opps...Label already exist!";
+	public static final String INVALID_PAGE_TOKEN_EXCEPTION_MESSAGE = "Opps...Invalid page token!";
+	public static final int MAX_PAGE_SIZE = 100;
+	public static final String SEARCH_UNAVAILABLE_EXCEPTION_MESSAGE = "Opps...Search is unavailable!";
+	public static final int MAX_BULK_UPDATE_SIZE = 500;
+	public static final String INVALID_BULK_UPDATE_EXCEPTION_MESSAGE = "Opps...Invalid bulk update!";
+	public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+	public static final int MAX_SYNC_SIZE = 500;
+	public static final String NOTE_CONFLICT_EXCEPTION_MESSAGE = "Opps...Note was changed meanwhile!";
+	public static final String INVALID_REMAINDER_RANGE_EXCEPTION_MESSAGE = "Opps...Range must start before it ends!";
+	public static final String INVALID_REMAINDER_TIME_EXCEPTION_MESSAGE = "Opps...Remainder time must be a future "
+			+ "date time like 2020-05-05T18:30!";
 	// environment variable
 	public static final String SENDER_EMAIL_ID = System.getenv("email");
 	public static final String SENDER_PASSWORD = System.getenv("password");
 	public static final String ANGULAR_PORT_NUMBER = "4200";
 	public static final int ELASTIC_SEARCH_PORT_NUMBER = 9200;
+	// rabbit mq mail queue
+	public static final String MAIL_EXCHANGE_NAME = "rmq.rube.exchange";
+	public static final String MAIL_QUEUE_NAME = "rmq.rube.queue";
+	public static final String MAIL_ROUTING_KEY = "rube.key";
+	public static final String MAIL_RETRY_QUEUE_NAME = "rmq.rube.retry.queue";
+	public static final String MAIL_DEAD_LETTER_EXCHANGE_NAME = "rmq.rube.dead.exchange";
+	public static final String MAIL_DEAD_LETTER_QUEUE_NAME = "rmq.rube.dead.queue";
+	public static final String MAIL_ATTEMPTS_HEADER = "x-mail-attempts";
+	public static final String MAIL_FAILURE_HEADER = "x-mail-failure";
+	// rabbit mq note change events
+	public static final String NOTE_EVENT_EXCHANGE_NAME = "rmq.note.event.exchange";
 
 	/**
 	 * preventing from creating instance of the class
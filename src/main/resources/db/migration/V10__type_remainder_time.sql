@@ -0,0 +1,19 @@
+-- Reminders become a typed instant. remainder_time held free-form text, so the
+-- values in one of the ISO forms yyyy-MM-dd[T ]HH:mm[:ss] are normalised and
+-- the column is converted in place, which keeps idx_note_user_remainder. Values
+-- in any other form were never read as a time and are cleared.
+UPDATE note_details SET remainder_time = NULL
+	WHERE remainder_time IS NOT NULL AND remainder_time NOT REGEXP
+		'^[0-9]{4}-(0[1-9]|1[0-2])-(0[1-9]|[12][0-9]|3[01])[T ]([01][0-9]|2[0-3]):[0-5][0-9](:[0-5][0-9])?$';
+UPDATE note_details
+	SET remainder_time = CONCAT(REPLACE(remainder_time, 'T', ' '), IF(LENGTH(remainder_time) = 16, ':00', ''))
+	WHERE remainder_time IS NOT NULL;
+
+-- remainder_sent_time is the reminder whose mail was queued by ReminderScheduler,
+-- a reminder is due while it differs from remainder_time
+ALTER TABLE note_details
+	MODIFY remainder_time DATETIME(6) NULL,
+	ADD COLUMN remainder_sent_time DATETIME(6) NULL;
+
+-- the scheduler pages forward through the reminders of all the users
+CREATE INDEX idx_note_remainder_time ON note_details (remainder_time, note_id);
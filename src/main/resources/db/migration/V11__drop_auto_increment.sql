@@ -0,0 +1,16 @@
+-- The ids of the notes, labels and users come from id_generator only. The
+-- AUTO_INCREMENT left by V7 let a plain INSERT take an id the generators hand
+-- out later, so it is dropped and every insert has to reserve its ids.
+SET FOREIGN_KEY_CHECKS = 0;
+ALTER TABLE user_details MODIFY user_id BIGINT NOT NULL;
+ALTER TABLE note_details MODIFY note_id BIGINT NOT NULL;
+ALTER TABLE label_details MODIFY label_id BIGINT NOT NULL;
+SET FOREIGN_KEY_CHECKS = 1;
+
+-- ids taken through AUTO_INCREMENT since V7 are not handed out again
+UPDATE id_generator SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(note_id), 0) + 1 FROM note_details))
+	WHERE sequence_name = 'note_details';
+UPDATE id_generator SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(label_id), 0) + 1 FROM label_details))
+	WHERE sequence_name = 'label_details';
+UPDATE id_generator SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(user_id), 0) + 1 FROM user_details))
+	WHERE sequence_name = 'user_details';
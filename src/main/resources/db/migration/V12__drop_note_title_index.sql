@@ -0,0 +1,4 @@
+-- Notes are searched through the search engine since the exact title lookup was
+-- removed, nothing reads idx_note_title any more while every write of a note
+-- still maintains it.
+DROP INDEX idx_note_title ON note_details;
@@ -0,0 +1,20 @@
+-- Change of every colaborator on the notes shared with them. A change of a
+-- shared note takes the next change of each colaborator as well and records it
+-- here, so the delta sync of a colaborator reads the shared notes after its
+-- cursor the same way as the notes it owns.
+CREATE TABLE sync_shared_note (
+	user_id BIGINT NOT NULL,
+	note_id BIGINT NOT NULL,
+	change_seq BIGINT NOT NULL,
+	PRIMARY KEY (user_id, note_id)
+) ENGINE = InnoDB;
+-- shared notes of a colaborator after a cursor, in the order of the sequence
+CREATE INDEX idx_sync_shared_user_change ON sync_shared_note (user_id, change_seq);
+-- colaborators of a changed or deleted note
+CREATE INDEX idx_sync_shared_note ON sync_shared_note (note_id);
+
+-- Notes shared before count as the next change of their colaborators, so that
+-- a client already past its last change receives them.
+UPDATE user_details SET change_seq = change_seq + 1 WHERE user_id IN (SELECT user_id FROM colaborator_note);
+INSERT INTO sync_shared_note (user_id, note_id, change_seq)
+SELECT DISTINCT c.user_id, c.note_id, u.change_seq FROM colaborator_note c JOIN user_details u ON u.user_id = c.user_id;
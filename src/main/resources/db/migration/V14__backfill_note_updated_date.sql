@@ -0,0 +1,5 @@
+-- The pinned, archived and trashed listings are paged on updated_date, a NULL
+-- one can neither be encoded into a page token nor compared past one. Notes
+-- are written with the creation time as their first update now, the notes
+-- created or imported before take it here.
+UPDATE note_details SET updated_date = COALESCE(created_date, NOW(6)) WHERE updated_date IS NULL;
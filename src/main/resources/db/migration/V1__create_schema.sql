@@ -0,0 +1,55 @@
+-- Baseline schema of fundoo notes, as it was generated by hibernate.
+
+CREATE TABLE user_details (
+	user_id BIGINT NOT NULL AUTO_INCREMENT,
+	address VARCHAR(255),
+	created_date DATETIME(6),
+	email_id VARCHAR(255),
+	first_name VARCHAR(255),
+	is_verified BIT NOT NULL,
+	last_name VARCHAR(255),
+	mobile_number VARCHAR(10),
+	password VARCHAR(255),
+	PRIMARY KEY (user_id),
+	CONSTRAINT uk_user_email_id UNIQUE (email_id),
+	CONSTRAINT uk_user_mobile_number UNIQUE (mobile_number)
+) ENGINE = InnoDB;
+
+CREATE TABLE note_details (
+	note_id BIGINT NOT NULL AUTO_INCREMENT,
+	color VARCHAR(30),
+	created_date DATETIME(6),
+	description VARCHAR(7000),
+	is_archived BIT NOT NULL,
+	is_pinned BIT NOT NULL,
+	is_trashed BIT NOT NULL,
+	remainder_time VARCHAR(30),
+	title VARCHAR(200),
+	updated_date DATETIME(6),
+	user_id BIGINT,
+	PRIMARY KEY (note_id),
+	CONSTRAINT fk_note_user FOREIGN KEY (user_id) REFERENCES user_details (user_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE label_details (
+	label_id BIGINT NOT NULL AUTO_INCREMENT,
+	created_date DATETIME(6),
+	label_name VARCHAR(255),
+	user_id BIGINT,
+	PRIMARY KEY (label_id),
+	CONSTRAINT fk_label_user FOREIGN KEY (user_id) REFERENCES user_details (user_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE note_label (
+	note_id BIGINT NOT NULL,
+	label_id BIGINT NOT NULL,
+	CONSTRAINT fk_note_label_note FOREIGN KEY (note_id) REFERENCES note_details (note_id),
+	CONSTRAINT fk_note_label_label FOREIGN KEY (label_id) REFERENCES label_details (label_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE colaborator_note (
+	user_id BIGINT NOT NULL,
+	note_id BIGINT NOT NULL,
+	CONSTRAINT fk_colaborator_note_user FOREIGN KEY (user_id) REFERENCES user_details (user_id),
+	CONSTRAINT fk_colaborator_note_note FOREIGN KEY (note_id) REFERENCES note_details (note_id)
+) ENGINE = InnoDB;
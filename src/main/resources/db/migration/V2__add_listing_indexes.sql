@@ -0,0 +1,26 @@
+-- Composite indexes for every listing of NoteRepositoryImpl. Each one starts with
+-- the equality filters of the listing and ends with its sort property, so both
+-- the filter and the keyset ORDER BY are served from the index.
+
+-- fetch/notes : not trashed, not archived, not pinned, newest first
+CREATE INDEX idx_note_user_active ON note_details (user_id, is_trashed, is_archived, is_pinned, created_date, note_id);
+-- fetch/notes/pinned : pinned, not trashed, not archived, recently updated first
+CREATE INDEX idx_note_user_pinned ON note_details (user_id, is_trashed, is_archived, is_pinned, updated_date, note_id);
+-- fetch/notes/archived
+CREATE INDEX idx_note_user_archived ON note_details (user_id, is_archived, updated_date, note_id);
+-- fetch/notes/trashed
+CREATE INDEX idx_note_user_trashed ON note_details (user_id, is_trashed, updated_date, note_id);
+-- fetch/notes/remainders
+CREATE INDEX idx_note_user_remainder ON note_details (user_id, is_trashed, remainder_time, note_id);
+-- search by title
+CREATE INDEX idx_note_title ON note_details (title, is_trashed);
+
+-- label lookups by name and per user listing of ILabelRepository
+CREATE INDEX idx_label_name ON label_details (label_name);
+CREATE INDEX idx_label_user_created ON label_details (user_id, created_date);
+
+-- join tables, one index per direction of the association
+CREATE INDEX idx_note_label_note ON note_label (note_id, label_id);
+CREATE INDEX idx_note_label_label ON note_label (label_id, note_id);
+CREATE INDEX idx_colaborator_note_user ON colaborator_note (user_id, note_id);
+CREATE INDEX idx_colaborator_note_note ON colaborator_note (note_id, user_id);
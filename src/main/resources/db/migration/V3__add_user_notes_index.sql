@@ -0,0 +1,2 @@
+-- Every note of a user newest first, used by the board listing of NoteRepositoryImpl.getAllNotesOfUser
+CREATE INDEX idx_note_user_created ON note_details (user_id, created_date, note_id);
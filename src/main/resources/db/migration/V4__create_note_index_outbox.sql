@@ -0,0 +1,10 @@
+-- Outbox of the search index, written in the same transaction as the note change
+-- and drained in primary key order by NoteSearchIndexer.
+CREATE TABLE note_index_outbox (
+	event_id BIGINT NOT NULL AUTO_INCREMENT,
+	note_id BIGINT NOT NULL,
+	operation VARCHAR(10),
+	attempts INTEGER NOT NULL,
+	created_date DATETIME(6),
+	PRIMARY KEY (event_id)
+) ENGINE = InnoDB;
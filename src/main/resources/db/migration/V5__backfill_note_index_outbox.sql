@@ -0,0 +1,4 @@
+-- Queue every existing note once, so the search engine indexes the notes
+-- written before the outbox existed.
+INSERT INTO note_index_outbox (note_id, operation, attempts, created_date)
+SELECT note_id, 'UPSERT', 0, NOW(6) FROM note_details;
@@ -0,0 +1,13 @@
+-- Outbox of the mails, written in the same transaction as the user change and
+-- published to the mail exchange in primary key order by MailOutboxRelay. The
+-- dedup key goes out as the message id, so a mail published twice is sent once.
+CREATE TABLE mail_outbox (
+	message_id BIGINT NOT NULL AUTO_INCREMENT,
+	dedup_key VARCHAR(36) NOT NULL,
+	email_id VARCHAR(255),
+	subject VARCHAR(255),
+	body VARCHAR(7000),
+	created_date DATETIME(6),
+	PRIMARY KEY (message_id),
+	CONSTRAINT uk_mail_outbox_dedup_key UNIQUE (dedup_key)
+) ENGINE = InnoDB;
@@ -0,0 +1,19 @@
+-- Pooled id generators of the notes, labels and users, one row per table
+-- holding the next id which is not reserved yet. Hibernate reserves blocks of
+-- ids by moving next_val ahead, so it can batch the inserts which an identity
+-- column does not allow. The AUTO_INCREMENT of the tables stays, it simply
+-- follows the ids written by the generators.
+CREATE TABLE id_generator (
+	sequence_name VARCHAR(64) NOT NULL,
+	next_val BIGINT NOT NULL,
+	PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB;
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'note_details', COALESCE(MAX(note_id), 0) + 1 FROM note_details;
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'label_details', COALESCE(MAX(label_id), 0) + 1 FROM label_details;
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'user_details', COALESCE(MAX(user_id), 0) + 1 FROM user_details;
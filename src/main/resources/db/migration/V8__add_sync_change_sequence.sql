@@ -0,0 +1,34 @@
+-- Change sequence of the delta sync. Every user counts the changes of their notes
+-- and labels in user_details.change_seq, and every changed note and label carries
+-- the value of its last change. The counter row stays locked until the change
+-- commits, so the changes of a user commit in the order of their sequence and a
+-- client asking for the changes after its cursor never skips one.
+ALTER TABLE user_details
+	ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0,
+	ADD COLUMN sync_pruned_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE note_details ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE label_details ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+-- changes of a user after a cursor, in the order of the sequence
+CREATE INDEX idx_note_user_change ON note_details (user_id, change_seq);
+CREATE INDEX idx_label_user_change ON label_details (user_id, change_seq);
+
+-- Deleted notes and labels, kept for a while so that the clients learn about the
+-- deletion. Tombstones older than the retention are pruned and the highest pruned
+-- sequence of the user is kept in user_details.sync_pruned_seq, a client behind it
+-- has to sync again from the start.
+CREATE TABLE sync_tombstone (
+	user_id BIGINT NOT NULL,
+	change_seq BIGINT NOT NULL,
+	entity_type VARCHAR(10) NOT NULL,
+	entity_id BIGINT NOT NULL,
+	created_date DATETIME(6),
+	PRIMARY KEY (user_id, change_seq, entity_type, entity_id)
+) ENGINE = InnoDB;
+CREATE INDEX idx_sync_tombstone_created ON sync_tombstone (created_date);
+
+-- Existing notes and labels count as the first change, so a client without a
+-- cursor receives them.
+UPDATE note_details SET change_seq = 1;
+UPDATE label_details SET change_seq = 1;
+UPDATE user_details SET change_seq = 1;
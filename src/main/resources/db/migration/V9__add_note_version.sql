@@ -0,0 +1,6 @@
+-- Version of a note for the optimistic lock. Every update of a note checks the
+-- version it was read with and increments it, so an update based on an old read
+-- changes no row and is answered with a conflict instead of overwriting the
+-- newer state.
+ALTER TABLE note_details
+	ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
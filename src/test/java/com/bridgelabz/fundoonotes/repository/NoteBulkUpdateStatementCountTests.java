@@ -0,0 +1,104 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBulkOperation;
+import com.bridgelabz.fundoonotes.model.User;
+
+/**
+ * Asserts through the hibernate statistics that many selected notes are
+ * checked for their owner and changed with a fixed number of statements,
+ * whatever be the number of selected notes.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-30
+ * @version 1.0
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:mysql://localhost:3306/fundoo_plan_test?createDatabaseIfNotExist=true",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+@Transactional
+class NoteBulkUpdateStatementCountTests {
+
+	private static final int NOTES = 40;
+
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private INoteRepository noteRepository;
+	@Autowired
+	private ISyncRepository syncRepository;
+
+	@Test
+	void bulkTrashUsesBoundedStatementsAndSkipsForeignNotes() {
+		User owner = seedUserWithNotes("owner", NOTES);
+		User stranger = seedUserWithNotes("stranger", 1);
+		List<Long> selectedNoteIds = new ArrayList<>();
+		for (Note note : owner.getNotes()) {
+			selectedNoteIds.add(note.getNoteId());
+		}
+		long foreignNoteId = stranger.getNotes().get(0).getNoteId();
+		selectedNoteIds.add(foreignNoteId);
+		entityManager.flush();
+		entityManager.clear();
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+		statistics.clear();
+
+		List<Long> ownedNoteIds = noteRepository.getOwnedNoteIds(owner.getUserId(), selectedNoteIds);
+		List<Long> changedNoteIds = noteRepository.updateNotes(owner.getUserId(), ownedNoteIds,
+				NoteBulkOperation.TRASH, null);
+
+		// ownership, pending notes, update, search index outbox, the change of the owner with its stamp
+		// and the lookup of colaborators, none of which share these notes
+		assertEquals(7, statistics.getPrepareStatementCount());
+		assertEquals(NOTES, ownedNoteIds.size());
+		assertEquals(NOTES, changedNoteIds.size());
+		for (Note note : noteRepository.getNotesById(ownedNoteIds)) {
+			assertTrue(note.isTrashed());
+			assertFalse(note.isPinned());
+		}
+		assertFalse(noteRepository.getNote(foreignNoteId).isTrashed());
+		// the trashed notes are the first change of the owner
+		assertEquals(1, syncRepository.getLastChangeSeq(owner.getUserId()));
+		assertEquals(NOTES, syncRepository.getChangedNoteIds(owner.getUserId(), 0, 1).size());
+		// already trashed notes are left untouched, their version and change stay
+		long version = noteRepository.getNote(ownedNoteIds.get(0)).getVersion();
+		assertTrue(noteRepository.updateNotes(owner.getUserId(), ownedNoteIds, NoteBulkOperation.TRASH, null)
+				.isEmpty());
+		assertEquals(version, noteRepository.getNote(ownedNoteIds.get(0)).getVersion());
+		assertEquals(1, syncRepository.getLastChangeSeq(owner.getUserId()));
+	}
+
+	private User seedUserWithNotes(String name, int notes) {
+		String suffix = String.valueOf(System.nanoTime());
+		User user = new User(0, name, "user", name + suffix + "@fundoo.com", "password", null, null);
+		user.setNotes(new ArrayList<>());
+		for (int note = 0; note < notes; note++) {
+			Note newNote = new Note();
+			newNote.setTitle("note" + note);
+			newNote.setPinned(note % 2 == 0);
+			newNote.setCreatedDate(LocalDateTime.now().minusMinutes(note));
+			user.getNotes().add(newNote);
+		}
+		entityManager.persist(user);
+		return user;
+	}
+
+}
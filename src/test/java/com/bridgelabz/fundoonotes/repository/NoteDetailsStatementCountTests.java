@@ -0,0 +1,130 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bridgelabz.fundoonotes.model.Label;
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+import com.bridgelabz.fundoonotes.model.User;
+import com.bridgelabz.fundoonotes.model.dto.NoteDetailDTO;
+
+/**
+ * Asserts through the hibernate statistics that a listing along with the labels
+ * and colaborators of its notes is loaded with a fixed number of statements,
+ * whatever be the number of notes in the listing.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-16
+ * @version 1.0
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:mysql://localhost:3306/fundoo_plan_test?createDatabaseIfNotExist=true",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+@Transactional
+class NoteDetailsStatementCountTests {
+
+	private static final int NOTES = 40;
+	private static final int LABELS_PER_NOTE = 3;
+	private static final int COLABORATORS = 2;
+
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private INoteRepository noteRepository;
+
+	@Test
+	void listingWithAssociationsUsesBoundedStatements() {
+		User owner = seedOwnerWithNotes();
+		Statistics statistics = clearedStatistics();
+
+		List<NoteDetailDTO> noteDetails = noteRepository
+				.getNoteDetails(noteRepository.getNotes(owner.getUserId(), NoteBucket.NOTES));
+
+		// listing, labels and colaborators
+		assertEquals(3, statistics.getPrepareStatementCount());
+		assertNoteDetails(noteDetails);
+	}
+
+	@Test
+	void notesOfLabelWithAssociationsUseBoundedStatements() {
+		User owner = seedOwnerWithNotes();
+		Statistics statistics = clearedStatistics();
+
+		List<NoteDetailDTO> noteDetails = noteRepository
+				.getNoteDetails(noteRepository.getNotesOfLabel(owner.getLabels().get(0).getLabelId()));
+
+		// notes of the label, labels and colaborators
+		assertEquals(3, statistics.getPrepareStatementCount());
+		assertNoteDetails(noteDetails);
+	}
+
+	@Test
+	void colaboratorsOfNoteUseOneStatement() {
+		User owner = seedOwnerWithNotes();
+		Statistics statistics = clearedStatistics();
+
+		List<User> colaborators = noteRepository.getColaborators(owner.getNotes().get(0).getNoteId());
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(COLABORATORS, colaborators.size());
+	}
+
+	private Statistics clearedStatistics() {
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+		statistics.clear();
+		return statistics;
+	}
+
+	private static void assertNoteDetails(List<NoteDetailDTO> noteDetails) {
+		assertEquals(NOTES, noteDetails.size());
+		for (NoteDetailDTO noteDetail : noteDetails) {
+			assertEquals(LABELS_PER_NOTE, noteDetail.getLabels().size());
+			assertEquals(COLABORATORS, noteDetail.getColaboratorIds().size());
+		}
+	}
+
+	private User seedOwnerWithNotes() {
+		String suffix = String.valueOf(System.nanoTime());
+		User owner = new User(0, "owner", "user", "owner" + suffix + "@fundoo.com", "password", null, null);
+		owner.setNotes(new ArrayList<>());
+		owner.setLabels(new ArrayList<>());
+		for (int label = 0; label < LABELS_PER_NOTE; label++) {
+			Label newLabel = new Label();
+			newLabel.setLabelName("label" + label + suffix);
+			newLabel.setCreatedDate(LocalDateTime.now());
+			owner.getLabels().add(newLabel);
+		}
+		for (int note = 0; note < NOTES; note++) {
+			Note newNote = new Note();
+			newNote.setTitle("note" + note);
+			newNote.setCreatedDate(LocalDateTime.now().minusMinutes(note));
+			newNote.setLabelsList(new ArrayList<>(owner.getLabels()));
+			owner.getNotes().add(newNote);
+		}
+		entityManager.persist(owner);
+		for (int colaborator = 0; colaborator < COLABORATORS; colaborator++) {
+			User newColaborator = new User(0, "colaborator", "user",
+					"colaborator" + colaborator + suffix + "@fundoo.com", "password", null, null);
+			newColaborator.setColaboratedNotes(new ArrayList<>(owner.getNotes()));
+			entityManager.persist(newColaborator);
+		}
+		entityManager.flush();
+		entityManager.clear();
+		return owner;
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+import com.bridgelabz.fundoonotes.model.User;
+import com.bridgelabz.fundoonotes.utility.PageToken;
+
+/**
+ * Pages through the pinned notes of a user across a note which was written
+ * without update time, the way the notes were imported before, and asserts that
+ * every note is read once.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-08
+ * @version 1.0
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:mysql://localhost:3306/fundoo_plan_test?createDatabaseIfNotExist=true" })
+@Transactional
+class NotePagingTests {
+
+	private static final int NOTES = 7;
+	private static final int PAGE_SIZE = 2;
+
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private DataSource dataSource;
+	@Autowired
+	private INoteRepository noteRepository;
+
+	@Test
+	void pagesCrossANoteImportedWithoutUpdateTime() {
+		User owner = seedOwnerWithPinnedNotes();
+		// the note in the middle of the listing lost its update time
+		long legacyNoteId = owner.getNotes().get(NOTES / 2).getNoteId();
+		entityManager.createNativeQuery("UPDATE note_details SET updated_date = NULL WHERE note_id = :id")
+				.setParameter("id", legacyNoteId).executeUpdate();
+		ScriptUtils.executeSqlScript(DataSourceUtils.getConnection(dataSource),
+				new ClassPathResource("db/migration/V14__backfill_note_updated_date.sql"));
+		entityManager.clear();
+
+		Set<Long> readNoteIds = new HashSet<>();
+		String pageToken = null;
+		do {
+			Object afterSortKey = null;
+			long afterNoteId = 0;
+			if (pageToken != null) {
+				PageToken decodedToken = PageToken.decode(pageToken);
+				afterSortKey = NoteBucket.PINNED.parseSortKey(decodedToken.getSortKey());
+				afterNoteId = decodedToken.getId();
+			}
+			List<Note> pageNotes = noteRepository.getNotesPage(owner.getUserId(), NoteBucket.PINNED, afterSortKey,
+					afterNoteId, PAGE_SIZE);
+			pageToken = null;
+			for (Note note : pageNotes) {
+				assertNotNull(NoteBucket.PINNED.sortKeyOf(note));
+				readNoteIds.add(note.getNoteId());
+			}
+			if (pageNotes.size() == PAGE_SIZE) {
+				Note lastNote = pageNotes.get(PAGE_SIZE - 1);
+				pageToken = PageToken.encode(NoteBucket.PINNED.sortKeyOf(lastNote), lastNote.getNoteId());
+			}
+		} while (pageToken != null);
+
+		assertEquals(NOTES, readNoteIds.size());
+	}
+
+	private User seedOwnerWithPinnedNotes() {
+		String suffix = String.valueOf(System.nanoTime());
+		User owner = new User(0, "owner", "user", "owner" + suffix + "@fundoo.com", "password", null, null);
+		owner.setNotes(new ArrayList<>());
+		LocalDateTime now = LocalDateTime.now();
+		for (int note = 0; note < NOTES; note++) {
+			Note newNote = new Note();
+			newNote.setTitle("note" + note);
+			newNote.setPinned(true);
+			newNote.setCreatedDate(now.minusDays(1).minusMinutes(note));
+			newNote.setUpdatedDate(now.minusMinutes(note));
+			owner.getNotes().add(newNote);
+		}
+		entityManager.persist(owner);
+		entityManager.flush();
+		return owner;
+	}
+
+}
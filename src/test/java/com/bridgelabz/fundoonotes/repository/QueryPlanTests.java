@@ -0,0 +1,355 @@
+package com.bridgelabz.fundoonotes.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bridgelabz.fundoonotes.model.IdGenerator;
+import com.bridgelabz.fundoonotes.model.Label;
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+import com.bridgelabz.fundoonotes.model.NoteBulkOperation;
+import com.bridgelabz.fundoonotes.model.SyncEntityType;
+
+/**
+ * Query plan regression test of the repository queries. It seeds a dedicated
+ * local database, which is migrated by flyway, runs the methods of the note,
+ * label, sync, reminder and user repositories against it and records every
+ * statement they send along with its bound values. The plan of each recorded
+ * statement has to use an index instead of scanning the whole table, so a
+ * repository query which loses its index fails here.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-14
+ * @version 1.0
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:mysql://localhost:3306/fundoo_plan_test?createDatabaseIfNotExist=true" })
+class QueryPlanTests {
+
+	private static final int SEED_USERS = 50;
+	private static final int NOTES_PER_USER = 200;
+	private static final int LABELS_PER_USER = 10;
+	private static final int PAGE_SIZE = 20;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private DataSource dataSource;
+	@Autowired
+	private INoteRepository noteRepository;
+	@Autowired
+	private ILabelRepository labelRepository;
+	@Autowired
+	private ISyncRepository syncRepository;
+	@Autowired
+	private IReminderRepository reminderRepository;
+	@Autowired
+	private IUserRepository userRepository;
+
+	/**
+	 * Seeds the test database once, later runs reuse the seeded rows. The ids are
+	 * reserved from the id generators like every other writer of the tables, so
+	 * the tests persisting through hibernate into the same database get new ids.
+	 */
+	@BeforeEach
+	void seedDatabase() {
+		Integer seededUsers = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM user_details WHERE email_id LIKE 'plan.user%'", Integer.class);
+		if (seededUsers != null && seededUsers >= SEED_USERS) {
+			return;
+		}
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		long firstUserId = reserveIds(IdGenerator.USER_IDS, SEED_USERS);
+		List<Object[]> noteLabels = new ArrayList<>();
+		List<Object[]> colaborations = new ArrayList<>();
+		List<Object[]> tombstones = new ArrayList<>();
+		for (int user = 0; user < SEED_USERS; user++) {
+			long userId = firstUserId + user;
+			jdbcTemplate.update(
+					"INSERT INTO user_details (user_id, email_id, first_name, is_verified, created_date)"
+							+ " VALUES (?, ?, ?, true, ?)",
+					userId, "plan.user" + userId + "@fundoo.com", "user" + userId, now);
+			long firstLabelId = reserveIds(IdGenerator.LABEL_IDS, LABELS_PER_USER);
+			List<Object[]> labels = new ArrayList<>();
+			for (int label = 0; label < LABELS_PER_USER; label++) {
+				labels.add(new Object[] { firstLabelId + label, "label " + userId + "-" + label, userId, now });
+			}
+			jdbcTemplate.batchUpdate(
+					"INSERT INTO label_details (label_id, label_name, user_id, created_date) VALUES (?, ?, ?, ?)",
+					labels);
+			long firstNoteId = reserveIds(IdGenerator.NOTE_IDS, NOTES_PER_USER);
+			List<Object[]> notes = new ArrayList<>();
+			for (int note = 0; note < NOTES_PER_USER; note++) {
+				long noteId = firstNoteId + note;
+				Timestamp noteTime = Timestamp.valueOf(LocalDateTime.now().minusMinutes(note));
+				notes.add(new Object[] { noteId, "note " + userId + "-" + note, userId, note % 7 == 0,
+						note % 11 == 0, note % 13 == 0, note % 5 == 0 ? "2020-05-0" + (note % 9 + 1) : null, noteTime,
+						noteTime });
+				if (note % 4 == 0) {
+					for (int label = 0; label < LABELS_PER_USER; label++) {
+						noteLabels.add(new Object[] { noteId, firstLabelId + label });
+					}
+				}
+				if (note % 3 == 0) {
+					colaborations.add(new Object[] { firstUserId + (user + 1) % SEED_USERS, noteId });
+				}
+				if (note % 10 == 0) {
+					tombstones.add(new Object[] { userId, note + 1, SyncEntityType.NOTE.name(), noteId, noteTime });
+				}
+			}
+			jdbcTemplate.batchUpdate(
+					"INSERT INTO note_details (note_id, title, user_id, is_pinned, is_archived, is_trashed,"
+							+ " remainder_time, created_date, updated_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+					notes);
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO note_label (note_id, label_id) VALUES (?, ?)", noteLabels);
+		jdbcTemplate.batchUpdate("INSERT INTO colaborator_note (user_id, note_id) VALUES (?, ?)", colaborations);
+		jdbcTemplate.batchUpdate("INSERT INTO sync_tombstone (user_id, change_seq, entity_type, entity_id,"
+				+ " created_date) VALUES (?, ?, ?, ?, ?)", tombstones);
+		jdbcTemplate.execute("ANALYZE TABLE user_details, note_details, label_details, note_label, colaborator_note,"
+				+ " sync_tombstone");
+	}
+
+	/**
+	 * Reserves the given number of ids from the row of the generator, the way
+	 * NoteImportRepositoryImpl does, and returns the first of them.
+	 */
+	private long reserveIds(String segment, int count) {
+		return new TransactionTemplate(transactionManager).execute(status -> {
+			long firstId = jdbcTemplate.queryForObject("SELECT " + IdGenerator.VALUE_COLUMN + " FROM "
+					+ IdGenerator.TABLE + " WHERE " + IdGenerator.SEGMENT_COLUMN + " = ? FOR UPDATE", Long.class,
+					segment);
+			jdbcTemplate.update("UPDATE " + IdGenerator.TABLE + " SET " + IdGenerator.VALUE_COLUMN + " = "
+					+ IdGenerator.VALUE_COLUMN + " + ? WHERE " + IdGenerator.SEGMENT_COLUMN + " = ?", count, segment);
+			return firstId;
+		});
+	}
+
+	@Test
+	void repositoryQueriesDoNotScanWholeTable() {
+		RecordingDataSource recordingDataSource = (RecordingDataSource) dataSource;
+		recordingDataSource.start();
+		try {
+			TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+			transaction.execute(status -> {
+				// the writes are only planned, the seeded rows stay as they are
+				status.setRollbackOnly();
+				runRepositoryQueries();
+				return null;
+			});
+		} finally {
+			recordingDataSource.stop();
+		}
+		List<String> statements = recordingDataSource.getStatements();
+		assertFalse(statements.isEmpty());
+		for (String statement : statements) {
+			if (isScanning(statement)) {
+				assertUsesIndex(statement);
+			}
+		}
+	}
+
+	/**
+	 * Calls every query method of the repositories for a seeded user, with the
+	 * first and a later page of every keyset listing.
+	 */
+	private void runRepositoryQueries() {
+		long userId = jdbcTemplate.queryForObject(
+				"SELECT MIN(user_id) FROM user_details WHERE email_id LIKE 'plan.user%'", Long.class);
+		LocalDateTime now = LocalDateTime.now();
+		List<Long> noteIds = noteRepository.getOwnedNoteIds(userId,
+				jdbcTemplate.queryForList("SELECT note_id FROM note_details WHERE user_id = ?", Long.class, userId));
+		Label label = labelRepository.findAll(userId).get(0);
+
+		noteRepository.getNote(noteIds.get(0));
+		for (NoteBucket bucket : NoteBucket.values()) {
+			noteRepository.getNotes(userId, bucket);
+			noteRepository.getNotesPage(userId, bucket, null, 0, PAGE_SIZE);
+			noteRepository.getNotesPage(userId, bucket, now.minusMinutes(NOTES_PER_USER / 2), noteIds.get(0),
+					PAGE_SIZE);
+		}
+		noteRepository.getRemainderNotesPage(userId, null, null, null, 0, PAGE_SIZE);
+		noteRepository.getRemainderNotesPage(userId, now.minusYears(1), now, now.minusMonths(1), noteIds.get(0),
+				PAGE_SIZE);
+		noteRepository.getAllNotesOfUser(userId);
+		List<Note> notes = noteRepository.getNotesById(noteIds);
+		noteRepository.getNoteDetails(notes);
+		noteRepository.getChangeBroadcasts(noteIds);
+		for (NoteBulkOperation operation : Arrays.asList(NoteBulkOperation.TRASH, NoteBulkOperation.PIN,
+				NoteBulkOperation.COLOR, NoteBulkOperation.LABEL, NoteBulkOperation.UNLABEL)) {
+			Object value = operation == NoteBulkOperation.COLOR ? "#ffffff"
+					: operation.isLabelling() ? label.getLabelId() : null;
+			noteRepository.updateNotes(userId, noteIds, operation, value);
+		}
+
+		labelRepository.findOneBylabelName(label.getLabelName());
+		labelRepository.checkLabelWithDb(label.getLabelName());
+		labelRepository.existsById(label.getLabelId());
+		labelRepository.updateLabelName(label.getLabelName(), label.getLabelId());
+
+		syncRepository.stamp(SyncEntityType.NOTE, noteIds.get(0));
+		syncRepository.stamp(SyncEntityType.LABEL, label.getLabelId());
+		syncRepository.addTombstone(SyncEntityType.LABEL, label.getLabelId());
+		syncRepository.addColaboratorTombstone(noteIds.get(0), userId);
+		syncRepository.getLastChangeSeq(userId);
+		syncRepository.getPrunedChangeSeq(userId);
+		syncRepository.getChangeSeqAt(userId, 0, PAGE_SIZE);
+		syncRepository.getChangedNoteIds(userId, 0, PAGE_SIZE);
+		syncRepository.getChangedLabels(userId, 0, PAGE_SIZE);
+		syncRepository.getTombstones(userId, 0, PAGE_SIZE);
+		syncRepository.pruneTombstones(now.minusDays(1));
+
+		reminderRepository.getReminders(now.minusYears(1), 0, now, PAGE_SIZE);
+		reminderRepository.claimDueReminders(noteIds, now);
+
+		userRepository.getUser(userId);
+		userRepository.getUser(jdbcTemplate.queryForObject("SELECT email_id FROM user_details WHERE user_id = ?",
+				String.class, userId));
+		userRepository.isVerifiedUser(userId);
+	}
+
+	/**
+	 * Returns whether the statement reads a table, an insert of plain values does
+	 * not.
+	 */
+	private static boolean isScanning(String statement) {
+		String sql = statement.trim().toLowerCase();
+		return !sql.startsWith("insert") || sql.contains(" select ");
+	}
+
+	private void assertUsesIndex(String statement) {
+		List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + statement);
+		assertFalse(plan.isEmpty(), statement);
+		for (Map<String, Object> step : plan) {
+			String table = String.valueOf(step.get("table"));
+			// the target of an INSERT ... SELECT and the derived tables are not read from disk
+			if ("INSERT".equals(step.get("select_type")) || table.startsWith("<") || step.get("table") == null) {
+				continue;
+			}
+			String accessType = String.valueOf(step.get("type"));
+			assertTrue(!"ALL".equals(accessType) && !"index".equals(accessType),
+					"full scan (" + accessType + ") of " + table + " for : " + statement);
+		}
+	}
+
+	/**
+	 * Wraps the data source of the application into a {@link RecordingDataSource}.
+	 */
+	@TestConfiguration
+	static class StatementRecordingConfiguration {
+
+		@Bean
+		static BeanPostProcessor recordingDataSourcePostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource && !(bean instanceof RecordingDataSource)
+							? new RecordingDataSource((DataSource) bean)
+							: bean;
+				}
+			};
+		}
+
+	}
+
+	/**
+	 * Data source recording the text of every prepared statement executed while
+	 * recording, with the bound values in place of the parameters as the MySQL
+	 * driver renders it.
+	 */
+	static class RecordingDataSource extends DelegatingDataSource {
+
+		private final List<String> statements = new CopyOnWriteArrayList<>();
+		private volatile boolean recording;
+
+		RecordingDataSource(DataSource dataSource) {
+			super(dataSource);
+		}
+
+		void start() {
+			statements.clear();
+			recording = true;
+		}
+
+		void stop() {
+			recording = false;
+		}
+
+		List<String> getStatements() {
+			return new ArrayList<>(statements);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return recordingConnection(super.getConnection());
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return recordingConnection(super.getConnection(username, password));
+		}
+
+		private Connection recordingConnection(Connection connection) {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+						Object result = invoke(connection, method, args);
+						return "prepareStatement".equals(method.getName())
+								? recordingStatement((PreparedStatement) result)
+								: result;
+					});
+		}
+
+		private PreparedStatement recordingStatement(PreparedStatement statement) {
+			return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+						if (recording && method.getName().startsWith("execute") && args == null
+								&& !"executeBatch".equals(method.getName())) {
+							// ClientPreparedStatement: <statement with the bound values>
+							String text = statement.unwrap(PreparedStatement.class).toString();
+							statements.add(text.substring(text.indexOf(": ") + 2));
+						}
+						return invoke(statement, method, args);
+					});
+		}
+
+		private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+	}
+
+}
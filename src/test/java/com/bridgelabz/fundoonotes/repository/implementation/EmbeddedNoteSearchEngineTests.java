@@ -0,0 +1,126 @@
+package com.bridgelabz.fundoonotes.repository.implementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bridgelabz.fundoonotes.model.Note;
+
+/**
+ * Checks the ranking, the user scoping and the persistence of the
+ * {@link EmbeddedNoteSearchEngine} on a temporary directory.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-19
+ * @version 1.0
+ */
+class EmbeddedNoteSearchEngineTests {
+
+	@TempDir
+	Path indexDirectory;
+
+	private EmbeddedNoteSearchEngine searchEngine;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		searchEngine = openEngine();
+		searchEngine.bulkIndex(Arrays.asList(note(1, 7, "Shopping list", "milk bread eggs"),
+				note(2, 7, "Meeting", "agenda for the shopping mall project"),
+				note(3, 7, "Recipes", "bread pudding and banana bread"), note(4, 8, "Shopping", "shoes")),
+				Collections.emptyList());
+	}
+
+	@Test
+	void titleMatchesRankFirstAndOnlyOwnNotesMatch() throws IOException {
+		assertEquals(Arrays.asList(1L, 2L), searchEngine.search(7, "shopping", 10));
+		assertEquals(Collections.singletonList(4L), searchEngine.search(8, "shopping", 10));
+		assertEquals(Collections.emptyList(), searchEngine.search(9, "shopping", 10));
+	}
+
+	@Test
+	void frequentWordsScoreHigher() throws IOException {
+		assertEquals(Arrays.asList(3L, 1L), searchEngine.search(7, "bread", 10));
+		assertEquals(Collections.singletonList(3L), searchEngine.search(7, "bread", 1));
+	}
+
+	@Test
+	void wordEndingWithStarMatchesAsPrefix() throws IOException {
+		assertEquals(Collections.emptyList(), searchEngine.search(7, "shop", 10));
+		assertEquals(Arrays.asList(1L, 2L), searchEngine.search(7, "shop*", 10));
+		assertEquals(Collections.singletonList(3L), searchEngine.search(7, "BAN*", 10));
+	}
+
+	@Test
+	void trashedUpdatedAndDeletedNotesLeaveTheIndex() throws IOException {
+		Note trashedNote = note(1, 7, "Shopping list", "milk");
+		trashedNote.setTrashed(true);
+		searchEngine.bulkIndex(Arrays.asList(trashedNote, note(3, 7, "Recipes", "soup")),
+				Collections.singletonList(2L));
+
+		assertEquals(Collections.emptyList(), searchEngine.search(7, "shopping", 10));
+		assertEquals(Collections.emptyList(), searchEngine.search(7, "bread", 10));
+		assertEquals(Collections.singletonList(3L), searchEngine.search(7, "soup", 10));
+	}
+
+	@Test
+	void indexIsRestoredFromDisk() throws IOException {
+		searchEngine.bulkIndex(Collections.singletonList(note(5, 7, "Shopping again", "")),
+				Collections.singletonList(2L));
+		Path logFile = indexDirectory.resolve("notes-7.log");
+		// a record cut short by a crash is dropped on start up
+		Files.write(logFile, new byte[] { 1, 0, 0 }, StandardOpenOption.APPEND);
+
+		EmbeddedNoteSearchEngine restartedEngine = openEngine();
+
+		assertEquals(searchEngine.search(7, "shopping", 10), restartedEngine.search(7, "shopping", 10));
+		assertEquals(Collections.singletonList(4L), restartedEngine.search(8, "shoes", 10));
+		restartedEngine.bulkIndex(Collections.emptyList(), Collections.singletonList(1L));
+		assertEquals(Collections.singletonList(5L), openEngine().search(7, "shopping", 10));
+	}
+
+	@Test
+	void manyUpdatesKeepTheIndexCompact() throws IOException {
+		for (int round = 0; round < 5; round++) {
+			List<Note> notes = new ArrayList<>();
+			for (long noteId = 100; noteId < 1100; noteId++) {
+				notes.add(note(noteId, 9, "note " + noteId, "round" + round));
+			}
+			searchEngine.bulkIndex(notes, Collections.emptyList());
+		}
+
+		assertEquals(1000, searchEngine.search(9, "round4", 2000).size());
+		assertEquals(Collections.emptyList(), searchEngine.search(9, "round3", 10));
+		assertTrue(Files.size(indexDirectory.resolve("notes-9.log")) < 5 * 1000 * 40);
+		assertEquals(1000, openEngine().search(9, "round4", 2000).size());
+	}
+
+	private EmbeddedNoteSearchEngine openEngine() throws IOException {
+		EmbeddedNoteSearchEngine engine = new EmbeddedNoteSearchEngine();
+		ReflectionTestUtils.setField(engine, "directory", indexDirectory.toString());
+		engine.initialize();
+		return engine;
+	}
+
+	private static Note note(long noteId, long userId, String title, String description) {
+		Note note = new Note();
+		note.setNoteId(noteId);
+		note.setUserId(userId);
+		note.setTitle(title);
+		note.setDescription(description);
+		return note;
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.bridgelabz.fundoonotes.service.implementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bridgelabz.fundoonotes.model.dto.NoteExportDTO;
+import com.bridgelabz.fundoonotes.repository.INoteExportRepository;
+import com.bridgelabz.fundoonotes.utility.UserAuthenticator;
+import com.bridgelabz.fundoonotes.utility.UserPrincipal;
+
+/**
+ * Drives the {@link NoteExportServiceImpl} with a repository handing over a
+ * fixed number of notes.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-01
+ * @version 1.0
+ */
+class NoteExportServiceTests {
+
+	private static final int NOTES = 3;
+
+	private NoteExportServiceImpl noteExportService;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		INoteExportRepository noteExportRepository = mock(INoteExportRepository.class);
+		when(noteExportRepository.exportNotes(anyLong(), any())).thenAnswer(invocation -> {
+			Consumer<NoteExportDTO> consumer = invocation.getArgument(1);
+			for (int index = 1; index <= NOTES; index++) {
+				NoteExportDTO note = new NoteExportDTO();
+				note.setNoteId(index);
+				note.setTitle("note\n" + index);
+				note.setCreatedDate(LocalDateTime.of(2020, 5, 1, 10, 0));
+				note.getLabels().add("work");
+				note.getColaboratorEmailIds().add("colaborator@fundoo.com");
+				consumer.accept(note);
+			}
+			return (long) NOTES;
+		});
+		UserAuthenticator userAuthenticator = mock(UserAuthenticator.class);
+		when(userAuthenticator.authenticate(anyString())).thenReturn(new UserPrincipal(7, true));
+
+		noteExportService = new NoteExportServiceImpl();
+		ReflectionTestUtils.setField(noteExportService, "noteExportRepository", noteExportRepository);
+		ReflectionTestUtils.setField(noteExportService, "userAuthenticator", userAuthenticator);
+	}
+
+	@Test
+	void everyNoteIsWrittenOnItsOwnLine() throws IOException {
+		List<String> lines = readLines(new ByteArrayInputStream(export(false)));
+
+		assertEquals(NOTES, lines.size());
+		assertTrue(lines.get(0).startsWith("{\"noteId\":1,"));
+		// line breaks within a note are escaped
+		assertTrue(lines.get(0).contains("\"title\":\"note\\n1\""));
+		assertTrue(lines.get(2).contains("\"createdDate\":\"2020-05-01T10:00:00\""));
+		assertTrue(lines.get(2).contains("\"labels\":[\"work\"]"));
+		assertTrue(lines.get(2).contains("\"colaboratorEmailIds\":[\"colaborator@fundoo.com\"]"));
+	}
+
+	@Test
+	void compressedExportHasTheSameLines() throws IOException {
+		List<String> lines = readLines(new GZIPInputStream(new ByteArrayInputStream(export(true))));
+
+		assertEquals(readLines(new ByteArrayInputStream(export(false))), lines);
+	}
+
+	private byte[] export(boolean compressed) throws IOException {
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+		noteExportService.exportNotes("token", compressed).writeTo(response);
+		return response.toByteArray();
+	}
+
+	private static List<String> readLines(InputStream export) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(export, StandardCharsets.UTF_8))) {
+			return reader.lines().collect(Collectors.toList());
+		}
+	}
+
+}
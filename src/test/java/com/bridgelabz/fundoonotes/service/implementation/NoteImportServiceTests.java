@@ -0,0 +1,161 @@
+package com.bridgelabz.fundoonotes.service.implementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.repository.INoteImportRepository;
+import com.bridgelabz.fundoonotes.repository.ISyncRepository;
+import com.bridgelabz.fundoonotes.response.NoteImportReport;
+import com.bridgelabz.fundoonotes.utility.EntityCache;
+import com.bridgelabz.fundoonotes.utility.UserAuthenticator;
+import com.bridgelabz.fundoonotes.utility.UserPrincipal;
+
+/**
+ * Drives the {@link NoteImportServiceImpl} with a recording repository in place
+ * of the database.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-28
+ * @version 1.0
+ */
+class NoteImportServiceTests {
+
+	private final List<Note> savedNotes = new ArrayList<>();
+	private final List<long[]> savedNoteLabels = new ArrayList<>();
+	private final AtomicLong nextId = new AtomicLong(1);
+	private INoteImportRepository noteImportRepository;
+	private EntityCache entityCache;
+	private NoteImportServiceImpl noteImportService;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		noteImportRepository = mock(INoteImportRepository.class);
+		when(noteImportRepository.getLabelIds(any())).thenAnswer(invocation -> {
+			Map<String, Long> labelIds = new HashMap<>();
+			if (((Collection<String>) invocation.getArgument(0)).contains("work")) {
+				labelIds.put("work", 100L);
+			}
+			return labelIds;
+		});
+		when(noteImportRepository.insertLabels(anyLong(), anyList(), any())).thenAnswer(invocation -> {
+			Map<String, Long> labelIds = new HashMap<>();
+			for (String labelName : (List<String>) invocation.getArgument(1)) {
+				labelIds.put(labelName, nextId.getAndIncrement() + 1000);
+			}
+			return labelIds;
+		});
+		when(noteImportRepository.insertNotes(anyLong(), anyList())).thenAnswer(invocation -> {
+			List<Note> notes = invocation.getArgument(1);
+			long[] noteIds = new long[notes.size()];
+			for (int index = 0; index < notes.size(); index++) {
+				if ("broken".equals(notes.get(index).getTitle())) {
+					throw new DataIntegrityViolationException("rejected by the database");
+				}
+				noteIds[index] = nextId.getAndIncrement();
+			}
+			savedNotes.addAll(notes);
+			return noteIds;
+		});
+		doAnswer(invocation -> savedNoteLabels.addAll(invocation.getArgument(0)))
+				.when(noteImportRepository).insertNoteLabels(anyList());
+		UserAuthenticator userAuthenticator = mock(UserAuthenticator.class);
+		when(userAuthenticator.authenticate(anyString())).thenReturn(new UserPrincipal(7, true));
+		entityCache = mock(EntityCache.class);
+
+		noteImportService = new NoteImportServiceImpl();
+		ReflectionTestUtils.setField(noteImportService, "noteImportRepository", noteImportRepository);
+		ReflectionTestUtils.setField(noteImportService, "userAuthenticator", userAuthenticator);
+		ReflectionTestUtils.setField(noteImportService, "syncRepository", mock(ISyncRepository.class));
+		ReflectionTestUtils.setField(noteImportService, "transactionTemplate",
+				new TransactionTemplate(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(noteImportService, "entityCache", entityCache);
+		ReflectionTestUtils.setField(noteImportService, "batchSize", 2);
+		ReflectionTestUtils.setField(noteImportService, "maxReportedErrors", 10);
+	}
+
+	@Test
+	void notesPerLineAreSavedInBatchesAndLabelsResolvedOnce() {
+		NoteImportReport report = importNotes("{\"title\":\"a\",\"labels\":[\"work\",\"home\"]}\n"
+				+ "{\"title\":\"b\",\"labels\":[\"home\"]}\n" + "{\"title\":\"c\",\"pinned\":true,\"color\":\"red\"}\n"
+				+ "{\"description\":\"d\",\"labels\":[\"work\", \" home \"],\"source\":\"keep\"}\n"
+				+ "{\"title\":\"e\"}\n");
+
+		assertEquals(5, report.getImportedCount());
+		assertEquals(0, report.getFailedCount());
+		verify(noteImportRepository, times(3)).insertNotes(anyLong(), anyList());
+		verify(noteImportRepository, times(1)).insertLabels(anyLong(), anyList(), any());
+		assertEquals(5, savedNoteLabels.size());
+		assertEquals("red", savedNotes.get(2).getColor());
+		assertTrue(savedNotes.get(2).isPinned());
+		assertEquals(savedNotes.get(2).getCreatedDate(), savedNotes.get(2).getUpdatedDate());
+		assertEquals("white", savedNotes.get(0).getColor());
+		verify(entityCache).evictNotesOfUser(7);
+		verify(entityCache).evictLabels();
+	}
+
+	@Test
+	void invalidNotesAreReportedAndTheOthersImported() {
+		StringBuilder longTitle = new StringBuilder();
+		for (int index = 0; index < 201; index++) {
+			longTitle.append('x');
+		}
+
+		NoteImportReport report = importNotes("[{\"title\":\"a\"}, {\"title\":\"" + longTitle
+				+ "\"}, {\"title\":\"b\",\"pinned\":\"maybe\"}, {}, {\"title\":\"c\"}]");
+
+		assertEquals(2, report.getImportedCount());
+		assertEquals(3, report.getFailedCount());
+		assertEquals(1, report.getErrors().get(0).getIndex());
+		assertEquals(2, report.getErrors().get(1).getIndex());
+		assertEquals(3, report.getErrors().get(2).getIndex());
+	}
+
+	@Test
+	void failedBatchIsSavedNoteByNote() {
+		NoteImportReport report = importNotes("{\"title\":\"a\"}\n{\"title\":\"broken\"}\n{\"title\":\"c\"}");
+
+		assertEquals(2, report.getImportedCount());
+		assertEquals(1, report.getErrors().get(0).getIndex());
+		assertEquals(2, savedNotes.size());
+	}
+
+	@Test
+	void malformedJsonStopsTheImportAndKeepsTheNotesReadBefore() {
+		NoteImportReport report = importNotes("{\"title\":\"a\"}\n{\"title\":\"b\"\n{\"title\":\"c\"}");
+
+		assertEquals(1, report.getImportedCount());
+		assertEquals(1, report.getFailedCount());
+	}
+
+	private NoteImportReport importNotes(String body) {
+		return noteImportService.importNotes("token", new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+	}
+
+}
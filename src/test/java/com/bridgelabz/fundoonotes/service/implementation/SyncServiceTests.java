@@ -0,0 +1,100 @@
+package com.bridgelabz.fundoonotes.service.implementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bridgelabz.fundoonotes.model.SyncEntityType;
+import com.bridgelabz.fundoonotes.repository.INoteRepository;
+import com.bridgelabz.fundoonotes.repository.ISyncRepository;
+import com.bridgelabz.fundoonotes.response.SyncChanges;
+import com.bridgelabz.fundoonotes.response.SyncChanges.Tombstone;
+import com.bridgelabz.fundoonotes.utility.UserAuthenticator;
+import com.bridgelabz.fundoonotes.utility.UserPrincipal;
+
+/**
+ * Drives the {@link SyncServiceImpl} with a user whose last change is 40 and
+ * whose tombstones up to 10 are pruned.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-03
+ * @version 1.0
+ */
+class SyncServiceTests {
+
+	private static final long USER_ID = 7;
+
+	private ISyncRepository syncRepository;
+	private SyncServiceImpl syncService;
+
+	@BeforeEach
+	void setUp() {
+		syncRepository = mock(ISyncRepository.class);
+		when(syncRepository.getLastChangeSeq(USER_ID)).thenReturn(40L);
+		when(syncRepository.getPrunedChangeSeq(USER_ID)).thenReturn(10L);
+		when(syncRepository.getTombstones(USER_ID, 20, 40))
+				.thenReturn(Collections.singletonList(new Tombstone(SyncEntityType.NOTE, 3)));
+		UserAuthenticator userAuthenticator = mock(UserAuthenticator.class);
+		when(userAuthenticator.authenticate(anyString())).thenReturn(new UserPrincipal(USER_ID, true));
+
+		syncService = new SyncServiceImpl();
+		ReflectionTestUtils.setField(syncService, "syncRepository", syncRepository);
+		ReflectionTestUtils.setField(syncService, "noteRepository", mock(INoteRepository.class));
+		ReflectionTestUtils.setField(syncService, "userAuthenticator", userAuthenticator);
+	}
+
+	@Test
+	void upToDateClientOnlyCostsTheLastChange() {
+		SyncChanges changes = syncService.getChanges("token", 40, 100);
+
+		assertEquals(40, changes.getCursor());
+		assertFalse(changes.isHasMore());
+		assertTrue(changes.getNotes().isEmpty());
+		verify(syncRepository, never()).getChangeSeqAt(anyLong(), anyLong(), anyInt());
+	}
+
+	@Test
+	void changesAfterTheCursorEndAtTheLastChange() {
+		SyncChanges changes = syncService.getChanges("token", 20, 100);
+
+		assertEquals(40, changes.getCursor());
+		assertFalse(changes.isHasMore());
+		assertFalse(changes.isReset());
+		assertEquals(3, changes.getDeleted().get(0).getId());
+	}
+
+	@Test
+	void fullResponseEndsAtItsLastChange() {
+		when(syncRepository.getChangeSeqAt(USER_ID, 20, 5)).thenReturn(32L);
+
+		SyncChanges changes = syncService.getChanges("token", 20, 5);
+
+		assertEquals(32, changes.getCursor());
+		assertTrue(changes.isHasMore());
+		verify(syncRepository).getChangedLabels(USER_ID, 20, 32);
+	}
+
+	@Test
+	void cursorBehindThePrunedTombstonesStartsOver() {
+		SyncChanges changes = syncService.getChanges("token", 5, 100);
+
+		assertTrue(changes.isReset());
+		assertEquals(40, changes.getCursor());
+		assertTrue(changes.getDeleted().isEmpty());
+		verify(syncRepository).getChangedNoteIds(USER_ID, 0, 40);
+	}
+
+}
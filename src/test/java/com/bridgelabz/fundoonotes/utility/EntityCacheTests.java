@@ -0,0 +1,291 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteBucket;
+import com.bridgelabz.fundoonotes.model.User;
+import com.bridgelabz.fundoonotes.repository.ICacheStore;
+import com.bridgelabz.fundoonotes.repository.implementation.InMemoryCacheStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Drives the {@link EntityCache} against the {@link InMemoryCacheStore} in
+ * place of redis, against a store which is down and against a store shared by
+ * two instances.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-26
+ * @version 1.0
+ */
+class EntityCacheTests {
+
+	private InMemoryCacheStore cacheStore;
+	private EntityCache entityCache;
+
+	@BeforeEach
+	void setUp() {
+		cacheStore = new InMemoryCacheStore();
+		ReflectionTestUtils.setField(cacheStore, "maxEntries", 1000);
+		entityCache = newEntityCache(cacheStore);
+	}
+
+	@Test
+	void listingIsLoadedOnceAndReadBackFromTheStore() {
+		AtomicInteger loads = new AtomicInteger();
+		List<Note> notes = Arrays.asList(note(2, "second"), note(1, "first"));
+
+		entityCache.getNotes(7, NoteBucket.NOTES, () -> {
+			loads.incrementAndGet();
+			return notes;
+		});
+		List<Note> cachedNotes = entityCache.getNotes(7, NoteBucket.NOTES, () -> {
+			loads.incrementAndGet();
+			return notes;
+		});
+
+		assertEquals(1, loads.get());
+		assertEquals(2, cachedNotes.size());
+		Note cachedNote = cachedNotes.get(0);
+		assertEquals(2, cachedNote.getNoteId());
+		assertEquals("second", cachedNote.getTitle());
+		assertEquals(Long.valueOf(7), cachedNote.getUserId());
+		assertTrue(cachedNote.isPinned());
+		assertEquals(LocalDateTime.of(2020, 4, 26, 10, 30, 15, 123000000), cachedNote.getCreatedDate());
+		assertNull(cachedNote.getUpdatedDate());
+		assertNull(cachedNote.getLabelsList());
+	}
+
+	@Test
+	void savedNoteIsWrittenThroughAndListingsOfTheOwnerEvicted() {
+		entityCache.getNotes(7, NoteBucket.NOTES, () -> Collections.singletonList(note(1, "first")));
+		Note changedNote = note(1, "changed");
+		changedNote.setVersion(3);
+
+		entityCache.putNote(changedNote, 7L);
+
+		List<Note> reloadedNotes = entityCache.getNotes(7, NoteBucket.NOTES,
+				() -> Collections.singletonList(changedNote));
+		List<Note> notesById = entityCache.getNotesById(Collections.singletonList(1L), noteIds -> {
+			throw new AssertionError("note should have been written through");
+		});
+		assertEquals("changed", reloadedNotes.get(0).getTitle());
+		assertEquals("changed", notesById.get(0).getTitle());
+		assertEquals(3, notesById.get(0).getVersion());
+	}
+
+	@Test
+	void onlyMissingNotesAreLoadedAndOrderIsKept() {
+		entityCache.getNotesById(Collections.singletonList(2L), noteIds -> Collections.singletonList(note(2, "b")));
+		AtomicInteger loadedNotes = new AtomicInteger();
+
+		List<Note> notes = entityCache.getNotesById(Arrays.asList(3L, 2L, 1L), noteIds -> {
+			loadedNotes.addAndGet(noteIds.size());
+			return Arrays.asList(note(1, "a"), note(3, "c"));
+		});
+
+		assertEquals(2, loadedNotes.get());
+		assertEquals(Arrays.asList("c", "b", "a"),
+				Arrays.asList(notes.get(0).getTitle(), notes.get(1).getTitle(), notes.get(2).getTitle()));
+	}
+
+	@Test
+	void evictedUserIsLoadedAgainWithoutPassword() {
+		User user = new User(5, "Durgasankar", "Mishra", "user@example.com", "secret", "9999999999", "Bhubaneswar");
+		entityCache.getUser(5, () -> user);
+		user.setVerified(true);
+
+		assertFalse(entityCache.getUser(5, () -> user).isVerified());
+		entityCache.evictUser(5);
+		User reloadedUser = entityCache.getUser(5, () -> user);
+
+		assertTrue(reloadedUser.isVerified());
+		assertEquals("user@example.com", reloadedUser.getEmailId());
+		assertNull(entityCache.getUser(5, () -> null).getPassword());
+	}
+
+	@Test
+	void notesVersionIsKeptUntilTheNotesOfTheUserOrTheLabelsChange() {
+		String version = entityCache.getNotesVersion(7).getTag();
+		assertEquals(version, entityCache.getNotesVersion(7).getTag());
+		entityCache.evictNotesOfUser(8);
+		assertEquals(version, entityCache.getNotesVersion(7).getTag());
+
+		entityCache.putNote(note(1, "changed"), 7L);
+		String changedVersion = entityCache.getNotesVersion(7).getTag();
+		entityCache.evictLabels();
+
+		assertNotEquals(version, changedVersion);
+		assertNotEquals(changedVersion, entityCache.getNotesVersion(7).getTag());
+	}
+
+	@Test
+	void unreachableStoreFallsBackToTheDatabaseAndIsBypassed() {
+		ICacheStore failingStore = mock(ICacheStore.class);
+		when(failingStore.getAll(anyList())).thenThrow(new RedisConnectionFailureException("refused"));
+		EntityCache degradedCache = newEntityCache(failingStore);
+		AtomicInteger loads = new AtomicInteger();
+
+		for (int request = 0; request < 3; request++) {
+			List<Note> notes = degradedCache.getNotes(7, NoteBucket.NOTES, () -> {
+				loads.incrementAndGet();
+				return Collections.singletonList(note(1, "first"));
+			});
+			assertEquals(1, notes.size());
+		}
+
+		assertEquals(3, loads.get());
+		// the store is asked once, then bypassed until the retry time passed
+		verify(failingStore).getAll(anyList());
+		verify(failingStore, never()).putAll(anyMap(), anyLong());
+	}
+
+	@Test
+	void evictionFailedWhileTheStoreWasDownIsAppliedBeforeTheNextRead() {
+		entityCache.getNotes(7, NoteBucket.NOTES, () -> Collections.singletonList(note(1, "first")));
+		ReflectionTestUtils.setField(entityCache, "unavailableUntil", Long.MAX_VALUE);
+		entityCache.evictNote(1, 7L);
+		ReflectionTestUtils.setField(entityCache, "unavailableUntil", 0L);
+
+		List<Note> notes = entityCache.getNotes(7, NoteBucket.NOTES, () -> Collections.singletonList(note(1, "new")));
+
+		assertEquals("new", notes.get(0).getTitle());
+	}
+
+	@Test
+	void localTierIsReadWithoutAskingTheStore() {
+		ICacheStore countingStore = mock(ICacheStore.class);
+		when(countingStore.getAll(anyList())).thenReturn(Collections.singletonList(null));
+		EntityCache twoTierCache = newEntityCache(countingStore);
+
+		for (int request = 0; request < 3; request++) {
+			twoTierCache.getNotes(7, NoteBucket.NOTES, () -> Collections.singletonList(note(1, "first")));
+		}
+
+		verify(countingStore, times(1)).getAll(anyList());
+		verify(countingStore, times(1)).putAll(anyMap(), anyLong());
+	}
+
+	@Test
+	void invalidationOfAnotherInstanceDropsTheLocalValue() {
+		ICacheStore sharedStore = mock(ICacheStore.class);
+		List<Consumer<byte[]>> listeners = new ArrayList<>();
+		doAnswer(invocation -> listeners.add(invocation.getArgument(0))).when(sharedStore).subscribe(any());
+		doAnswer(invocation -> {
+			listeners.forEach(listener -> listener.accept(invocation.getArgument(0)));
+			return null;
+		}).when(sharedStore).publish(any());
+		when(sharedStore.getAll(anyList())).thenReturn(Collections.singletonList(null));
+		EntityCache firstInstance = newEntityCache(sharedStore);
+		EntityCache secondInstance = newEntityCache(sharedStore);
+		secondInstance.getNotes(7, NoteBucket.NOTES, () -> Collections.singletonList(note(1, "first")));
+
+		firstInstance.evictNote(1, 7L);
+		List<Note> notes = secondInstance.getNotes(7, NoteBucket.NOTES,
+				() -> Collections.singletonList(note(1, "changed")));
+
+		assertEquals("changed", notes.get(0).getTitle());
+	}
+
+	@Test
+	void concurrentMissesOfAKeyLoadOnce() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<List<Note>> leader = executor.submit(() -> entityCache.getNotes(7, NoteBucket.NOTES, () -> {
+				loads.incrementAndGet();
+				loading.countDown();
+				await(release);
+				return Collections.singletonList(note(1, "first"));
+			}));
+			await(loading);
+			Future<List<Note>> follower = executor.submit(() -> entityCache.getNotes(7, NoteBucket.NOTES, () -> {
+				loads.incrementAndGet();
+				return Collections.singletonList(note(1, "second"));
+			}));
+			// the follower either joined the load or reads what it cached
+			Thread.sleep(100);
+			release.countDown();
+
+			assertEquals("first", leader.get(5, TimeUnit.SECONDS).get(0).getTitle());
+			assertEquals("first", follower.get(5, TimeUnit.SECONDS).get(0).getTitle());
+			assertEquals(1, loads.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertTrue(latch.await(5, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AssertionError(e);
+		}
+	}
+
+	private static EntityCache newEntityCache(ICacheStore cacheStore) {
+		EntityCache entityCache = new EntityCache();
+		ReflectionTestUtils.setField(entityCache, "cacheStore", cacheStore);
+		ReflectionTestUtils.setField(entityCache, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(entityCache, "noteTtlSeconds", 600L);
+		ReflectionTestUtils.setField(entityCache, "notesTtlSeconds", 300L);
+		ReflectionTestUtils.setField(entityCache, "userTtlSeconds", 900L);
+		ReflectionTestUtils.setField(entityCache, "labelsTtlSeconds", 600L);
+		ReflectionTestUtils.setField(entityCache, "versionTtlSeconds", 3600L);
+		ReflectionTestUtils.setField(entityCache, "retryAfterMillis", 60000L);
+		ReflectionTestUtils.setField(entityCache, "maxPendingEvictions", 100);
+		ReflectionTestUtils.setField(entityCache, "localMaxEntries", 100);
+		ReflectionTestUtils.setField(entityCache, "localTtlSeconds", 30L);
+		entityCache.initialize();
+		return entityCache;
+	}
+
+	private static Note note(long noteId, String title) {
+		Note note = new Note();
+		note.setNoteId(noteId);
+		note.setTitle(title);
+		note.setDescription("description of " + title);
+		note.setPinned(noteId % 2 == 0);
+		note.setColor("white");
+		note.setUserId(7L);
+		note.setCreatedDate(LocalDateTime.of(2020, 4, 26, 10, 30, 15, 123000000));
+		return note;
+	}
+
+}
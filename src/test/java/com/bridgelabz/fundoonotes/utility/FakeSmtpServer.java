@@ -0,0 +1,119 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plain text SMTP server on a free local port speaking just enough of the
+ * protocol for java mail, without TLS or authentication. It records the
+ * received messages and the number of connections, and can drop a connection
+ * after a given number of messages like a server limiting its connections.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-21
+ * @version 1.0
+ */
+public class FakeSmtpServer implements AutoCloseable {
+
+	private final ServerSocket serverSocket;
+	private final List<String> messages = new CopyOnWriteArrayList<>();
+	private final AtomicInteger connections = new AtomicInteger();
+	private volatile int messagesPerConnection = Integer.MAX_VALUE;
+
+	public FakeSmtpServer() throws IOException {
+		serverSocket = new ServerSocket(0);
+		Thread acceptor = new Thread(this::accept, "fake-smtp");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public List<String> getMessages() {
+		return messages;
+	}
+
+	public int getConnections() {
+		return connections.get();
+	}
+
+	/**
+	 * Makes the server close every connection once it has received the given
+	 * number of messages on it.
+	 * 
+	 * @param messagesPerConnection as Integer input parameter
+	 */
+	public void dropConnectionsAfter(int messagesPerConnection) {
+		this.messagesPerConnection = messagesPerConnection;
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.incrementAndGet();
+				Thread session = new Thread(() -> converse(socket), "fake-smtp-session");
+				session.setDaemon(true);
+				session.start();
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void converse(Socket socket) {
+		try (Socket client = socket;
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8))) {
+			OutputStream out = client.getOutputStream();
+			reply(out, "220 localhost fake ESMTP");
+			int received = 0;
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.toUpperCase();
+				if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+					reply(out, "250 localhost");
+				} else if (command.startsWith("DATA")) {
+					reply(out, "354 End data with <CR><LF>.<CR><LF>");
+					StringBuilder message = new StringBuilder();
+					while ((line = in.readLine()) != null && !line.equals(".")) {
+						message.append(line).append('\n');
+					}
+					messages.add(message.toString());
+					reply(out, "250 OK queued");
+					if (++received >= messagesPerConnection) {
+						return;
+					}
+				} else if (command.startsWith("QUIT")) {
+					reply(out, "221 Bye");
+					return;
+				} else {
+					reply(out, "250 OK");
+				}
+			}
+		} catch (IOException e) {
+			// the client went away
+		}
+	}
+
+	private static void reply(OutputStream out, String reply) throws IOException {
+		out.write((reply + "\r\n").getBytes(StandardCharsets.UTF_8));
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import com.bridgelabz.fundoonotes.response.MailObject;
+
+/**
+ * Round trips mails through both formats of the {@link MailMessageConverter}
+ * and checks the messages of older producers and unknown versions.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-23
+ * @version 1.0
+ */
+class MailMessageConverterTests {
+
+	private static final MailObject MAIL = new MailObject("user@example.com", "Verify your account",
+			"<a href='http://localhost:4200/verify/été'>verify</a> " + new String(new char[300]).replace('\0', 'x'));
+
+	@Test
+	void bothFormatsRoundTripAndAreSmallerThanJavaSerialization() {
+		int javaSerializedSize = new SimpleMessageConverter().toMessage(MAIL, new MessageProperties()).getBody().length;
+		for (String codec : Arrays.asList("json", "BINARY")) {
+			MailMessageConverter converter = new MailMessageConverter(codec);
+			Message message = converter.toMessage(MAIL, new MessageProperties());
+
+			MailObject mail = (MailObject) new MailMessageConverter("json").fromMessage(message);
+
+			assertEquals(MAIL.getEmail(), mail.getEmail());
+			assertEquals(MAIL.getSubject(), mail.getSubject());
+			assertEquals(MAIL.getMessage(), mail.getMessage());
+			assertTrue(message.getBody().length < javaSerializedSize);
+		}
+	}
+
+	@Test
+	void binaryFormatKeepsNulls() {
+		MailMessageConverter converter = new MailMessageConverter("binary");
+		Message message = converter.toMessage(new MailObject("user@example.com", null, ""), new MessageProperties());
+
+		MailObject mail = (MailObject) converter.fromMessage(message);
+
+		assertEquals("user@example.com", mail.getEmail());
+		assertNull(mail.getSubject());
+		assertEquals("", mail.getMessage());
+	}
+
+	@Test
+	void javaSerializedMailsOfOlderProducersAreRead() {
+		Message message = new SimpleMessageConverter().toMessage(MAIL, new MessageProperties());
+
+		MailObject mail = (MailObject) new MailMessageConverter("binary").fromMessage(message);
+
+		assertEquals(MAIL.getMessage(), mail.getMessage());
+	}
+
+	@Test
+	void unknownVersionsAndTruncatedBodiesAreRejected() {
+		MailMessageConverter converter = new MailMessageConverter("binary");
+		Message message = converter.toMessage(MAIL, new MessageProperties());
+		MessageProperties nextVersion = new MessageProperties();
+		nextVersion.setContentType(MailMessageConverter.BINARY_CONTENT_TYPE);
+		nextVersion.setHeader(MailMessageConverter.SCHEMA_VERSION_HEADER, MailMessageConverter.SCHEMA_VERSION + 1);
+		MessageProperties truncated = message.getMessageProperties();
+
+		assertThrows(MessageConversionException.class,
+				() -> converter.fromMessage(new Message(message.getBody(), nextVersion)));
+		assertThrows(MessageConversionException.class,
+				() -> converter.fromMessage(new Message(Arrays.copyOf(message.getBody(), 40), truncated)));
+	}
+
+}
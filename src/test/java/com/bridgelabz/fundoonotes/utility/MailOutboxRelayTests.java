@@ -0,0 +1,111 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bridgelabz.fundoonotes.model.MailOutboxMessage;
+import com.bridgelabz.fundoonotes.repository.IMailOutboxRepository;
+import com.bridgelabz.fundoonotes.response.MailObject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Drives the {@link MailOutboxRelay} with a mocked outbox and sender, checking
+ * what is removed from the outbox for the confirms of the broker.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-24
+ * @version 1.0
+ */
+class MailOutboxRelayTests {
+
+	private IMailOutboxRepository mailOutboxRepository;
+	private RabbitMQSender rabbitMQSender;
+	private MailOutboxRelay relay;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		mailOutboxRepository = mock(IMailOutboxRepository.class);
+		rabbitMQSender = mock(RabbitMQSender.class);
+		TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+		when(transactionTemplate.execute(any())).thenAnswer(
+				invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+		relay = new MailOutboxRelay();
+		ReflectionTestUtils.setField(relay, "mailOutboxRepository", mailOutboxRepository);
+		ReflectionTestUtils.setField(relay, "rabbitMQSender", rabbitMQSender);
+		ReflectionTestUtils.setField(relay, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(relay, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(relay, "batchSize", 3);
+		ReflectionTestUtils.setField(relay, "maxBatchesPerRun", 10);
+		ReflectionTestUtils.setField(relay, "confirmTimeoutMillis", 100L);
+		ReflectionTestUtils.setField(relay, "delayMillis", 60000L);
+		ReflectionTestUtils.setField(relay, "maxBackoffMillis", 600000L);
+		relay.registerMetrics();
+	}
+
+	@Test
+	void publishesBatchesInOrderUntilTheOutboxIsDrained() {
+		when(mailOutboxRepository.claimPendingMessages(anyInt())).thenReturn(messages(1, 2, 3), messages(4));
+		List<List<String>> publishedKeys = new ArrayList<>();
+		when(rabbitMQSender.sendAll(anyMap())).thenAnswer(invocation -> {
+			Map<String, MailObject> mails = invocation.getArgument(0);
+			publishedKeys.add(new ArrayList<>(mails.keySet()));
+			return Collections.nCopies(mails.size(), CompletableFuture.completedFuture(true));
+		});
+
+		relay.relayOutbox();
+
+		assertEquals(Arrays.asList(Arrays.asList("key-1", "key-2", "key-3"), Collections.singletonList("key-4")),
+				publishedKeys);
+		verify(mailOutboxRepository).deleteMessages(Arrays.asList(1L, 2L, 3L));
+		verify(mailOutboxRepository).deleteMessages(Collections.singletonList(4L));
+		assertEquals(4, relay.getPublishedCount());
+	}
+
+	@Test
+	void unconfirmedMailsStayInTheOutboxAndTheRelayBacksOff() {
+		when(mailOutboxRepository.claimPendingMessages(anyInt())).thenReturn(messages(1, 2, 3));
+		when(rabbitMQSender.sendAll(anyMap())).thenReturn(Arrays.asList(CompletableFuture.completedFuture(true),
+				CompletableFuture.completedFuture(false), new CompletableFuture<>()));
+
+		relay.relayOutbox();
+		relay.relayOutbox();
+
+		verify(mailOutboxRepository).deleteMessages(Collections.singletonList(1L));
+		verify(mailOutboxRepository, times(1)).claimPendingMessages(anyInt());
+		assertEquals(1, relay.getPublishedCount());
+	}
+
+	private static List<MailOutboxMessage> messages(long... messageIds) {
+		List<MailOutboxMessage> messages = new ArrayList<>();
+		for (long messageId : messageIds) {
+			MailOutboxMessage message = new MailOutboxMessage(
+					new MailObject("user" + messageId + "@example.com", "subject", "body"));
+			message.setMessageId(messageId);
+			message.setDedupKey("key-" + messageId);
+			messages.add(message);
+		}
+		return messages;
+	}
+
+}
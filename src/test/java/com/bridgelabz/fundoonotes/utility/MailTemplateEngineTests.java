@@ -0,0 +1,67 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bridgelabz.fundoonotes.response.MailObject;
+
+/**
+ * Renders the mail templates of src/main/resources/mail-templates with the
+ * {@link MailTemplateEngine}.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-25
+ * @version 1.0
+ */
+class MailTemplateEngineTests {
+
+	private MailTemplateEngine engine;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		engine = new MailTemplateEngine();
+		ReflectionTestUtils.setField(engine, "appUrl", "http://fundoo.example.com");
+		engine.initialize();
+	}
+
+	@Test
+	void rendersTheVerificationLinkWithTheToken() {
+		MailObject mail = engine.render(MailTemplate.VERIFICATION, "user@example.com",
+				Collections.singletonMap("token", "abc.def.ghi"));
+
+		assertEquals("user@example.com", mail.getEmail());
+		assertEquals(Util.REGISTRATION_EMAIL_SUBJECT, mail.getSubject());
+		assertEquals("http://fundoo.example.com/verification/abc.def.ghi", mail.getMessage());
+	}
+
+	@Test
+	void rendersEveryValueOfThePasswordUpdatedMail() {
+		Map<String, Object> values = new HashMap<>();
+		values.put("firstName", "Durgasankar");
+		values.put("lastName", "Mishra");
+		values.put("updatedAt", LocalDateTime.of(2020, 4, 25, 10, 30));
+
+		MailObject mail = engine.render(MailTemplate.PASSWORD_UPDATED, "user@example.com", values);
+
+		assertEquals("Password updated sucessfully...", mail.getSubject());
+		assertEquals("Hallo Mr/s. Durgasankar Mishra,\n\npassword updated sucessfully at : 2020-04-25T10:30"
+				+ "\n😱. Click ☟\n\nhttp://fundoo.example.com/login", mail.getMessage());
+	}
+
+	@Test
+	void missingValueIsRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> engine.render(MailTemplate.PASSWORD_RESET, "user@example.com", Collections.emptyMap()));
+	}
+
+}
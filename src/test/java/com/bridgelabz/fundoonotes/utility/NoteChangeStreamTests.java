@@ -0,0 +1,118 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Drives a {@link NoteChangeStream} of two waiting events whose writes run
+ * only when the test runs the sender.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-07
+ * @version 1.0
+ */
+class NoteChangeStreamTests {
+
+	private RecordingEmitter emitter;
+	private List<Runnable> senderTasks;
+	private NoteChangeStream stream;
+
+	@BeforeEach
+	void setUp() {
+		emitter = new RecordingEmitter();
+		senderTasks = new ArrayList<>();
+		stream = new NoteChangeStream(7, emitter, 2, senderTasks::add);
+	}
+
+	@Test
+	void eventsAreWrittenInOrderByOneSenderTask() {
+		stream.offer(NoteChangeStreams.NOTE_EVENT, "{\"noteId\":1}");
+		stream.offer(NoteChangeStreams.NOTE_EVENT, "{\"noteId\":2}");
+
+		assertEquals(1, senderTasks.size());
+		runSender();
+		assertEquals(2, emitter.events.size());
+		assertTrue(emitter.events.get(0).contains("{\"noteId\":1}"));
+		assertTrue(emitter.events.get(1).contains("{\"noteId\":2}"));
+	}
+
+	@Test
+	void clientFallingBehindGetsOneResyncInstead() {
+		stream.offer(NoteChangeStreams.NOTE_EVENT, "{\"noteId\":1}");
+		stream.offer(NoteChangeStreams.NOTE_EVENT, "{\"noteId\":2}");
+		stream.offer(NoteChangeStreams.NOTE_EVENT, "{\"noteId\":3}");
+
+		runSender();
+		assertEquals(1, emitter.events.size());
+		assertTrue(emitter.events.get(0).contains("event:" + NoteChangeStream.RESYNC_EVENT));
+		assertEquals(1, stream.getResyncCount());
+	}
+
+	@Test
+	void onlyIdleStreamGetsHeartbeat() {
+		long now = System.currentTimeMillis();
+		assertTrue(stream.heartbeat(now, 15000));
+		assertTrue(senderTasks.isEmpty());
+
+		assertTrue(stream.heartbeat(now + 15000, 15000));
+		runSender();
+		assertEquals(1, emitter.events.size());
+		assertTrue(emitter.events.get(0).startsWith(":"));
+	}
+
+	@Test
+	void failedWriteClosesStream() {
+		emitter.failing = true;
+		stream.offer(NoteChangeStreams.NOTE_EVENT, "{\"noteId\":1}");
+
+		runSender();
+		assertTrue(stream.isClosed());
+		assertTrue(emitter.completed);
+		assertFalse(stream.offer(NoteChangeStreams.NOTE_EVENT, "{\"noteId\":2}"));
+	}
+
+	private void runSender() {
+		while (!senderTasks.isEmpty()) {
+			senderTasks.remove(0).run();
+		}
+	}
+
+	/**
+	 * Emitter keeping the text of every written event.
+	 */
+	private static class RecordingEmitter extends SseEmitter {
+
+		private final List<String> events = new ArrayList<>();
+		private boolean failing;
+		private boolean completed;
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if (failing) {
+				throw new IOException("Broken pipe");
+			}
+			StringBuilder event = new StringBuilder();
+			for (DataWithMediaType data : builder.build()) {
+				event.append(data.getData());
+			}
+			events.add(event.toString());
+		}
+
+		@Override
+		public synchronized void complete() {
+			completed = true;
+		}
+
+	}
+
+}
@@ -0,0 +1,163 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bridgelabz.fundoonotes.model.Note;
+import com.bridgelabz.fundoonotes.model.NoteIndexEvent;
+import com.bridgelabz.fundoonotes.repository.INoteIndexOutboxRepository;
+import com.bridgelabz.fundoonotes.repository.INoteRepository;
+import com.bridgelabz.fundoonotes.repository.INoteSearchEngine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Drives the {@link NoteSearchIndexer} against an in memory stub of the search
+ * backend, so neither elastic search nor the database is needed.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-18
+ * @version 1.0
+ */
+class NoteSearchIndexerTests {
+
+	private INoteIndexOutboxRepository outboxRepository;
+	private INoteRepository noteRepository;
+	private StubSearchBackend searchBackend;
+	private NoteSearchIndexer indexer;
+
+	@BeforeEach
+	void setUp() {
+		outboxRepository = mock(INoteIndexOutboxRepository.class);
+		noteRepository = mock(INoteRepository.class);
+		searchBackend = new StubSearchBackend();
+		indexer = new NoteSearchIndexer();
+		ReflectionTestUtils.setField(indexer, "outboxRepository", outboxRepository);
+		ReflectionTestUtils.setField(indexer, "noteRepository", noteRepository);
+		ReflectionTestUtils.setField(indexer, "noteSearchEngine", searchBackend);
+		ReflectionTestUtils.setField(indexer, "transactionTemplate",
+				new TransactionTemplate(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(indexer, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(indexer, "batchSize", 500);
+		ReflectionTestUtils.setField(indexer, "maxBatchesPerRun", 20);
+		ReflectionTestUtils.setField(indexer, "maxAttempts", 3);
+		ReflectionTestUtils.setField(indexer, "delayMillis", 60000L);
+		ReflectionTestUtils.setField(indexer, "maxBackoffMillis", 600000L);
+		indexer.registerMetrics();
+	}
+
+	@Test
+	void coalescesEventsIntoOneBulkRequest() {
+		when(outboxRepository.claimPendingEvents(anyInt())).thenReturn(Arrays.asList(event(1, 1, "UPSERT", 0),
+				event(2, 1, "UPSERT", 0), event(3, 2, "DELETE", 0), event(4, 3, "UPSERT", 0)));
+		when(noteRepository.getNotesById(Arrays.asList(1L, 3L))).thenReturn(Collections.singletonList(note(1)));
+
+		indexer.drainOutbox();
+
+		assertEquals(1, searchBackend.bulkRequests);
+		assertEquals(Collections.singletonList(1L), searchBackend.indexedNoteIds);
+		// note 3 is gone from the database so it is removed from the index
+		assertEquals(Arrays.asList(2L, 3L), searchBackend.deletedNoteIds);
+		verify(outboxRepository).deleteEvents(Arrays.asList(1L, 2L, 3L, 4L));
+		assertEquals(4, indexer.getIndexedCount());
+	}
+
+	@Test
+	void rejectedNotesAreRetriedUntilOutOfAttempts() {
+		when(outboxRepository.claimPendingEvents(anyInt()))
+				.thenReturn(Arrays.asList(event(1, 1, "UPSERT", 0), event(2, 2, "UPSERT", 2)));
+		when(noteRepository.getNotesById(anyList())).thenReturn(Arrays.asList(note(1), note(2)));
+		searchBackend.rejectedNoteIds.addAll(Arrays.asList(1L, 2L));
+
+		indexer.drainOutbox();
+
+		verify(outboxRepository).incrementAttempts(Collections.singletonList(1L));
+		verify(outboxRepository).deleteEvents(Collections.singletonList(2L));
+		assertEquals(1, indexer.getDroppedCount());
+		// a batch with retried events ends the run
+		assertEquals(1, searchBackend.bulkRequests);
+	}
+
+	@Test
+	void failedBulkRequestBacksOff() {
+		when(outboxRepository.claimPendingEvents(anyInt()))
+				.thenReturn(Collections.singletonList(event(1, 1, "UPSERT", 0)));
+		when(noteRepository.getNotesById(anyList())).thenReturn(Collections.singletonList(note(1)));
+		searchBackend.unavailable = true;
+
+		indexer.drainOutbox();
+		indexer.drainOutbox();
+
+		verify(outboxRepository, times(1)).claimPendingEvents(anyInt());
+		verify(outboxRepository, times(0)).incrementAttempts(anyList());
+		verify(outboxRepository, times(0)).deleteEvents(anyList());
+	}
+
+	private static NoteIndexEvent event(long eventId, long noteId, String operation, int attempts) {
+		NoteIndexEvent event = new NoteIndexEvent(noteId, operation);
+		event.setEventId(eventId);
+		event.setAttempts(attempts);
+		return event;
+	}
+
+	private static Note note(long noteId) {
+		Note note = new Note();
+		note.setNoteId(noteId);
+		return note;
+	}
+
+	/**
+	 * Search backend recording the bulk requests, it can reject given notes or
+	 * fail the whole request.
+	 */
+	private static class StubSearchBackend implements INoteSearchEngine {
+
+		private int bulkRequests;
+		private boolean unavailable;
+		private final List<Long> indexedNoteIds = new ArrayList<>();
+		private final List<Long> deletedNoteIds = new ArrayList<>();
+		private final List<Long> rejectedNoteIds = new ArrayList<>();
+
+		@Override
+		public List<Long> bulkIndex(List<Note> notes, List<Long> noteIds) throws IOException {
+			if (unavailable) {
+				throw new IOException("search backend unavailable");
+			}
+			bulkRequests++;
+			List<Long> failedNoteIds = new ArrayList<>();
+			for (Note note : notes) {
+				if (rejectedNoteIds.contains(note.getNoteId())) {
+					failedNoteIds.add(note.getNoteId());
+				} else {
+					indexedNoteIds.add(note.getNoteId());
+				}
+			}
+			deletedNoteIds.addAll(noteIds);
+			return failedNoteIds;
+		}
+
+		@Override
+		public List<Long> search(long userId, String query, int limit) {
+			return Collections.emptyList();
+		}
+
+	}
+
+}
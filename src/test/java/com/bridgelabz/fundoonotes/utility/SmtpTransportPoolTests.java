@@ -0,0 +1,134 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Sends mails through the {@link SmtpTransportPool} to a {@link FakeSmtpServer}
+ * and checks how many connections it took.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-04-21
+ * @version 1.0
+ */
+class SmtpTransportPoolTests {
+
+	private static final int POOL_SIZE = 2;
+
+	private FakeSmtpServer smtpServer;
+	private SmtpTransportPool smtpTransportPool;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		smtpServer = new FakeSmtpServer();
+		MailProperties mailProperties = new MailProperties();
+		mailProperties.setHost("localhost");
+		mailProperties.setPort(smtpServer.getPort());
+		smtpTransportPool = new SmtpTransportPool();
+		ReflectionTestUtils.setField(smtpTransportPool, "mailProperties", mailProperties);
+		ReflectionTestUtils.setField(smtpTransportPool, "poolSize", POOL_SIZE);
+		ReflectionTestUtils.setField(smtpTransportPool, "maxMessagesPerConnection", 100);
+		ReflectionTestUtils.setField(smtpTransportPool, "maxIdleMillis", 30000L);
+		ReflectionTestUtils.setField(smtpTransportPool, "borrowTimeoutMillis", 5000L);
+		smtpTransportPool.initialize();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		smtpTransportPool.close();
+		smtpServer.close();
+	}
+
+	@Test
+	void sendsManyMessagesOverOneConnection() throws MessagingException {
+		for (int mail = 0; mail < 20; mail++) {
+			smtpTransportPool.send(message(mail));
+		}
+
+		assertEquals(20, smtpServer.getMessages().size());
+		assertEquals(1, smtpServer.getConnections());
+		assertTrue(smtpServer.getMessages().get(19).contains("Subject: mail 19"));
+	}
+
+	@Test
+	void replacesConnectionsDroppedByTheServer() throws MessagingException {
+		smtpServer.dropConnectionsAfter(3);
+
+		for (int mail = 0; mail < 10; mail++) {
+			smtpTransportPool.send(message(mail));
+		}
+
+		assertEquals(10, smtpServer.getMessages().size());
+		assertEquals(4, smtpServer.getConnections());
+	}
+
+	@Test
+	void sendsABatchOverOneConnectionDespiteFailures() throws MessagingException {
+		smtpServer.dropConnectionsAfter(2);
+		List<MimeMessage> batch = new ArrayList<>();
+		for (int mail = 0; mail < 5; mail++) {
+			batch.add(message(mail));
+		}
+		// no recipient, rejected before reaching the server
+		batch.add(2, new MimeMessage(smtpTransportPool.getSession()));
+
+		List<MessagingException> failures = smtpTransportPool.sendAll(batch);
+
+		assertEquals(6, failures.size());
+		assertTrue(failures.get(2) != null);
+		assertEquals(5, failures.stream().filter(failure -> failure == null).count());
+		assertEquals(5, smtpServer.getMessages().size());
+		assertEquals(3, smtpServer.getConnections());
+	}
+
+	@Test
+	void concurrentSendersShareTheBoundedPool() throws Exception {
+		ExecutorService senders = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> sends = new ArrayList<>();
+			for (int mail = 0; mail < 40; mail++) {
+				MimeMessage message = message(mail);
+				sends.add(senders.submit(() -> {
+					smtpTransportPool.send(message);
+					return null;
+				}));
+			}
+			for (Future<?> send : sends) {
+				send.get();
+			}
+		} finally {
+			senders.shutdown();
+		}
+
+		assertEquals(40, smtpServer.getMessages().size());
+		assertTrue(smtpServer.getConnections() <= POOL_SIZE);
+	}
+
+	private MimeMessage message(int mail) throws MessagingException {
+		MimeMessage message = new MimeMessage(smtpTransportPool.getSession());
+		message.setFrom(new InternetAddress("fundoo@localhost"));
+		message.setRecipients(Message.RecipientType.TO, InternetAddress.parse("user" + mail + "@localhost"));
+		message.setSubject("mail " + mail);
+		message.setText("body of mail " + mail, "UTF-8");
+		return message;
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.bridgelabz.fundoonotes.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Turns a {@link TimingWheel} of ten slots of one second, starting at 100
+ * seconds.
+ * 
+ * @author Durgasankar Mishra
+ * @created 2020-05-05
+ * @version 1.0
+ */
+class TimingWheelTests {
+
+	private TimingWheel timingWheel;
+
+	@BeforeEach
+	void setUp() {
+		timingWheel = new TimingWheel(1000, 10, 100_000);
+	}
+
+	@Test
+	void noteIsDueOnceItsTimeHasPassed() {
+		timingWheel.schedule(1, 102_500);
+
+		assertTrue(timingWheel.advance(102_999).isEmpty());
+		assertEquals(Collections.singletonList(1L), timingWheel.advance(103_000));
+		assertEquals(0, timingWheel.size());
+	}
+
+	@Test
+	void cancelledAndRescheduledNotesAreDueOnlyAtTheirNewTime() {
+		timingWheel.schedule(1, 101_000);
+		timingWheel.schedule(2, 101_000);
+		timingWheel.schedule(2, 105_000);
+		timingWheel.cancel(1);
+
+		assertTrue(timingWheel.advance(104_000).isEmpty());
+		assertEquals(Collections.singletonList(2L), timingWheel.advance(105_000));
+	}
+
+	@Test
+	void noteBeyondOneTurnIsRejectedAndPastNoteIsDueOnTheNextTick() {
+		assertFalse(timingWheel.schedule(1, 110_001));
+		assertTrue(timingWheel.schedule(2, 90_000));
+		assertTrue(timingWheel.schedule(3, 110_000));
+
+		assertEquals(Collections.singletonList(2L), timingWheel.advance(101_000));
+	}
+
+	@Test
+	void everyNoteIsDueAfterAPauseLongerThanOneTurn() {
+		timingWheel.schedule(1, 101_000);
+		timingWheel.schedule(2, 109_000);
+
+		assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), new HashSet<>(timingWheel.advance(150_000)));
+		assertEquals(160_000, timingWheel.getHorizonMillis());
+	}
+
+}